@@ -0,0 +1,19 @@
+#!/bin/sh
+# Gera uma imagem do worker restaurada a partir de um checkpoint CRaC tirado após o refresh
+# do contexto e o warm-up nativo. Requer Docker com permissão para containers privilegiados.
+set -e
+
+IMAGE=${1:-hackathon-processador-video:crac}
+CONTAINER=processador-crac-checkpoint
+
+docker build -f Dockerfile.fast-start --target crac -t "$IMAGE-checkpoint" .
+docker rm -f "$CONTAINER" >/dev/null 2>&1 || true
+
+# A JVM encerra sozinha ao gravar o checkpoint em /crac (código de saída 137).
+docker run --privileged --name "$CONTAINER" "$IMAGE-checkpoint" || true
+
+docker commit \
+    --change 'ENTRYPOINT ["java", "-XX:CRaCRestoreFrom=/crac"]' \
+    "$CONTAINER" "$IMAGE"
+docker rm "$CONTAINER" >/dev/null
+echo "Imagem com checkpoint CRaC: $IMAGE"
@@ -5,6 +5,7 @@ awslocal sqs create-queue --queue-name videos-persistidos
 awslocal sqs set-queue-attributes \
     --queue-url http://sqs.us-east-1.localhost.localstack.cloud:4566/000000000000/videos-persistidos \
     --attributes '{
+    "VisibilityTimeout": "30",
     "RedrivePolicy": "{\"deadLetterTargetArn\":\"arn:aws:sqs:us-east-1:000000000000:videos-persistidos-dlq\",\"maxReceiveCount\":\"3\"}"
 }'
 awslocal dynamodb create-table \
@@ -12,3 +13,17 @@ awslocal dynamodb create-table \
     --key-schema AttributeName=idUsuario,KeyType=HASH AttributeName=nomeVideo,KeyType=RANGE \
     --attribute-definitions AttributeName=idUsuario,AttributeType=S AttributeName=nomeVideo,AttributeType=S\
     --billing-mode PAY_PER_REQUEST
+awslocal dynamodb create-table \
+    --table-name processador-segmentos \
+    --key-schema AttributeName=jobId,KeyType=HASH \
+    --attribute-definitions AttributeName=jobId,AttributeType=S \
+    --billing-mode PAY_PER_REQUEST
+awslocal dynamodb update-time-to-live \
+    --table-name processador-segmentos \
+    --time-to-live-specification Enabled=true,AttributeName=expiraEm
+awslocal s3api put-bucket-lifecycle-configuration \
+    --bucket videos \
+    --lifecycle-configuration '{
+    "Rules": [{"ID": "uploads-abandonados", "Status": "Enabled", "Filter": {"Prefix": ""},
+               "AbortIncompleteMultipartUpload": {"DaysAfterInitiation": 2}}]
+}'
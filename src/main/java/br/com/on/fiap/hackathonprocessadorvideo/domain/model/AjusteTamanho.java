@@ -0,0 +1,29 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+/**
+ * Parâmetros escolhidos para caber em {@link OpcoesProcessamento#tamanhoAlvoKb()} e o tamanho que o arquivo teve.
+ *
+ * @param alvoBytes orçamento pedido
+ * @param tamanhoBytes tamanho final do arquivo publicado ({@code null} até ele ser escrito)
+ * @param formato formato das imagens (o modo usa um formato com perdas)
+ * @param qualidadeInicial qualidade (1–100) escolhida pela calibração
+ * @param qualidadeMinima menor qualidade a que os ajustes durante a extração chegaram
+ * @param qualidadeFinal qualidade em uso no fim da extração
+ * @param intervalo maior espaçamento usado: nos trechos mais apertados, um a cada N frames da amostragem do job
+ * @param frames frames que entraram no arquivo
+ */
+public record AjusteTamanho(
+        long alvoBytes,
+        Long tamanhoBytes,
+        String formato,
+        int qualidadeInicial,
+        int qualidadeMinima,
+        int qualidadeFinal,
+        int intervalo,
+        int frames) {
+
+    public AjusteTamanho comTamanho(long bytes) {
+        return new AjusteTamanho(
+                alvoBytes, bytes, formato, qualidadeInicial, qualidadeMinima, qualidadeFinal, intervalo, frames);
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** Resultado de um clipe de um lote: a saída e quantos frames, ou o erro que o tirou do lote. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ClipeProcessado(String caminhoVideo, String caminhoSaida, Integer frames, String erro) {
+
+    public static ClipeProcessado ok(String caminhoVideo, String caminhoSaida, int frames) {
+        return new ClipeProcessado(caminhoVideo, caminhoSaida, frames, null);
+    }
+
+    public static ClipeProcessado falha(String caminhoVideo, String erro) {
+        return new ClipeProcessado(caminhoVideo, null, null, erro);
+    }
+
+    public boolean sucesso() {
+        return erro == null;
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+/** Preview animado em baixa resolução, gerado na mesma decodificação dos frames. */
+public enum FormatoPreview {
+    /** WebP animado, em loop; abre direto numa {@code <img>}. */
+    WEBP,
+    /** MP4 H.264 sem áudio, para {@code <video muted loop>}. */
+    MP4
+}
@@ -0,0 +1,34 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+import java.util.List;
+
+/**
+ * Vários clipes curtos numa só mensagem: baixados em paralelo, decodificados em sequência com o mesmo encoder e
+ * notificados uma vez só. As {@link VideoMensagem#getOpcoes() opções} da mensagem valem para todos.
+ */
+public record LoteVideos(List<String> clipes, SaidaLote saida) {
+
+    /** Um zip único (padrão) ou um arquivo por clipe. */
+    public enum SaidaLote {
+        /** Um zip com uma pasta por clipe e o índice {@code lote.json}. */
+        COMBINADA,
+        /** O arquivo de sempre para cada clipe, ao lado dele, mais o índice {@code .lote.json}. */
+        POR_CLIPE
+    }
+
+    public SaidaLote saidaOuPadrao() {
+        return saida == null ? SaidaLote.COMBINADA : saida;
+    }
+
+    public void validar(int maxClipes) {
+        if (clipes == null || clipes.isEmpty()) {
+            throw new IllegalArgumentException("lote sem clipes");
+        }
+        if (clipes.size() > maxClipes) {
+            throw new IllegalArgumentException("lote com " + clipes.size() + " clipes; o máximo é " + maxClipes);
+        }
+        if (clipes.stream().anyMatch(c -> c == null || c.isBlank())) {
+            throw new IllegalArgumentException("lote com caminho de clipe vazio");
+        }
+    }
+}
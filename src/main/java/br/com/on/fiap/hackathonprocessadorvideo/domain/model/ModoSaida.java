@@ -0,0 +1,9 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+/** O que um job produz a partir dos frames selecionados. */
+public enum ModoSaida {
+    /** Zip com uma imagem por frame (padrão). */
+    FRAMES,
+    /** Folhas de miniaturas em grade com índice WebVTT/JSON para players e previews. */
+    SPRITES
+}
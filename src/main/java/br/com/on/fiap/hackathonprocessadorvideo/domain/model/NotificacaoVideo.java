@@ -1,4 +1,85 @@
 package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record NotificacaoVideo(
-        String idUsuario, String nomeVideo, String caminhoSaida, String situacao, String descricao, String email) {}
+        String idUsuario,
+        String nomeVideo,
+        String caminhoSaida,
+        String situacao,
+        String descricao,
+        String email,
+        ProgressoVideo progresso,
+        List<ClipeProcessado> clipes,
+        String caminhoPreview,
+        List<RendicaoGerada> rendicoes,
+        AjusteTamanho ajusteTamanho) {
+
+    public NotificacaoVideo(
+            String idUsuario,
+            String nomeVideo,
+            String caminhoSaida,
+            String situacao,
+            String descricao,
+            String email,
+            ProgressoVideo progresso,
+            List<ClipeProcessado> clipes,
+            String caminhoPreview,
+            List<RendicaoGerada> rendicoes) {
+        this(
+                idUsuario,
+                nomeVideo,
+                caminhoSaida,
+                situacao,
+                descricao,
+                email,
+                progresso,
+                clipes,
+                caminhoPreview,
+                rendicoes,
+                null);
+    }
+
+    public NotificacaoVideo(
+            String idUsuario,
+            String nomeVideo,
+            String caminhoSaida,
+            String situacao,
+            String descricao,
+            String email,
+            ProgressoVideo progresso,
+            List<ClipeProcessado> clipes,
+            String caminhoPreview) {
+        this(idUsuario, nomeVideo, caminhoSaida, situacao, descricao, email, progresso, clipes, caminhoPreview, null);
+    }
+
+    public NotificacaoVideo(
+            String idUsuario,
+            String nomeVideo,
+            String caminhoSaida,
+            String situacao,
+            String descricao,
+            String email,
+            ProgressoVideo progresso,
+            List<ClipeProcessado> clipes) {
+        this(idUsuario, nomeVideo, caminhoSaida, situacao, descricao, email, progresso, clipes, null);
+    }
+
+    public NotificacaoVideo(
+            String idUsuario,
+            String nomeVideo,
+            String caminhoSaida,
+            String situacao,
+            String descricao,
+            String email,
+            ProgressoVideo progresso) {
+        this(idUsuario, nomeVideo, caminhoSaida, situacao, descricao, email, progresso, null);
+    }
+
+    public NotificacaoVideo(
+            String idUsuario, String nomeVideo, String caminhoSaida, String situacao, String descricao, String email) {
+        this(idUsuario, nomeVideo, caminhoSaida, situacao, descricao, email, null, null);
+    }
+}
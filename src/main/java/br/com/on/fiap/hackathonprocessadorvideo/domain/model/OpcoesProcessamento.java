@@ -0,0 +1,137 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Recorte e amostragem de um job. Todos os campos são opcionais; sem opções o vídeo inteiro
+ * é extraído, frame a frame.
+ *
+ * @param inicioMs posição inicial (ms); a extração começa com um seek até ela
+ * @param fimMs posição final (ms, exclusiva)
+ * @param fpsSaida taxa de frames desejada na saída; exclusivo com {@code intervaloFrames}
+ * @param intervaloFrames emite um a cada N frames de origem; exclusivo com {@code fpsSaida}
+ * @param maxFrames limite de frames emitidos
+ * @param saida formato da saída; {@link ModoSaida#FRAMES} quando ausente
+ * @param preview gera também um preview animado nesse formato, publicado ao lado da saída
+ * @param rendicoes várias saídas de frames de um só decode, cada uma com resolução, formato e amostragem próprios; a
+ *     amostragem do job é ignorada
+ * @param tamanhoAlvoKb teto para o arquivo de frames; a qualidade das imagens e a amostragem são ajustadas para
+ *     cabê-lo, e o que foi escolhido vai na notificação
+ */
+public record OpcoesProcessamento(
+        Long inicioMs,
+        Long fimMs,
+        Double fpsSaida,
+        Integer intervaloFrames,
+        Integer maxFrames,
+        ModoSaida saida,
+        FormatoPreview preview,
+        List<Rendicao> rendicoes,
+        Long tamanhoAlvoKb) {
+
+    private static final OpcoesProcessamento PADRAO = new OpcoesProcessamento(null, null, null, null, null);
+
+    public OpcoesProcessamento(Long inicioMs, Long fimMs, Double fpsSaida, Integer intervaloFrames, Integer maxFrames) {
+        this(inicioMs, fimMs, fpsSaida, intervaloFrames, maxFrames, null);
+    }
+
+    public OpcoesProcessamento(
+            Long inicioMs, Long fimMs, Double fpsSaida, Integer intervaloFrames, Integer maxFrames, ModoSaida saida) {
+        this(inicioMs, fimMs, fpsSaida, intervaloFrames, maxFrames, saida, null);
+    }
+
+    public OpcoesProcessamento(
+            Long inicioMs,
+            Long fimMs,
+            Double fpsSaida,
+            Integer intervaloFrames,
+            Integer maxFrames,
+            ModoSaida saida,
+            FormatoPreview preview) {
+        this(inicioMs, fimMs, fpsSaida, intervaloFrames, maxFrames, saida, preview, null);
+    }
+
+    public OpcoesProcessamento(
+            Long inicioMs,
+            Long fimMs,
+            Double fpsSaida,
+            Integer intervaloFrames,
+            Integer maxFrames,
+            ModoSaida saida,
+            FormatoPreview preview,
+            List<Rendicao> rendicoes) {
+        this(inicioMs, fimMs, fpsSaida, intervaloFrames, maxFrames, saida, preview, rendicoes, null);
+    }
+
+    public static OpcoesProcessamento padrao() {
+        return PADRAO;
+    }
+
+    public static OpcoesProcessamento ouPadrao(OpcoesProcessamento opcoes) {
+        return opcoes != null ? opcoes : PADRAO;
+    }
+
+    public ModoSaida saidaOuPadrao() {
+        return saida != null ? saida : ModoSaida.FRAMES;
+    }
+
+    public boolean temRendicoes() {
+        return rendicoes != null && !rendicoes.isEmpty();
+    }
+
+    /** Mesma janela e opções, mantendo só um a cada {@code fator} frames da amostragem pedida. */
+    public OpcoesProcessamento espacada(int fator) {
+        if (fator <= 1) return this;
+        Double fps = fpsSaida != null ? fpsSaida / fator : null;
+        Integer intervalo = fpsSaida != null ? null : (intervaloFrames != null ? intervaloFrames : 1) * fator;
+        return new OpcoesProcessamento(
+                inicioMs, fimMs, fps, intervalo, maxFrames, saida, preview, rendicoes, tamanhoAlvoKb);
+    }
+
+    public void validar() {
+        if (inicioMs != null && inicioMs < 0) {
+            throw new IllegalArgumentException("inicioMs deve ser >= 0: " + inicioMs);
+        }
+        if (fimMs != null && fimMs <= (inicioMs != null ? inicioMs : 0)) {
+            throw new IllegalArgumentException("fimMs deve ser maior que inicioMs: " + fimMs);
+        }
+        if (fpsSaida != null && !(fpsSaida > 0)) {
+            throw new IllegalArgumentException("fpsSaida deve ser > 0: " + fpsSaida);
+        }
+        if (intervaloFrames != null && intervaloFrames < 1) {
+            throw new IllegalArgumentException("intervaloFrames deve ser >= 1: " + intervaloFrames);
+        }
+        if (fpsSaida != null && intervaloFrames != null) {
+            throw new IllegalArgumentException("Informe fpsSaida ou intervaloFrames, não ambos");
+        }
+        if (maxFrames != null && maxFrames < 1) {
+            throw new IllegalArgumentException("maxFrames deve ser >= 1: " + maxFrames);
+        }
+        if (preview != null && saidaOuPadrao() != ModoSaida.FRAMES) {
+            throw new IllegalArgumentException("preview só é gerado com saída FRAMES: " + saida);
+        }
+        if (tamanhoAlvoKb != null && tamanhoAlvoKb < 1) {
+            throw new IllegalArgumentException("tamanhoAlvoKb deve ser >= 1: " + tamanhoAlvoKb);
+        }
+        if (tamanhoAlvoKb != null && (saidaOuPadrao() != ModoSaida.FRAMES || temRendicoes())) {
+            throw new IllegalArgumentException("tamanhoAlvoKb só se aplica à saída FRAMES, sem rendições");
+        }
+        if (temRendicoes()) validarRendicoes();
+    }
+
+    private void validarRendicoes() {
+        if (saidaOuPadrao() != ModoSaida.FRAMES || preview != null) {
+            throw new IllegalArgumentException("rendições só combinam com saída FRAMES, sem preview");
+        }
+        Set<String> nomes = new HashSet<>();
+        for (Rendicao rendicao : rendicoes) {
+            if (rendicao == null) throw new IllegalArgumentException("rendição vazia");
+            rendicao.validar();
+            if (!nomes.add(rendicao.nome().toLowerCase())) {
+                throw new IllegalArgumentException("rendição repetida: " + rendicao.nome());
+            }
+        }
+    }
+}
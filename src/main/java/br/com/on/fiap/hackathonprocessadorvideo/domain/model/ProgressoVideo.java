@@ -0,0 +1,9 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+/**
+ * Andamento de um processamento em curso.
+ *
+ * @param framesEstimados total previsto a partir da duração e das opções ({@code null} se desconhecido)
+ * @param previsaoConclusao instante ISO-8601 estimado para o fim ({@code null} enquanto não há base para estimar)
+ */
+public record ProgressoVideo(int framesProcessados, Integer framesEstimados, String previsaoConclusao) {}
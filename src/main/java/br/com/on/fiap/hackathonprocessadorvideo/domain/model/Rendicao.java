@@ -0,0 +1,45 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+import java.util.regex.Pattern;
+
+/**
+ * Uma saída de frames entre várias do mesmo job, todas tiradas de um único decode. Recorte ({@code inicioMs}/
+ * {@code fimMs}) vem das {@link OpcoesProcessamento opções} do job; a amostragem é de cada rendição.
+ *
+ * @param nome identifica a rendição na chave de saída ({@code saida/x.<nome>.zip}); letras, números, {@code -} e
+ *     {@code _}
+ * @param largura largura dos frames; a altura segue a proporção. Sem largura, ou maior que a origem, mantém a origem
+ * @param formato formato das imagens ({@code PNG}, {@code JPEG}, {@code WEBP}); o configurado quando ausente
+ * @param arquivo formato do arquivo ({@code zip}, {@code tar}, {@code tar.zst}); o configurado quando ausente
+ */
+public record Rendicao(
+        String nome,
+        Integer largura,
+        String formato,
+        Double fpsSaida,
+        Integer intervaloFrames,
+        Integer maxFrames,
+        String arquivo) {
+
+    private static final Pattern NOME = Pattern.compile("[A-Za-z0-9_-]{1,40}");
+    private static final int LARGURA_MINIMA = 16;
+
+    /** Opções que a seleção de frames desta rendição usa: recorte do job, amostragem própria. */
+    public OpcoesProcessamento amostragem(OpcoesProcessamento job) {
+        return new OpcoesProcessamento(job.inicioMs(), job.fimMs(), fpsSaida, intervaloFrames, maxFrames);
+    }
+
+    public void validar() {
+        if (nome == null || !NOME.matcher(nome).matches()) {
+            throw new IllegalArgumentException("nome de rendição inválido: " + nome);
+        }
+        if (largura != null && largura < LARGURA_MINIMA) {
+            throw new IllegalArgumentException("largura da rendição " + nome + " deve ser >= " + LARGURA_MINIMA);
+        }
+        try {
+            new OpcoesProcessamento(null, null, fpsSaida, intervaloFrames, maxFrames).validar();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("rendição " + nome + ": " + e.getMessage(), e);
+        }
+    }
+}
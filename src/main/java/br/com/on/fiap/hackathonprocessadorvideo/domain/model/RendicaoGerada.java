@@ -0,0 +1,4 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+/** Arquivo publicado para uma {@link Rendicao}, com quantos frames ele tem. */
+public record RendicaoGerada(String nome, String caminhoSaida, int frames) {}
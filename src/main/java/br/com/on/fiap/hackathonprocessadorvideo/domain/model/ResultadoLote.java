@@ -0,0 +1,6 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+import java.util.List;
+
+/** Chave da saída do lote (zip combinado ou índice) e o resultado de cada clipe, na ordem da mensagem. */
+public record ResultadoLote(String caminhoSaida, List<ClipeProcessado> clipes) {}
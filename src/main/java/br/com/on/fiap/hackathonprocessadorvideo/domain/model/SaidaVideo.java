@@ -0,0 +1,23 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+import java.util.List;
+
+/**
+ * Chaves produzidas por um job: a saída principal, o preview, quando pedido e gerado, e as rendições. Com rendições, a
+ * saída principal é a da primeira. Com {@code tamanhoAlvoKb}, leva também o ajuste feito para caber no orçamento.
+ */
+public record SaidaVideo(
+        String caminhoSaida, String caminhoPreview, List<RendicaoGerada> rendicoes, AjusteTamanho ajusteTamanho) {
+
+    public SaidaVideo(String caminhoSaida, String caminhoPreview, List<RendicaoGerada> rendicoes) {
+        this(caminhoSaida, caminhoPreview, rendicoes, null);
+    }
+
+    public SaidaVideo(String caminhoSaida, String caminhoPreview) {
+        this(caminhoSaida, caminhoPreview, null);
+    }
+
+    public static SaidaVideo de(String caminhoSaida) {
+        return new SaidaVideo(caminhoSaida, null);
+    }
+}
@@ -0,0 +1,7 @@
+package br.com.on.fiap.hackathonprocessadorvideo.domain.model;
+
+/**
+ * Identifica uma sub-tarefa do modo segmentado: o trecho {@code indice} (base 0) de {@code total} do job
+ * {@code jobId}. O intervalo de tempo do trecho vai em {@link VideoMensagem#getOpcoes()}.
+ */
+public record SegmentoVideo(String jobId, int indice, int total) {}
@@ -15,4 +15,49 @@ public class VideoMensagem {
     private String caminhoVideo;
     private LocalDateTime dataCriacao;
     private String email;
+    private OpcoesProcessamento opcoes;
+    private SegmentoVideo segmento;
+    private LoteVideos lote;
+    /** Prazo do job em ms a partir do início do processamento; sem ele vale {@code processador.cancelamento.*}. */
+    private Long prazoMs;
+    /** Mensagem de controle: cancela o job de {@link #caminhoVideo} em vez de processar. */
+    private boolean cancelar;
+
+    public VideoMensagem(
+            String idUsuario, String nomeVideo, String caminhoVideo, LocalDateTime dataCriacao, String email) {
+        this(idUsuario, nomeVideo, caminhoVideo, dataCriacao, email, null, null);
+    }
+
+    public VideoMensagem(
+            String idUsuario,
+            String nomeVideo,
+            String caminhoVideo,
+            LocalDateTime dataCriacao,
+            String email,
+            OpcoesProcessamento opcoes) {
+        this(idUsuario, nomeVideo, caminhoVideo, dataCriacao, email, opcoes, null);
+    }
+
+    public VideoMensagem(
+            String idUsuario,
+            String nomeVideo,
+            String caminhoVideo,
+            LocalDateTime dataCriacao,
+            String email,
+            OpcoesProcessamento opcoes,
+            SegmentoVideo segmento) {
+        this(idUsuario, nomeVideo, caminhoVideo, dataCriacao, email, opcoes, segmento, null);
+    }
+
+    public VideoMensagem(
+            String idUsuario,
+            String nomeVideo,
+            String caminhoVideo,
+            LocalDateTime dataCriacao,
+            String email,
+            OpcoesProcessamento opcoes,
+            SegmentoVideo segmento,
+            LoteVideos lote) {
+        this(idUsuario, nomeVideo, caminhoVideo, dataCriacao, email, opcoes, segmento, lote, null, false);
+    }
 }
@@ -1,8 +1,21 @@
 package br.com.on.fiap.hackathonprocessadorvideo.domain.service;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ResultadoLote;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SaidaVideo;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
-import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface VideoProcessingPort {
-    String processarVideo(VideoMensagem mensagem) throws IOException;
+    /** Completa com as chaves da saída e do preview; falhas (inclusive de I/O) chegam pelo future. */
+    CompletableFuture<SaidaVideo> processarVideo(VideoMensagem mensagem);
+
+    /** Processa os clipes de {@link VideoMensagem#getLote()}; completa com a saída e o resultado de cada clipe. */
+    CompletableFuture<ResultadoLote> processarLote(VideoMensagem mensagem);
+
+    /**
+     * Processa um sub-job de {@link VideoMensagem#getSegmento()}; completa com a chave do arquivo final quando este
+     * segmento fecha o merge do job, vazio se ainda faltam segmentos.
+     */
+    CompletableFuture<Optional<String>> processarSegmento(VideoMensagem mensagem);
 }
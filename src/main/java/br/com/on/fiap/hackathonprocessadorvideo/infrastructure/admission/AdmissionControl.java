@@ -0,0 +1,157 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limita quantas extrações rodam ao mesmo tempo no worker, somando fila e HTTP ({@code processador.admissao.*}). O
+ * HTTP só pode ocupar até {@code max-http} das {@code max-jobs} vagas, então sempre sobram vagas para os consumidores
+ * da fila; e nunca espera por vaga além de {@code espera-http-ms} — sem vaga, a requisição é recusada na hora. A fila
+ * espera a sua vez (a mensagem continua invisível no SQS enquanto isso).
+ *
+ * <p>{@code max-jobs} é o valor inicial; o auto-tuning pode mudá-lo em execução até {@code max-jobs-limite} ({@code 0}
+ * fixa o limite em {@code max-jobs}), e nunca abaixo de {@code max-http + 1}.
+ */
+@Slf4j
+@Component
+public class AdmissionControl {
+
+    static final String EM_USO_METRIC = "processador.admissao.em-uso";
+    static final String RECUSADAS_METRIC = "processador.admissao.recusadas";
+
+    private final int limiteJobs;
+    private final int minJobs;
+    private final Vagas vagas;
+    private final Semaphore vagasHttp;
+    private final int maxHttp;
+    private volatile int maxJobs;
+    private final long esperaHttpMs;
+    private final Counter recusadas;
+
+    @Autowired
+    public AdmissionControl(
+            MeterRegistry meterRegistry,
+            @Value("${processador.admissao.max-jobs:2}") int maxJobs,
+            @Value("${processador.admissao.max-http:1}") int maxHttp,
+            @Value("${processador.admissao.espera-http-ms:0}") long esperaHttpMs,
+            @Value("${processador.admissao.max-jobs-limite:0}") int limiteJobs) {
+        if (maxJobs < 1) throw new IllegalArgumentException("max-jobs deve ser >= 1: " + maxJobs);
+        int http = Math.min(maxHttp, maxJobs - 1);
+        if (http != maxHttp) {
+            log.warn("max-http={} deixaria a fila sem vaga; usando {}", maxHttp, http);
+        }
+        this.maxJobs = maxJobs;
+        this.limiteJobs = Math.max(maxJobs, limiteJobs);
+        this.minJobs = Math.max(1, http + 1);
+        this.vagas = new Vagas(maxJobs);
+        this.maxHttp = Math.max(0, http);
+        this.vagasHttp = new Semaphore(this.maxHttp);
+        this.esperaHttpMs = esperaHttpMs;
+        Gauge.builder(EM_USO_METRIC, this, a -> a.maxJobs - a.vagas.availablePermits())
+                .description("Extrações em andamento (fila + HTTP)")
+                .register(meterRegistry);
+        this.recusadas = Counter.builder(RECUSADAS_METRIC)
+                .description("Requisições HTTP recusadas por falta de vaga")
+                .register(meterRegistry);
+    }
+
+    public AdmissionControl(MeterRegistry meterRegistry, int maxJobs, int maxHttp, long esperaHttpMs) {
+        this(meterRegistry, maxJobs, maxHttp, esperaHttpMs, 0);
+    }
+
+    /** Vaga para uma mensagem da fila; bloqueia até haver uma. */
+    public Permissao entrarFila() throws InterruptedException {
+        vagas.acquire();
+        return new Permissao(false);
+    }
+
+    /** Vaga para uma mensagem da fila, ou vazio se nenhuma abrir em {@code esperaMs}; respeita a ordem de chegada. */
+    public Optional<Permissao> entrarFila(long esperaMs) throws InterruptedException {
+        if (vagas.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+            return Optional.of(new Permissao(false));
+        }
+        return Optional.empty();
+    }
+
+    /** Vaga para uma requisição HTTP, ou vazio se não houver uma dentro da espera configurada. */
+    public Optional<Permissao> entrarHttp() throws InterruptedException {
+        if (vagasHttp.tryAcquire()) {
+            if (vagas.tryAcquire(esperaHttpMs, TimeUnit.MILLISECONDS)) {
+                return Optional.of(new Permissao(true));
+            }
+            vagasHttp.release();
+        }
+        recusadas.increment();
+        return Optional.empty();
+    }
+
+    public int vagasLivres() {
+        return vagas.availablePermits();
+    }
+
+    /** Vagas ocupadas agora por requisições HTTP. */
+    public int emUsoHttp() {
+        return maxHttp - vagasHttp.availablePermits();
+    }
+
+    public int maxJobs() {
+        return maxJobs;
+    }
+
+    /** Teto para {@link #ajustarMaxJobs}; também dimensiona as threads de processamento. */
+    public int limiteJobs() {
+        return limiteJobs;
+    }
+
+    /**
+     * Muda quantas extrações podem rodar juntas, dentro de [{@code max-http + 1}, {@code limiteJobs}]. Reduzir não
+     * interrompe jobs: as vagas somem conforme eles terminam. Devolve o valor aplicado.
+     */
+    public synchronized int ajustarMaxJobs(int novo) {
+        int alvo = Math.max(minJobs, Math.min(limiteJobs, novo));
+        int delta = alvo - maxJobs;
+        if (delta > 0) vagas.release(delta);
+        if (delta < 0) vagas.reduzir(-delta);
+        maxJobs = alvo;
+        return alvo;
+    }
+
+    /** Libera a vaga ao fechar; fechar de novo não faz nada. */
+    public final class Permissao implements AutoCloseable {
+
+        private final boolean http;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        private Permissao(boolean http) {
+            this.http = http;
+        }
+
+        @Override
+        public void close() {
+            if (!liberada.compareAndSet(false, true)) return;
+            vagas.release();
+            if (http) vagasHttp.release();
+        }
+    }
+
+    /** Semáforo justo que deixa reduzir as vagas sem esperar que fiquem livres. */
+    private static final class Vagas extends Semaphore {
+
+        Vagas(int permits) {
+            super(permits, true);
+        }
+
+        void reduzir(int n) {
+            reducePermits(n);
+        }
+    }
+}
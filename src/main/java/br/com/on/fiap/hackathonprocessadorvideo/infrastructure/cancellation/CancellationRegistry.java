@@ -0,0 +1,130 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Jobs em andamento no worker e como pará-los ({@code processador.cancelamento.*}). Cada job abre um
+ * {@link CancellationToken} com o seu prazo — o da mensagem ou {@code prazo-padrao-ms} ({@code 0} sem prazo) — e o
+ * fecha ao terminar. No prazo, uma thread de timer dispara os ganchos do token, que abortam as transferências em voo
+ * mesmo que nenhum frame esteja sendo lido.
+ *
+ * <p>O cancelamento é por {@code caminhoVideo} e vale para este worker. Um pedido para um vídeo que não está em
+ * andamento aqui fica guardado por {@code memoria-min}: se o job chegar (ou for reentregue) nesse tempo, já nasce
+ * cancelado.
+ */
+@Slf4j
+@Component
+public class CancellationRegistry {
+
+    static final String PARADOS_METRIC = "processador.cancelamento.parados";
+
+    private final long prazoPadraoMs;
+    private final long memoriaNanos;
+    private final Set<CancellationToken> ativos = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> pedidos = new ConcurrentHashMap<>();
+    private final Map<CancellationToken, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cancelamento-prazo");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Counter cancelados;
+    private final Counter prazosEsgotados;
+
+    public CancellationRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${processador.cancelamento.prazo-padrao-ms:0}") long prazoPadraoMs,
+            @Value("${processador.cancelamento.memoria-min:60}") long memoriaMin) {
+        this.prazoPadraoMs = Math.max(0, prazoPadraoMs);
+        this.memoriaNanos = TimeUnit.MINUTES.toNanos(Math.max(0, memoriaMin));
+        this.cancelados = Counter.builder(PARADOS_METRIC)
+                .tag("motivo", CancellationToken.Motivo.CANCELADO.name())
+                .description("Jobs parados antes de terminar")
+                .register(meterRegistry);
+        this.prazosEsgotados = Counter.builder(PARADOS_METRIC)
+                .tag("motivo", CancellationToken.Motivo.PRAZO_ESGOTADO.name())
+                .description("Jobs parados antes de terminar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Token de um job que começa agora.
+     *
+     * @param job {@code caminhoVideo} do job, pelo qual ele pode ser cancelado
+     * @param prazoMs prazo do job a partir de agora; {@code null} ou {@code <= 0} usa {@code prazo-padrao-ms}
+     */
+    public CancellationToken abrir(String job, Long prazoMs) {
+        long prazo = prazoMs != null && prazoMs > 0 ? prazoMs : prazoPadraoMs;
+        long prazoNanos = prazo > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(prazo) : 0;
+        CancellationToken token = new CancellationToken(job, prazoNanos, this);
+        ativos.add(token);
+        if (prazo > 0) {
+            timers.put(token, timer.schedule(() -> expirar(token), prazo, TimeUnit.MILLISECONDS));
+        }
+        if (job != null && pedidoPendente(job)) {
+            log.info("Job {} chegou com cancelamento pendente", job);
+            token.cancelar(CancellationToken.Motivo.CANCELADO);
+        }
+        return token;
+    }
+
+    /**
+     * Cancela os jobs de {@code job} em andamento neste worker; sem nenhum, guarda o pedido por {@code memoria-min}.
+     *
+     * @return quantos jobs em andamento foram cancelados
+     */
+    public int cancelar(String job) {
+        int parados = 0;
+        for (CancellationToken token : ativos) {
+            if (job.equals(token.job()) && token.cancelar(CancellationToken.Motivo.CANCELADO)) parados++;
+        }
+        if (parados == 0) {
+            limparPedidos();
+            pedidos.put(job, System.nanoTime() + memoriaNanos);
+            log.info("Cancelamento de {} guardado: nenhum job em andamento neste worker", job);
+        }
+        return parados;
+    }
+
+    void descartar(CancellationToken token) {
+        ativos.remove(token);
+        ScheduledFuture<?> prazo = timers.remove(token);
+        if (prazo != null) prazo.cancel(false);
+    }
+
+    private void expirar(CancellationToken token) {
+        timers.remove(token);
+        token.cancelar(CancellationToken.Motivo.PRAZO_ESGOTADO);
+    }
+
+    void parado(CancellationToken.Motivo motivo) {
+        (motivo == CancellationToken.Motivo.PRAZO_ESGOTADO ? prazosEsgotados : cancelados).increment();
+    }
+
+    private boolean pedidoPendente(String job) {
+        Long validade = pedidos.remove(job);
+        return validade != null && System.nanoTime() - validade < 0;
+    }
+
+    private void limparPedidos() {
+        long agora = System.nanoTime();
+        pedidos.values().removeIf(validade -> agora - validade >= 0);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        timer.shutdownNow();
+    }
+}
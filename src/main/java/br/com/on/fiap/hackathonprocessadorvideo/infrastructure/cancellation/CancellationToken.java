@@ -0,0 +1,151 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cancelamento de um job, aberto pelo {@link CancellationRegistry}. O trabalho consulta {@link #verificar()} nos pontos
+ * em que pode parar sem deixar nada pela metade (cada frame, cada etapa de transferência) e o que está esperando a rede
+ * se registra em {@link #aoCancelar(Runnable)} ou {@link #acompanhar(CompletableFuture)} para ser interrompido na hora.
+ * O prazo do job vale nas duas formas: passado o prazo, {@code verificar()} falha mesmo antes de o registro disparar os
+ * ganchos.
+ *
+ * <p>Como o {@code Workspace}, fica vinculado à thread do job ({@link #vincular()}); threads auxiliares recebem o token
+ * de quem as dispara.
+ */
+@Slf4j
+public final class CancellationToken implements AutoCloseable {
+
+    /** Token de quem não tem job: nunca é cancelado. */
+    public static final CancellationToken NENHUM = new CancellationToken("-", 0, null);
+
+    private static final ThreadLocal<CancellationToken> ATUAL = new ThreadLocal<>();
+
+    private final String job;
+    private final long prazoNanos;
+    private final CancellationRegistry registry;
+    private final AtomicReference<Motivo> motivo = new AtomicReference<>();
+    private final Set<Runnable> ganchos = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fechado = new AtomicBoolean();
+
+    /** @param prazoNanos instante de {@link System#nanoTime()} em que o job expira; {@code 0} sem prazo */
+    CancellationToken(String job, long prazoNanos, CancellationRegistry registry) {
+        this.job = job;
+        this.prazoNanos = prazoNanos;
+        this.registry = registry;
+    }
+
+    /** Token vinculado à thread atual, ou {@link #NENHUM}. */
+    public static CancellationToken atual() {
+        CancellationToken token = ATUAL.get();
+        return token != null ? token : NENHUM;
+    }
+
+    public String job() {
+        return job;
+    }
+
+    /** Por que o job parou, ou {@code null} enquanto ele pode seguir. */
+    public Motivo motivo() {
+        Motivo m = motivo.get();
+        if (m == null && expirado()) {
+            cancelar(Motivo.PRAZO_ESGOTADO);
+            m = motivo.get();
+        }
+        return m;
+    }
+
+    /** Lança {@link JobCanceladoException} se o job foi cancelado ou passou do prazo. */
+    public void verificar() {
+        Motivo m = motivo();
+        if (m != null) throw new JobCanceladoException(job, m);
+    }
+
+    /**
+     * Marca o job como parado e roda os ganchos registrados, uma vez só; o primeiro motivo prevalece.
+     *
+     * @return {@code false} se o job já estava parado
+     */
+    public boolean cancelar(Motivo m) {
+        if (this == NENHUM || !motivo.compareAndSet(null, m)) return false;
+        log.warn("Job {} parado: {}", job, m);
+        if (registry != null) registry.parado(m);
+        for (Runnable gancho : ganchos) executar(gancho);
+        ganchos.clear();
+        return true;
+    }
+
+    /**
+     * Roda {@code gancho} quando o job for parado — na hora, se já estiver. Fechar o registro devolvido o retira, para
+     * o que terminou antes não ser desfeito.
+     */
+    public Registro aoCancelar(Runnable gancho) {
+        if (this == NENHUM) return () -> {};
+        ganchos.add(gancho);
+        if (motivo.get() != null && ganchos.remove(gancho)) executar(gancho);
+        return () -> ganchos.remove(gancho);
+    }
+
+    /** Cancela {@code future} se o job parar antes de ele completar; devolve o próprio {@code future}. */
+    public <T> CompletableFuture<T> acompanhar(CompletableFuture<T> future) {
+        if (this == NENHUM || future.isDone()) return future;
+        Registro registro = aoCancelar(() -> future.cancel(true));
+        future.whenComplete((r, e) -> registro.close());
+        return future;
+    }
+
+    /** Vincula o token à thread atual até o {@code close()} do vínculo, que restaura o anterior. */
+    public Vinculo vincular() {
+        CancellationToken anterior = ATUAL.get();
+        ATUAL.set(this);
+        return () -> {
+            if (anterior == null) ATUAL.remove();
+            else ATUAL.set(anterior);
+        };
+    }
+
+    /** Fim do job: sai do registro e descarta o timer do prazo. Os ganchos restantes não rodam mais. */
+    @Override
+    public void close() {
+        if (this == NENHUM || !fechado.compareAndSet(false, true)) return;
+        ganchos.clear();
+        if (registry != null) registry.descartar(this);
+    }
+
+    private boolean expirado() {
+        return prazoNanos != 0 && System.nanoTime() - prazoNanos >= 0;
+    }
+
+    private void executar(Runnable gancho) {
+        try {
+            gancho.run();
+        } catch (RuntimeException e) {
+            log.warn("Falha liberando recurso do job {} cancelado", job, e);
+        }
+    }
+
+    public enum Motivo {
+        /** Pedido explícito: mensagem de controle ou {@code DELETE /jobs}. */
+        CANCELADO,
+        /** O job passou do prazo. */
+        PRAZO_ESGOTADO
+    }
+
+    /** {@link AutoCloseable} sem exceção checada, para uso em try-with-resources. */
+    @FunctionalInterface
+    public interface Vinculo extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /** Registro de um gancho; fechar o retira. */
+    @FunctionalInterface
+    public interface Registro extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation;
+
+/**
+ * O job foi cancelado ou passou do prazo. Não é {@link java.io.IOException} de propósito: reentregar a mensagem
+ * refaria um trabalho que ninguém quer mais, então ela é descartada depois da notificação.
+ */
+public class JobCanceladoException extends RuntimeException {
+
+    private final transient CancellationToken.Motivo motivo;
+
+    public JobCanceladoException(String job, CancellationToken.Motivo motivo) {
+        super(
+                motivo == CancellationToken.Motivo.PRAZO_ESGOTADO
+                        ? "Job " + job + " passou do prazo"
+                        : "Job " + job + " cancelado");
+        this.motivo = motivo;
+    }
+
+    public CancellationToken.Motivo motivo() {
+        return motivo;
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.config;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing.AwsTracingInterceptor;
+import io.awspring.cloud.autoconfigure.sqs.SqsAsyncClientCustomizer;
+import io.netty.channel.ChannelOption;
+import java.net.URI;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+
+/**
+ * Pilha HTTP assíncrona única (Netty) para S3, SNS e o listener SQS ({@code processador.aws.http.*}): um pool de
+ * conexões e um event loop compartilhados, em vez de um cliente HTTP por serviço. Os clientes não fecham o HTTP
+ * compartilhado; o Spring fecha no desligamento.
+ */
+@Configuration
+public class AwsAsyncConfig {
+
+    @Value("${spring.cloud.aws.region.static}")
+    private String region;
+
+    @Value("${spring.cloud.aws.credentials.access-key}")
+    private String accessKey;
+
+    @Value("${spring.cloud.aws.credentials.secret-key}")
+    private String secretKey;
+
+    @Value("${spring.cloud.aws.s3.endpoint}")
+    private String s3Endpoint;
+
+    @Value("${spring.cloud.aws.s3.path-style-access-enabled:false}")
+    private boolean pathStyle;
+
+    /**
+     * @param maxConcorrencia conexões simultâneas no pool (todas as requisições de todos os serviços)
+     * @param threads threads do event loop; {@code 0} usa o padrão do SDK (2 × núcleos)
+     * @param bufferSocketKb buffers de recepção/envio do socket, que definem quanto o kernel lê à frente da aplicação
+     */
+    @Bean(destroyMethod = "close")
+    public SdkAsyncHttpClient awsAsyncHttpClient(
+            @Value("${processador.aws.http.max-concorrencia:64}") int maxConcorrencia,
+            @Value("${processador.aws.http.max-pendentes:1000}") int maxPendentes,
+            @Value("${processador.aws.http.timeout-conexao-ms:5000}") long timeoutConexaoMs,
+            @Value("${processador.aws.http.timeout-leitura-ms:60000}") long timeoutLeituraMs,
+            @Value("${processador.aws.http.threads:0}") int threads,
+            @Value("${processador.aws.http.buffer-socket-kb:1024}") int bufferSocketKb) {
+        NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(maxConcorrencia)
+                .maxPendingConnectionAcquires(maxPendentes)
+                .connectionTimeout(Duration.ofMillis(timeoutConexaoMs))
+                .connectionAcquisitionTimeout(Duration.ofMillis(timeoutLeituraMs))
+                .readTimeout(Duration.ofMillis(timeoutLeituraMs))
+                .writeTimeout(Duration.ofMillis(timeoutLeituraMs))
+                .tcpKeepAlive(true)
+                .putChannelOption(ChannelOption.SO_RCVBUF, bufferSocketKb * 1024)
+                .putChannelOption(ChannelOption.SO_SNDBUF, bufferSocketKb * 1024);
+        if (threads > 0) {
+            builder.eventLoopGroupBuilder(SdkEventLoopGroup.builder().numberOfThreads(threads));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Uploads acima de {@code multipart-limite-mb} vão em partes paralelas de {@code multipart-parte-mb};
+     * {@code multipart-buffer-mb} limita a memória usada para bufferizar partes em voo.
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient(
+            SdkAsyncHttpClient awsAsyncHttpClient,
+            @Value("${processador.aws.s3.multipart-limite-mb:16}") long limiteMb,
+            @Value("${processador.aws.s3.multipart-parte-mb:8}") long parteMb,
+            @Value("${processador.aws.s3.multipart-buffer-mb:64}") long bufferMb) {
+        return AwsTracingInterceptor.instrumentar(S3AsyncClient.builder())
+                .httpClient(awsAsyncHttpClient)
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .endpointOverride(URI.create(s3Endpoint))
+                .forcePathStyle(pathStyle)
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(limiteMb * 1024 * 1024)
+                        .minimumPartSizeInBytes(parteMb * 1024 * 1024)
+                        .apiCallBufferSizeInBytes(bufferMb * 1024 * 1024)
+                        .build())
+                .build();
+    }
+
+    /** O cliente SQS do listener, criado pelo Spring Cloud AWS, também usa o HTTP compartilhado. */
+    @Bean
+    public SqsAsyncClientCustomizer sqsHttpCompartilhado(SdkAsyncHttpClient awsAsyncHttpClient) {
+        return builder -> AwsTracingInterceptor.instrumentar(builder.httpClient(awsAsyncHttpClient));
+    }
+}
@@ -1,13 +1,15 @@
 package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.config;
 
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing.AwsTracingInterceptor;
 import java.net.URI;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
 
 @Configuration
 public class AwsSnsConfig {
@@ -25,8 +27,9 @@ public class AwsSnsConfig {
     private String endpoint;
 
     @Bean
-    public SnsClient snsClient() {
-        return SnsClient.builder()
+    public SnsAsyncClient snsAsyncClient(SdkAsyncHttpClient awsAsyncHttpClient) {
+        return AwsTracingInterceptor.instrumentar(SnsAsyncClient.builder())
+                .httpClient(awsAsyncHttpClient)
                 .region(Region.of(region))
                 .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
                 .endpointOverride(URI.create(endpoint))
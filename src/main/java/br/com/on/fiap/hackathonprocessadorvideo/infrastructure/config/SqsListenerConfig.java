@@ -0,0 +1,81 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.config;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging.AdmissionBackPressureHandler;
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import io.awspring.cloud.sqs.listener.BackPressureHandler;
+import io.awspring.cloud.sqs.listener.FifoSqsComponentFactory;
+import io.awspring.cloud.sqs.listener.SqsContainerOptions;
+import io.awspring.cloud.sqs.listener.StandardSqsComponentFactory;
+import io.awspring.cloud.sqs.listener.source.MessageSource;
+import io.awspring.cloud.sqs.listener.source.StandardSqsMessageSource;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ajustes do listener ({@code processador.sqs.*}) sobre a fábrica de containers do Spring Cloud AWS:
+ *
+ * <ul>
+ *   <li>ACKs em lote: as confirmações se acumulam e saem num {@code DeleteMessageBatch} a cada {@code ack-intervalo-ms},
+ *       ou antes ao juntar {@code ack-limite} (até 10 por chamada).
+ *   <li>Back-pressure pela admissão: filas padrão usam o {@link AdmissionBackPressureHandler} no lugar do semáforo fixo
+ *       de {@code maxConcurrentMessages}, então o poll só traz o que cabe nas vagas mais o buffer. O
+ *       {@code maxConcurrentMessages} passa a dimensionar só as threads do container, pelo teto do auto-tuning.
+ * </ul>
+ */
+@Configuration
+public class SqsListenerConfig {
+
+    @Bean
+    public static BeanPostProcessor sqsListenerAjustes(
+            ObjectProvider<AdmissionBackPressureHandler> backPressure,
+            @Value("${processador.sqs.ack-intervalo-ms:1000}") long intervaloMs,
+            @Value("${processador.sqs.ack-limite:10}") int limite,
+            @Value("${processador.sqs.mensagens-por-poll:10}") int mensagensPorPoll,
+            @Value("${processador.sqs.buffer-por-vaga:2}") int bufferPorVaga,
+            @Value("${processador.admissao.max-jobs:2}") int maxJobs,
+            @Value("${processador.admissao.max-jobs-limite:0}") int limiteJobs) {
+        int threads = Math.max(
+                Math.min(10, mensagensPorPoll), Math.max(maxJobs, limiteJobs) * (1 + Math.max(0, bufferPorVaga)));
+        return new BeanPostProcessor() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof SqsMessageListenerContainerFactory<?> factory) {
+                    factory.configure(opcoes -> opcoes.acknowledgementInterval(Duration.ofMillis(intervaloMs))
+                            .acknowledgementThreshold(Math.min(10, limite))
+                            .maxConcurrentMessages(threads));
+                    ((SqsMessageListenerContainerFactory) factory)
+                            .setContainerComponentFactories(List.of(
+                                    new AdmissaoComponentFactory<>(backPressure), new FifoSqsComponentFactory<>()));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /** Fila padrão com o back-pressure da admissão; o container tenta instalar o dele e é ignorado. */
+    static final class AdmissaoComponentFactory<T> extends StandardSqsComponentFactory<T> {
+
+        private final ObjectProvider<AdmissionBackPressureHandler> backPressure;
+
+        AdmissaoComponentFactory(ObjectProvider<AdmissionBackPressureHandler> backPressure) {
+            this.backPressure = backPressure;
+        }
+
+        @Override
+        public MessageSource<T> createMessageSource(SqsContainerOptions options) {
+            BackPressureHandler admissao = backPressure.getObject();
+            return new StandardSqsMessageSource<>() {
+                @Override
+                public void setBackPressureHandler(BackPressureHandler padrao) {
+                    super.setBackPressureHandler(admissao);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import io.awspring.cloud.sqs.listener.BatchAwareBackPressureHandler;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Back-pressure do listener ligado à admissão: o poll só pede ao SQS as mensagens que cabem agora — as vagas de
+ * {@link AdmissionControl} que não estão com o HTTP mais a capacidade do {@link ListenerBuffer} — descontando as que já
+ * estão em voo (rodando ou no buffer). Com o buffer cheio o worker simplesmente não busca mais, em vez de receber o lote
+ * inteiro e devolver o excedente (o que, repetido, levava mensagens saudáveis à DLQ). O limite segue o
+ * {@code max-jobs} ajustado pelo auto-tuning; ver {@code SqsListenerConfig}.
+ */
+@Slf4j
+@Component
+public class AdmissionBackPressureHandler implements BatchAwareBackPressureHandler {
+
+    /** Espera máxima por espaço antes de devolver zero ao poll, que então reconfere se o container está parando. */
+    private static final long ESPERA_MS = 1000;
+
+    private final AdmissionControl admissionControl;
+    private final ListenerBuffer buffer;
+    private final int mensagensPorPoll;
+    private final Object monitor = new Object();
+    private int emVoo;
+
+    public AdmissionBackPressureHandler(
+            AdmissionControl admissionControl,
+            ListenerBuffer buffer,
+            @Value("${processador.sqs.mensagens-por-poll:10}") int mensagensPorPoll) {
+        this.admissionControl = admissionControl;
+        this.buffer = buffer;
+        this.mensagensPorPoll = Math.max(1, Math.min(10, mensagensPorPoll));
+    }
+
+    @Override
+    public int requestBatch() throws InterruptedException {
+        return request(mensagensPorPoll);
+    }
+
+    /** Quantas mensagens o próximo poll pode trazer (até {@code quantidade}); zero se nada abrir em {@code ESPERA_MS}. */
+    @Override
+    public int request(int quantidade) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MS);
+        synchronized (monitor) {
+            while (true) {
+                int livres = capacidade() - emVoo;
+                if (livres > 0) {
+                    int concedidas = Math.min(quantidade, livres);
+                    emVoo += concedidas;
+                    return concedidas;
+                }
+                long restante = limite - System.nanoTime();
+                if (restante <= 0) return 0;
+                TimeUnit.NANOSECONDS.timedWait(monitor, restante);
+            }
+        }
+    }
+
+    @Override
+    public void release(int quantidade) {
+        synchronized (monitor) {
+            emVoo = Math.max(0, emVoo - quantidade);
+            monitor.notifyAll();
+        }
+    }
+
+    @Override
+    public void releaseBatch() {
+        release(mensagensPorPoll);
+    }
+
+    @Override
+    public int getBatchSize() {
+        return mensagensPorPoll;
+    }
+
+    /** Espera as mensagens em voo terminarem (ou voltarem à fila) no desligamento. */
+    @Override
+    public boolean drain(Duration prazo) {
+        long limite = System.nanoTime() + prazo.toNanos();
+        synchronized (monitor) {
+            try {
+                while (emVoo > 0) {
+                    long restante = limite - System.nanoTime();
+                    if (restante <= 0) break;
+                    TimeUnit.NANOSECONDS.timedWait(monitor, restante);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (emVoo > 0) log.warn("Desligando com {} mensagens ainda em voo", emVoo);
+            return emVoo == 0;
+        }
+    }
+
+    /** Mensagens que podem estar em voo agora: vagas da fila mais o buffer. */
+    int capacidade() {
+        return Math.max(1, admissionControl.maxJobs() - admissionControl.emUsoHttp()) + buffer.capacidade();
+    }
+
+    int emVoo() {
+        synchronized (monitor) {
+            return emVoo;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffer local das mensagens recebidas em lote ({@code processador.sqs.*}): as que não acham vaga esperam aqui,
+ * invisíveis no SQS. O buffer acompanha a capacidade atual — {@code buffer-por-vaga} mensagens por vaga de
+ * {@link AdmissionControl} — e o {@link AdmissionBackPressureHandler} não deixa o poll trazer além disso. Só quando a
+ * capacidade cai com mensagens já recebidas (o auto-tuning reduziu {@code max-jobs}) o excedente volta para a fila na
+ * hora, com {@code atraso-sobrecarga-s} de visibilidade. No desligamento, as que ainda não começaram voltam com
+ * visibilidade zero para outro worker pegar.
+ *
+ * <p>Enquanto esperam, e depois enquanto o job roda ({@link #manterInvisivel}), as mensagens têm a visibilidade
+ * renovada para {@code visibilidade-s} na metade desse tempo: sem isso, a espera por vaga ou um job mais longo passava
+ * do timeout da fila e o SQS entregava a mesma mensagem de novo, processada duas vezes. {@code visibilidade-s} deve
+ * acompanhar o {@code VisibilityTimeout} da fila; {@code 0} desliga a renovação.
+ */
+@Slf4j
+@Component
+public class ListenerBuffer {
+
+    static final String BUFFER_METRIC = "processador.sqs.buffer";
+    static final String DEVOLVIDAS_METRIC = "processador.sqs.devolvidas";
+
+    /** Espera máxima por vaga antes de reconferir se o worker está desligando. */
+    private static final long ESPERA_MS = 200;
+
+    private final AdmissionControl admissionControl;
+    private final int bufferPorVaga;
+    private final int atrasoSobrecargaS;
+    private final int visibilidadeS;
+    private final AtomicInteger esperando = new AtomicInteger();
+    private final Counter devolvidasSobrecarga;
+    private final Counter devolvidasDesligamento;
+    private final ScheduledExecutorService agenda = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "sqs-visibilidade");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean desligando;
+
+    public ListenerBuffer(
+            AdmissionControl admissionControl,
+            MeterRegistry meterRegistry,
+            @Value("${processador.sqs.buffer-por-vaga:2}") int bufferPorVaga,
+            @Value("${processador.sqs.atraso-sobrecarga-s:10}") int atrasoSobrecargaS,
+            @Value("${processador.sqs.visibilidade-s:30}") int visibilidadeS) {
+        this.admissionControl = admissionControl;
+        this.bufferPorVaga = Math.max(0, bufferPorVaga);
+        this.atrasoSobrecargaS = Math.max(0, atrasoSobrecargaS);
+        this.visibilidadeS = Math.max(0, visibilidadeS);
+        Gauge.builder(BUFFER_METRIC, esperando, AtomicInteger::get)
+                .description("Mensagens recebidas esperando vaga")
+                .register(meterRegistry);
+        this.devolvidasSobrecarga = Counter.builder(DEVOLVIDAS_METRIC)
+                .tag("motivo", "sobrecarga")
+                .description("Mensagens devolvidas à fila sem começar")
+                .register(meterRegistry);
+        this.devolvidasDesligamento = Counter.builder(DEVOLVIDAS_METRIC)
+                .tag("motivo", "desligamento")
+                .description("Mensagens devolvidas à fila sem começar")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vaga para a mensagem, esperando no buffer se preciso. Vazio quando a mensagem foi devolvida à fila (buffer cheio
+     * ou worker desligando): quem chama não dá ACK.
+     */
+    public Optional<AdmissionControl.Permissao> aguardarVaga(String messageId, Visibility visibility)
+            throws InterruptedException {
+        if (desligando) {
+            devolver(messageId, visibility, 0, devolvidasDesligamento);
+            return Optional.empty();
+        }
+        Optional<AdmissionControl.Permissao> vaga = admissionControl.entrarFila(0);
+        if (vaga.isPresent()) return vaga;
+
+        if (esperando.incrementAndGet() > capacidade()) {
+            esperando.decrementAndGet();
+            devolver(messageId, visibility, atrasoSobrecargaS, devolvidasSobrecarga);
+            return Optional.empty();
+        }
+        long renovacaoNanos = TimeUnit.SECONDS.toNanos(visibilidadeS) / 2;
+        long proximaRenovacao = System.nanoTime() + renovacaoNanos;
+        try {
+            while (!desligando) {
+                vaga = admissionControl.entrarFila(ESPERA_MS);
+                if (vaga.isPresent()) return vaga;
+                if (renovacaoNanos > 0 && System.nanoTime() - proximaRenovacao >= 0) {
+                    renovar(messageId, visibility);
+                    proximaRenovacao = System.nanoTime() + renovacaoNanos;
+                }
+            }
+        } finally {
+            esperando.decrementAndGet();
+        }
+        devolver(messageId, visibility, 0, devolvidasDesligamento);
+        return Optional.empty();
+    }
+
+    /**
+     * Mantém a mensagem invisível enquanto {@code job} roda, renovando a visibilidade na metade de
+     * {@code visibilidade-s}. Sem isso um job com checkpoint mais longo que o timeout da fila era entregue de novo, e
+     * um segundo worker retomava o mesmo upload em paralelo, sobrescrevendo partes e o estado.
+     */
+    public void manterInvisivel(String messageId, Visibility visibility, CompletableFuture<?> job) {
+        if (visibility == null || visibilidadeS == 0 || job.isDone()) return;
+        long periodoMs = TimeUnit.SECONDS.toMillis(visibilidadeS) / 2;
+        ScheduledFuture<?> renovacao = agenda.scheduleAtFixedRate(
+                () -> renovar(messageId, visibility), periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+        job.whenComplete((r, e) -> renovacao.cancel(false));
+    }
+
+    /** Quantas mensagens podem esperar vaga agora; segue o {@code max-jobs} ajustado pelo auto-tuning. */
+    int capacidade() {
+        return admissionControl.maxJobs() * bufferPorVaga;
+    }
+
+    int esperando() {
+        return esperando.get();
+    }
+
+    /**
+     * Roda no início do fechamento do contexto, antes de o container do SQS parar: as mensagens no buffer voltam para a
+     * fila em vez de segurar o desligamento até a visibilidade expirar.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void desligar() {
+        desligando = true;
+        int pendentes = esperando.get();
+        if (pendentes > 0) log.info("Desligando: devolvendo {} mensagens do buffer à fila", pendentes);
+    }
+
+    private void renovar(String messageId, Visibility visibility) {
+        if (visibility == null) return;
+        visibility.changeToAsync(visibilidadeS).whenComplete((r, e) -> {
+            if (e != null) log.warn("Falha ao renovar a visibilidade da mensagem [{}]", messageId, e);
+        });
+    }
+
+    private void devolver(String messageId, Visibility visibility, int segundos, Counter motivo) {
+        motivo.increment();
+        log.info("Mensagem [{}] devolvida à fila sem começar (visível em {}s)", messageId, segundos);
+        if (visibility == null) return;
+        visibility.changeToAsync(segundos).whenComplete((r, e) -> {
+            if (e != null) {
+                log.warn("Falha ao devolver a mensagem [{}]; volta quando a visibilidade expirar", messageId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        agenda.shutdownNow();
+    }
+}
@@ -0,0 +1,120 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.NotificacaoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ProgressoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Notificações {@code EM_PROCESSAMENTO} durante jobs longos. No máximo uma a cada {@code intervalo-ms} por job, exceto a
+ * da primeira parte disponível, que sai na hora — é ela que reduz o tempo até o primeiro resultado. O progresso é
+ * best-effort: a publicação é assíncrona, sai fora do lock e falhas são só logadas, sem parar a extração.
+ */
+@Slf4j
+@Component
+public class ProgressNotifier {
+
+    static final String SITUACAO = "EM_PROCESSAMENTO";
+
+    private final VideoSendMessageServiceAdapter sender;
+    private final String topicArn;
+    private final Duration intervalo;
+    private final Clock clock;
+
+    @Autowired
+    public ProgressNotifier(
+            VideoSendMessageServiceAdapter sender,
+            @Value("${sns.topic-arn}") String topicArn,
+            @Value("${processador.progresso.intervalo-ms:15000}") long intervaloMs) {
+        this(sender, topicArn, Duration.ofMillis(intervaloMs), Clock.systemUTC());
+    }
+
+    ProgressNotifier(VideoSendMessageServiceAdapter sender, String topicArn, Duration intervalo, Clock clock) {
+        this.sender = sender;
+        this.topicArn = topicArn;
+        this.intervalo = intervalo;
+        this.clock = clock;
+    }
+
+    public Progresso iniciar(VideoMensagem mensagem) {
+        return new Progresso(mensagem, clock.instant());
+    }
+
+    /** Estado de um job. Pode ser chamado da thread de extração e da de upload ao mesmo tempo. */
+    public final class Progresso {
+
+        private final VideoMensagem mensagem;
+        private final Instant inicio;
+        private Instant ultimoEnvio;
+        private int estimados = -1;
+        private int feitos;
+        private String ultimaParte;
+
+        private Progresso(VideoMensagem mensagem, Instant inicio) {
+            this.mensagem = mensagem;
+            this.inicio = inicio;
+            this.ultimoEnvio = inicio;
+        }
+
+        public synchronized void estimativa(int framesEstimados) {
+            this.estimados = framesEstimados;
+        }
+
+        public void frames(int framesProcessados) {
+            NotificacaoVideo notificacao = null;
+            synchronized (this) {
+                this.feitos = framesProcessados;
+                Instant agora = clock.instant();
+                if (Duration.between(ultimoEnvio, agora).compareTo(intervalo) >= 0) notificacao = montar(agora);
+            }
+            enviar(notificacao);
+        }
+
+        public void parteDisponivel(String caminhoParte) {
+            NotificacaoVideo notificacao = null;
+            synchronized (this) {
+                boolean primeira = ultimaParte == null;
+                this.ultimaParte = caminhoParte;
+                if (primeira) notificacao = montar(clock.instant());
+            }
+            enviar(notificacao);
+        }
+
+        private void enviar(NotificacaoVideo notificacao) {
+            if (notificacao == null) return;
+            try {
+                sender.enviar(notificacao, topicArn);
+            } catch (RuntimeException e) {
+                log.warn("Falha ao publicar progresso de {}; seguindo", mensagem.getCaminhoVideo(), e);
+            }
+        }
+
+        private NotificacaoVideo montar(Instant agora) {
+            ultimoEnvio = agora;
+            Integer total = estimados >= 0 ? Math.max(estimados, feitos) : null;
+            String previsao = null;
+            if (total != null && feitos > 0) {
+                Duration decorrido = Duration.between(inicio, agora);
+                previsao = agora.plus(decorrido.multipliedBy(total - feitos).dividedBy(feitos))
+                        .toString();
+            }
+            String descricao = total != null
+                    ? "Processados " + feitos + " de " + total + " frames."
+                    : "Processados " + feitos + " frames.";
+            return new NotificacaoVideo(
+                    mensagem.getIdUsuario(),
+                    mensagem.getNomeVideo(),
+                    ultimaParte,
+                    SITUACAO,
+                    descricao,
+                    mensagem.getEmail(),
+                    new ProgressoVideo(feitos, total, previsao));
+        }
+    }
+}
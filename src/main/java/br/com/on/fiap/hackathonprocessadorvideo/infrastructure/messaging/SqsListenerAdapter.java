@@ -1,15 +1,38 @@
 package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ClipeProcessado;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.NotificacaoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ResultadoLote;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SaidaVideo;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.service.VideoProcessingPort;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationRegistry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.JobCanceladoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment.MergeEmAndamentoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment.SegmentCoordinator;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing.Tracing;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.warmup.StartupMetrics;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.Workspace;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.WorkspaceManager;
 import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.Visibility;
 import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeoutException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Headers;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
@@ -17,66 +40,301 @@ import org.springframework.stereotype.Component;
 @Component
 public class SqsListenerAdapter {
 
+    private static final long VISIBILIDADE_MAX_S = 12 * 60 * 60;
+
     @Value("${sns.topic-arn}")
     private String topicArn;
 
     private final VideoProcessingPort videoProcessingPort;
     private final VideoSendMessageServiceAdapter videoSendMessageServiceAdapter;
+    private final StartupMetrics startupMetrics;
+    private final SegmentCoordinator segmentCoordinator;
+    private final ListenerBuffer buffer;
+    private final WorkspaceManager workspaceManager;
+    private final CancellationRegistry cancelamentos;
 
     public SqsListenerAdapter(
-            VideoProcessingPort videoProcessingPort, VideoSendMessageServiceAdapter videoSendMessageServiceAdapter) {
+            VideoProcessingPort videoProcessingPort,
+            VideoSendMessageServiceAdapter videoSendMessageServiceAdapter,
+            StartupMetrics startupMetrics,
+            SegmentCoordinator segmentCoordinator,
+            ListenerBuffer buffer,
+            WorkspaceManager workspaceManager,
+            CancellationRegistry cancelamentos) {
         this.videoProcessingPort = videoProcessingPort;
         this.videoSendMessageServiceAdapter = videoSendMessageServiceAdapter;
+        this.startupMetrics = startupMetrics;
+        this.segmentCoordinator = segmentCoordinator;
+        this.buffer = buffer;
+        this.workspaceManager = workspaceManager;
+        this.cancelamentos = cancelamentos;
     }
 
-    @SqsListener(value = "${queue.path}", maxMessagesPerPoll = "1", acknowledgementMode = "MANUAL")
-    public void listen(
-            @Payload(required = false) VideoMensagem mensagem, @Header("id") String messageId, Acknowledgement ack) {
+    public CompletableFuture<Void> listen(VideoMensagem mensagem, String messageId, Acknowledgement ack) {
+        return listen(mensagem, messageId, Map.of(), ack, null);
+    }
 
+    /**
+     * Devolve o future do job: a thread do listener fica livre durante as transferências, e o ACK (ou a falta dele)
+     * acontece quando o job termina. A vaga, o workspace, o token de cancelamento e o span do job (filho do trace que
+     * veio nos atributos da mensagem) acompanham o job até lá. Mensagens com {@code cancelar} param o job do vídeo em
+     * vez de processar; um job parado (cancelado ou fora do prazo) é notificado e confirmado, sem reentrega.
+     *
+     * <p>Cada poll traz até {@code mensagens-por-poll} mensagens, nunca mais do que cabe nas vagas e no
+     * {@link ListenerBuffer} ({@link AdmissionBackPressureHandler}); as que não acham vaga esperam no buffer. Até o job
+     * terminar a mensagem segue invisível na fila. Os ACKs saem em {@code DeleteMessageBatch} (ver
+     * {@code SqsListenerConfig}).
+     */
+    @SqsListener(
+            value = "${queue.path}",
+            maxMessagesPerPoll = "${processador.sqs.mensagens-por-poll:10}",
+            acknowledgementMode = "MANUAL")
+    public CompletableFuture<Void> listen(
+            @Payload(required = false) VideoMensagem mensagem,
+            @Header("id") String messageId,
+            @Headers Map<String, Object> headers,
+            Acknowledgement ack,
+            Visibility visibility) {
+
+        startupMetrics.mensagemRecebida();
         log.info("MENSAGEM RECEBIDA [{}] - {}", messageId, mensagem);
 
+        if (mensagem != null && mensagem.isCancelar()) {
+            cancelar(mensagem, messageId);
+            ack.acknowledge();
+            return CompletableFuture.completedFuture(null);
+        }
+
         if (mensagem == null
-                || isBlank(mensagem.getCaminhoVideo())
+                || (isBlank(mensagem.getCaminhoVideo()) && mensagem.getLote() == null)
                 || isBlank(mensagem.getNomeVideo())
                 || isBlank(mensagem.getIdUsuario())) {
             log.warn("Discarding invalid message [{}]: {}", messageId, mensagem);
             ack.acknowledge();
-            return;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // divide as vagas de extração com o endpoint HTTP; temporários do job ficam no workspace dele
+        Span span = Tracing.consumir(Tracing.extrair(headers), "processar-mensagem");
+        span.setAttribute("messaging.system", "aws_sqs");
+        span.setAttribute("messaging.message.id", messageId);
+        AdmissionControl.Permissao vaga = null;
+        Workspace workspace = null;
+        CancellationToken token = null;
+        try (Scope scope = span.makeCurrent()) {
+            Optional<AdmissionControl.Permissao> admitida = buffer.aguardarVaga(messageId, visibility);
+            if (admitida.isEmpty()) {
+                Tracing.encerrar(span, null);
+                return CompletableFuture.completedFuture(null);
+            }
+            vaga = admitida.get();
+            workspace = workspaceManager.abrir(messageId);
+            token = cancelamentos.abrir(mensagem.getCaminhoVideo(), mensagem.getPrazoMs());
+            CompletableFuture<Void> job;
+            try (Workspace.Vinculo vinculo = workspace != null ? workspace.vincular() : null;
+                    CancellationToken.Vinculo cancelamento = token.vincular()) {
+                token.verificar();
+                job = processar(mensagem, messageId, ack, visibility);
+            }
+            buffer.manterInvisivel(messageId, visibility, job);
+            AdmissionControl.Permissao vagaJob = vaga;
+            Workspace workspaceJob = workspace;
+            CancellationToken tokenJob = token;
+            return job.whenComplete((r, e) -> Tracing.encerrar(span, e))
+                    .exceptionally(e -> {
+                        tratarFalha(mensagem, messageId, e, ack, tokenJob);
+                        return null;
+                    })
+                    .whenComplete((r, e) -> liberar(vagaJob, workspaceJob, tokenJob));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrompido aguardando vaga para a mensagem [{}]. Sem ACK; será reentregue.", messageId);
+            Tracing.encerrar(span, e);
+        } catch (Exception e) {
+            tratarFalha(mensagem, messageId, e, ack, token);
+            Tracing.encerrar(span, e);
         }
+        liberar(vaga, workspace, token);
+        return CompletableFuture.completedFuture(null);
+    }
 
-        try {
-            String caminhoSaida = videoProcessingPort.processarVideo(mensagem);
+    private CompletableFuture<Void> processar(
+            VideoMensagem mensagem, String messageId, Acknowledgement ack, Visibility visibility) throws Exception {
+        if (mensagem.getLote() != null) {
+            // a notificação sai de outra thread; o contexto do job vai junto para o SNS propagar o trace
+            return videoProcessingPort
+                    .processarLote(mensagem)
+                    .thenAccept(Context.current().wrapConsumer(resultado -> {
+                        notificarLote(mensagem, resultado);
+                        ack.acknowledge();
+                        log.info(
+                                "Lote [{}] de {} clipes processado e confirmado (ACK).",
+                                messageId,
+                                resultado.clipes().size());
+                    }));
+        }
 
-            NotificacaoVideo respSaida = new NotificacaoVideo(
-                    mensagem.getIdUsuario(),
-                    mensagem.getNomeVideo(),
-                    caminhoSaida,
-                    "ARQUIVO_PROCESSADO",
-                    "Video processado com successo.",
-                    mensagem.getEmail());
+        if (mensagem.getSegmento() != null) {
+            Context contexto = Context.current();
+            return videoProcessingPort
+                    .processarSegmento(mensagem)
+                    .thenCompose(contexto.wrapFunction(saida -> concluirSegmento(mensagem, messageId, ack, saida)))
+                    .exceptionally(e -> {
+                        Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (!(causa instanceof MergeEmAndamentoException merge)) throw new CompletionException(causa);
+                        // sem ACK: se o dono do merge morrer, esta mensagem volta quando o lease vencer e o retoma
+                        adiar(messageId, visibility, merge.espera());
+                        log.info("Segmento [{}] espera o merge de outro worker ({})", messageId, merge.espera());
+                        return null;
+                    });
+        }
 
-            videoSendMessageServiceAdapter.enviar(respSaida, topicArn);
+        if (segmentCoordinator.distribuirSeNecessario(mensagem, messageId)) {
+            ack.acknowledge();
+            log.info("Mensagem [{}] distribuída em segmentos e confirmada (ACK).", messageId);
+            return CompletableFuture.completedFuture(null);
+        }
 
+        return videoProcessingPort
+                .processarVideo(mensagem)
+                .thenAccept(Context.current().wrapConsumer(saida -> {
+                    notificarProcessado(mensagem, saida);
+                    ack.acknowledge();
+                    log.info("Mensagem [{}] processada e confirmada (ACK).", messageId);
+                }));
+    }
+
+    private CompletableFuture<Void> concluirSegmento(
+            VideoMensagem mensagem, String messageId, Acknowledgement ack, Optional<String> saida) {
+        if (saida.isEmpty()) {
             ack.acknowledge();
-            log.info("Mensagem [{}] processada e confirmada (ACK).", messageId);
+            log.info("Segmento [{}] {} processado e confirmado (ACK).", messageId, mensagem.getSegmento());
+            return CompletableFuture.completedFuture(null);
+        }
+        // o estado do job só sai depois que a notificação final foi aceita pelo SNS; se ela falhar, fica sem ACK
+        // e a reentrega do segmento notifica de novo sem refazer o merge
+        String jobId = mensagem.getSegmento().jobId();
+        return videoSendMessageServiceAdapter
+                .publicar(notificacaoProcessado(mensagem, SaidaVideo.de(saida.get())), topicArn)
+                .handle((r, e) -> {
+                    if (e != null) throw new CompletionException(new IOException("Falha na notificação final", e));
+                    return r;
+                })
+                .thenRun(Context.current().wrap(() -> {
+                    segmentCoordinator.concluir(jobId);
+                    ack.acknowledge();
+                    log.info("Segmento [{}] {} mesclado, notificado e confirmado (ACK).", messageId, jobId);
+                }));
+    }
 
-        } catch (Exception e) {
-            if (isTransient(e)) {
-                log.error(
-                        "Erro TRANSITÓRIO na mensagem [{}]. Sem ACK; será reentregue. Causa={}",
-                        messageId,
-                        rootMessage(e),
-                        e);
-                return;
-            }
+    /** Esconde a mensagem por {@code espera} (no mínimo 1 s, no máximo o teto de 12 h do SQS). */
+    private void adiar(String messageId, Visibility visibility, Duration espera) {
+        if (visibility == null) return;
+        int segundos = (int) Math.min(VISIBILIDADE_MAX_S, Math.max(1, espera.toSeconds() + 1));
+        visibility.changeToAsync(segundos).whenComplete((r, e) -> {
+            if (e != null) log.warn("Falha ao adiar a mensagem [{}]; volta quando a visibilidade vencer", messageId, e);
+        });
+    }
 
+    /** Cancelamento por {@code caminhoVideo}; a notificação sai do job, quando ele para. */
+    private void cancelar(VideoMensagem mensagem, String messageId) {
+        if (isBlank(mensagem.getCaminhoVideo())) {
+            log.warn("Cancelamento [{}] sem caminhoVideo descartado", messageId);
+            return;
+        }
+        int parados = cancelamentos.cancelar(mensagem.getCaminhoVideo());
+        log.info("Cancelamento [{}] de {}: {} job(s) parados", messageId, mensagem.getCaminhoVideo(), parados);
+    }
+
+    private void tratarFalha(
+            VideoMensagem mensagem, String messageId, Throwable e, Acknowledgement ack, CancellationToken token) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        // parado pelo token, a falha pode chegar como future cancelado ou fluxo interrompido: vale o motivo do token
+        CancellationToken.Motivo motivo = token != null ? token.motivo() : null;
+        if (motivo == null && e instanceof JobCanceladoException cancelado) motivo = cancelado.motivo();
+        if (motivo != null) {
+            boolean notificar = true;
+            if (mensagem.getSegmento() != null) {
+                // um segmento parado encerra o job inteiro; só quem o encerrou notifica
+                try {
+                    notificar = segmentCoordinator.abortar(mensagem.getSegmento().jobId());
+                } catch (RuntimeException falha) {
+                    log.error("Falha ao abortar o job da mensagem [{}]. Sem ACK; será reentregue.", messageId, falha);
+                    return;
+                }
+            }
+            log.warn("Mensagem [{}] parada ({}). Dando ACK para descartar.", messageId, motivo);
+            if (notificar) notificarParado(mensagem, motivo);
+            ack.acknowledge();
+            return;
+        }
+        if (isTransient(e)) {
             log.error(
-                    "Erro PERMANENTE na mensagem [{}]. Dando ACK para descartar. Causa={}",
+                    "Erro TRANSITÓRIO na mensagem [{}]. Sem ACK; será reentregue. Causa={}",
                     messageId,
                     rootMessage(e),
                     e);
-            ack.acknowledge();
+            return;
         }
+
+        log.error("Erro PERMANENTE na mensagem [{}]. Dando ACK para descartar. Causa={}", messageId, rootMessage(e), e);
+        ack.acknowledge();
+    }
+
+    private void liberar(AdmissionControl.Permissao vaga, Workspace workspace, CancellationToken token) {
+        if (token != null) token.close();
+        if (workspace != null) workspace.close();
+        if (vaga != null) vaga.close();
+    }
+
+    private void notificarProcessado(VideoMensagem mensagem, SaidaVideo saida) {
+        videoSendMessageServiceAdapter.enviar(notificacaoProcessado(mensagem, saida), topicArn);
+    }
+
+    private NotificacaoVideo notificacaoProcessado(VideoMensagem mensagem, SaidaVideo saida) {
+        return new NotificacaoVideo(
+                mensagem.getIdUsuario(),
+                mensagem.getNomeVideo(),
+                saida.caminhoSaida(),
+                "ARQUIVO_PROCESSADO",
+                "Video processado com successo.",
+                mensagem.getEmail(),
+                null,
+                null,
+                saida.caminhoPreview(),
+                saida.rendicoes(),
+                saida.ajusteTamanho());
+    }
+
+    private void notificarParado(VideoMensagem mensagem, CancellationToken.Motivo motivo) {
+        boolean prazo = motivo == CancellationToken.Motivo.PRAZO_ESGOTADO;
+        NotificacaoVideo respSaida = new NotificacaoVideo(
+                mensagem.getIdUsuario(),
+                mensagem.getNomeVideo(),
+                null,
+                prazo ? "PRAZO_ESGOTADO" : "ARQUIVO_CANCELADO",
+                prazo ? "Processamento interrompido: o prazo do job acabou." : "Processamento cancelado.",
+                mensagem.getEmail());
+
+        videoSendMessageServiceAdapter.enviar(respSaida, topicArn);
+    }
+
+    /** Uma notificação para o lote inteiro, com o resultado de cada clipe. */
+    private void notificarLote(VideoMensagem mensagem, ResultadoLote resultado) {
+        long ok = resultado.clipes().stream().filter(ClipeProcessado::sucesso).count();
+        NotificacaoVideo respSaida = new NotificacaoVideo(
+                mensagem.getIdUsuario(),
+                mensagem.getNomeVideo(),
+                resultado.caminhoSaida(),
+                "LOTE_PROCESSADO",
+                ok + " de " + resultado.clipes().size() + " clipes processados.",
+                mensagem.getEmail(),
+                null,
+                resultado.clipes());
+
+        videoSendMessageServiceAdapter.enviar(respSaida, topicArn);
     }
 
     private boolean isBlank(String s) {
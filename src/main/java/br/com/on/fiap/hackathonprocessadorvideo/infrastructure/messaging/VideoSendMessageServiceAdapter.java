@@ -1,35 +1,68 @@
 package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
 
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.NotificacaoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing.Tracing;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.context.Context;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
 import software.amazon.awssdk.services.sns.model.PublishRequest;
 
 @Component
 @Slf4j
 public class VideoSendMessageServiceAdapter {
 
-    private final SnsClient snsClient;
+    private final SnsAsyncClient snsClient;
     private final ObjectMapper objectMapper;
 
-    public VideoSendMessageServiceAdapter(SnsClient snsClient, ObjectMapper objectMapper) {
+    public VideoSendMessageServiceAdapter(SnsAsyncClient snsClient, ObjectMapper objectMapper) {
         this.snsClient = snsClient;
         this.objectMapper = objectMapper;
     }
 
-    public void enviar(NotificacaoVideo mensagem, String topicArn) {
+    /**
+     * Publica sem bloquear quem chama. Falhas são só logadas: o future sempre completa normalmente, como antes a
+     * versão síncrona engolia a exceção. O trace corrente segue nos atributos da mensagem ({@code traceparent}).
+     */
+    public CompletableFuture<Void> enviar(NotificacaoVideo mensagem, String topicArn) {
+        return publicar(mensagem, topicArn).exceptionally(e -> {
+            Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Erro ao enviar mensagem para SNS Topic: {}", causa.getMessage(), causa);
+            return null;
+        });
+    }
+
+    /**
+     * Como {@link #enviar}, mas o future falha se a serialização ou a publicação falharem — para quem só pode seguir
+     * (limpar estado, dar ACK) depois que a notificação saiu.
+     */
+    public CompletableFuture<Void> publicar(NotificacaoVideo mensagem, String topicArn) {
+        String jsonMessage;
         try {
-            String jsonMessage = objectMapper.writeValueAsString(mensagem);
-            PublishRequest request = PublishRequest.builder()
-                    .topicArn(topicArn)
-                    .message(jsonMessage)
-                    .build();
-            snsClient.publish(request);
-            log.info("Mensagem enviada para SNS Topic '{}': {}", topicArn, jsonMessage);
+            jsonMessage = objectMapper.writeValueAsString(mensagem);
         } catch (Exception e) {
-            log.error("Erro ao enviar mensagem para SNS Topic: {}", e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
         }
+        Map<String, MessageAttributeValue> atributos = new HashMap<>();
+        Tracing.injetar(
+                Context.current(),
+                (chave, valor) -> atributos.put(
+                        chave,
+                        MessageAttributeValue.builder()
+                                .dataType("String")
+                                .stringValue(valor)
+                                .build()));
+        PublishRequest.Builder request =
+                PublishRequest.builder().topicArn(topicArn).message(jsonMessage);
+        if (!atributos.isEmpty()) request.messageAttributes(atributos);
+        return snsClient
+                .publish(request.build())
+                .thenAccept(resp -> log.info("Mensagem enviada para SNS Topic '{}': {}", topicArn, jsonMessage));
     }
 }
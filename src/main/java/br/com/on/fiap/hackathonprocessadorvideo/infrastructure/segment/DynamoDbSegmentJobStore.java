@@ -0,0 +1,177 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+
+/**
+ * Store compartilhado entre workers. Um item por job; cada segmento concluído vira uma chave do mapa
+ * {@code segmentos}, então reentregas só sobrescrevem o mesmo slot. A disputa pelo merge é uma escrita condicional em
+ * {@code mergeIniciado}, que grava também {@code mergeDono} e {@code mergeEm}: uma reivindicação mais velha que o lease
+ * pode ser retomada. {@code mesclado} marca o zip final gravado até a notificação sair. Itens expiram via TTL em
+ * {@code expiraEm} caso um job nunca termine.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "processador.segmentacao.store", havingValue = "DYNAMODB", matchIfMissing = true)
+public class DynamoDbSegmentJobStore implements SegmentJobStore {
+
+    private static final Duration TTL = Duration.ofDays(7);
+
+    private static final String JOB_ID = "jobId";
+    private static final String CAMINHO_SAIDA = "caminhoSaida";
+    private static final String TOTAL = "total";
+    private static final String SEGMENTOS = "segmentos";
+    private static final String MERGE_INICIADO = "mergeIniciado";
+    private static final String MESCLADO = "mesclado";
+    private static final String MERGE_DONO = "mergeDono";
+    private static final String MERGE_EM = "mergeEm";
+    private static final String EXPIRA_EM = "expiraEm";
+    private static final String CAMINHO_PARCIAL = "caminhoParcial";
+    private static final String FRAMES = "frames";
+
+    private final DynamoDbClient dynamoDb;
+    private final String tabela;
+
+    public DynamoDbSegmentJobStore(
+            DynamoDbClient dynamoDb, @Value("${processador.segmentacao.tabela:processador-segmentos}") String tabela) {
+        this.dynamoDb = dynamoDb;
+        this.tabela = tabela;
+    }
+
+    @Override
+    public void criar(SegmentJob job) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put(JOB_ID, s(job.jobId()));
+        item.put(CAMINHO_SAIDA, s(job.caminhoSaida()));
+        item.put(TOTAL, n(job.total()));
+        item.put(SEGMENTOS, AttributeValue.fromM(Map.of()));
+        item.put(MERGE_INICIADO, AttributeValue.fromBool(false));
+        item.put(MESCLADO, AttributeValue.fromBool(false));
+        item.put(EXPIRA_EM, n(Instant.now().plus(TTL).getEpochSecond()));
+        try {
+            dynamoDb.putItem(r -> r.tableName(tabela).item(item).conditionExpression("attribute_not_exists(jobId)"));
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Job segmentado {} já registrado; ignorando", job.jobId());
+        }
+    }
+
+    @Override
+    public Optional<SegmentJob> buscar(String jobId) {
+        Map<String, AttributeValue> item = dynamoDb.getItem(
+                        r -> r.tableName(tabela).key(chave(jobId)).consistentRead(true))
+                .item();
+        return item == null || item.isEmpty() ? Optional.empty() : Optional.of(toJob(item));
+    }
+
+    @Override
+    public SegmentJob registrarConclusao(String jobId, SegmentoConcluido segmento) {
+        Map<String, AttributeValue> valor = new HashMap<>();
+        valor.put(FRAMES, n(segmento.frames()));
+        if (segmento.caminhoParcial() != null) valor.put(CAMINHO_PARCIAL, s(segmento.caminhoParcial()));
+        try {
+            return toJob(dynamoDb.updateItem(r -> r.tableName(tabela)
+                            .key(chave(jobId))
+                            .updateExpression("SET segmentos.#i = :s")
+                            .conditionExpression("attribute_exists(jobId)")
+                            .expressionAttributeNames(Map.of("#i", String.valueOf(segmento.indice())))
+                            .expressionAttributeValues(Map.of(":s", AttributeValue.fromM(valor)))
+                            .returnValues(ReturnValue.ALL_NEW))
+                    .attributes());
+        } catch (ConditionalCheckFailedException e) {
+            throw new IllegalStateException("Job segmentado não encontrado: " + jobId, e);
+        }
+    }
+
+    @Override
+    public boolean reivindicarMerge(String jobId, String dono, Duration lease) {
+        long agora = System.currentTimeMillis();
+        try {
+            dynamoDb.updateItem(r -> r.tableName(tabela)
+                    .key(chave(jobId))
+                    .updateExpression("SET mergeIniciado = :t, mergeDono = :d, mergeEm = :agora")
+                    .conditionExpression("mergeIniciado = :f OR mergeEm < :expirado")
+                    .expressionAttributeValues(Map.of(
+                            ":t", AttributeValue.fromBool(true),
+                            ":f", AttributeValue.fromBool(false),
+                            ":d", s(dono),
+                            ":agora", n(agora),
+                            ":expirado", n(agora - lease.toMillis()))));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void liberarMerge(String jobId, String dono) {
+        try {
+            dynamoDb.updateItem(r -> r.tableName(tabela)
+                    .key(chave(jobId))
+                    .updateExpression("SET mergeIniciado = :f REMOVE mergeDono, mergeEm")
+                    .conditionExpression("mergeDono = :d")
+                    .expressionAttributeValues(Map.of(":f", AttributeValue.fromBool(false), ":d", s(dono))));
+        } catch (ConditionalCheckFailedException e) {
+            log.debug("Merge do job {} já foi retomado por outro worker; nada a liberar", jobId);
+        }
+    }
+
+    @Override
+    public void registrarMerge(String jobId) {
+        dynamoDb.updateItem(r -> r.tableName(tabela)
+                .key(chave(jobId))
+                .updateExpression("SET mesclado = :t")
+                .conditionExpression("attribute_exists(jobId)")
+                .expressionAttributeValues(Map.of(":t", AttributeValue.fromBool(true))));
+    }
+
+    @Override
+    public boolean remover(String jobId) {
+        return dynamoDb.deleteItem(r -> r.tableName(tabela).key(chave(jobId)).returnValues(ReturnValue.ALL_OLD))
+                .hasAttributes();
+    }
+
+    private static SegmentJob toJob(Map<String, AttributeValue> item) {
+        Map<Integer, SegmentoConcluido> concluidos = new HashMap<>();
+        item.get(SEGMENTOS).m().forEach((indice, v) -> {
+            AttributeValue parcial = v.m().get(CAMINHO_PARCIAL);
+            concluidos.put(
+                    Integer.parseInt(indice),
+                    new SegmentoConcluido(
+                            Integer.parseInt(indice),
+                            parcial == null ? null : parcial.s(),
+                            Integer.parseInt(v.m().get(FRAMES).n())));
+        });
+        return new SegmentJob(
+                item.get(JOB_ID).s(),
+                item.get(CAMINHO_SAIDA).s(),
+                Integer.parseInt(item.get(TOTAL).n()),
+                concluidos,
+                item.get(MERGE_INICIADO).bool(),
+                item.containsKey(MESCLADO) && item.get(MESCLADO).bool(),
+                item.containsKey(MERGE_DONO) ? item.get(MERGE_DONO).s() : null,
+                item.containsKey(MERGE_EM) ? Long.parseLong(item.get(MERGE_EM).n()) : 0);
+    }
+
+    private static Map<String, AttributeValue> chave(String jobId) {
+        return Map.of(JOB_ID, s(jobId));
+    }
+
+    private static AttributeValue s(String v) {
+        return AttributeValue.fromS(v);
+    }
+
+    private static AttributeValue n(long v) {
+        return AttributeValue.fromN(Long.toString(v));
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Store local ao processo: serve para testes e para rodar o modo segmentado com um único worker. */
+@Component
+@ConditionalOnProperty(name = "processador.segmentacao.store", havingValue = "MEMORY")
+public class InMemorySegmentJobStore implements SegmentJobStore {
+
+    private final Map<String, SegmentJob> jobs = new ConcurrentHashMap<>();
+
+    @Override
+    public void criar(SegmentJob job) {
+        jobs.putIfAbsent(job.jobId(), job);
+    }
+
+    @Override
+    public Optional<SegmentJob> buscar(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Override
+    public SegmentJob registrarConclusao(String jobId, SegmentoConcluido segmento) {
+        SegmentJob atualizado = jobs.computeIfPresent(jobId, (id, job) -> {
+            Map<Integer, SegmentoConcluido> concluidos = new HashMap<>(job.concluidos());
+            concluidos.put(segmento.indice(), segmento);
+            return new SegmentJob(
+                    id,
+                    job.caminhoSaida(),
+                    job.total(),
+                    concluidos,
+                    job.mergeIniciado(),
+                    job.mesclado(),
+                    job.mergeDono(),
+                    job.mergeEmMs());
+        });
+        if (atualizado == null) throw new IllegalStateException("Job segmentado não encontrado: " + jobId);
+        return atualizado;
+    }
+
+    @Override
+    public boolean reivindicarMerge(String jobId, String dono, Duration lease) {
+        long agora = System.currentTimeMillis();
+        boolean[] reivindicado = {false};
+        jobs.computeIfPresent(jobId, (id, job) -> {
+            if (job.mergeIniciado() && job.mergeEmMs() >= agora - lease.toMillis()) return job;
+            reivindicado[0] = true;
+            return new SegmentJob(id, job.caminhoSaida(), job.total(), job.concluidos(), true, false, dono, agora);
+        });
+        return reivindicado[0];
+    }
+
+    @Override
+    public void liberarMerge(String jobId, String dono) {
+        jobs.computeIfPresent(jobId, (id, job) -> dono.equals(job.mergeDono())
+                ? new SegmentJob(id, job.caminhoSaida(), job.total(), job.concluidos(), false, false, null, 0)
+                : job);
+    }
+
+    @Override
+    public void registrarMerge(String jobId) {
+        jobs.computeIfPresent(
+                jobId,
+                (id, job) -> new SegmentJob(
+                        id,
+                        job.caminhoSaida(),
+                        job.total(),
+                        job.concluidos(),
+                        true,
+                        true,
+                        job.mergeDono(),
+                        job.mergeEmMs()));
+    }
+
+    @Override
+    public boolean remover(String jobId) {
+        return jobs.remove(jobId) != null;
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Todos os segmentos do job estão prontos, mas outro worker detém o merge. A mensagem não pode ser confirmada: se esse
+ * worker morrer, a reentrega dela é quem retoma o merge depois do lease. É {@link IOException} para seguir como erro
+ * transitório em quem não a tratar.
+ */
+public class MergeEmAndamentoException extends IOException {
+
+    private final transient Duration espera;
+
+    public MergeEmAndamentoException(String jobId, Duration espera) {
+        super("Merge do job " + jobId + " em andamento em outro worker");
+        this.espera = espera;
+    }
+
+    /** Quanto falta para o lease do dono atual vencer. */
+    public Duration espera() {
+        return espera;
+    }
+}
@@ -0,0 +1,146 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.S3MultipartOutputStream;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameArchiveWriter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+
+/**
+ * Junta os zips parciais dos segmentos no zip final, renumerando os frames de forma contínua.
+ *
+ * <p>Não dá para usar {@code UploadPartCopy}: os nomes das entradas mudam e o diretório central do zip precisa ser
+ * reescrito com novos offsets, então os bytes dos parciais não podem ser copiados como estão. O merge é em streaming —
+ * o manifesto final é montado a partir dos sidecars dos parciais e gravado primeiro; depois cada parcial é lido do S3
+ * entrada a entrada e escrito direto num multipart upload, sem passar pelo disco local.
+ */
+@Slf4j
+@Component
+public class SegmentArchiveMerger {
+
+    private static final int DELETE_BATCH = 1000;
+
+    private final S3Client s3Client;
+    private final ObjectMapper objectMapper;
+    private final int partSize;
+
+    public SegmentArchiveMerger(
+            S3Client s3Client,
+            ObjectMapper objectMapper,
+            @Value("${processador.segmentacao.tamanho-parte-mb:16}") int tamanhoParteMb) {
+        this.s3Client = s3Client;
+        this.objectMapper = objectMapper;
+        this.partSize = Math.max(S3MultipartOutputStream.MIN_PART_SIZE, tamanhoParteMb * 1024 * 1024);
+    }
+
+    /**
+     * @param segmentos em ordem de índice; os sem parcial são pulados
+     * @param maxFrames limite global de frames do job ({@code null} = sem limite)
+     * @return total de frames no zip final
+     */
+    public int merge(String bucket, List<SegmentoConcluido> segmentos, String destino, Integer maxFrames)
+            throws IOException {
+        List<SegmentoConcluido> parciais =
+                segmentos.stream().filter(s -> s.caminhoParcial() != null).toList();
+        List<FrameManifestEntry> entradas = renumerar(bucket, parciais, maxFrames);
+        if (entradas.isEmpty()) {
+            throw new NoFramesExtractedException("No frames extracted from any segment: " + destino);
+        }
+
+        S3MultipartOutputStream s3Out = new S3MultipartOutputStream(s3Client, bucket, destino, partSize);
+        FrameArchiveWriter writer;
+        try {
+            writer = FrameArchiveWriter.abrir(s3Out, entradas);
+            int restantes = entradas.size();
+            for (SegmentoConcluido segmento : parciais) {
+                if (restantes == 0) break;
+                try (ZipInputStream zis = new ZipInputStream(new BufferedInputStream(
+                        s3Client.getObject(r -> r.bucket(bucket).key(segmento.caminhoParcial()))))) {
+                    for (ZipEntry entry = zis.getNextEntry();
+                            entry != null && restantes > 0;
+                            entry = zis.getNextEntry()) {
+                        if (FrameManifest.ENTRADA.equals(entry.getName())) continue;
+                        writer.escreverProximo(entry.getCrc(), zis);
+                        restantes--;
+                    }
+                }
+            }
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            s3Out.abort();
+            throw e;
+        }
+
+        s3Client.putObject(
+                r -> r.bucket(bucket).key(FrameManifest.caminhoSidecar(destino)).contentType("application/json"),
+                RequestBody.fromBytes(writer.manifestJson()));
+        log.info(
+                "Merge de {} segmentos concluído: s3://{}/{} ({} frames)",
+                segmentos.size(),
+                bucket,
+                destino,
+                entradas.size());
+        return entradas.size();
+    }
+
+    /** Lê os manifestos parciais (sidecars) e monta o manifesto final com numeração contínua. */
+    private List<FrameManifestEntry> renumerar(String bucket, List<SegmentoConcluido> parciais, Integer maxFrames)
+            throws IOException {
+        List<FrameManifestEntry> entradas = new ArrayList<>();
+        for (SegmentoConcluido segmento : parciais) {
+            byte[] json = s3Client.getObjectAsBytes(
+                            r -> r.bucket(bucket).key(FrameManifest.caminhoSidecar(segmento.caminhoParcial())))
+                    .asByteArray();
+            for (FrameManifestEntry e :
+                    objectMapper.readValue(json, FrameManifest.class).frames()) {
+                if (maxFrames != null && entradas.size() >= maxFrames) return entradas;
+                int indice = entradas.size();
+                entradas.add(new FrameManifestEntry(
+                        indice,
+                        "frame-" + indice + extensao(e.nome()),
+                        e.ptsUs(),
+                        0,
+                        e.tamanhoComprimido(),
+                        e.sha256()));
+            }
+        }
+        return entradas;
+    }
+
+    public void removerParciais(String bucket, List<SegmentoConcluido> segmentos) {
+        List<ObjectIdentifier> chaves = segmentos.stream()
+                .map(SegmentoConcluido::caminhoParcial)
+                .filter(Objects::nonNull)
+                .flatMap(k -> Stream.of(k, FrameManifest.caminhoSidecar(k)))
+                .map(k -> ObjectIdentifier.builder().key(k).build())
+                .toList();
+        for (int i = 0; i < chaves.size(); i += DELETE_BATCH) {
+            List<ObjectIdentifier> lote = chaves.subList(i, Math.min(i + DELETE_BATCH, chaves.size()));
+            try {
+                s3Client.deleteObjects(r -> r.bucket(bucket).delete(d -> d.objects(lote)));
+            } catch (RuntimeException e) {
+                log.warn("Falha ao remover {} arquivos parciais em s3://{}", lote.size(), bucket, e);
+            }
+        }
+    }
+
+    private static String extensao(String nome) {
+        int dot = nome.lastIndexOf('.');
+        return dot < 0 ? "" : nome.substring(dot);
+    }
+}
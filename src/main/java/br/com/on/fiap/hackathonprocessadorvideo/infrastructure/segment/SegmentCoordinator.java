@@ -0,0 +1,322 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ModoSaida;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SegmentoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.VideoProcessingServiceAdapter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.ContainerFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameArchiveWriter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.MediaProbe;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing.Tracing;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import io.opentelemetry.context.Context;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * Modo distribuído para vídeos longos. O worker que recebe a mensagem original só descobre a duração (lendo o
+ * cabeçalho via URL pré-assinada), divide o intervalo pedido em trechos e publica um sub-job por trecho na mesma fila.
+ * Qualquer worker processa um trecho lendo só a faixa de bytes necessária e grava um zip parcial; quem concluir o
+ * último trecho faz o merge no zip de {@code saida} e dispara a notificação.
+ */
+@Slf4j
+@Component
+public class SegmentCoordinator {
+
+    private static final int SQS_BATCH = 10;
+
+    private final SegmentJobStore store;
+    private final SegmentArchiveMerger merger;
+    private final SqsTemplate sqsTemplate;
+    private final S3Client s3Client;
+    private final S3Presigner presigner;
+    private final FrameExtractor extractor;
+    private final MediaProbe probe;
+    private final String bucket;
+    private final boolean enabled;
+    private final long limiarMs;
+    private final long duracaoSegmentoMs;
+    private final String fila;
+    private final Duration validadeUrl;
+    private final Duration leaseMerge;
+
+    public SegmentCoordinator(
+            SegmentJobStore store,
+            SegmentArchiveMerger merger,
+            SqsTemplate sqsTemplate,
+            S3Client s3Client,
+            S3Presigner presigner,
+            @Qualifier("mp4Extractor") FrameExtractor extractor,
+            MediaProbe probe,
+            @Value("${nomeBucket}") String bucket,
+            @Value("${processador.segmentacao.enabled:false}") boolean enabled,
+            @Value("${processador.segmentacao.limiar-ms:1200000}") long limiarMs,
+            @Value("${processador.segmentacao.duracao-segmento-ms:300000}") long duracaoSegmentoMs,
+            @Value("${processador.segmentacao.fila:${queue.path}}") String fila,
+            @Value("${processador.segmentacao.validade-url-min:120}") long validadeUrlMin,
+            @Value("${processador.segmentacao.lease-merge-ms:900000}") long leaseMergeMs) {
+        this.store = store;
+        this.merger = merger;
+        this.sqsTemplate = sqsTemplate;
+        this.s3Client = s3Client;
+        this.presigner = presigner;
+        this.extractor = extractor;
+        this.probe = probe;
+        this.bucket = bucket;
+        this.enabled = enabled;
+        this.limiarMs = limiarMs;
+        this.duracaoSegmentoMs = duracaoSegmentoMs;
+        this.fila = fila;
+        this.validadeUrl = Duration.ofMinutes(validadeUrlMin);
+        this.leaseMerge = Duration.ofMillis(leaseMergeMs);
+    }
+
+    /**
+     * Divide a mensagem em sub-jobs se o modo estiver ligado e o trecho pedido passar do limiar. O id da mensagem SQS
+     * vira o id do job, então uma reentrega da original não cria um segundo job.
+     *
+     * @return {@code true} se os sub-jobs foram publicados e a mensagem original já pode ser confirmada
+     */
+    public boolean distribuirSeNecessario(VideoMensagem mensagem, String messageId) throws IOException {
+        if (!enabled || mensagem.getSegmento() != null) return false;
+
+        OpcoesProcessamento opcoes = OpcoesProcessamento.ouPadrao(mensagem.getOpcoes());
+        opcoes.validar();
+        // o merge de segmentos só sabe juntar um zip de frames por job (o preview de cada trecho se perderia), o
+        // orçamento de tamanho vale para o job inteiro, e playlists não têm o probe que planeja os trechos
+        if (opcoes.saidaOuPadrao() != ModoSaida.FRAMES
+                || opcoes.temRendicoes()
+                || opcoes.preview() != null
+                || opcoes.tamanhoAlvoKb() != null
+                || ContainerFormat.segmentado(mensagem.getCaminhoVideo())) {
+            return false;
+        }
+
+        long duracaoMs = probe.probe(mensagem.getCaminhoVideo()).duracaoMs();
+        List<OpcoesProcessamento> trechos = planejar(opcoes, duracaoMs, limiarMs, duracaoSegmentoMs);
+        if (trechos.size() <= 1) return false;
+
+        String caminhoSaida = VideoProcessingServiceAdapter.caminhoSaida(mensagem.getCaminhoVideo());
+        store.criar(SegmentJob.novo(messageId, caminhoSaida, trechos.size()));
+
+        List<Message<VideoMensagem>> lote = new ArrayList<>(SQS_BATCH);
+        for (int i = 0; i < trechos.size(); i++) {
+            MessageBuilder<VideoMensagem> sub =
+                    MessageBuilder.withPayload(subMensagem(mensagem, trechos.get(i), messageId, i, trechos.size()));
+            // os sub-jobs continuam o trace de quem distribuiu
+            Tracing.injetar(Context.current(), sub::setHeader);
+            lote.add(sub.build());
+            if (lote.size() == SQS_BATCH || i == trechos.size() - 1) {
+                sqsTemplate.sendMany(fila, lote);
+                lote = new ArrayList<>(SQS_BATCH);
+            }
+        }
+        log.info(
+                "Vídeo {} ({} ms) distribuído em {} segmentos [job={}]",
+                mensagem.getCaminhoVideo(),
+                duracaoMs,
+                trechos.size(),
+                messageId);
+        return true;
+    }
+
+    /**
+     * Processa um sub-job. Se ele fechar o job, faz o merge e devolve a chave do zip final; o estado do job fica no
+     * store até {@link #concluir(String)}, então a reentrega do último segmento depois de uma notificação que falhou
+     * devolve a mesma chave sem refazer o merge.
+     *
+     * @return chave de saída quando o merge deste job está feito; vazio caso ainda faltem segmentos
+     * @throws MergeEmAndamentoException se o job está completo mas outro worker detém o merge; a mensagem fica sem
+     *     ACK para retomá-lo caso ele morra
+     */
+    public Optional<String> processarSegmento(VideoMensagem mensagem) throws IOException {
+        SegmentoVideo segmento = mensagem.getSegmento();
+        OpcoesProcessamento opcoes = OpcoesProcessamento.ouPadrao(mensagem.getOpcoes());
+        opcoes.validar();
+
+        Optional<SegmentJob> registrado = store.buscar(segmento.jobId());
+        if (registrado.isEmpty()) {
+            // o job é criado antes de publicar os sub-jobs: sumiu porque já foi concluído e notificado (ou expirou)
+            log.info("Job {} já concluído ou expirado; segmento {} ignorado", segmento.jobId(), segmento.indice());
+            return Optional.empty();
+        }
+        SegmentJob job = registrado
+                .filter(j -> j.concluidos().containsKey(segmento.indice()))
+                .orElse(null);
+        if (job == null) {
+            String caminhoSaida = VideoProcessingServiceAdapter.caminhoSaida(mensagem.getCaminhoVideo());
+            SegmentoConcluido concluido = extrairParcial(mensagem.getCaminhoVideo(), caminhoSaida, segmento, opcoes);
+            try {
+                job = store.registrarConclusao(segmento.jobId(), concluido);
+            } catch (IllegalStateException e) {
+                // abortado (ou expirado) durante a extração: o parcial deste segmento não tem mais quem o junte
+                log.info("Job {} encerrado durante o segmento {}", segmento.jobId(), segmento.indice());
+                merger.removerParciais(bucket, List.of(concluido));
+                return Optional.empty();
+            }
+            log.info(
+                    "Segmento {}/{} do job {} concluído ({} frames); {} de {} prontos",
+                    segmento.indice() + 1,
+                    segmento.total(),
+                    segmento.jobId(),
+                    concluido.frames(),
+                    job.concluidos().size(),
+                    job.total());
+        } else {
+            log.info("Segmento {} do job {} já registrado; pulando extração", segmento.indice(), segmento.jobId());
+        }
+
+        if (!job.completo()) return Optional.empty();
+        if (job.mesclado()) {
+            log.info("Job {} já mesclado; repetindo só a notificação", job.jobId());
+            return Optional.of(job.caminhoSaida());
+        }
+        String dono = UUID.randomUUID().toString();
+        if (!store.reivindicarMerge(job.jobId(), dono, leaseMerge)) {
+            long reivindicadoEm = store.buscar(job.jobId()).map(SegmentJob::mergeEmMs).orElse(0L);
+            Duration espera =
+                    Duration.ofMillis(Math.max(0, reivindicadoEm + leaseMerge.toMillis() - System.currentTimeMillis()));
+            log.info(
+                    "Merge do job {} está com outro worker; segmento {} volta em {}",
+                    job.jobId(),
+                    segmento.indice(),
+                    espera);
+            throw new MergeEmAndamentoException(job.jobId(), espera);
+        }
+        return Optional.of(mesclar(job, dono, opcoes.maxFrames()));
+    }
+
+    /** Remove o estado do job depois que a notificação final saiu. */
+    public void concluir(String jobId) {
+        store.remover(jobId);
+    }
+
+    /**
+     * Encerra um job cujo segmento parou (cancelado ou fora do prazo): sem esse trecho o merge nunca acontece. Apaga o
+     * estado, para que os segmentos ainda na fila sejam ignorados, e os parciais já enviados.
+     *
+     * @return {@code true} só para o segmento que encerrou o job, que então notifica; os demais só confirmam
+     */
+    public boolean abortar(String jobId) {
+        Optional<SegmentJob> job = store.buscar(jobId);
+        if (job.isEmpty() || !store.remover(jobId)) return false;
+        merger.removerParciais(bucket, job.get().emOrdem());
+        log.info("Job segmentado {} abortado; {} parciais descartados", jobId, job.get().concluidos().size());
+        return true;
+    }
+
+    /**
+     * Divide {@code [inicio, fim)} do pedido em trechos de tamanho parecido, nenhum maior que
+     * {@code duracaoSegmentoMs}. Devolve um único trecho quando a janela não passa do limiar ou a duração é
+     * desconhecida. O {@code maxFrames} segue em cada trecho como teto local; o limite global é aplicado no merge.
+     */
+    static List<OpcoesProcessamento> planejar(
+            OpcoesProcessamento opcoes, long duracaoMs, long limiarMs, long duracaoSegmentoMs) {
+        long inicio = opcoes.inicioMs() == null ? 0 : opcoes.inicioMs();
+        long fim = opcoes.fimMs() == null ? duracaoMs : Math.min(opcoes.fimMs(), duracaoMs);
+        long janela = fim - inicio;
+        if (duracaoMs <= 0 || janela <= limiarMs) return List.of(opcoes);
+
+        int total = (int) Math.ceil((double) janela / duracaoSegmentoMs);
+        long passo = (long) Math.ceil((double) janela / total);
+        List<OpcoesProcessamento> trechos = new ArrayList<>(total);
+        for (long t = inicio; t < fim; t += passo) {
+            trechos.add(new OpcoesProcessamento(
+                    t, Math.min(t + passo, fim), opcoes.fpsSaida(), opcoes.intervaloFrames(), opcoes.maxFrames()));
+        }
+        return trechos;
+    }
+
+    /** {@code saida/x.zip} → {@code saida/x.parts/<job>/segmento-00003.zip} */
+    static String caminhoParcial(String caminhoSaida, SegmentoVideo segmento) {
+        String base = caminhoSaida.endsWith(".zip")
+                ? caminhoSaida.substring(0, caminhoSaida.length() - ".zip".length())
+                : caminhoSaida;
+        return "%s.parts/%s/segmento-%05d.zip".formatted(base, segmento.jobId(), segmento.indice());
+    }
+
+    private SegmentoConcluido extrairParcial(
+            String caminhoVideo, String caminhoSaida, SegmentoVideo segmento, OpcoesProcessamento opcoes)
+            throws IOException {
+        Path framesDir = null;
+        Path zipFile = null;
+        try {
+            framesDir = extractor.extract(urlPresignada(caminhoVideo), opcoes);
+            FrameArchiveWriter.Resultado archive = FrameArchiveWriter.escrever(framesDir);
+            zipFile = archive.zip();
+            String parcial = caminhoParcial(caminhoSaida, segmento);
+            s3Client.putObject(r -> r.bucket(bucket).key(parcial), RequestBody.fromFile(zipFile));
+            s3Client.putObject(
+                    r -> r.bucket(bucket).key(FrameManifest.caminhoSidecar(parcial)),
+                    RequestBody.fromBytes(archive.manifestJson()));
+            return new SegmentoConcluido(
+                    segmento.indice(), parcial, archive.manifest().frames().size());
+        } catch (NoFramesExtractedException e) {
+            log.info("Segmento {} do job {} não gerou frames", segmento.indice(), segmento.jobId());
+            return new SegmentoConcluido(segmento.indice(), null, 0);
+        } finally {
+            StorageFileUtil.deleteRecursively(framesDir);
+            StorageFileUtil.deleteQuietly(zipFile);
+        }
+    }
+
+    private String mesclar(SegmentJob job, String dono, Integer maxFrames) throws IOException {
+        try {
+            merger.merge(bucket, job.emOrdem(), job.caminhoSaida(), maxFrames);
+            store.registrarMerge(job.jobId());
+        } catch (IOException | RuntimeException e) {
+            store.liberarMerge(job.jobId(), dono);
+            throw e;
+        }
+        merger.removerParciais(bucket, job.emOrdem());
+        return job.caminhoSaida();
+    }
+
+    private VideoMensagem subMensagem(
+            VideoMensagem original, OpcoesProcessamento trecho, String jobId, int indice, int total) {
+        VideoMensagem sub = new VideoMensagem(
+                original.getIdUsuario(),
+                original.getNomeVideo(),
+                original.getCaminhoVideo(),
+                original.getDataCriacao(),
+                original.getEmail(),
+                trecho,
+                new SegmentoVideo(jobId, indice, total));
+        // cada segmento é um job com o prazo do original; cancelar o vídeo para todos eles
+        sub.setPrazoMs(original.getPrazoMs());
+        return sub;
+    }
+
+    private URI urlPresignada(String key) throws IOException {
+        try {
+            return presigner
+                    .presignGetObject(r -> r.signatureDuration(validadeUrl)
+                            .getObjectRequest(g -> g.bucket(bucket).key(key)))
+                    .url()
+                    .toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("URL pré-assinada inválida para " + key, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estado de um vídeo distribuído em segmentos: quantos existem, quais já terminaram, se algum worker já assumiu o
+ * merge final (quem e quando, para que outro o retome se ele morrer no meio) e se ele terminou. O estado só é removido
+ * depois da notificação final, para que a reentrega do último segmento possa notificar de novo sem refazer o merge.
+ */
+public record SegmentJob(
+        String jobId,
+        String caminhoSaida,
+        int total,
+        Map<Integer, SegmentoConcluido> concluidos,
+        boolean mergeIniciado,
+        boolean mesclado,
+        String mergeDono,
+        long mergeEmMs) {
+
+    public SegmentJob {
+        concluidos = Map.copyOf(concluidos);
+    }
+
+    public static SegmentJob novo(String jobId, String caminhoSaida, int total) {
+        return new SegmentJob(jobId, caminhoSaida, total, Map.of(), false, false, null, 0);
+    }
+
+    public boolean completo() {
+        return concluidos.size() >= total;
+    }
+
+    public List<SegmentoConcluido> emOrdem() {
+        return concluidos.values().stream()
+                .sorted(Comparator.comparingInt(SegmentoConcluido::indice))
+                .toList();
+    }
+}
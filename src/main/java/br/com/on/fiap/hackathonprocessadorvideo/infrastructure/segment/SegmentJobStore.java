@@ -0,0 +1,43 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Estado compartilhado dos jobs segmentados. Todas as operações precisam ser seguras entre workers concorrentes e
+ * idempotentes frente a reentregas do SQS.
+ */
+public interface SegmentJobStore {
+
+    /** Registra o job; não faz nada se ele já existir (reentrega da mensagem original). */
+    void criar(SegmentJob job);
+
+    Optional<SegmentJob> buscar(String jobId);
+
+    /**
+     * Marca o segmento como concluído e devolve o estado atualizado.
+     *
+     * @throws IllegalStateException se o job não existir (já mesclado ou expirado)
+     */
+    SegmentJob registrarConclusao(String jobId, SegmentoConcluido segmento);
+
+    /**
+     * Tenta assumir o merge em nome de {@code dono}; só um chamador recebe {@code true} até
+     * {@link #liberarMerge(String, String)} ou até a reivindicação passar de {@code lease} — então o dono é dado como
+     * morto e outro worker pode assumir.
+     */
+    boolean reivindicarMerge(String jobId, String dono, Duration lease);
+
+    /** Devolve o merge para que a reentrega do último segmento tente de novo; ignorado se ele já for de outro dono. */
+    void liberarMerge(String jobId, String dono);
+
+    /** Marca o zip final como gravado; a partir daqui uma reentrega só repete a notificação. */
+    void registrarMerge(String jobId);
+
+    /**
+     * Remove o estado do job; chamado depois que a notificação final saiu ou quando o job é abortado.
+     *
+     * @return {@code true} só para quem removeu o job; {@code false} se ele já não existia
+     */
+    boolean remover(String jobId);
+}
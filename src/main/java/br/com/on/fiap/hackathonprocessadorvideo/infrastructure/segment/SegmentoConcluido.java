@@ -0,0 +1,4 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+/** Resultado de um segmento: o zip parcial no S3 ({@code null} quando o trecho não gerou frames) e quantos frames. */
+public record SegmentoConcluido(int indice, String caminhoParcial, int frames) {}
@@ -0,0 +1,133 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.FrameCopyPool;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.Workspace;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Encoders de um job. Com largura 1 codifica na thread do decode, como sempre; com mais, cada frame é copiado e
+ * codificado numa thread {@code encoder-N} com um dos {@code largura} encoders do job. Quem chama mantém no máximo
+ * {@code largura} frames em voo, então um encoder está sempre livre para a próxima tarefa.
+ */
+final class EncoderPool implements AutoCloseable {
+
+    private static final AtomicInteger SEQUENCIA_THREADS = new AtomicInteger();
+    private static final ExecutorService THREADS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "encoder-" + SEQUENCIA_THREADS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ImageFormat format;
+    private final int largura;
+    private final BlockingQueue<FrameEncoder> livres;
+    private final FrameEncoder inline;
+    private final boolean proprio;
+    private final FrameCopyPool copias;
+    private final Workspace workspace;
+
+    private EncoderPool(ImageFormat format, int largura, FrameEncoder inline, boolean proprio) {
+        this.format = format;
+        this.largura = largura;
+        this.inline = inline;
+        this.proprio = proprio;
+        this.livres = new ArrayBlockingQueue<>(Math.max(1, largura));
+        this.copias = largura > 1 ? new FrameCopyPool() : null;
+        this.workspace = Workspace.atual().orElse(null);
+    }
+
+    /** Usa um encoder de fora (ex.: o do lote), sem fechá-lo. */
+    static EncoderPool inline(FrameEncoder encoder) {
+        return new EncoderPool(encoder.format(), 1, encoder, false);
+    }
+
+    static EncoderPool abrir(FrameEncoderFactory factory, int largura) {
+        return abrir(factory::create, factory.getFormat(), largura);
+    }
+
+    /** @param criar novo encoder de {@code format}; chamado {@code largura} vezes */
+    static EncoderPool abrir(Supplier<FrameEncoder> criar, ImageFormat format, int largura) {
+        if (largura <= 1) {
+            return new EncoderPool(format, 1, criar.get(), true);
+        }
+        EncoderPool pool = new EncoderPool(format, largura, null, true);
+        for (int i = 0; i < largura; i++) pool.livres.add(criar.get());
+        return pool;
+    }
+
+    ImageFormat format() {
+        return format;
+    }
+
+    int largura() {
+        return largura;
+    }
+
+    /**
+     * Grava {@code frame} em {@code out}; completa com o resultado de {@link FrameEncoder#write}. Na largura 1 já
+     * volta completo.
+     */
+    CompletableFuture<Boolean> escrever(Frame frame, Path out) {
+        if (inline != null) {
+            try {
+                return CompletableFuture.completedFuture(inline.write(frame, out));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        Frame copia = copias.copiar(frame);
+        CompletableFuture<Boolean> escrito = new CompletableFuture<>();
+        THREADS.execute(() -> {
+            FrameEncoder encoder = livres.poll();
+            boolean ok = false;
+            Throwable erro = null;
+            try (Workspace.Vinculo vinculo = workspace != null ? workspace.vincular() : null) {
+                ok = encoder.write(copia, out);
+            } catch (Throwable e) {
+                erro = e;
+            } finally {
+                // devolve antes de completar: quem espera o resultado já pode mandar o próximo frame
+                copias.devolver(copia);
+                livres.add(encoder);
+            }
+            if (erro != null) {
+                escrito.completeExceptionally(erro);
+            } else {
+                escrito.complete(ok);
+            }
+        });
+        return escrito;
+    }
+
+    /** Espera as tarefas em voo devolverem os encoders antes de fechá-los. */
+    @Override
+    public void close() {
+        if (inline != null) {
+            if (proprio) inline.close();
+            return;
+        }
+        boolean interrompido = false;
+        for (int i = 0; i < largura; i++) {
+            try {
+                livres.take().close();
+            } catch (InterruptedException e) {
+                interrompido = true;
+                i--;
+            }
+        }
+        copias.close();
+        if (interrompido) Thread.currentThread().interrupt();
+    }
+}
@@ -1,57 +1,255 @@
 package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.JobCanceladoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.budget.ByteBudget;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.dedup.FrameDeduplicator;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameExtractionException;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameReadException;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.VideoOpenException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.preview.PreviewOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.preview.PreviewRecorder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.NativeLibraries;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tuning.AutoTuner;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.extern.slf4j.Slf4j;
-import org.bytedeco.ffmpeg.global.avutil;
-import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
 import org.bytedeco.javacv.Frame;
-import org.bytedeco.javacv.OpenCVFrameConverter;
-import org.bytedeco.opencv.global.opencv_imgcodecs;
-import org.bytedeco.opencv.opencv_core.Mat;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component("mp4Extractor")
 public final class FfmpegFrameExtractor implements FrameExtractor {
 
+    /** Frames codificados em cada nível de qualidade para calibrar o orçamento de tamanho. */
+    private static final int AMOSTRAS_CALIBRACAO = 4;
+
+    /** Quanto de um fluxo sequencial fica guardado para o FFmpeg voltar atrás ao identificar o container. */
+    private static final int BUFFER_SEQUENCIAL = 1024 * 1024;
+
+    private final FrameEncoderFactory encoderFactory;
+    private final FrameDeduplicator deduplicator;
+    private final PreviewOutput previewOutput;
+    private final AutoTuner tuner;
+
+    public FfmpegFrameExtractor() {
+        this(FrameEncoderFactory.padrao());
+    }
+
+    public FfmpegFrameExtractor(FrameEncoderFactory encoderFactory) {
+        this(encoderFactory, FrameDeduplicator.desligado());
+    }
+
+    public FfmpegFrameExtractor(FrameEncoderFactory encoderFactory, FrameDeduplicator deduplicator) {
+        this(encoderFactory, deduplicator, PreviewOutput.padrao());
+    }
+
+    public FfmpegFrameExtractor(
+            FrameEncoderFactory encoderFactory, FrameDeduplicator deduplicator, PreviewOutput previewOutput) {
+        this(encoderFactory, deduplicator, previewOutput, AutoTuner.desligado());
+    }
+
+    @Autowired
+    public FfmpegFrameExtractor(
+            FrameEncoderFactory encoderFactory,
+            FrameDeduplicator deduplicator,
+            PreviewOutput previewOutput,
+            AutoTuner tuner) {
+        this.encoderFactory = encoderFactory;
+        this.deduplicator = deduplicator;
+        this.previewOutput = previewOutput;
+        this.tuner = tuner;
+    }
+
     @Override
-    public Path extract(Path videoFile) throws IOException {
+    public Path extract(Path videoFile, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+        return extract(VideoSource.local(videoFile), opcoes, listener);
+    }
+
+    @Override
+    public Path extract(URI source, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+        return extract(VideoSource.remoto(source), opcoes, listener);
+    }
+
+    /**
+     * Extrai de um fluxo lido uma vez do começo ao fim, sem seek (ex.: segmentos HLS/DASH concatenados conforme
+     * chegam). O fluxo começa em {@code inicioUs} e termina em {@code fimUs} da linha do tempo do vídeo: os timestamps
+     * são rebaseados para o primeiro frame cair em {@code inicioUs}, e os frames antes do recorte de {@code opcoes} são
+     * descartados em vez de pulados. Não aceita {@code tamanhoAlvoKb}, cuja calibração depende de seek.
+     */
+    public Path extract(
+            InputStream fluxo,
+            String descricao,
+            long inicioUs,
+            long fimUs,
+            OpcoesProcessamento opcoes,
+            FrameListener listener)
+            throws IOException {
+        if (opcoes.tamanhoAlvoKb() != null) {
+            throw new IllegalArgumentException("tamanhoAlvoKb exige uma origem com seek: " + descricao);
+        }
+        return extract(VideoSource.sequencial(fluxo, descricao, inicioUs, fimUs), opcoes, listener);
+    }
+
+    /** Um encoder para o lote todo: ele só reabre o codec quando a resolução muda entre clipes. */
+    @Override
+    public Lote abrirLote() {
+        FrameEncoder encoder = encoderFactory.create();
+        return new Lote() {
+            @Override
+            public Path extract(Path videoFile, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+                return FfmpegFrameExtractor.this.extract(VideoSource.local(videoFile), opcoes, listener, encoder);
+            }
+
+            @Override
+            public void close() {
+                encoder.close();
+            }
+        };
+    }
+
+    private Path extract(VideoSource source, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+        return extract(source, opcoes, listener, null);
+    }
+
+    /** @param encoderLote encoder compartilhado de um lote; {@code null} abre os do job, na largura do auto-tuning */
+    private Path extract(
+            VideoSource source, OpcoesProcessamento opcoes, FrameListener listener, FrameEncoder encoderLote)
+            throws IOException {
         ensureNativesLoaded();
-        log.info("Starting frame extraction (FFmpeg) from {}", videoFile);
+        log.info("Starting frame extraction (FFmpeg) from {} with {}", source, opcoes);
 
         Path framesDir = createFramesDir();
 
-        try (FFmpegFrameGrabber grabber = newGrabber(videoFile);
-                OpenCVFrameConverter.ToMat converter = newConverter()) {
+        try (FFmpegFrameGrabber grabber = newGrabber(source)) {
+
+            startGrabberOrThrow(grabber, source, framesDir);
+            // o lote compartilha um encoder de qualidade fixa; o orçamento vale só para jobs avulsos
+            ByteBudget orcamento = opcoes.tamanhoAlvoKb() != null && encoderLote == null
+                    ? planejarOrcamento(grabber, opcoes, framesDir)
+                    : null;
+            OpcoesProcessamento amostragem = orcamento != null ? opcoes.espacada(orcamento.intervalo()) : opcoes;
+            FrameSelector selector = FrameSelector.of(amostragem, grabber.getVideoFrameRate())
+                    .ancorar(listener.ancoraAmostragemUs());
+            long lengthUs = grabber.getLengthInTime();
+            if (source.isSequencial()) {
+                selector.sequencial(source.inicioUs(), startUs(opcoes));
+                lengthUs = source.fimUs();
+            } else {
+                seekToStart(grabber, opcoes);
+            }
+            listener.inicio(selector.estimateTotal(startUs(opcoes), lengthUs));
+            double custoMp = custoMegapixels(grabber, opcoes);
+            tuner.registrarJob(custoMp);
+            FrameDeduplicator.Sessao dedup = deduplicator.iniciar();
+            try (EncoderPool encoders = abrirEncoders(encoderLote, orcamento, tuner.larguraEncoder(custoMp));
+                    PreviewRecorder preview = abrirPreview(grabber, opcoes, framesDir)) {
+                int count = extractFrames(
+                        grabber, encoders, framesDir, selector, dedup, listener, preview, opcoes, orcamento);
+                dedup.concluir();
+                if (preview != null && count > 0) preview.concluir();
+                Path dir = finalizeOrThrowIfEmpty(count, source, framesDir);
+                if (orcamento != null) {
+                    listener.ajusteTamanho(orcamento.ajuste(encoders.format().name()));
+                }
+                return dir;
+            }
+
+        } catch (FFmpegFrameGrabber.Exception e) {
+            cleanupOnError(source, framesDir);
+            throw new FrameExtractionException("Error while reading frames via FFmpeg: " + source, e);
+        } catch (FrameExtractionException | JobCanceladoException e) {
+            cleanupOnError(source, framesDir);
+            throw e;
+        }
+    }
+
+    @Override
+    public int decode(Path videoFile, OpcoesProcessamento opcoes, FrameSink sink) throws IOException {
+        ensureNativesLoaded();
+        VideoSource source = VideoSource.local(videoFile);
+        log.info("Starting frame decode (FFmpeg) from {} with {}", source, opcoes);
+
+        try (FFmpegFrameGrabber grabber = newGrabber(source)) {
+            startGrabberOrThrow(grabber, source, null);
+            seekToStart(grabber, opcoes);
 
-            startGrabberOrThrow(grabber, videoFile, framesDir);
+            FrameSelector selector = FrameSelector.of(opcoes, grabber.getVideoFrameRate());
+            FrameDeduplicator.Sessao dedup = deduplicator.iniciar();
+            FrameSink contado = (frame, indice, ptsUs) -> {
+                if (!sink.aceitar(frame, indice, ptsUs)) return false;
+                tuner.frameEscrito();
+                return true;
+            };
+            int count = selectFrames(grabber, selector, dedup, contado, null, startUs(opcoes));
+            dedup.concluir();
+            if (count == 0) {
+                throw new NoFramesExtractedException("No frames extracted from video: " + source);
+            }
+            log.info("Decoded {} frames from {}", count, source);
+            return count;
+        } catch (FFmpegFrameGrabber.Exception e) {
+            throw new FrameExtractionException("Error while reading frames via FFmpeg: " + source, e);
+        }
+    }
 
-            int count = extractFrames(grabber, converter, framesDir);
-            return finalizeOrThrowIfEmpty(count, videoFile, framesDir);
+    /**
+     * Um grab por frame de origem para todas as faixas: o frame só é convertido quando alguma faixa o quer, e cada uma
+     * recebe o mesmo {@link Frame} — quem precisa dele depois da chamada copia. A deduplicação não se aplica aqui.
+     */
+    @Override
+    public int distribuir(Path videoFile, OpcoesProcessamento opcoes, List<Faixa> faixas) throws IOException {
+        ensureNativesLoaded();
+        VideoSource source = VideoSource.local(videoFile);
+        log.info("Starting fan-out decode (FFmpeg) from {} into {} lanes", source, faixas.size());
 
+        try (FFmpegFrameGrabber grabber = newGrabber(source)) {
+            startGrabberOrThrow(grabber, source, null);
+            seekToStart(grabber, opcoes);
+
+            FrameSelector[] selectors = new FrameSelector[faixas.size()];
+            for (int i = 0; i < selectors.length; i++) {
+                selectors[i] = FrameSelector.of(faixas.get(i).amostragem(), grabber.getVideoFrameRate());
+            }
+            int[] counts = new int[selectors.length];
+            int total = distributeFrames(grabber, selectors, faixas, counts);
+            if (total == 0) {
+                throw new NoFramesExtractedException("No frames extracted from video: " + source);
+            }
+            log.info("Decoded {} into {} lanes: {} frames", source, faixas.size(), Arrays.toString(counts));
+            return total;
         } catch (FFmpegFrameGrabber.Exception e) {
-            cleanupOnError(videoFile, framesDir);
-            throw new FrameExtractionException("Error while reading frames via FFmpeg: " + videoFile, e);
+            throw new FrameExtractionException("Error while reading frames via FFmpeg: " + source, e);
         }
     }
 
     private void ensureNativesLoaded() {
-        Loader.load(avutil.class);
+        NativeLibraries.ensureFfmpegLoaded();
     }
 
     private Path createFramesDir() throws IOException {
-        Path dir = Files.createTempDirectory("frames-ffmpeg-");
+        Path dir = StorageFileUtil.createTempDirectory("frames-ffmpeg-");
         try {
             Set<PosixFilePermission> perms = PosixFilePermissions.fromString("rwx------");
             Files.setPosixFilePermissions(dir, perms);
@@ -62,15 +260,22 @@ public final class FfmpegFrameExtractor implements FrameExtractor {
         return dir;
     }
 
-    private FFmpegFrameGrabber newGrabber(Path videoFile) {
-        return new FFmpegFrameGrabber(videoFile.toString());
-    }
-
-    private OpenCVFrameConverter.ToMat newConverter() {
-        return new OpenCVFrameConverter.ToMat();
+    private FFmpegFrameGrabber newGrabber(VideoSource source) {
+        FFmpegFrameGrabber grabber = source.isSequencial()
+                ? new FFmpegFrameGrabber(source.fluxo(), BUFFER_SEQUENCIAL)
+                : new FFmpegFrameGrabber(source.location());
+        int threads = tuner.threadsDecoder();
+        if (threads > 0) grabber.setVideoOption("threads", String.valueOf(threads));
+        if (source.isRemoto()) {
+            // Falhas de rede no meio de um segmento longo não devem derrubar a extração inteira.
+            grabber.setOption("reconnect", "1");
+            grabber.setOption("reconnect_streamed", "1");
+            grabber.setOption("rw_timeout", "30000000");
+        }
+        return grabber;
     }
 
-    private void startGrabberOrThrow(FFmpegFrameGrabber grabber, Path videoFile, Path framesDir)
+    private void startGrabberOrThrow(FFmpegFrameGrabber grabber, VideoSource source, Path framesDir)
             throws VideoOpenException {
         try {
             grabber.start();
@@ -81,58 +286,316 @@ public final class FfmpegFrameExtractor implements FrameExtractor {
                     grabber.getImageWidth(),
                     grabber.getImageHeight());
         } catch (FFmpegFrameGrabber.Exception startEx) {
-            cleanupOnError(videoFile, framesDir);
-            throw new VideoOpenException("Failed to open video via FFmpeg: " + videoFile, startEx);
+            cleanupOnError(source, framesDir);
+            throw new VideoOpenException("Failed to open video via FFmpeg: " + source, startEx);
         }
     }
 
-    private int extractFrames(FFmpegFrameGrabber grabber, OpenCVFrameConverter.ToMat converter, Path framesDir)
-            throws FrameExtractionException {
-        int count = 0;
+    private EncoderPool abrirEncoders(FrameEncoder encoderLote, ByteBudget orcamento, int largura) {
+        if (encoderLote != null) return EncoderPool.inline(encoderLote);
+        if (orcamento == null) return EncoderPool.abrir(encoderFactory, largura);
+        ImageFormat formato = encoderFactory.formatoComPerdas();
+        return EncoderPool.abrir(() -> encoderFactory.create(formato, 0, orcamento::qualidade), formato, largura);
+    }
 
-        while (true) {
+    /**
+     * Calibra o orçamento de {@code tamanhoAlvoKb}: codifica {@value #AMOSTRAS_CALIBRACAO} frames espalhados pelo
+     * recorte em cada nível de {@link ByteBudget#QUALIDADES} e planeja com a média de cada nível. Sem duração
+     * conhecida, usa os primeiros frames. Deixa o grabber de volta no início do recorte.
+     */
+    private ByteBudget planejarOrcamento(FFmpegFrameGrabber grabber, OpcoesProcessamento opcoes, Path framesDir)
+            throws IOException {
+        ImageFormat formato = encoderFactory.formatoComPerdas();
+        int[] qualidades = ByteBudget.QUALIDADES;
+        long[] somas = new long[qualidades.length];
+        int amostras = 0;
+        long inicioUs = startUs(opcoes);
+        long lengthUs = grabber.getLengthInTime();
+        long fimUs = opcoes.fimMs() != null ? opcoes.fimMs() * 1000L : lengthUs;
+        if (lengthUs > 0) fimUs = Math.min(fimUs, lengthUs);
+        AtomicInteger qualidade = new AtomicInteger();
+        Path teste = framesDir.resolve("calibracao." + formato.getExtension());
+        try (FrameEncoder encoder = encoderFactory.create(formato, 0, qualidade::get)) {
+            for (int i = 0; i < AMOSTRAS_CALIBRACAO; i++) {
+                if (fimUs > inicioUs) {
+                    grabber.setTimestamp(inicioUs + (fimUs - inicioUs) * (2L * i + 1) / (2L * AMOSTRAS_CALIBRACAO));
+                }
+                Frame frame = grabber.grabImage();
+                if (frame == null) break;
+                for (int q = 0; q < qualidades.length; q++) {
+                    qualidade.set(qualidades[q]);
+                    if (encoder.write(frame, teste)) somas[q] += Files.size(teste);
+                }
+                amostras++;
+            }
+        } finally {
+            Files.deleteIfExists(teste);
+        }
+        grabber.setTimestamp(inicioUs);
+
+        long[] medias = new long[qualidades.length];
+        for (int q = 0; q < qualidades.length && amostras > 0; q++) medias[q] = somas[q] / amostras;
+        int previstos = FrameSelector.of(opcoes, grabber.getVideoFrameRate()).estimateTotal(inicioUs, lengthUs);
+        ByteBudget orcamento = ByteBudget.planejar(opcoes.tamanhoAlvoKb() * 1024, medias, previstos);
+        log.info(
+                "Orçamento de {} KB: {} bytes/frame calibrados em {} para ~{} frames; {} qualidade {}, intervalo {}",
+                opcoes.tamanhoAlvoKb(),
+                Arrays.toString(medias),
+                Arrays.toString(qualidades),
+                previstos,
+                formato,
+                orcamento.qualidade(),
+                orcamento.intervalo());
+        return orcamento;
+    }
+
+    /** Seek até o início do recorte; o grabber descarta sem converter os frames até o alvo. */
+    private void seekToStart(FFmpegFrameGrabber grabber, OpcoesProcessamento opcoes)
+            throws FFmpegFrameGrabber.Exception {
+        if (startUs(opcoes) == 0) return;
+        grabber.setTimestamp(startUs(opcoes));
+        log.debug("Seeked to {} ms (grabber at {} us)", opcoes.inicioMs(), grabber.getTimestamp());
+    }
+
+    /** Gravador do preview pedido nas opções, no mesmo loop de decodificação; {@code null} sem preview. */
+    private PreviewRecorder abrirPreview(FFmpegFrameGrabber grabber, OpcoesProcessamento opcoes, Path framesDir) {
+        if (opcoes.preview() == null) return null;
+        return previewOutput.abrir(
+                framesDir,
+                opcoes.preview(),
+                grabber.getImageWidth(),
+                grabber.getImageHeight(),
+                grabber.getVideoFrameRate(),
+                startUs(opcoes));
+    }
+
+    /** Megapixels a decodificar no recorte; {@code -1} quando o container não informa duração ou resolução. */
+    private static double custoMegapixels(FFmpegFrameGrabber grabber, OpcoesProcessamento opcoes) {
+        long lengthUs = grabber.getLengthInTime();
+        double fps = grabber.getVideoFrameRate();
+        long pixels = (long) grabber.getImageWidth() * grabber.getImageHeight();
+        if (lengthUs <= 0 || fps <= 0 || pixels <= 0) return -1;
+        long endUs = opcoes.fimMs() != null ? Math.min(lengthUs, opcoes.fimMs() * 1000L) : lengthUs;
+        double frames = Math.max(0, endUs - startUs(opcoes)) / 1e6 * fps;
+        return frames * pixels / 1e6;
+    }
+
+    private static long startUs(OpcoesProcessamento opcoes) {
+        return opcoes.inicioMs() == null ? 0 : opcoes.inicioMs() * 1000L;
+    }
+
+    /**
+     * Com um pool de largura 1 grava cada frame antes do próximo grab, como sempre. Mais largo, os frames seguem
+     * para os encoders e são confirmados (manifesto de pts, listener) em ordem de índice conforme terminam, com no
+     * máximo {@code largura} em voo; um frame que o encoder não gravar fica fora do arquivo sem renumerar os outros.
+     * Só os confirmados entram na contagem devolvida.
+     */
+    private int extractFrames(
+            FFmpegFrameGrabber grabber,
+            EncoderPool encoders,
+            Path framesDir,
+            FrameSelector selector,
+            FrameDeduplicator.Sessao dedup,
+            FrameListener listener,
+            PreviewRecorder preview,
+            OpcoesProcessamento opcoes,
+            ByteBudget orcamento)
+            throws IOException {
+        Gravacao gravacao = new Gravacao(encoders, framesDir, selector, listener, orcamento);
+        selectFrames(grabber, selector, dedup, gravacao, preview, startUs(opcoes));
+        int count = gravacao.aguardar(0);
+        if (count > 0) Files.writeString(framesDir.resolve(FrameManifest.PTS_FILE), gravacao.pts);
+        return count;
+    }
+
+    /**
+     * Sink da extração em arquivos. Um frame entregue ao encoder ocupa lugar no {@code maxFrames} enquanto está em voo
+     * e só conta de vez ao ser confirmado; se o encoder falhar ou o orçamento recusar o arquivo, o lugar volta para o
+     * próximo frame selecionado.
+     */
+    private final class Gravacao implements FrameSink {
+
+        private final EncoderPool encoders;
+        private final Path framesDir;
+        private final FrameSelector selector;
+        private final FrameListener listener;
+        private final ByteBudget orcamento;
+        private final StringBuilder pts = new StringBuilder();
+        private final ArrayDeque<Pendente> pendentes = new ArrayDeque<>();
+        private int confirmados;
+
+        Gravacao(
+                EncoderPool encoders,
+                Path framesDir,
+                FrameSelector selector,
+                FrameListener listener,
+                ByteBudget orcamento) {
+            this.encoders = encoders;
+            this.framesDir = framesDir;
+            this.selector = selector;
+            this.listener = listener;
+            this.orcamento = orcamento;
+        }
+
+        @Override
+        public boolean aceitar(Frame frame, int index, long ptsUs) throws IOException {
+            if (orcamento != null && !orcamento.aceitar()) {
+                if (orcamento.esgotado()) selector.encerrar();
+                return false;
+            }
+            Path out = frameFile(encoders, framesDir, index);
+            Pendente pendente = new Pendente(index, ptsUs, out, encoders.escrever(frame, out));
+            if (pendentes.isEmpty() && pendente.escrito().isDone()) return confirmar(pendente);
+            pendentes.addLast(pendente);
+            while (!pendentes.isEmpty()
+                    && (pendentes.size() >= encoders.largura()
+                            || pendentes.peekFirst().escrito().isDone())) {
+                confirmar(pendentes.pollFirst());
+            }
+            return true;
+        }
+
+        @Override
+        public int aproveitados(int entregues) {
+            return confirmados + pendentes.size();
+        }
+
+        @Override
+        public int aguardar(int entregues) throws IOException {
+            while (!pendentes.isEmpty()) confirmar(pendentes.pollFirst());
+            return confirmados;
+        }
+
+        private boolean confirmar(Pendente pendente) throws IOException {
+            boolean ok;
+            try {
+                ok = pendente.escrito().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                throw e;
+            }
+            if (!ok) {
+                log.warn("Failed to write frame {} to {}", pendente.index(), pendente.out());
+                return false;
+            }
+            if (orcamento != null && !orcamento.registrar(Files.size(pendente.out()))) {
+                // não cabe mais no orçamento: fica fora do arquivo, como um frame que o encoder não gravou
+                Files.deleteIfExists(pendente.out());
+                return false;
+            }
+            if (log.isTraceEnabled()) log.trace("Wrote frame {} -> {}", pendente.index(), pendente.out());
+            StorageFileUtil.contabilizar(pendente.out());
+            pts.append(pendente.index()).append(' ').append(pendente.ptsUs()).append('\n');
+            listener.frameEscrito(pendente.out(), pendente.index(), pendente.ptsUs());
+            confirmados++;
+            tuner.frameEscrito();
+            return true;
+        }
+    }
+
+    private record Pendente(int index, long ptsUs, Path out, CompletableFuture<Boolean> escrito) {}
+
+    private int selectFrames(
+            FFmpegFrameGrabber grabber,
+            FrameSelector selector,
+            FrameDeduplicator.Sessao dedup,
+            FrameSink sink,
+            PreviewRecorder preview,
+            long inicioUs)
+            throws IOException {
+        // o job pode parar entre dois frames; a saída dos try-with-resources libera grabber, encoders e buffers
+        CancellationToken cancelamento = CancellationToken.atual();
+        int count = 0;
+        long ultimoPts = inicioUs;
+        // no limite, espera os frames em voo: se algum não for gravado, a seleção continua
+        while (!selector.limitReached(sink.aproveitados(count)) || !selector.limitReached(sink.aguardar(count))) {
+            cancelamento.verificar();
+            boolean wanted = selector.wantsNext();
+            // o preview só pede conversão dos poucos frames que ele grava
+            boolean comImagem = wanted || (preview != null && preview.querProximo(ultimoPts));
             final Frame frame;
             try {
-                frame = grabber.grabImage();
+                frame = comImagem ? grabber.grabImage() : grabber.grabFrame(false, true, false, false);
             } catch (FFmpegFrameGrabber.Exception e) {
-                log.warn("FFmpeg read error after {} frames; aborting extraction (dir: {})", count, framesDir, e);
+                log.warn("FFmpeg read error after {} frames; aborting extraction", count, e);
                 throw new FrameReadException(count, e);
             }
 
             if (frame == null) break;
+            frame.timestamp = selector.timestamp(frame.timestamp);
+            if (selector.pastEnd(frame.timestamp)) break;
+            if (selector.beforeStart(frame.timestamp)) continue;
+            selector.onGrabbed(frame.timestamp, wanted);
+            ultimoPts = frame.timestamp;
+            if (preview != null) preview.oferecer(frame, comImagem);
 
-            Mat mat = converter.convert(frame);
-            if (mat != null && !mat.empty()) {
-                boolean saved = writeFramePng(mat, framesDir, count);
-                mat.release();
-                if (saved) count++;
+            if (wanted && !dedup.repetido(frame) && sink.aceitar(frame, count, frame.timestamp)) {
+                dedup.emitido();
+                count++;
             }
         }
+        // um fluxo de segmentos cancelado termina como fim de arquivo: não é um vídeo mais curto
+        cancelamento.verificar();
         return count;
     }
 
-    private boolean writeFramePng(Mat mat, Path framesDir, int index) {
-        Path out = framesDir.resolve("frame-" + index + ".png");
-        boolean ok = opencv_imgcodecs.imwrite(out.toString(), mat);
-        if (!ok) {
-            log.warn("Failed to write frame {} to {}", index, out);
-        } else if (log.isTraceEnabled()) {
-            log.trace("Wrote frame {} -> {}", index, out);
+    private int distributeFrames(
+            FFmpegFrameGrabber grabber, FrameSelector[] selectors, List<Faixa> faixas, int[] counts)
+            throws IOException {
+        CancellationToken cancelamento = CancellationToken.atual();
+        int total = 0;
+        boolean[] wanted = new boolean[selectors.length];
+        while (true) {
+            cancelamento.verificar();
+            boolean ativa = false;
+            boolean comImagem = false;
+            for (int i = 0; i < selectors.length; i++) {
+                boolean aberta = !selectors[i].limitReached(counts[i]);
+                wanted[i] = aberta && selectors[i].wantsNext();
+                ativa |= aberta;
+                comImagem |= wanted[i];
+            }
+            if (!ativa) break;
+
+            final Frame frame;
+            try {
+                frame = comImagem ? grabber.grabImage() : grabber.grabFrame(false, true, false, false);
+            } catch (FFmpegFrameGrabber.Exception e) {
+                log.warn("FFmpeg read error after {} frames; aborting fan-out", total, e);
+                throw new FrameReadException(total, e);
+            }
+            // o recorte é o mesmo para todas as faixas
+            if (frame == null || selectors[0].pastEnd(frame.timestamp)) break;
+
+            for (int i = 0; i < selectors.length; i++) {
+                if (selectors[i].limitReached(counts[i])) continue;
+                selectors[i].onGrabbed(frame.timestamp, wanted[i]);
+                if (wanted[i] && faixas.get(i).sink().aceitar(frame, counts[i], frame.timestamp)) {
+                    counts[i]++;
+                    total++;
+                    tuner.frameEscrito();
+                }
+            }
         }
-        return ok;
+        return total;
+    }
+
+    private static Path frameFile(EncoderPool encoders, Path framesDir, int index) {
+        return framesDir.resolve("frame-" + index + "." + encoders.format().getExtension());
     }
 
-    private Path finalizeOrThrowIfEmpty(int count, Path videoFile, Path framesDir) throws NoFramesExtractedException {
+    private Path finalizeOrThrowIfEmpty(int count, VideoSource source, Path framesDir)
+            throws NoFramesExtractedException {
         if (count == 0) {
-            cleanupOnError(videoFile, framesDir);
-            throw new NoFramesExtractedException("No frames extracted from video: " + videoFile);
+            cleanupOnError(source, framesDir);
+            throw new NoFramesExtractedException("No frames extracted from video: " + source);
         }
         log.info("Extracted {} frames into {}", count, framesDir);
         return framesDir;
     }
 
-    private static void cleanupOnError(Path videoFile, Path framesDir) {
-        StorageFileUtil.deleteQuietly(videoFile);
+    private static void cleanupOnError(VideoSource source, Path framesDir) {
+        StorageFileUtil.deleteQuietly(source.arquivoLocal());
         StorageFileUtil.deleteRecursively(framesDir);
     }
 }
@@ -1,8 +1,66 @@
 package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Path;
+import java.util.List;
 
 public interface FrameExtractor {
-    Path extract(Path videoFile) throws IOException;
+    Path extract(Path videoFile, OpcoesProcessamento opcoes, FrameListener listener) throws IOException;
+
+    /** Extrai direto de uma URL (ex.: pré-assinada do S3), deixando o FFmpeg buscar só os trechos necessários. */
+    Path extract(URI source, OpcoesProcessamento opcoes, FrameListener listener) throws IOException;
+
+    /**
+     * Decodifica e seleciona os frames como {@link #extract(Path, OpcoesProcessamento, FrameListener)}, mas entrega
+     * cada frame ao {@code sink} em vez de gravá-lo. Devolve quantos frames o sink aceitou.
+     */
+    int decode(Path videoFile, OpcoesProcessamento opcoes, FrameSink sink) throws IOException;
+
+    /**
+     * Um decode para várias saídas: cada {@link Faixa} tem a própria amostragem e recebe só os frames que ela pede,
+     * com índices próprios. O recorte vem de {@code opcoes}. Devolve o total de frames aceitos pelas faixas.
+     *
+     * <p>O padrão decodifica o vídeo uma vez por faixa; implementações que consigam devem decodificar uma vez só.
+     */
+    default int distribuir(Path videoFile, OpcoesProcessamento opcoes, List<Faixa> faixas) throws IOException {
+        int total = 0;
+        for (Faixa faixa : faixas) {
+            total += decode(videoFile, faixa.amostragem(), faixa.sink());
+        }
+        return total;
+    }
+
+    /**
+     * Sessão para extrair vários vídeos seguidos na mesma thread, reaproveitando o que a implementação conseguir
+     * (encoder, contextos de escala, buffers) em vez de recriar por vídeo. Feche ao fim do lote.
+     */
+    default Lote abrirLote() {
+        return this::extract;
+    }
+
+    default Path extract(Path videoFile, OpcoesProcessamento opcoes) throws IOException {
+        return extract(videoFile, opcoes, FrameListener.NENHUM);
+    }
+
+    default Path extract(URI source, OpcoesProcessamento opcoes) throws IOException {
+        return extract(source, opcoes, FrameListener.NENHUM);
+    }
+
+    default Path extract(Path videoFile) throws IOException {
+        return extract(videoFile, OpcoesProcessamento.padrao());
+    }
+
+    /** Destino de {@link #distribuir}: amostragem de uma saída e quem recebe os frames dela. */
+    record Faixa(OpcoesProcessamento amostragem, FrameSink sink) {}
+
+    /** Extrações de um lote; não é thread-safe. */
+    @FunctionalInterface
+    interface Lote extends AutoCloseable {
+        Path extract(Path videoFile, OpcoesProcessamento opcoes, FrameListener listener) throws IOException;
+
+        @Override
+        default void close() {}
+    }
 }
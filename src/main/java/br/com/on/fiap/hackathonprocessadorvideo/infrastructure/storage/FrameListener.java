@@ -0,0 +1,31 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.AjusteTamanho;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Acompanha a extração frame a frame, na thread do extrator. O arquivo recebido pode ser movido do diretório de
+ * frames pelo listener (ex.: para fechar partes enquanto a extração continua).
+ */
+public interface FrameListener {
+
+    FrameListener NENHUM = (arquivo, indice, ptsUs) -> {};
+
+    /**
+     * Instante (pts, µs) a partir do qual a cadência da amostragem é contada, consultado antes da extração;
+     * {@code -1} conta a partir do primeiro frame, como de costume. Uma retomada devolve a âncora da primeira
+     * tentativa.
+     */
+    default long ancoraAmostragemUs() {
+        return -1;
+    }
+
+    /** Chamado uma vez, antes do primeiro frame; {@code -1} quando a duração do vídeo é desconhecida. */
+    default void inicio(int framesEstimados) throws IOException {}
+
+    void frameEscrito(Path arquivo, int indice, long ptsUs) throws IOException;
+
+    /** Chamado no fim de uma extração com {@code tamanhoAlvoKb}, com a qualidade e o intervalo usados. */
+    default void ajusteTamanho(AjusteTamanho ajuste) {}
+}
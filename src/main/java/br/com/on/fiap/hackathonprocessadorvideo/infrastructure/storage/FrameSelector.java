@@ -0,0 +1,145 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+
+/**
+ * Decide, antes de cada grab, se o próximo frame de origem será convertido e codificado.
+ * Frames descartados são lidos sem processamento de imagem (sem swscale nem encoder), então o
+ * custo por frame fora da amostragem fica restrito ao decode. Para a amostragem por fps o
+ * timestamp do próximo frame é previsto a partir da taxa de origem.
+ */
+final class FrameSelector {
+
+    private static final double FALLBACK_FPS = 30;
+
+    private final long endUs;
+    private final int stride;
+    private final long emitIntervalUs;
+    private final long frameDurationUs;
+    private final int maxFrames;
+
+    private long sourceIndex;
+    private long lastTimestampUs = -1;
+    private long nextEmitUs = -1;
+    private boolean encerrado;
+    private long inicioUs = Long.MIN_VALUE;
+    private long origemUs = -1;
+    private long deslocamentoUs;
+    private boolean rebaseado;
+    private long ancoraUs = -1;
+
+    FrameSelector(long endUs, int stride, long emitIntervalUs, double sourceFps, int maxFrames) {
+        this.endUs = endUs;
+        this.stride = stride;
+        this.emitIntervalUs = emitIntervalUs;
+        this.frameDurationUs = Math.round(1_000_000d / (sourceFps > 0 ? sourceFps : FALLBACK_FPS));
+        this.maxFrames = maxFrames;
+    }
+
+    static FrameSelector of(OpcoesProcessamento opcoes, double sourceFps) {
+        long endUs = opcoes.fimMs() != null ? opcoes.fimMs() * 1000L : Long.MAX_VALUE;
+        int stride = opcoes.intervaloFrames() != null ? opcoes.intervaloFrames() : 1;
+        long emitIntervalUs = 0;
+        if (opcoes.fpsSaida() != null && (sourceFps <= 0 || opcoes.fpsSaida() < sourceFps)) {
+            emitIntervalUs = Math.round(1_000_000d / opcoes.fpsSaida());
+        }
+        int maxFrames = opcoes.maxFrames() != null ? opcoes.maxFrames() : Integer.MAX_VALUE;
+        return new FrameSelector(endUs, stride, emitIntervalUs, sourceFps, maxFrames);
+    }
+
+    boolean wantsNext() {
+        if (lastTimestampUs >= 0 && lastTimestampUs + frameDurationUs >= endUs) return false;
+        if (stride > 1) return sourceIndex % stride == 0;
+        if (emitIntervalUs > 0 && lastTimestampUs >= 0) {
+            long predictedUs = lastTimestampUs + frameDurationUs;
+            return predictedUs + frameDurationUs / 2 >= nextEmitUs;
+        }
+        return true;
+    }
+
+    /**
+     * Para origens lidas sem seek, que começam em {@code origemUs} da linha do tempo do vídeo: {@link #timestamp}
+     * rebaseia os timestamps pelo primeiro frame, e {@link #beforeStart} aponta os anteriores a {@code inicioUs}, que
+     * o seek teria pulado.
+     */
+    FrameSelector sequencial(long origemUs, long inicioUs) {
+        this.origemUs = origemUs;
+        this.inicioUs = inicioUs;
+        return this;
+    }
+
+    /**
+     * Conta a cadência a partir de {@code ancoraUs} em vez do primeiro frame lido: numa retomada, o primeiro frame
+     * depois do seek ocupa a vaga da cadência original em que cai, e os seguintes seguem dela. {@code -1} não ancora.
+     */
+    FrameSelector ancorar(long ancoraUs) {
+        this.ancoraUs = ancoraUs;
+        return this;
+    }
+
+    /** Timestamp do frame recém-lido na linha do tempo do vídeo. */
+    long timestamp(long grabbedUs) {
+        if (origemUs < 0) return grabbedUs;
+        if (!rebaseado) {
+            deslocamentoUs = origemUs - grabbedUs;
+            rebaseado = true;
+        }
+        return grabbedUs + deslocamentoUs;
+    }
+
+    boolean beforeStart(long timestampUs) {
+        return timestampUs < inicioUs;
+    }
+
+    boolean pastEnd(long timestampUs) {
+        return timestampUs >= endUs;
+    }
+
+    void onGrabbed(long timestampUs, boolean converted) {
+        boolean primeiro = lastTimestampUs < 0;
+        boolean ancorado = primeiro && ancoraUs >= 0 && timestampUs >= ancoraUs;
+        if (ancorado && stride > 1) {
+            sourceIndex = Math.round((double) (timestampUs - ancoraUs) / frameDurationUs);
+        }
+        sourceIndex++;
+        lastTimestampUs = timestampUs;
+        if (converted && emitIntervalUs > 0) {
+            long base = nextEmitUs >= 0 ? nextEmitUs : (ancorado ? vagaAncorada(timestampUs) : timestampUs);
+            nextEmitUs = base + emitIntervalUs;
+        }
+    }
+
+    /** Vaga da cadência ancorada que o frame em {@code timestampUs} ocupa, com a mesma tolerância de meio frame. */
+    private long vagaAncorada(long timestampUs) {
+        return ancoraUs + (timestampUs + frameDurationUs / 2 - ancoraUs) / emitIntervalUs * emitIntervalUs;
+    }
+
+    /**
+     * Quantos frames devem ser emitidos entre {@code startUs} e o fim do recorte/vídeo; usado só para progresso, então
+     * uma aproximação basta. {@code -1} quando nem o recorte nem o container informam o fim.
+     */
+    int estimateTotal(long startUs, long lengthUs) {
+        long end = Math.min(endUs, lengthUs > 0 ? lengthUs : Long.MAX_VALUE);
+        if (end == Long.MAX_VALUE) return -1;
+        long window = Math.max(0, end - startUs);
+        long sourceFrames = window / frameDurationUs;
+        long emitted;
+        if (stride > 1) {
+            emitted = (sourceFrames + stride - 1) / stride;
+        } else if (emitIntervalUs > 0) {
+            emitted = (window + emitIntervalUs - 1) / emitIntervalUs;
+        } else {
+            emitted = sourceFrames;
+        }
+        return (int) Math.min(emitted, maxFrames);
+    }
+
+    boolean limitReached(int emitted) {
+        return encerrado || emitted >= maxFrames;
+    }
+
+    /** Para a seleção antes do fim do recorte (ex.: orçamento de tamanho esgotado). */
+    void encerrar() {
+        encerrado = true;
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import java.io.IOException;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Recebe os frames decodificados que passaram pela seleção (recorte, amostragem, dedup), antes de qualquer encode —
+ * para saídas que compõem a imagem por conta própria em vez de gravar um arquivo por frame. O {@link Frame} só é
+ * válido durante a chamada: o grabber reaproveita o buffer no próximo grab.
+ */
+@FunctionalInterface
+public interface FrameSink {
+
+    /** @return {@code true} se o frame foi aproveitado; só esses contam para o {@code maxFrames} */
+    boolean aceitar(Frame frame, int indice, long ptsUs) throws IOException;
+
+    /**
+     * Quantos frames contam agora para o {@code maxFrames}, depois de {@code entregues} aceitos; um sink que grava em
+     * segundo plano desconta os que falharam depois de aceitos.
+     */
+    default int aproveitados(int entregues) {
+        return entregues;
+    }
+
+    /** Como {@link #aproveitados}, mas espera os frames ainda em voo; chamado quando a contagem chega ao limite. */
+    default int aguardar(int entregues) throws IOException {
+        return aproveitados(entregues);
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.cache.VideoCache;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.FileTransformerConfiguration;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+/**
+ * Downloads e uploads S3 pelo cliente assíncrono: os bytes fluem no event loop do HTTP compartilhado e nenhuma thread
+ * de processamento fica parada esperando a rede. Uploads grandes viram multipart paralelo (ver {@code AwsAsyncConfig}).
+ */
+@Slf4j
+@Component
+public class S3AsyncTransfer {
+
+    private final S3AsyncClient s3;
+    private final VideoCache cache;
+
+    public S3AsyncTransfer(S3AsyncClient s3, VideoCache cache) {
+        this.s3 = s3;
+        this.cache = cache;
+    }
+
+    /**
+     * Baixa o objeto para {@code destino}, substituindo o arquivo. O tamanho final é contado na quota do workspace dono
+     * de {@code destino}; estourar a quota falha o future (o workspace apaga o arquivo ao fechar). Com cópia no
+     * {@link VideoCache}, o GET é condicional e um 304 traz o vídeo do disco.
+     */
+    public CompletableFuture<Path> baixar(String bucket, String key, Path destino) {
+        String etag = cache.etag(bucket, key).orElse(null);
+        if (etag == null) return baixar(bucket, key, null, destino);
+        return baixar(bucket, key, etag, destino).exceptionallyCompose(e -> {
+            if (!VideoCache.naoModificado(e)) return CompletableFuture.failedFuture(e);
+            try {
+                if (cache.restaurar(bucket, key, etag, destino)) {
+                    log.info("Vídeo servido do cache local: {}", destino);
+                    return CompletableFuture.completedFuture(destino);
+                }
+            } catch (IOException io) {
+                return CompletableFuture.failedFuture(io);
+            }
+            // a cópia saiu do cache entre a consulta e o 304
+            return baixar(bucket, key, null, destino);
+        });
+    }
+
+    private CompletableFuture<Path> baixar(String bucket, String key, String etag, Path destino) {
+        return s3.getObject(
+                        r -> r.bucket(bucket).key(key).ifNoneMatch(etag),
+                        AsyncResponseTransformer.toFile(
+                                destino, FileTransformerConfiguration.defaultCreateOrReplaceExisting()))
+                .thenApply(resp -> {
+                    try {
+                        StorageFileUtil.contabilizar(destino);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    cache.guardar(bucket, key, resp.eTag(), destino);
+                    log.info("Vídeo baixado para temporário: {}", destino);
+                    return destino;
+                });
+    }
+
+    public CompletableFuture<Void> enviar(String bucket, String key, Path arquivo, String contentType) {
+        return s3.putObject(r -> r.bucket(bucket).key(key).contentType(contentType), AsyncRequestBody.fromFile(arquivo))
+                .thenAccept(resp -> log.info("Arquivo enviado para S3: {}/{}", bucket, key));
+    }
+
+    public CompletableFuture<Void> enviar(String bucket, String key, byte[] conteudo, String contentType) {
+        return s3.putObject(
+                        r -> r.bucket(bucket).key(key).contentType(contentType), AsyncRequestBody.fromBytes(conteudo))
+                .thenAccept(resp -> log.info("Arquivo enviado para S3: {}/{}", bucket, key));
+    }
+}
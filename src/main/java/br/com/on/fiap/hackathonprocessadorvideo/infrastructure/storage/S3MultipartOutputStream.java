@@ -0,0 +1,127 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+
+/**
+ * Grava direto num objeto S3 via multipart upload, mantendo só uma parte em memória. Objetos menores que uma parte
+ * viram um único PutObject. Em caso de erro, chame {@link #abort()} para não deixar upload pendente (cobrado) no
+ * bucket; {@link #close()} depois de {@code abort()} não faz nada.
+ */
+@Slf4j
+public final class S3MultipartOutputStream extends OutputStream {
+
+    /** Mínimo do S3 para todas as partes exceto a última. */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String key;
+    private final byte[] buffer;
+    private final List<CompletedPart> parts = new ArrayList<>();
+
+    private int position;
+    private String uploadId;
+    private boolean closed;
+
+    public S3MultipartOutputStream(S3Client s3Client, String bucket, String key, int partSize) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("partSize must be >= " + MIN_PART_SIZE + ": " + partSize);
+        }
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+        this.buffer = new byte[partSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (position == buffer.length) flushPart();
+        buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (position == buffer.length) flushPart();
+            int n = Math.min(len, buffer.length - position);
+            System.arraycopy(b, off, buffer, position, n);
+            position += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (uploadId == null) {
+                s3Client.putObject(
+                        r -> r.bucket(bucket).key(key), RequestBody.fromBytes(Arrays.copyOf(buffer, position)));
+                return;
+            }
+            if (position > 0) uploadPart();
+            s3Client.completeMultipartUpload(
+                    r -> r.bucket(bucket).key(key).uploadId(uploadId).multipartUpload(m -> m.parts(parts)));
+            log.debug("Multipart upload {} concluído em s3://{}/{} ({} partes)", uploadId, bucket, key, parts.size());
+        } catch (RuntimeException e) {
+            abortQuietly();
+            throw new IOException("Falha ao concluir upload de s3://" + bucket + "/" + key, e);
+        }
+    }
+
+    /** Descarta o que já foi enviado. Idempotente. */
+    public void abort() {
+        closed = true;
+        abortQuietly();
+    }
+
+    private void flushPart() throws IOException {
+        try {
+            if (uploadId == null) {
+                uploadId = s3Client.createMultipartUpload(r -> r.bucket(bucket).key(key))
+                        .uploadId();
+            }
+            uploadPart();
+        } catch (RuntimeException e) {
+            abort();
+            throw new IOException("Falha ao enviar parte " + (parts.size() + 1) + " de s3://" + bucket + "/" + key, e);
+        }
+    }
+
+    private void uploadPart() {
+        int partNumber = parts.size() + 1;
+        String etag = s3Client.uploadPart(
+                        r -> r.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber),
+                        RequestBody.fromBytes(Arrays.copyOf(buffer, position)))
+                .eTag();
+        parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+        position = 0;
+    }
+
+    private void abortQuietly() {
+        if (uploadId == null) return;
+        String id = uploadId;
+        uploadId = null;
+        try {
+            s3Client.abortMultipartUpload(r -> r.bucket(bucket).key(key).uploadId(id));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao abortar multipart upload {} de s3://{}/{}", id, bucket, key, e);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Stream fechado: s3://" + bucket + "/" + key);
+    }
+}
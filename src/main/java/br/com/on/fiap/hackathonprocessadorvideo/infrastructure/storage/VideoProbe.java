@@ -0,0 +1,44 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.VideoOpenException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.MediaInfo;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.NativeLibraries;
+import java.net.URI;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.FrameGrabber;
+import org.springframework.stereotype.Component;
+
+/** Lê só o cabeçalho do container (o FFmpeg busca o moov por HTTP Range) para descobrir duração e formato do vídeo. */
+@Slf4j
+@Component
+public class VideoProbe {
+
+    /** Duração em milissegundos, ou {@code 0} quando o container não informa. */
+    public long duracaoMs(URI source) throws VideoOpenException {
+        return info(source).duracaoMs();
+    }
+
+    /** Metadados do cabeçalho; o tamanho do arquivo não é conhecido aqui e vem como {@code -1}. */
+    public MediaInfo info(URI source) throws VideoOpenException {
+        NativeLibraries.ensureFfmpegLoaded();
+        VideoSource origem = VideoSource.remoto(source);
+        try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(origem.location())) {
+            grabber.start();
+            boolean temVideo = grabber.hasVideo();
+            MediaInfo info = new MediaInfo(
+                    grabber.getFormat(),
+                    Math.max(0, grabber.getLengthInTime() / 1000L),
+                    temVideo ? grabber.getVideoCodecName() : null,
+                    grabber.getImageWidth(),
+                    grabber.getImageHeight(),
+                    temVideo ? grabber.getVideoFrameRate() : 0,
+                    temVideo ? Math.max(0, grabber.getLengthInVideoFrames()) : 0,
+                    -1);
+            log.debug("Probe {}: {}", origem, info);
+            return info;
+        } catch (FrameGrabber.Exception e) {
+            throw new VideoOpenException("Failed to probe video via FFmpeg: " + origem, e);
+        }
+    }
+}
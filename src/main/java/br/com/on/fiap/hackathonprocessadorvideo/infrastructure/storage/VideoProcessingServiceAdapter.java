@@ -1,75 +1,729 @@
 // VideoProcessingServiceAdapter.java
 package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.AjusteTamanho;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.FormatoPreview;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ModoSaida;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.RendicaoGerada;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ResultadoLote;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SaidaVideo;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.service.VideoProcessingPort;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.JobCanceladoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment.SegmentCoordinator;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArquivoFrames;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.batch.ClipBatchProcessor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.cache.VideoCache;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint.ResumableArchiveUpload;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint.ResumableOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.chunk.ChunkedArchiveSink;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.chunk.ChunkedOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.ContainerFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.preview.PreviewOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.MediaPreflight;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.rendition.RendicaoArquivada;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.rendition.RenditionOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.sprite.SpriteIndex;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.sprite.SpriteSheetComposer;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.sprite.SpriteSheetOutput;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing.Tracing;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.Workspace;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
-import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
 @Service
 @Slf4j
 public class VideoProcessingServiceAdapter implements VideoProcessingPort {
 
+    private static final AtomicInteger SEQUENCIA_THREADS = new AtomicInteger();
+
     @Value("${nomeBucket}")
     private String bucket;
 
     private final S3Client s3Client;
     private final FrameExtractor extractor;
+    private final ChunkedOutput chunkedOutput;
+    private final ResumableOutput resumableOutput;
+    private final SpriteSheetOutput spriteOutput;
+    private final MediaPreflight preflight;
+    private final ArchiveOutput archiveOutput;
+    private final S3AsyncTransfer transfer;
+    private final ClipBatchProcessor batchProcessor;
+    private final RenditionOutput renditionOutput;
+    private final VideoCache videoCache;
+    private final SegmentCoordinator segmentCoordinator;
+    private final Executor executor;
+
+    /** Sem cliente assíncrono: transferências bloqueantes, tudo na thread de quem chama. */
+    public VideoProcessingServiceAdapter(S3Client s3Client, FrameExtractor extractor) {
+        this(
+                s3Client,
+                extractor,
+                null,
+                null,
+                SpriteSheetOutput.padrao(),
+                null,
+                ArchiveOutput.padrao(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                Runnable::run);
+    }
 
-    public VideoProcessingServiceAdapter(S3Client s3Client, @Qualifier("mp4Extractor") FrameExtractor extractor) {
+    @Autowired
+    public VideoProcessingServiceAdapter(
+            S3Client s3Client,
+            @Qualifier("videoExtractor") FrameExtractor extractor,
+            ChunkedOutput chunkedOutput,
+            ResumableOutput resumableOutput,
+            SpriteSheetOutput spriteOutput,
+            MediaPreflight preflight,
+            ArchiveOutput archiveOutput,
+            S3AsyncTransfer transfer,
+            ClipBatchProcessor batchProcessor,
+            RenditionOutput renditionOutput,
+            VideoCache videoCache,
+            SegmentCoordinator segmentCoordinator,
+            AdmissionControl admissionControl) {
+        this(
+                s3Client,
+                extractor,
+                chunkedOutput,
+                resumableOutput,
+                spriteOutput,
+                preflight,
+                archiveOutput,
+                transfer,
+                batchProcessor,
+                renditionOutput,
+                videoCache,
+                segmentCoordinator,
+                // uma thread por vaga no teto do auto-tuning; vagas a menos só deixam threads ociosas
+                Executors.newFixedThreadPool(
+                        admissionControl.limiteJobs(), VideoProcessingServiceAdapter::threadProcessamento));
+    }
+
+    VideoProcessingServiceAdapter(
+            S3Client s3Client,
+            FrameExtractor extractor,
+            ChunkedOutput chunkedOutput,
+            ResumableOutput resumableOutput,
+            SpriteSheetOutput spriteOutput,
+            MediaPreflight preflight,
+            ArchiveOutput archiveOutput,
+            S3AsyncTransfer transfer,
+            ClipBatchProcessor batchProcessor,
+            RenditionOutput renditionOutput,
+            VideoCache videoCache,
+            SegmentCoordinator segmentCoordinator,
+            Executor executor) {
         this.s3Client = s3Client;
         this.extractor = extractor;
+        this.chunkedOutput = chunkedOutput;
+        this.resumableOutput = resumableOutput;
+        this.spriteOutput = spriteOutput;
+        this.preflight = preflight;
+        this.archiveOutput = archiveOutput;
+        this.transfer = transfer;
+        this.batchProcessor = batchProcessor;
+        this.renditionOutput = renditionOutput;
+        this.videoCache = videoCache;
+        this.segmentCoordinator = segmentCoordinator;
+        this.executor = executor;
     }
 
+    /**
+     * Validação e preflight correm em quem chama; download e uploads ficam no cliente assíncrono, e só a parte CPU
+     * (decodificação, escrita do arquivo) ocupa uma thread de processamento. O workspace, o token de cancelamento e o
+     * span de quem chama acompanham o job nessas threads; cada etapa abre um span filho. Um job parado não começa a
+     * etapa seguinte, e as transferências em voo são canceladas.
+     */
     @Override
-    public String processarVideo(VideoMensagem mensagem) throws IOException {
+    public CompletableFuture<SaidaVideo> processarVideo(VideoMensagem mensagem) {
         String key = mensagem.getCaminhoVideo();
-        String keyOutput = key.replace("entrada", "saida").replace(".mp4", ".zip");
+        String keyOutput = caminhoSaida(key);
+        OpcoesProcessamento opcoes;
+        try {
+            opcoes = OpcoesProcessamento.ouPadrao(mensagem.getOpcoes());
+            opcoes.validar();
+            if (ContainerFormat.segmentado(key)) validarPlaylist(opcoes);
+            if (opcoes.temRendicoes()) {
+                if (renditionOutput == null) throw new IllegalStateException("Rendições não configuradas");
+                renditionOutput.validar(opcoes);
+            }
+            if (preflight != null) {
+                // recusa entradas ruins antes de baixar o arquivo inteiro
+                preflight.verificar(key, opcoes);
+            }
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        Path tempVideo = null;
-        Path framesDir = null;
-        Path zipFile = null;
+        Vinculos vinculos = Vinculos.atuais();
+        Temporarios t = new Temporarios();
+        CompletableFuture<SaidaVideo> job;
+        if (opcoes.temRendicoes()) {
+            job = processarRendicoes(vinculos, t, key, keyOutput, opcoes);
+        } else if (opcoes.saidaOuPadrao() == ModoSaida.SPRITES) {
+            job = processarSprites(vinculos, t, key, keyOutput, opcoes).thenApply(SaidaVideo::de);
+        } else if (opcoes.tamanhoAlvoKb() != null) {
+            // o orçamento é do arquivo inteiro: nem partes nem retomada, que publicam antes de saber o total
+            job = processarArquivo(vinculos, t, key, keyOutput, opcoes);
+        } else if (chunkedOutput != null && chunkedOutput.ativo()) {
+            job = processarEmPartes(vinculos, t, mensagem, key, keyOutput, opcoes);
+        } else if (ContainerFormat.segmentado(key)) {
+            // a retomada recomeça o decode por seek, que um fluxo de segmentos não tem
+            job = processarArquivo(vinculos, t, key, keyOutput, opcoes);
+        } else if (resumableOutput != null && resumableOutput.ativo() && opcoes.preview() == null) {
+            // a retomada decide se precisa do vídeo; baixa bloqueando, dentro da thread de processamento. Ela só
+            // publica o zip, então com preview o job vai pelo arquivo inteiro
+            job = emSegundoPlano(
+                    vinculos,
+                    () -> SaidaVideo.de(
+                            Tracing.etapa("checkpoint", () -> processarComCheckpoint(key, keyOutput, opcoes))));
+        } else {
+            job = processarArquivo(vinculos, t, key, keyOutput, opcoes);
+        }
+        return job.whenComplete((saida, erro) -> {
+            if (vinculos.ws() == null) cleanup(t.video, t.dir, t.arquivo);
+        });
+    }
 
+    /**
+     * Playlists viram um fluxo de segmentos lido uma vez, sem seek: só o arquivo de frames, sem o orçamento de tamanho
+     * (que calibra por seek), sem sprites e sem rendições.
+     */
+    private static void validarPlaylist(OpcoesProcessamento opcoes) {
+        if (opcoes.saidaOuPadrao() != ModoSaida.FRAMES || opcoes.temRendicoes() || opcoes.tamanhoAlvoKb() != null) {
+            throw new IllegalArgumentException(
+                    "Entradas HLS/DASH só suportam saída FRAMES, sem rendições nem tamanhoAlvoKb");
+        }
+    }
+
+    @Override
+    public CompletableFuture<ResultadoLote> processarLote(VideoMensagem mensagem) {
+        if (batchProcessor == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Lotes exigem o cliente S3 assíncrono"));
+        }
+        OpcoesProcessamento opcoes;
         try {
-            tempVideo = downloadVideo(bucket, key);
-            framesDir = extractor.extract(tempVideo);
-            zipFile = StorageFileUtil.zipDirectory(framesDir);
-            uploadZip(bucket, keyOutput, zipFile);
+            opcoes = OpcoesProcessamento.ouPadrao(mensagem.getOpcoes());
+            opcoes.validar();
+            batchProcessor.validar(mensagem.getLote(), opcoes);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Vinculos vinculos = Vinculos.atuais();
+        // só vincula: a tarefa do CompletableFuture precisa rodar para completá-lo, mesmo com o job parado
+        Executor vinculado = r -> executor.execute(() -> vinculado(vinculos, () -> {
+            r.run();
+            return null;
+        }));
+        return batchProcessor.processar(mensagem, opcoes, vinculado);
+    }
+
+    /**
+     * Extração do trecho, envio do zip parcial e, no último segmento, o merge: tudo numa thread de processamento com os
+     * vínculos do job, como em {@link #processarVideo}, em vez de prender a thread do listener.
+     */
+    @Override
+    public CompletableFuture<Optional<String>> processarSegmento(VideoMensagem mensagem) {
+        if (segmentCoordinator == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Modo segmentado não configurado"));
+        }
+        return emSegundoPlano(
+                Vinculos.atuais(),
+                () -> Tracing.etapa("segmento", () -> segmentCoordinator.processarSegmento(mensagem)));
+    }
+
+    private CompletableFuture<SaidaVideo> processarArquivo(
+            Vinculos vinculos, Temporarios t, String key, String keyOutput, OpcoesProcessamento opcoes) {
+        String keyArquivo = archiveOutput.caminho(keyOutput);
+        String contentType = archiveOutput.formato().contentType();
+        return entrada(vinculos, t, key)
+                .thenApplyAsync(
+                        video -> executar(vinculos, () -> {
+                            t.dir = Tracing.etapa("extracao", () -> extrair(video, key, opcoes, t));
+                            ArquivoFrames arquivo = Tracing.etapa("arquivo", () -> archiveOutput.escrever(t.dir));
+                            t.arquivo = arquivo.arquivo();
+                            medirAjuste(t);
+                            return arquivo;
+                        }),
+                        executor)
+                .thenCompose(arquivo -> enviar(
+                                vinculos,
+                                keyArquivo,
+                                arquivo.arquivo(),
+                                contentType,
+                                arquivo.manifestJson(),
+                                () -> uploadArquivo(bucket, keyArquivo, arquivo.arquivo(), contentType))
+                        .thenCombine(
+                                enviarPreview(vinculos, t.dir, keyArquivo, opcoes),
+                                (v, preview) -> new SaidaVideo(keyArquivo, preview, null, t.ajuste)));
+    }
+
+    /**
+     * Sem {@code video}, extrai da playlist {@code key}. Com {@code tamanhoAlvoKb}, guarda em {@code t} o ajuste que o
+     * extrator informar no fim.
+     */
+    private Path extrair(Path video, String key, OpcoesProcessamento opcoes, Temporarios t) throws IOException {
+        if (video == null) return extractor.extract(playlist(key), opcoes);
+        if (opcoes.tamanhoAlvoKb() == null) return extractor.extract(video, opcoes);
+        return extractor.extract(video, opcoes, new FrameListener() {
+            @Override
+            public void frameEscrito(Path arquivo, int indice, long ptsUs) {}
+
+            @Override
+            public void ajusteTamanho(AjusteTamanho ajuste) {
+                t.ajuste = ajuste;
+            }
+        });
+    }
+
+    private static void medirAjuste(Temporarios t) throws IOException {
+        if (t.ajuste == null) return;
+        t.ajuste = t.ajuste.comTamanho(Files.size(t.arquivo));
+        if (t.ajuste.tamanhoBytes() > t.ajuste.alvoBytes()) {
+            log.warn("Arquivo com {} bytes passou do alvo de {} bytes", t.ajuste.tamanhoBytes(), t.ajuste.alvoBytes());
+        } else {
+            log.info(
+                    "Arquivo com {} bytes para o alvo de {} bytes: {}",
+                    t.ajuste.tamanhoBytes(),
+                    t.ajuste.alvoBytes(),
+                    t.ajuste);
+        }
+    }
+
+    /**
+     * Um decode para todas as rendições: as faixas reduzem, codificam e arquivam em paralelo nas próprias threads, e
+     * cada arquivo sobe com o seu manifesto assim que todas terminam.
+     */
+    private CompletableFuture<SaidaVideo> processarRendicoes(
+            Vinculos vinculos, Temporarios t, String key, String keyOutput, OpcoesProcessamento opcoes) {
+        return baixar(vinculos, t, key)
+                .thenComposeAsync(
+                        video -> executar(vinculos, () -> {
+                            t.dir = StorageFileUtil.createTempDirectory("rendicoes-");
+                            try (RenditionOutput.Sessao sessao = renditionOutput.abrir(t.dir, opcoes)) {
+                                Tracing.etapa("extracao", () -> extractor.distribuir(video, opcoes, sessao.faixas()));
+                                return sessao.concluir();
+                            }
+                        }),
+                        executor)
+                .thenCompose(arquivos -> enviarRendicoes(vinculos, keyOutput, arquivos));
+    }
+
+    private CompletableFuture<SaidaVideo> enviarRendicoes(
+            Vinculos vinculos, String keyOutput, List<RendicaoArquivada> arquivos) {
+        List<RendicaoGerada> geradas = new ArrayList<>(arquivos.size());
+        List<CompletableFuture<Void>> envios = new ArrayList<>(arquivos.size());
+        for (RendicaoArquivada r : arquivos) {
+            String keyRendicao = RenditionOutput.caminho(keyOutput, r.rendicao().nome(), r.formato());
+            Path arquivo = r.arquivo().arquivo();
+            String contentType = r.formato().contentType();
+            envios.add(enviar(
+                    vinculos,
+                    keyRendicao,
+                    arquivo,
+                    contentType,
+                    r.arquivo().manifestJson(),
+                    () -> uploadArquivo(bucket, keyRendicao, arquivo, contentType)));
+            geradas.add(new RendicaoGerada(
+                    r.rendicao().nome(),
+                    keyRendicao,
+                    r.arquivo().manifest().frames().size()));
+        }
+        return CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new))
+                .thenApply(v -> new SaidaVideo(geradas.get(0).caminhoSaida(), null, geradas));
+    }
+
+    /**
+     * Saída fatiada: as partes são publicadas enquanto a extração segue, com notificações de progresso. Devolve a chave
+     * do índice das partes.
+     */
+    private CompletableFuture<SaidaVideo> processarEmPartes(
+            Vinculos vinculos,
+            Temporarios t,
+            VideoMensagem mensagem,
+            String key,
+            String keyOutput,
+            OpcoesProcessamento opcoes) {
+        return entrada(vinculos, t, key)
+                .thenApplyAsync(
+                        video -> executar(vinculos, () -> {
+                            try (ChunkedArchiveSink sink = chunkedOutput.abrir(mensagem, bucket, keyOutput)) {
+                                t.dir = Tracing.etapa(
+                                        "extracao",
+                                        () -> video == null
+                                                ? extractor.extract(playlist(key), opcoes, sink)
+                                                : extractor.extract(video, opcoes, sink));
+                                return sink.concluir();
+                            }
+                        }),
+                        executor)
+                .thenCompose(indice -> enviarPreview(vinculos, t.dir, keyOutput, opcoes)
+                        .thenApply(preview -> new SaidaVideo(indice, preview)));
+    }
+
+    /**
+     * Zip enviado em partes com checkpoint: numa reentrega, a extração começa do último frame já enviado e o mesmo
+     * multipart upload é concluído.
+     */
+    private String processarComCheckpoint(String key, String keyOutput, OpcoesProcessamento opcoes) throws IOException {
+        Path tempVideo = null;
+        Path framesDir = null;
+        try (ResumableArchiveUpload upload = resumableOutput.abrir(bucket, keyOutput)) {
+            try {
+                OpcoesProcessamento restante = upload.ajustar(opcoes);
+                if (restante != null) {
+                    tempVideo = downloadVideo(bucket, key);
+                    try {
+                        framesDir = extractor.extract(tempVideo, restante, upload);
+                    } catch (NoFramesExtractedException e) {
+                        // numa retomada pode não sobrar frame novo; concluir() decide se há zip a fechar ou se aborta
+                        log.info("Nenhum frame novo para {}: {}", keyOutput, e.getMessage());
+                    }
+                }
+                CancellationToken.atual().verificar();
+                upload.concluir();
+            } catch (JobCanceladoException e) {
+                // job parado não é reentregue: nada a retomar, o multipart upload vai embora
+                upload.abortar();
+                throw e;
+            }
             return keyOutput;
         } finally {
-            cleanup(tempVideo, framesDir, zipFile);
+            cleanup(tempVideo, framesDir, null);
+        }
+    }
+
+    /**
+     * Folhas de miniaturas em vez do zip de frames. Folhas e índices vão para {@code saida/x.sprites/}; devolve a chave
+     * do índice JSON.
+     */
+    private CompletableFuture<String> processarSprites(
+            Vinculos vinculos, Temporarios t, String key, String keyOutput, OpcoesProcessamento opcoes) {
+        String prefixo = SpriteSheetOutput.prefixo(keyOutput);
+        return baixar(vinculos, t, key)
+                .thenApplyAsync(
+                        video -> executar(vinculos, () -> {
+                            t.dir = StorageFileUtil.createTempDirectory("sprites-");
+                            try (SpriteSheetComposer composer = spriteOutput.abrir(t.dir)) {
+                                Tracing.etapa("extracao", () -> {
+                                    extractor.decode(video, opcoes, composer);
+                                    return null;
+                                });
+                                return composer.concluir(opcoes.fimMs() == null ? -1 : opcoes.fimMs() * 1000);
+                            }
+                        }),
+                        executor)
+                .thenCompose(indice -> enviarSprites(vinculos, prefixo, t.dir, indice)
+                        .thenApply(v -> {
+                            log.info(
+                                    "{} folhas de sprites enviadas para S3: {}/{}",
+                                    indice.folhas().size(),
+                                    bucket,
+                                    prefixo);
+                            return prefixo + "sprites.json";
+                        }));
+    }
+
+    private CompletableFuture<Void> enviarSprites(Vinculos vinculos, String prefixo, Path dir, SpriteIndex indice) {
+        return Tracing.etapa(
+                vinculos.trace(), "upload", trace -> publicarSprites(vinculos.com(trace), prefixo, dir, indice));
+    }
+
+    private CompletableFuture<Void> publicarSprites(Vinculos vinculos, String prefixo, Path dir, SpriteIndex indice) {
+        if (transfer == null) {
+            return emSegundoPlano(vinculos, () -> {
+                for (String folha : indice.folhas()) {
+                    s3Client.putObject(
+                            PutObjectRequest.builder()
+                                    .bucket(bucket)
+                                    .key(prefixo + folha)
+                                    .build(),
+                            RequestBody.fromFile(dir.resolve(folha)));
+                }
+                s3Client.putObject(
+                        r -> r.bucket(bucket).key(prefixo + "sprites.vtt").contentType("text/vtt"),
+                        RequestBody.fromBytes(indice.webVtt()));
+                s3Client.putObject(
+                        r -> r.bucket(bucket).key(prefixo + "sprites.json").contentType("application/json"),
+                        RequestBody.fromBytes(indice.json()));
+                return null;
+            });
+        }
+        List<CompletableFuture<Void>> envios = new ArrayList<>();
+        for (String folha : indice.folhas()) {
+            envios.add(transferir(
+                    vinculos,
+                    () -> transfer.enviar(
+                            bucket,
+                            prefixo + folha,
+                            dir.resolve(folha),
+                            URLConnection.guessContentTypeFromName(folha))));
+        }
+        envios.add(transferir(
+                vinculos, () -> transfer.enviar(bucket, prefixo + "sprites.vtt", indice.webVtt(), "text/vtt")));
+        envios.add(transferir(
+                vinculos, () -> transfer.enviar(bucket, prefixo + "sprites.json", indice.json(), "application/json")));
+        return CompletableFuture.allOf(envios.toArray(CompletableFuture[]::new));
+    }
+
+    /** Chave do zip de saída para um vídeo de entrada; compartilhada com o merge do modo segmentado. */
+    public static String caminhoSaida(String caminhoVideo) {
+        return ContainerFormat.trocarExtensao(caminhoVideo.replace("entrada", "saida"), ".zip");
+    }
+
+    /** A playlist {@code key} do bucket de entrada, como o {@link FrameExtractor} a recebe. */
+    private URI playlist(String key) {
+        try {
+            return new URI("s3", bucket, "/" + key, null);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Chave inválida para playlist: " + key, e);
         }
     }
 
+    /** Baixa bloqueando; com cópia no {@link VideoCache}, o GET é condicional e um 304 traz o vídeo do disco. */
     private Path downloadVideo(String bucket, String key) throws IOException {
-        Path tempVideo = Files.createTempFile("video-", ".mp4");
-        try (InputStream in = s3Client.getObject(
-                GetObjectRequest.builder().bucket(bucket).key(key).build())) {
-            Files.copy(in, tempVideo, StandardCopyOption.REPLACE_EXISTING);
+        Path tempVideo = StorageFileUtil.createTempFile("video-", ContainerFormat.sufixoTemporario(key));
+        String etag = videoCache != null ? videoCache.etag(bucket, key).orElse(null) : null;
+        try {
+            downloadVideo(bucket, key, etag, tempVideo);
+        } catch (S3Exception e) {
+            if (etag == null || !VideoCache.naoModificado(e)) throw e;
+            if (videoCache.restaurar(bucket, key, etag, tempVideo)) {
+                log.info("Vídeo servido do cache local: {}", tempVideo);
+                return tempVideo;
+            }
+            // a cópia saiu do cache entre a consulta e o 304
+            downloadVideo(bucket, key, null, tempVideo);
         }
         log.info("Vídeo baixado para temporário: {}", tempVideo);
         return tempVideo;
     }
 
-    void uploadZip(String bucket, String keyOutput, Path zipFile) {
+    private void downloadVideo(String bucket, String key, String etag, Path destino) throws IOException {
+        try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .ifNoneMatch(etag)
+                .build())) {
+            StorageFileUtil.copy(in, destino);
+            if (videoCache != null)
+                videoCache.guardar(bucket, key, in.response().eTag(), destino);
+        }
+    }
+
+    /**
+     * O vídeo do job em disco, ou {@code null} para playlists: os segmentos não são baixados antes, o extrator os
+     * busca durante o decode.
+     */
+    private CompletableFuture<Path> entrada(Vinculos vinculos, Temporarios t, String key) {
+        if (ContainerFormat.segmentado(key)) return CompletableFuture.completedFuture(null);
+        return baixar(vinculos, t, key);
+    }
+
+    /** Baixa o vídeo sem ocupar thread; sem cliente assíncrono, baixa bloqueando numa thread de processamento. */
+    private CompletableFuture<Path> baixar(Vinculos vinculos, Temporarios t, String key) {
+        return Tracing.etapa(vinculos.trace(), "download", trace -> {
+            if (transfer == null) {
+                return emSegundoPlano(vinculos.com(trace), () -> t.video = downloadVideo(bucket, key));
+            }
+            try {
+                t.video = StorageFileUtil.createTempFile("video-", ContainerFormat.sufixoTemporario(key));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return transferir(vinculos, () -> transfer.baixar(bucket, key, t.video));
+        });
+    }
+
+    /**
+     * Arquivo e manifesto em paralelo; {@code bloqueante} é o envio do arquivo quando não há cliente assíncrono. Sem
+     * {@code manifestJson} (arquivo comprimido), só o arquivo.
+     */
+    private CompletableFuture<Void> enviar(
+            Vinculos vinculos, String key, Path arquivo, String contentType, byte[] manifestJson, Runnable bloqueante) {
+        return Tracing.etapa(vinculos.trace(), "upload", trace -> {
+            if (transfer == null) {
+                return emSegundoPlano(vinculos.com(trace), () -> {
+                    bloqueante.run();
+                    if (manifestJson != null) uploadManifest(bucket, key, manifestJson);
+                    return null;
+                });
+            }
+            if (manifestJson == null) {
+                return transferir(vinculos, () -> transfer.enviar(bucket, key, arquivo, contentType));
+            }
+            return CompletableFuture.allOf(
+                    transferir(vinculos, () -> transfer.enviar(bucket, key, arquivo, contentType)),
+                    transferir(
+                            vinculos,
+                            () -> transfer.enviar(
+                                    bucket, FrameManifest.caminhoSidecar(key), manifestJson, "application/json")));
+        });
+    }
+
+    /** Publica o preview que o extrator deixou em {@code framesDir}; completa com a chave, ou {@code null} sem ele. */
+    private CompletableFuture<String> enviarPreview(
+            Vinculos vinculos, Path framesDir, String keySaida, OpcoesProcessamento opcoes) {
+        FormatoPreview formato = opcoes.preview();
+        if (formato == null || framesDir == null) return CompletableFuture.completedFuture(null);
+        Path preview = PreviewOutput.arquivo(framesDir, formato);
+        if (!Files.exists(preview)) return CompletableFuture.completedFuture(null);
+        String key = PreviewOutput.caminho(keySaida, formato);
+        String contentType = PreviewOutput.contentType(formato);
+        return Tracing.etapa(vinculos.trace(), "upload-preview", trace -> {
+            if (transfer != null) {
+                return transferir(vinculos, () -> transfer.enviar(bucket, key, preview, contentType))
+                        .thenApply(v -> key);
+            }
+            return emSegundoPlano(vinculos.com(trace), () -> {
+                s3Client.putObject(
+                        r -> r.bucket(bucket).key(key).contentType(contentType), RequestBody.fromFile(preview));
+                log.info("Preview enviado para S3: {}/{}", bucket, key);
+                return key;
+            });
+        });
+    }
+
+    private <T> CompletableFuture<T> emSegundoPlano(Vinculos vinculos, Tarefa<T> tarefa) {
+        return CompletableFuture.supplyAsync(() -> executar(vinculos, tarefa), executor);
+    }
+
+    /**
+     * Transferência assíncrona do job: não começa se ele já parou, e é cancelada (abortando o multipart, quando o
+     * cliente dividiu o envio) se ele parar antes de ela terminar.
+     */
+    private static <T> CompletableFuture<T> transferir(
+            Vinculos vinculos, Supplier<CompletableFuture<T>> transferencia) {
+        try {
+            vinculos.cancelamento().verificar();
+        } catch (JobCanceladoException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return vinculos.cancelamento().acompanhar(transferencia.get());
+    }
+
+    /** Roda {@code tarefa} com o workspace, o token de cancelamento e o trace do job vinculados, se o job não parou. */
+    private static <T> T executar(Vinculos vinculos, Tarefa<T> tarefa) {
+        return vinculado(vinculos, () -> {
+            vinculos.cancelamento().verificar();
+            return tarefa.executar();
+        });
+    }
+
+    /** Roda {@code tarefa} com o workspace, o token de cancelamento e o trace do job vinculados à thread atual. */
+    private static <T> T vinculado(Vinculos vinculos, Tarefa<T> tarefa) {
+        try (Workspace.Vinculo vinculo = vinculos.ws() != null ? vinculos.ws().vincular() : null;
+                CancellationToken.Vinculo cancelamento = vinculos.cancelamento().vincular();
+                Scope scope = vinculos.trace().makeCurrent()) {
+            return tarefa.executar();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Thread threadProcessamento(Runnable r) {
+        Thread t = new Thread(r, "processamento-" + SEQUENCIA_THREADS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (executor instanceof ExecutorService pool) pool.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface Tarefa<T> {
+        T executar() throws Exception;
+    }
+
+    /** O que acompanha o job de thread em thread: o workspace (quando há), o cancelamento e o span corrente. */
+    private record Vinculos(Workspace ws, CancellationToken cancelamento, Context trace) {
+
+        static Vinculos atuais() {
+            return new Vinculos(Workspace.atual().orElse(null), CancellationToken.atual(), Context.current());
+        }
+
+        Vinculos com(Context trace) {
+            return new Vinculos(ws, cancelamento, trace);
+        }
+    }
+
+    /** Temporários criados ao longo do job, apagados no fim quando não há workspace que os recolha. */
+    private static final class Temporarios {
+        private volatile Path video;
+        private volatile Path dir;
+        private volatile Path arquivo;
+        private volatile AjusteTamanho ajuste;
+    }
+
+    private void uploadArquivo(String bucket, String key, Path arquivo, String contentType) {
+        s3Client.putObject(
+                PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .build(),
+                RequestBody.fromFile(arquivo));
+        log.info("Arquivo enviado para S3: {}/{}", bucket, key);
+    }
+
+    void uploadManifest(String bucket, String keyOutput, byte[] manifestJson) {
+        String key = FrameManifest.caminhoSidecar(keyOutput);
         s3Client.putObject(
-                PutObjectRequest.builder().bucket(bucket).key(keyOutput).build(), RequestBody.fromFile(zipFile));
-        log.info("Zip enviado para S3: {}/{}", bucket, keyOutput);
+                r -> r.bucket(bucket).key(key).contentType("application/json"), RequestBody.fromBytes(manifestJson));
+        log.info("Manifesto enviado para S3: {}/{}", bucket, key);
     }
 
     void cleanup(Path videoFile, Path framesDir, Path zipFile) {
+        if (Workspace.atual().isPresent()) {
+            // o workspace do job apaga tudo em segundo plano ao fechar
+            return;
+        }
         try {
             StorageFileUtil.deleteRecursively(framesDir);
             StorageFileUtil.deleteQuietly(videoFile);
@@ -0,0 +1,41 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Origem lida pelo FFmpeg: um arquivo local (baixado do S3), uma URL remota (pré-assinada), lida com seeks via HTTP
+ * Range sem baixar o vídeo inteiro, ou um fluxo sequencial, lido uma vez do começo ao fim e sem seek (ex.: segmentos
+ * HLS/DASH). {@code descricao} é o que vai para logs e mensagens de erro — nunca a query string assinada.
+ *
+ * <p>Num fluxo sequencial, {@code inicioUs}/{@code fimUs} situam o trecho na linha do tempo do vídeo inteiro.
+ */
+record VideoSource(String location, String descricao, Path arquivoLocal, InputStream fluxo, long inicioUs, long fimUs) {
+
+    static VideoSource local(Path videoFile) {
+        return new VideoSource(videoFile.toString(), videoFile.toString(), videoFile, null, 0, 0);
+    }
+
+    static VideoSource remoto(URI uri) {
+        String semQuery = uri.getScheme() + "://" + uri.getHost() + uri.getPath();
+        return new VideoSource(uri.toString(), semQuery, null, null, 0, 0);
+    }
+
+    static VideoSource sequencial(InputStream fluxo, String descricao, long inicioUs, long fimUs) {
+        return new VideoSource(null, descricao, null, fluxo, inicioUs, fimUs);
+    }
+
+    boolean isRemoto() {
+        return arquivoLocal == null && fluxo == null;
+    }
+
+    boolean isSequencial() {
+        return fluxo != null;
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Formato do arquivo de saída de um job ({@code processador.arquivo.formato}). Cada implementação é um bean; o
+ * {@link ArchiveOutput} escolhe pelo {@link #nome()} e mede a escrita.
+ */
+public interface ArchiveFormat {
+
+    /** Valor aceito em {@code processador.arquivo.formato}. */
+    String nome();
+
+    /** Extensão da chave de saída, com o ponto (ex.: {@code .tar.zst}). */
+    String extensao();
+
+    String contentType();
+
+    /** Escreve os frames de um diretório do extrator num arquivo temporário, com o manifesto como primeira entrada. */
+    ArquivoFrames escrever(Path framesDir) throws IOException;
+}
@@ -0,0 +1,134 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Escolhe o {@link ArchiveFormat} de {@code processador.arquivo.formato} e mede cada escrita, com a tag {@code formato}:
+ * duração, tamanho final, vazão (MB de frames por segundo) e razão tamanho final / frames. Vale para a saída de
+ * arquivo único e as rendições, que podem escolher outro formato; partes, checkpoint e segmentos dependem do layout do
+ * zip e continuam em zip.
+ */
+@Slf4j
+@Component
+public class ArchiveOutput {
+
+    static final String DURACAO_METRIC = "processador.arquivo.duracao";
+    static final String BYTES_METRIC = "processador.arquivo.bytes";
+    static final String VAZAO_METRIC = "processador.arquivo.vazao";
+    static final String RAZAO_METRIC = "processador.arquivo.razao";
+
+    private final ArchiveFormat formato;
+    private final Map<String, ArchiveFormat> formatos = new LinkedHashMap<>();
+    private final Map<ArchiveFormat, Medidas> medidas = new HashMap<>();
+
+    public ArchiveOutput(
+            List<ArchiveFormat> formatos,
+            MeterRegistry meterRegistry,
+            @Value("${processador.arquivo.formato:zip}") String nome) {
+        for (ArchiveFormat f : formatos) {
+            this.formatos.put(f.nome().toLowerCase(), f);
+            this.medidas.put(f, new Medidas(f.nome(), meterRegistry));
+        }
+        this.formato = formato(nome);
+    }
+
+    /** Só zip, sem métricas publicadas; para quem monta o serviço fora do Spring. */
+    public static ArchiveOutput padrao() {
+        return new ArchiveOutput(List.of(new ZipArchiveFormat()), new SimpleMeterRegistry(), "zip");
+    }
+
+    public ArchiveFormat formato() {
+        return formato;
+    }
+
+    /** Formato pelo nome, para saídas que escolhem o próprio; {@code null} é o configurado. */
+    public ArchiveFormat formato(String nome) {
+        if (nome == null) return formato;
+        ArchiveFormat encontrado = formatos.get(nome.toLowerCase());
+        if (encontrado == null) {
+            throw new IllegalArgumentException(
+                    "formato de arquivo desconhecido: " + nome + " (disponíveis: " + formatos.keySet() + ")");
+        }
+        return encontrado;
+    }
+
+    /** {@code saida/x.zip} → {@code saida/x<extensão do formato>} */
+    public String caminho(String caminhoZip) {
+        return caminho(caminhoZip, formato);
+    }
+
+    public static String caminho(String caminhoZip, ArchiveFormat formato) {
+        String base = caminhoZip.endsWith(".zip") ? caminhoZip.substring(0, caminhoZip.length() - 4) : caminhoZip;
+        return base + formato.extensao();
+    }
+
+    public ArquivoFrames escrever(Path framesDir) throws IOException {
+        return escrever(framesDir, formato);
+    }
+
+    public ArquivoFrames escrever(Path framesDir, ArchiveFormat formato) throws IOException {
+        long inicio = System.nanoTime();
+        ArquivoFrames arquivo = formato.escrever(framesDir);
+        long nanos = System.nanoTime() - inicio;
+        long tamanho = Files.size(arquivo.arquivo());
+
+        Medidas m = medidas.get(formato);
+        m.duracao.record(nanos, TimeUnit.NANOSECONDS);
+        m.bytes.record(tamanho);
+        double mbPorSegundo = nanos > 0 ? arquivo.bytesEntrada() / 1e6 / (nanos / 1e9) : 0;
+        m.vazao.record(mbPorSegundo);
+        if (arquivo.bytesEntrada() > 0) m.razao.record((double) tamanho / arquivo.bytesEntrada());
+
+        log.info(
+                "Arquivo {} escrito: {} frames, {} -> {} bytes em {} ms ({} MB/s)",
+                formato.nome(),
+                arquivo.manifest().frames().size(),
+                arquivo.bytesEntrada(),
+                tamanho,
+                TimeUnit.NANOSECONDS.toMillis(nanos),
+                Math.round(mbPorSegundo * 10) / 10.0);
+        return arquivo;
+    }
+
+    private static final class Medidas {
+        private final Timer duracao;
+        private final DistributionSummary bytes;
+        private final DistributionSummary vazao;
+        private final DistributionSummary razao;
+
+        Medidas(String tag, MeterRegistry meterRegistry) {
+            this.duracao = Timer.builder(DURACAO_METRIC)
+                    .description("Tempo para escrever o arquivo de saída")
+                    .tag("formato", tag)
+                    .register(meterRegistry);
+            this.bytes = DistributionSummary.builder(BYTES_METRIC)
+                    .description("Tamanho do arquivo de saída")
+                    .baseUnit("bytes")
+                    .tag("formato", tag)
+                    .register(meterRegistry);
+            this.vazao = DistributionSummary.builder(VAZAO_METRIC)
+                    .description("MB de frames escritos por segundo")
+                    .baseUnit("MB/s")
+                    .tag("formato", tag)
+                    .register(meterRegistry);
+            this.razao = DistributionSummary.builder(RAZAO_METRIC)
+                    .description("Tamanho do arquivo dividido pela soma dos frames")
+                    .tag("formato", tag)
+                    .register(meterRegistry);
+        }
+    }
+}
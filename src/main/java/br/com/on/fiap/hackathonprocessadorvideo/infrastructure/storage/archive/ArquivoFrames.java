@@ -0,0 +1,13 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import java.nio.file.Path;
+
+/**
+ * Arquivo temporário escrito por um {@link ArchiveFormat}.
+ *
+ * @param manifestJson bytes exatos do manifesto gravado, para publicar como sidecar; {@code null} quando os offsets não
+ *     valem no arquivo publicado (stream comprimido) e não há sidecar
+ * @param bytesEntrada soma dos tamanhos dos frames, para comparar com o tamanho final
+ */
+public record ArquivoFrames(Path arquivo, FrameManifest manifest, byte[] manifestJson, long bytesEntrada) {}
@@ -0,0 +1,64 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameArchiveWriter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.springframework.stereotype.Component;
+
+/** Tar sem compressão; ver {@link TarFrameWriter}. Subclasses comprimem o stream inteiro. */
+@Component
+public class TarArchiveFormat implements ArchiveFormat {
+
+    @Override
+    public String nome() {
+        return "tar";
+    }
+
+    @Override
+    public String extensao() {
+        return ".tar";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/x-tar";
+    }
+
+    /** Envolve o arquivo de destino; o tar é escrito no stream devolvido, que é fechado ao fim. */
+    protected OutputStream comprimir(OutputStream destino) throws IOException {
+        return destino;
+    }
+
+    /**
+     * Se {@link #comprimir} muda os bytes: os offsets do manifesto apontam para o tar descomprimido, então não há
+     * sidecar — um GET com {@code Range} no arquivo publicado leria bytes comprimidos.
+     */
+    protected boolean comprimido() {
+        return false;
+    }
+
+    @Override
+    public ArquivoFrames escrever(Path framesDir) throws IOException {
+        FrameArchiveWriter.Catalogo catalogo = FrameArchiveWriter.catalogar(framesDir);
+        Path tar = StorageFileUtil.createTempFile(framesDir, "frames-", extensao());
+        try {
+            TarFrameWriter.Manifesto manifesto;
+            try (OutputStream out = comprimir(new BufferedOutputStream(Files.newOutputStream(tar), 1 << 16))) {
+                manifesto = TarFrameWriter.escrever(out, catalogo.entradas(), catalogo.arquivos());
+            }
+            StorageFileUtil.contabilizar(tar);
+            long bytes = catalogo.entradas().stream()
+                    .mapToLong(FrameManifestEntry::tamanhoComprimido)
+                    .sum();
+            return new ArquivoFrames(tar, manifesto.manifest(), comprimido() ? null : manifesto.json(), bytes);
+        } catch (IOException | RuntimeException e) {
+            StorageFileUtil.deleteQuietly(tar);
+            throw e;
+        }
+    }
+}
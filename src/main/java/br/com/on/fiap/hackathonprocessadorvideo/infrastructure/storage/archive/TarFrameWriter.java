@@ -0,0 +1,138 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tar (ustar) com o manifesto como primeira entrada. Ao contrário do zip, não há índice no fim: cada entrada é um
+ * cabeçalho de 512 bytes seguido dos dados, então o arquivo pode ser extraído enquanto ainda está sendo baixado. Os
+ * offsets do manifesto são posições no tar descomprimido; o manifesto é completado com espaços até o fim do seu último
+ * bloco, como no zip, para que os offsets calculados antes da escrita não mudem.
+ */
+final class TarFrameWriter {
+
+    static final int BLOCO = 512;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_ITERACOES = 8;
+    private static final long MAX_TAMANHO = 077777777777L;
+
+    private TarFrameWriter() {}
+
+    /**
+     * @param frames entradas na ordem de {@code arquivos}; o offset é ignorado e recalculado
+     * @return o manifesto gravado, com os bytes exatos que ficaram no arquivo
+     */
+    static Manifesto escrever(OutputStream destino, List<FrameManifestEntry> frames, List<Path> arquivos)
+            throws IOException {
+        long mtime = Instant.now().getEpochSecond();
+        Manifesto manifesto = manifesto(frames);
+        byte[] manifestJson = manifesto.json();
+        escreverEntrada(destino, FrameManifest.ENTRADA, manifestJson.length, mtime);
+        destino.write(manifestJson);
+        completarBloco(destino, manifestJson.length);
+        for (int i = 0; i < arquivos.size(); i++) {
+            FrameManifestEntry e = manifesto.manifest().frames().get(i);
+            escreverEntrada(destino, e.nome(), e.tamanhoComprimido(), mtime);
+            long copiados;
+            try (InputStream in = Files.newInputStream(arquivos.get(i))) {
+                copiados = in.transferTo(destino);
+            }
+            if (copiados != e.tamanhoComprimido()) {
+                throw new IllegalStateException("Frame " + e.nome() + " mudou durante a escrita: esperado "
+                        + e.tamanhoComprimido() + " bytes, lidos " + copiados);
+            }
+            completarBloco(destino, copiados);
+        }
+        // fim do arquivo: dois blocos zerados
+        destino.write(new byte[2 * BLOCO]);
+        return manifesto;
+    }
+
+    private static Manifesto manifesto(List<FrameManifestEntry> frames) throws IOException {
+        long blocos = 1;
+        for (int i = 0; i < MAX_ITERACOES; i++) {
+            FrameManifest manifest = comLayout(frames, blocos);
+            byte[] json = MAPPER.writeValueAsBytes(manifest);
+            if (json.length <= blocos * BLOCO) {
+                byte[] ajustado = Arrays.copyOf(json, (int) (blocos * BLOCO));
+                Arrays.fill(ajustado, json.length, ajustado.length, (byte) ' ');
+                return new Manifesto(manifest, ajustado);
+            }
+            blocos = (json.length + BLOCO - 1) / BLOCO;
+        }
+        throw new IllegalStateException("Layout do manifesto não convergiu para " + frames.size() + " frames");
+    }
+
+    static FrameManifest comLayout(List<FrameManifestEntry> frames, long blocosManifesto) {
+        long pos = BLOCO + blocosManifesto * BLOCO;
+        List<FrameManifestEntry> posicionados = new ArrayList<>(frames.size());
+        for (FrameManifestEntry e : frames) {
+            long offset = pos + BLOCO;
+            posicionados.add(
+                    new FrameManifestEntry(e.indice(), e.nome(), e.ptsUs(), offset, e.tamanhoComprimido(), e.sha256()));
+            pos = offset + arredondar(e.tamanhoComprimido());
+        }
+        return new FrameManifest(FrameManifest.VERSAO, posicionados);
+    }
+
+    private static void escreverEntrada(OutputStream out, String nome, long tamanho, long mtime) throws IOException {
+        byte[] nomeBytes = nome.getBytes(StandardCharsets.UTF_8);
+        if (nomeBytes.length > 100) {
+            throw new IllegalArgumentException("Nome de entrada tar acima de 100 bytes: " + nome);
+        }
+        if (tamanho > MAX_TAMANHO) {
+            throw new IllegalArgumentException("Entrada tar acima de 8 GiB: " + nome);
+        }
+        byte[] h = new byte[BLOCO];
+        System.arraycopy(nomeBytes, 0, h, 0, nomeBytes.length);
+        octal(h, 100, 8, 0644);
+        octal(h, 108, 8, 0);
+        octal(h, 116, 8, 0);
+        octal(h, 124, 12, tamanho);
+        octal(h, 136, 12, mtime);
+        h[156] = '0';
+        ascii(h, 257, "ustar\0");
+        ascii(h, 263, "00");
+        // checksum calculado com o próprio campo preenchido por espaços
+        Arrays.fill(h, 148, 156, (byte) ' ');
+        long soma = 0;
+        for (byte b : h) soma += b & 0xFF;
+        ascii(h, 148, "%06o".formatted(soma));
+        h[154] = 0;
+        h[155] = ' ';
+        out.write(h);
+    }
+
+    private static void octal(byte[] h, int pos, int largura, long valor) {
+        ascii(h, pos, ("%0" + (largura - 1) + "o").formatted(valor));
+        h[pos + largura - 1] = 0;
+    }
+
+    private static void ascii(byte[] h, int pos, String s) {
+        byte[] b = s.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(b, 0, h, pos, b.length);
+    }
+
+    private static void completarBloco(OutputStream out, long escritos) throws IOException {
+        int resto = (int) (arredondar(escritos) - escritos);
+        if (resto > 0) out.write(new byte[resto]);
+    }
+
+    private static long arredondar(long n) {
+        return (n + BLOCO - 1) / BLOCO * BLOCO;
+    }
+
+    record Manifesto(FrameManifest manifest, byte[] json) {}
+}
@@ -0,0 +1,36 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameArchiveWriter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.springframework.stereotype.Component;
+
+/** Zip com entradas STORED e manifesto com offsets; ver {@link FrameArchiveWriter}. */
+@Component
+public class ZipArchiveFormat implements ArchiveFormat {
+
+    @Override
+    public String nome() {
+        return "zip";
+    }
+
+    @Override
+    public String extensao() {
+        return ".zip";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/zip";
+    }
+
+    @Override
+    public ArquivoFrames escrever(Path framesDir) throws IOException {
+        FrameArchiveWriter.Resultado r = FrameArchiveWriter.escrever(framesDir);
+        long bytes = r.manifest().frames().stream()
+                .mapToLong(FrameManifestEntry::tamanhoComprimido)
+                .sum();
+        return new ArquivoFrames(r.zip(), r.manifest(), r.manifestJson(), bytes);
+    }
+}
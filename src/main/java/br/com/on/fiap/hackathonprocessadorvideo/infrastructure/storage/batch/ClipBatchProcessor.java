@@ -0,0 +1,318 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.batch;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ClipeProcessado;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.LoteVideos;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ModoSaida;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ResultadoLote;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.JobCanceladoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameListener;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.S3AsyncTransfer;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.VideoProcessingServiceAdapter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArquivoFrames;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.ContainerFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Processa um {@link LoteVideos}: mantém até {@code processador.lote.prefetch} downloads à frente do clipe em
+ * decodificação e decodifica um clipe por vez com a mesma {@link FrameExtractor#abrirLote() sessão do extrator}. O
+ * FFmpeg não troca a entrada de um grabber aberto, então o grabber é por clipe; encoder, contextos de escala e buffers
+ * são do lote. Frames e vídeo de cada clipe são apagados assim que ele vai para a saída, então o disco ocupado não
+ * cresce com o tamanho do lote.
+ *
+ * <p>Um clipe que falha entra no resultado com o erro e o lote segue; o lote só falha se nenhum clipe der certo. Na
+ * saída por clipe o upload faz parte do clipe: ele só conta como ok depois que o arquivo chegou ao S3.
+ */
+@Slf4j
+@Component
+public class ClipBatchProcessor {
+
+    /** Índice do lote: a última entrada do zip combinado, ou o objeto {@code .lote.json} na saída por clipe. */
+    public static final String INDICE = "lote.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final S3AsyncTransfer transfer;
+    private final FrameExtractor extractor;
+    private final ArchiveOutput archiveOutput;
+    private final int prefetch;
+    private final int maxClipes;
+    private final String bucket;
+
+    public ClipBatchProcessor(
+            S3AsyncTransfer transfer,
+            @Qualifier("mp4Extractor") FrameExtractor extractor,
+            ArchiveOutput archiveOutput,
+            @Value("${processador.lote.prefetch:4}") int prefetch,
+            @Value("${processador.lote.max-clipes:500}") int maxClipes,
+            @Value("${nomeBucket}") String bucket) {
+        this.transfer = transfer;
+        this.extractor = extractor;
+        this.archiveOutput = archiveOutput;
+        this.prefetch = Math.max(1, prefetch);
+        this.maxClipes = maxClipes;
+        this.bucket = bucket;
+    }
+
+    public void validar(LoteVideos lote, OpcoesProcessamento opcoes) {
+        lote.validar(maxClipes);
+        if (opcoes.saidaOuPadrao() != ModoSaida.FRAMES) {
+            throw new IllegalArgumentException("Lotes só suportam saída FRAMES: " + opcoes.saida());
+        }
+        if (opcoes.tamanhoAlvoKb() != null) {
+            throw new IllegalArgumentException("tamanhoAlvoKb não se aplica a lotes");
+        }
+        if (opcoes.preview() != null) {
+            throw new IllegalArgumentException("preview não se aplica a lotes");
+        }
+        if (opcoes.temRendicoes()) {
+            throw new IllegalArgumentException("rendicoes não se aplicam a lotes");
+        }
+        if (lote.clipes().stream().anyMatch(ContainerFormat::segmentado)) {
+            throw new IllegalArgumentException("Lotes não aceitam playlists HLS/DASH");
+        }
+    }
+
+    /** Chave do zip combinado; a saída por clipe troca {@code .lote.zip} por {@code .lote.json}. */
+    public static String caminhoSaidaLote(VideoMensagem mensagem) {
+        String base =
+                mensagem.getCaminhoVideo() == null || mensagem.getCaminhoVideo().isBlank()
+                        ? mensagem.getLote().clipes().get(0)
+                        : mensagem.getCaminhoVideo();
+        String saida = VideoProcessingServiceAdapter.caminhoSaida(base);
+        if (saida.endsWith(".zip")) saida = saida.substring(0, saida.length() - ".zip".length());
+        return saida + ".lote.zip";
+    }
+
+    /**
+     * Roda o lote; cada etapa de CPU vai para {@code executor}, que já deve vincular o workspace do job. Downloads e
+     * uploads correm no cliente assíncrono. Com o job parado (token de quem chama), os downloads e uploads em voo são
+     * cancelados e nenhum clipe novo começa.
+     */
+    public CompletableFuture<ResultadoLote> processar(
+            VideoMensagem mensagem, OpcoesProcessamento opcoes, Executor executor) {
+        Execucao execucao = new Execucao(mensagem, opcoes);
+        CompletableFuture<Void> cadeia = CompletableFuture.runAsync(execucao::iniciar, executor);
+        for (int i = 0; i < execucao.clipes.size(); i++) {
+            int indice = i;
+            cadeia = cadeia.thenCompose(v -> execucao.baixado(indice))
+                    .thenAcceptAsync(video -> execucao.processarClipe(indice, video), executor);
+        }
+        return cadeia.thenComposeAsync(v -> execucao.concluir(), executor).whenComplete((r, e) -> execucao.encerrar());
+    }
+
+    private final class Execucao {
+
+        private final List<String> clipes;
+        private final boolean combinada;
+        private final String chaveLote;
+        private final OpcoesProcessamento opcoes;
+        private final CompletableFuture<?>[] downloads;
+        private final Path[] videos;
+        private final ClipeProcessado[] resultados;
+        private final List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        private final CancellationToken cancelamento = CancellationToken.atual();
+        private Throwable primeiraFalha;
+        private FrameExtractor.Lote sessao;
+        private Path zip;
+        private ZipOutputStream zos;
+
+        private Execucao(VideoMensagem mensagem, OpcoesProcessamento opcoes) {
+            this.clipes = mensagem.getLote().clipes();
+            this.combinada = mensagem.getLote().saidaOuPadrao() == LoteVideos.SaidaLote.COMBINADA;
+            String chave = caminhoSaidaLote(mensagem);
+            this.chaveLote = combinada ? chave : chave.replace(".lote.zip", ".lote.json");
+            this.opcoes = opcoes;
+            this.downloads = new CompletableFuture<?>[clipes.size()];
+            this.videos = new Path[clipes.size()];
+            this.resultados = new ClipeProcessado[clipes.size()];
+        }
+
+        private void iniciar() {
+            for (int i = 0; i < Math.min(prefetch, clipes.size()); i++) baixar(i);
+            sessao = extractor.abrirLote();
+            if (combinada) {
+                try {
+                    zip = StorageFileUtil.createTempFile("lote-", ".zip");
+                    zos = new ZipOutputStream(Files.newOutputStream(zip));
+                    // frames já são imagens comprimidas; deflate só gastaria CPU
+                    zos.setLevel(Deflater.NO_COMPRESSION);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            log.info("Lote de {} clipes iniciado (prefetch {}): {}", clipes.size(), prefetch, chaveLote);
+        }
+
+        private void baixar(int indice) {
+            String clipe = clipes.get(indice);
+            try {
+                videos[indice] = StorageFileUtil.createTempFile("clipe-", ContainerFormat.sufixoTemporario(clipe));
+                downloads[indice] = cancelamento.acompanhar(transfer.baixar(bucket, clipe, videos[indice]));
+            } catch (IOException e) {
+                downloads[indice] = CompletableFuture.failedFuture(e);
+            }
+        }
+
+        /** O vídeo baixado, ou {@code null} se o download falhou (o clipe já fica marcado com o erro). */
+        private CompletableFuture<Path> baixado(int indice) {
+            return downloads[indice].handle((r, e) -> {
+                if (e == null) return videos[indice];
+                falhou(indice, e);
+                return null;
+            });
+        }
+
+        private void processarClipe(int indice, Path video) {
+            // o lote inteiro para, não só o clipe
+            cancelamento.verificar();
+            if (indice + prefetch < clipes.size()) baixar(indice + prefetch);
+            if (video == null) return;
+            String clipe = clipes.get(indice);
+            Path framesDir = null;
+            try {
+                framesDir = sessao.extract(video, opcoes, FrameListener.NENHUM);
+                List<Path> frames = frames(framesDir);
+                if (combinada) {
+                    String pasta = String.format("%03d-%s/", indice, nome(clipe));
+                    for (Path frame : frames) {
+                        zos.putNextEntry(new ZipEntry(pasta + frame.getFileName()));
+                        Files.copy(frame, zos);
+                        zos.closeEntry();
+                    }
+                    resultados[indice] = ClipeProcessado.ok(clipe, pasta, frames.size());
+                } else {
+                    String chave = archiveOutput.caminho(VideoProcessingServiceAdapter.caminhoSaida(clipe));
+                    ArquivoFrames arquivo = archiveOutput.escrever(framesDir);
+                    int total = frames.size();
+                    uploads.add(enviar(chave, arquivo).handle((r, e) -> {
+                        if (e == null) resultados[indice] = ClipeProcessado.ok(clipe, chave, total);
+                        else falhou(indice, e);
+                        return null;
+                    }));
+                }
+            } catch (JobCanceladoException e) {
+                throw e;
+            } catch (Exception e) {
+                falhou(indice, e);
+            } finally {
+                StorageFileUtil.deleteRecursively(framesDir);
+                StorageFileUtil.deleteQuietly(video);
+            }
+        }
+
+        /** Arquivo e sidecar; formatos comprimidos não têm sidecar. */
+        private CompletableFuture<Void> enviar(String chave, ArquivoFrames arquivo) {
+            CompletableFuture<Void> envio = cancelamento.acompanhar(
+                    transfer.enviar(bucket, chave, arquivo.arquivo(), archiveOutput.formato().contentType()));
+            if (arquivo.manifestJson() != null) {
+                envio = CompletableFuture.allOf(
+                        envio,
+                        cancelamento.acompanhar(transfer.enviar(
+                                bucket,
+                                FrameManifest.caminhoSidecar(chave),
+                                arquivo.manifestJson(),
+                                "application/json")));
+            }
+            return envio.whenComplete((r, e) -> StorageFileUtil.deleteQuietly(arquivo.arquivo()));
+        }
+
+        /** Na saída por clipe, espera os uploads: um que falhar marca só o clipe dele. */
+        private CompletableFuture<ResultadoLote> concluir() {
+            if (combinada) return publicar();
+            return CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                    .thenCompose(v -> publicar());
+        }
+
+        private CompletableFuture<ResultadoLote> publicar() {
+            cancelamento.verificar();
+            List<ClipeProcessado> clipesProcessados = Arrays.asList(resultados);
+            long ok =
+                    clipesProcessados.stream().filter(ClipeProcessado::sucesso).count();
+            if (ok == 0) {
+                throw primeiraFalha instanceof CompletionException c ? c : new CompletionException(primeiraFalha);
+            }
+            ResultadoLote resultado = new ResultadoLote(chaveLote, clipesProcessados);
+            CompletableFuture<Void> publicacao;
+            try {
+                byte[] indice = MAPPER.writeValueAsBytes(resultado);
+                if (combinada) {
+                    zos.putNextEntry(new ZipEntry(INDICE));
+                    zos.write(indice);
+                    zos.closeEntry();
+                    zos.close();
+                    zos = null;
+                    StorageFileUtil.contabilizar(zip);
+                    publicacao = cancelamento.acompanhar(transfer.enviar(bucket, chaveLote, zip, "application/zip"));
+                } else {
+                    publicacao =
+                            cancelamento.acompanhar(transfer.enviar(bucket, chaveLote, indice, "application/json"));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            log.info("Lote concluído: {} de {} clipes ok -> {}/{}", ok, clipes.size(), bucket, chaveLote);
+            return publicacao.thenApply(v -> resultado);
+        }
+
+        /** Uploads da saída por clipe terminam nas threads do cliente S3, então a primeira falha é disputada. */
+        private synchronized void falhou(int indice, Throwable e) {
+            Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (primeiraFalha == null) primeiraFalha = causa;
+            resultados[indice] = ClipeProcessado.falha(clipes.get(indice), causa.toString());
+            log.warn("Clipe {} do lote falhou: {}", clipes.get(indice), causa.toString());
+        }
+
+        private void encerrar() {
+            if (sessao != null) sessao.close();
+            if (zos != null) {
+                try {
+                    zos.close();
+                } catch (IOException e) {
+                    log.debug("Falha ao fechar zip do lote {}", zip, e);
+                }
+            }
+            StorageFileUtil.deleteQuietly(zip);
+            for (Path video : videos) StorageFileUtil.deleteQuietly(video);
+        }
+    }
+
+    private static List<Path> frames(Path framesDir) throws IOException {
+        try (Stream<Path> arquivos = Files.list(framesDir)) {
+            return arquivos.filter(
+                            p -> StorageFileUtil.frameIndex(p.getFileName().toString()) != Long.MAX_VALUE)
+                    .sorted(StorageFileUtil.FRAME_ORDER)
+                    .toList();
+        }
+    }
+
+    private static String nome(String chave) {
+        String nome = chave.substring(chave.lastIndexOf('/') + 1);
+        int ponto = nome.lastIndexOf('.');
+        return ponto > 0 ? nome.substring(0, ponto) : nome;
+    }
+}
@@ -0,0 +1,189 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.budget;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.AjusteTamanho;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Orçamento de bytes de uma extração ({@code tamanhoAlvoKb}). A calibração mede quantos bytes um frame do vídeo ocupa
+ * em cada nível de {@link #QUALIDADES}; o plano fica com a maior qualidade que cabe no orçamento dividido pelos frames
+ * previstos e, se nem a menor cabe, espaça a amostragem ({@link #intervalo()}).
+ *
+ * <p>Durante a extração cada frame gravado entra em {@link #registrar}: com a média recente projeta-se o total, e a
+ * qualidade desce (ou volta a subir) um nível por vez; no nível mais baixo, passa a descartar frames
+ * ({@link #aceitar()}). Um frame que estouraria o orçamento é recusado e encerra a extração — exceto o primeiro, para
+ * que sempre haja saída.
+ *
+ * <p>{@link #qualidade()} é lida pelos encoders em outras threads; o resto roda na thread do decode.
+ */
+@Slf4j
+public final class ByteBudget {
+
+    /** Níveis de qualidade (1–100) calibrados e usados nos ajustes, do melhor para o pior. */
+    public static final int[] QUALIDADES = {90, 75, 60, 45, 30, 15};
+
+    /**
+     * Bytes por frame além da imagem: cabeçalhos local e central do zip, entrada no manifesto e folga para o padding do
+     * tar. Conservador de propósito.
+     */
+    static final long OVERHEAD_POR_FRAME = 1024;
+
+    /** Manifesto, fim do diretório central e o resto que não depende do número de frames. */
+    static final long OVERHEAD_FIXO = 4096;
+
+    /** Folga sobre a média calibrada: os frames da amostra não representam o vídeo inteiro. */
+    private static final double MARGEM = 1.15;
+
+    /** Frames entre dois ajustes, para a média refletir o nível atual. */
+    private static final int JANELA = 5;
+
+    private final long alvoBytes;
+    private final long limite;
+    private final long[] amostras;
+    private final int framesPrevistos;
+    private final int intervalo;
+    private final int nivelInicial;
+
+    private volatile int nivel;
+    private int nivelMaximo;
+    private int passo = 1;
+    private int passoMaximo = 1;
+    private long ofertados;
+    private long gastos;
+    private int frames;
+    private double media;
+    private int desdeAjuste;
+    private boolean esgotado;
+
+    private ByteBudget(long alvoBytes, long[] amostras, int framesPrevistos, int intervalo, int nivel) {
+        this.alvoBytes = alvoBytes;
+        this.limite = alvoBytes - OVERHEAD_FIXO;
+        this.amostras = amostras;
+        this.framesPrevistos = framesPrevistos;
+        this.intervalo = intervalo;
+        this.nivelInicial = nivel;
+        this.nivel = nivel;
+        this.nivelMaximo = nivel;
+    }
+
+    /**
+     * @param amostras bytes médios por frame em cada nível de {@link #QUALIDADES}; zeros quando a calibração não
+     *     conseguiu frames
+     * @param framesPrevistos frames da amostragem do job; {@code -1} quando a duração é desconhecida
+     */
+    public static ByteBudget planejar(long alvoBytes, long[] amostras, int framesPrevistos) {
+        long disponivel = alvoBytes - OVERHEAD_FIXO;
+        int ultimo = QUALIDADES.length - 1;
+        if (framesPrevistos <= 0 || amostras[ultimo] <= 0 || disponivel <= 0) {
+            // sem base para planejar: começa no meio e deixa os ajustes acharem o nível
+            return new ByteBudget(alvoBytes, amostras, framesPrevistos, 1, QUALIDADES.length / 2);
+        }
+        int intervalo = 1;
+        int nivel = nivelQueCabe(amostras, disponivel / framesPrevistos);
+        if (nivel < 0) {
+            double menor = amostras[ultimo] * MARGEM + OVERHEAD_POR_FRAME;
+            intervalo = (int) Math.ceil(menor * framesPrevistos / disponivel);
+            int restantes = (framesPrevistos + intervalo - 1) / intervalo;
+            int cabe = nivelQueCabe(amostras, disponivel / restantes);
+            nivel = cabe >= 0 ? cabe : ultimo;
+        }
+        return new ByteBudget(alvoBytes, amostras, ceilDiv(framesPrevistos, intervalo), intervalo, nivel);
+    }
+
+    /** Maior qualidade cuja média calibrada, com margem, cabe em {@code porFrame}; {@code -1} se nenhuma. */
+    private static int nivelQueCabe(long[] amostras, long porFrame) {
+        for (int i = 0; i < QUALIDADES.length; i++) {
+            if (amostras[i] * MARGEM + OVERHEAD_POR_FRAME <= porFrame) return i;
+        }
+        return -1;
+    }
+
+    /** Espaçamento sobre a amostragem do job escolhido pelo plano; {@code 1} mantém todos os frames. */
+    public int intervalo() {
+        return intervalo;
+    }
+
+    /** Qualidade atual (1–100), para os encoders. */
+    public int qualidade() {
+        return QUALIDADES[nivel];
+    }
+
+    /** Se o próximo frame selecionado deve ser codificado; chamado uma vez por frame, antes do encode. */
+    public boolean aceitar() {
+        if (esgotado) return false;
+        return ofertados++ % passo == 0;
+    }
+
+    /**
+     * Contabiliza um frame gravado com {@code bytes}. {@code false} quando ele não cabe: quem chama o descarta e a
+     * extração para.
+     */
+    public boolean registrar(long bytes) {
+        if (frames > 0 && gastos + bytes + OVERHEAD_POR_FRAME > limite) {
+            if (!esgotado) log.info("Orçamento de {} bytes esgotado após {} frames", alvoBytes, frames);
+            esgotado = true;
+            return false;
+        }
+        gastos += bytes + OVERHEAD_POR_FRAME;
+        frames++;
+        media = frames == 1 ? bytes : media * 0.8 + bytes * 0.2;
+        if (++desdeAjuste >= JANELA) ajustar();
+        return true;
+    }
+
+    public boolean esgotado() {
+        return esgotado;
+    }
+
+    /** O que foi escolhido, sem o tamanho final (que só o arquivo sabe). */
+    public AjusteTamanho ajuste(String formato) {
+        return new AjusteTamanho(
+                alvoBytes,
+                null,
+                formato,
+                QUALIDADES[nivelInicial],
+                QUALIDADES[nivelMaximo],
+                qualidade(),
+                intervalo * passoMaximo,
+                frames);
+    }
+
+    private void ajustar() {
+        if (framesPrevistos <= 0) return;
+        long faltam = Math.max(0, framesPrevistos - ofertados);
+        double projetado = gastos + (double) faltam / passo * (media + OVERHEAD_POR_FRAME);
+        if (projetado > limite) {
+            if (nivel < QUALIDADES.length - 1) {
+                mudarNivel(nivel + 1);
+            } else {
+                mudarPasso(passo + 1);
+            }
+        } else if (passo > 1) {
+            // sobrando espaço, primeiro volta a manter frames, depois sobe a qualidade
+            if (gastos + (double) faltam / (passo - 1) * (media + OVERHEAD_POR_FRAME) * MARGEM <= limite) {
+                mudarPasso(passo - 1);
+            }
+        } else if (nivel > 0 && amostras[nivel] > 0) {
+            double acima = media * amostras[nivel - 1] / amostras[nivel];
+            if (gastos + faltam * (acima + OVERHEAD_POR_FRAME) * MARGEM <= limite) mudarNivel(nivel - 1);
+        }
+    }
+
+    private void mudarNivel(int novo) {
+        log.debug("Orçamento: qualidade {} -> {} (média {} bytes/frame)", qualidade(), QUALIDADES[novo], (long) media);
+        if (amostras[nivel] > 0) media = media * amostras[novo] / amostras[nivel];
+        nivel = novo;
+        nivelMaximo = Math.max(nivelMaximo, novo);
+        desdeAjuste = 0;
+    }
+
+    private void mudarPasso(int novo) {
+        log.debug("Orçamento: mantendo 1 a cada {} frames", novo);
+        passo = novo;
+        passoMaximo = Math.max(passoMaximo, novo);
+        desdeAjuste = 0;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
@@ -0,0 +1,214 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.cache;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Cache em disco dos vídeos de entrada ({@code processador.cache.*}), para reprocessar o mesmo vídeo com outras opções
+ * sem baixá-lo de novo. Cada objeto fica guardado com o ETag com que foi baixado; o download vira um GET condicional
+ * ({@code If-None-Match}) e, no 304, o vídeo sai do disco. Acima de {@code max-mb}, sai o usado há mais tempo.
+ *
+ * <p>O job recebe um hard link para a cópia do cache (ou uma cópia, quando o workspace está em outro sistema de
+ * arquivos): apagar os temporários do job não mexe no cache, e despejar uma entrada não tira o arquivo de quem ainda o
+ * lê. O índice vive só em memória; o diretório é limpo ao subir.
+ */
+@Slf4j
+@Component
+public class VideoCache {
+
+    static final String ACERTOS_METRIC = "processador.cache.acertos";
+    static final String FALTAS_METRIC = "processador.cache.faltas";
+    static final String DESPEJOS_METRIC = "processador.cache.despejos";
+    static final String BYTES_METRIC = "processador.cache.bytes";
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long maxBytes;
+    private final Map<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter despejos;
+    private long bytes;
+
+    @Autowired
+    public VideoCache(
+            MeterRegistry meterRegistry,
+            @Value("${processador.cache.enabled:true}") boolean enabled,
+            @Value("${processador.cache.dir:}") String dir,
+            @Value("${processador.cache.max-mb:2048}") long maxMb)
+            throws IOException {
+        this(
+                meterRegistry,
+                enabled,
+                dir == null || dir.isBlank()
+                        ? Path.of(System.getProperty("java.io.tmpdir"), "processador-cache")
+                        : Path.of(dir),
+                maxMb * 1024 * 1024);
+    }
+
+    public VideoCache(MeterRegistry meterRegistry, boolean enabled, Path dir, long maxBytes) throws IOException {
+        this.enabled = enabled;
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        if (enabled) {
+            Files.createDirectories(dir);
+            try (Stream<Path> antigos = Files.list(dir)) {
+                antigos.forEach(StorageFileUtil::deleteQuietly);
+            }
+        }
+        this.acertos = Counter.builder(ACERTOS_METRIC)
+                .description("Downloads servidos do cache local")
+                .register(meterRegistry);
+        this.faltas = Counter.builder(FALTAS_METRIC)
+                .description("Downloads que foram ao S3")
+                .register(meterRegistry);
+        this.despejos = Counter.builder(DESPEJOS_METRIC)
+                .description("Vídeos removidos do cache por falta de espaço")
+                .register(meterRegistry);
+        Gauge.builder(BYTES_METRIC, this, VideoCache::bytes)
+                .description("Bytes ocupados pelo cache de vídeos")
+                .register(meterRegistry);
+        if (enabled) log.info("Cache de vídeos em {} (máx. {} MB)", dir.toAbsolutePath(), maxBytes / (1024 * 1024));
+    }
+
+    public boolean ativo() {
+        return enabled;
+    }
+
+    /** ETag da cópia guardada de {@code bucket/key}, para o GET condicional; vazio quando não há cópia. */
+    public synchronized Optional<String> etag(String bucket, String key) {
+        Entrada entrada = entradas.get(chave(bucket, key));
+        return entrada == null ? Optional.empty() : Optional.of(entrada.etag());
+    }
+
+    /**
+     * Põe em {@code destino} (substituindo-o) a cópia guardada com {@code etag}. Devolve {@code false} se ela saiu do
+     * cache desde a consulta; quem chama baixa de novo.
+     */
+    public boolean restaurar(String bucket, String key, String etag, Path destino) throws IOException {
+        Path origem;
+        synchronized (this) {
+            Entrada entrada = entradas.get(chave(bucket, key));
+            if (entrada == null || !entrada.etag().equals(etag)) return false;
+            origem = entrada.arquivo();
+            Files.deleteIfExists(destino);
+            if (linkar(origem, destino)) {
+                registrarAcerto(destino);
+                return true;
+            }
+        }
+        // sem hard link, a cópia é feita fora do lock; se a entrada for despejada no meio, o download refaz
+        try {
+            Files.copy(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Cópia do cache {} falhou ({}); baixando de novo", origem, e.getMessage());
+            return false;
+        }
+        registrarAcerto(destino);
+        return true;
+    }
+
+    /**
+     * Guarda {@code arquivo}, recém-baixado com {@code etag}, no lugar de qualquer versão anterior do objeto e despeja
+     * as entradas mais antigas até caber. Falhas só são logadas: o job segue com o arquivo que já tem.
+     */
+    public void guardar(String bucket, String key, String etag, Path arquivo) {
+        if (!enabled) return;
+        faltas.increment();
+        if (etag == null) return;
+        String chave = chave(bucket, key);
+        try {
+            long tamanho = Files.size(arquivo);
+            if (tamanho > maxBytes) return;
+            Path destino = dir.resolve(nomeArquivo(chave, etag));
+            Path parcial = Files.createTempFile(dir, "parcial-", ".tmp");
+            Files.delete(parcial);
+            if (!linkar(arquivo, parcial)) Files.copy(arquivo, parcial);
+            synchronized (this) {
+                Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Entrada anterior = entradas.put(chave, new Entrada(etag, destino, tamanho));
+                if (anterior != null) {
+                    bytes -= anterior.tamanho();
+                    if (!anterior.arquivo().equals(destino)) Files.deleteIfExists(anterior.arquivo());
+                }
+                bytes += tamanho;
+                despejar();
+            }
+        } catch (IOException e) {
+            log.warn("Não foi possível guardar {} no cache: {}", chave, e.getMessage());
+        }
+    }
+
+    /** O S3 respondeu 304 ao GET condicional: a cópia do cache ainda vale. */
+    public static boolean naoModificado(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) e = e.getCause();
+        return e instanceof S3Exception s3 && s3.statusCode() == 304;
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    private void despejar() throws IOException {
+        Iterator<Entrada> antigas = entradas.values().iterator();
+        while (bytes > maxBytes && antigas.hasNext()) {
+            Entrada entrada = antigas.next();
+            antigas.remove();
+            bytes -= entrada.tamanho();
+            Files.deleteIfExists(entrada.arquivo());
+            despejos.increment();
+        }
+    }
+
+    private void registrarAcerto(Path destino) throws IOException {
+        StorageFileUtil.contabilizar(destino);
+        acertos.increment();
+    }
+
+    /** Hard link de {@code origem} em {@code destino}; {@code false} quando o sistema de arquivos não permite. */
+    private static boolean linkar(Path origem, Path destino) {
+        try {
+            Files.createLink(destino, origem);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static String chave(String bucket, String key) {
+        return bucket + "/" + key;
+    }
+
+    private static String nomeArquivo(String chave, String etag) {
+        try {
+            byte[] hash =
+                    MessageDigest.getInstance("SHA-256").digest((chave + "/" + etag).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash) + ".video";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entrada(String etag, Path arquivo, long tamanho) {}
+}
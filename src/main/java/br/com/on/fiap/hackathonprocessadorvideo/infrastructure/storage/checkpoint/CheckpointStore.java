@@ -0,0 +1,107 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+
+/**
+ * Guarda checkpoints de extração no próprio bucket, ao lado da saída ({@code saida/x.checkpoint/}): um {@code
+ * estado.json} pequeno e um arquivo com as entradas de cada parte enviada. As entradas ficam separadas para que cada
+ * parte custe um PUT de tamanho constante, em vez de regravar a lista inteira de frames.
+ *
+ * <p>A ordem de escrita garante consistência: as entradas da parte vão antes do estado que a referencia.
+ */
+@Component
+@Slf4j
+public class CheckpointStore {
+
+    private static final TypeReference<List<EntradaArquivada>> ENTRADAS = new TypeReference<>() {};
+
+    private final S3Client s3Client;
+    private final ObjectMapper objectMapper;
+    private final String bucket;
+
+    public CheckpointStore(S3Client s3Client, ObjectMapper objectMapper, @Value("${nomeBucket}") String bucket) {
+        this.s3Client = s3Client;
+        this.objectMapper = objectMapper;
+        this.bucket = bucket;
+    }
+
+    public Optional<ExtractionCheckpoint> carregar(String caminhoSaida) throws IOException {
+        try {
+            byte[] json = s3Client.getObjectAsBytes(r -> r.bucket(bucket).key(chaveEstado(caminhoSaida)))
+                    .asByteArray();
+            return Optional.of(objectMapper.readValue(json, ExtractionCheckpoint.class));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    /** Entradas de todas as partes registradas no checkpoint, na ordem do zip. */
+    public List<EntradaArquivada> entradas(String caminhoSaida, ExtractionCheckpoint checkpoint) throws IOException {
+        List<EntradaArquivada> todas = new ArrayList<>();
+        for (ExtractionCheckpoint.ParteEnviada parte : checkpoint.partes()) {
+            byte[] json = s3Client.getObjectAsBytes(r -> r.bucket(bucket).key(chaveParte(caminhoSaida, parte.numero())))
+                    .asByteArray();
+            todas.addAll(objectMapper.readValue(json, ENTRADAS));
+        }
+        return todas;
+    }
+
+    public void salvar(String caminhoSaida, ExtractionCheckpoint checkpoint) throws IOException {
+        put(chaveEstado(caminhoSaida), objectMapper.writeValueAsBytes(checkpoint));
+    }
+
+    /** Registra uma parte recém-confirmada: primeiro suas entradas, depois o estado novo. */
+    public void salvar(
+            String caminhoSaida, ExtractionCheckpoint checkpoint, int numeroParte, List<EntradaArquivada> entradas)
+            throws IOException {
+        put(chaveParte(caminhoSaida, numeroParte), objectMapper.writeValueAsBytes(entradas));
+        salvar(caminhoSaida, checkpoint);
+    }
+
+    public void remover(String caminhoSaida, ExtractionCheckpoint checkpoint) {
+        List<ObjectIdentifier> chaves = new ArrayList<>();
+        chaves.add(ObjectIdentifier.builder().key(chaveEstado(caminhoSaida)).build());
+        for (ExtractionCheckpoint.ParteEnviada parte : checkpoint.partes()) {
+            chaves.add(ObjectIdentifier.builder()
+                    .key(chaveParte(caminhoSaida, parte.numero()))
+                    .build());
+        }
+        try {
+            s3Client.deleteObjects(r -> r.bucket(bucket).delete(d -> d.objects(chaves)));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao remover checkpoint de {}", caminhoSaida, e);
+        }
+    }
+
+    static String prefixo(String caminhoSaida) {
+        String base = caminhoSaida.endsWith(".zip")
+                ? caminhoSaida.substring(0, caminhoSaida.length() - ".zip".length())
+                : caminhoSaida;
+        return base + ".checkpoint/";
+    }
+
+    private static String chaveEstado(String caminhoSaida) {
+        return prefixo(caminhoSaida) + "estado.json";
+    }
+
+    private static String chaveParte(String caminhoSaida, int numero) {
+        return prefixo(caminhoSaida) + "parte-%05d.json".formatted(numero);
+    }
+
+    private void put(String chave, byte[] json) {
+        s3Client.putObject(
+                r -> r.bucket(bucket).key(chave).contentType("application/json"), RequestBody.fromBytes(json));
+    }
+}
@@ -0,0 +1,10 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+
+/**
+ * Frame já gravado numa parte: a entrada do manifesto mais o que o diretório central do zip precisa no fechamento.
+ *
+ * @param offsetLocal posição do cabeçalho local da entrada no zip
+ */
+public record EntradaArquivada(FrameManifestEntry frame, long crc32, long offsetLocal) {}
@@ -0,0 +1,49 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estado durável de uma extração retomável: o multipart upload em andamento, as partes já confirmadas pelo S3 e até
+ * onde o vídeo foi coberto por elas. Só é gravado depois que a parte correspondente foi aceita, então tudo que está
+ * aqui já está no bucket.
+ *
+ * @param reservaManifesto bytes reservados na parte 1 para o manifesto (primeira entrada do zip)
+ * @param dosTime data/hora gravada em todos os cabeçalhos do zip, fixa entre retomadas
+ * @param proximoIndice índice global do próximo frame a gravar
+ * @param ultimoPtsUs pts do último frame já enviado ({@code -1} antes do primeiro)
+ * @param offset posição no zip onde começa a próxima parte
+ * @param ancoraUs pts do primeiro frame gravado pelo job ({@code -1} antes dele); uma retomada mantém a cadência da
+ *     amostragem a partir dele em vez de recomeçá-la no ponto de retomada
+ */
+public record ExtractionCheckpoint(
+        String uploadId,
+        long reservaManifesto,
+        long dosTime,
+        List<ParteEnviada> partes,
+        int proximoIndice,
+        long ultimoPtsUs,
+        long offset,
+        long ancoraUs) {
+
+    /** A parte 1 fica reservada para o manifesto; os frames começam na parte 2. */
+    public static final int PRIMEIRA_PARTE_FRAMES = 2;
+
+    public record ParteEnviada(int numero, String etag, long bytes) {}
+
+    public ExtractionCheckpoint {
+        partes = List.copyOf(partes);
+    }
+
+    public int proximaParte() {
+        return PRIMEIRA_PARTE_FRAMES + partes.size();
+    }
+
+    ExtractionCheckpoint comParte(
+            ParteEnviada parte, int proximoIndice, long ultimoPtsUs, long offset, long ancoraUs) {
+        List<ParteEnviada> novas = new ArrayList<>(partes);
+        novas.add(parte);
+        return new ExtractionCheckpoint(
+                uploadId, reservaManifesto, dosTime, novas, proximoIndice, ultimoPtsUs, offset, ancoraUs);
+    }
+}
@@ -0,0 +1,331 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameListener;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+
+/**
+ * Grava o zip de saída direto num multipart upload conforme os frames saem do extrator, com checkpoint depois de cada
+ * parte. Se o worker cair, a reentrega da mensagem encontra o checkpoint, pula o trecho já enviado ({@link
+ * #ajustar(OpcoesProcessamento)}) e continua o mesmo upload.
+ *
+ * <p>Layout: a parte 1 guarda só o manifesto (primeira entrada do zip, como no {@code FrameArchiveWriter}) e é
+ * enviada por último — os offsets dos frames dependem apenas do tamanho reservado para ela, não do conteúdo. Os frames
+ * vão em entradas STORED nas partes seguintes e o diretório central fecha a última parte.
+ *
+ * <p>Uma instância por job; não reutilizar. {@link #close()} não aborta o upload: o que já foi enviado fica para a
+ * próxima tentativa. Job sem próxima tentativa (cancelado, fora do prazo) chama {@link #abortar()}.
+ */
+@Slf4j
+public final class ResumableArchiveUpload implements FrameListener, AutoCloseable {
+
+    /** Limite folgado do JSON de uma entrada do manifesto (índice, nome, pts, offset, tamanho, sha256 e chaves). */
+    static final int BYTES_POR_ENTRADA = 260;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final S3Client s3Client;
+    private final CheckpointStore store;
+    private final String bucket;
+    private final String caminhoSaida;
+    private final int tamanhoParte;
+    private final long reservaMinima;
+    private final List<EntradaArquivada> enviadas;
+    private final List<EntradaArquivada> pendentes = new ArrayList<>();
+    private final ByteArrayOutputStream buffer;
+    private final boolean retomado;
+
+    private ExtractionCheckpoint checkpoint;
+    private Integer limiteFrames;
+    private int proximoIndice;
+    private long ultimoPtsUs;
+    private long ancoraUs;
+    private long offset;
+
+    ResumableArchiveUpload(
+            S3Client s3Client,
+            CheckpointStore store,
+            String bucket,
+            String caminhoSaida,
+            int tamanhoParte,
+            long reservaMinima)
+            throws IOException {
+        this.s3Client = s3Client;
+        this.store = store;
+        this.bucket = bucket;
+        this.caminhoSaida = caminhoSaida;
+        this.tamanhoParte = tamanhoParte;
+        this.reservaMinima = reservaMinima;
+        this.buffer = new ByteArrayOutputStream(tamanhoParte + tamanhoParte / 4);
+        this.checkpoint = store.carregar(caminhoSaida).orElse(null);
+        this.retomado = checkpoint != null;
+        if (retomado) {
+            this.enviadas = new ArrayList<>(store.entradas(caminhoSaida, checkpoint));
+            this.proximoIndice = checkpoint.proximoIndice();
+            this.ultimoPtsUs = checkpoint.ultimoPtsUs();
+            this.ancoraUs = checkpoint.ancoraUs();
+            this.offset = checkpoint.offset();
+            log.info(
+                    "Retomando {} a partir do frame {} (pts {}us, {} partes já enviadas)",
+                    caminhoSaida,
+                    proximoIndice,
+                    ultimoPtsUs,
+                    checkpoint.partes().size());
+        } else {
+            this.enviadas = new ArrayList<>();
+            this.ultimoPtsUs = -1;
+            this.ancoraUs = -1;
+        }
+    }
+
+    public boolean retomado() {
+        return retomado;
+    }
+
+    /**
+     * Opções para a extração desta tentativa: numa retomada, começa no pts do checkpoint (frames repetidos na fronteira
+     * são descartados aqui) e o limite de frames vira o que falta. Devolve {@code null} quando não sobra nada a
+     * extrair.
+     */
+    public OpcoesProcessamento ajustar(OpcoesProcessamento opcoes) {
+        limiteFrames = opcoes.maxFrames();
+        if (!retomado || ultimoPtsUs < 0) {
+            return opcoes;
+        }
+        Integer restantes = null;
+        if (limiteFrames != null) {
+            int faltam = limiteFrames - proximoIndice;
+            if (faltam <= 0) return null;
+            // margem para os frames da fronteira, que o extrator conta mas são descartados
+            restantes = faltam + 2;
+        }
+        long inicioMs = Math.max(opcoes.inicioMs() == null ? 0 : opcoes.inicioMs(), ultimoPtsUs / 1000);
+        if (opcoes.fimMs() != null && inicioMs >= opcoes.fimMs()) return null;
+        return new OpcoesProcessamento(
+                inicioMs, opcoes.fimMs(), opcoes.fpsSaida(), opcoes.intervaloFrames(), restantes, opcoes.saida());
+    }
+
+    /** Numa retomada, o pts do primeiro frame do job: a amostragem continua na cadência da primeira tentativa. */
+    @Override
+    public long ancoraAmostragemUs() {
+        return ancoraUs;
+    }
+
+    @Override
+    public void inicio(int framesEstimados) throws IOException {
+        if (checkpoint != null) return;
+        long reserva = reserva(framesEstimados);
+        String uploadId = s3Client.createMultipartUpload(r -> r.bucket(bucket).key(caminhoSaida))
+                .uploadId();
+        offset = localHeader(FrameManifest.ENTRADA) + reserva;
+        checkpoint = new ExtractionCheckpoint(
+                uploadId, reserva, StoredZip.dosTime(LocalDateTime.now()), List.of(), 0, -1, offset, -1);
+        store.salvar(caminhoSaida, checkpoint);
+        log.info(
+                "Multipart upload {} iniciado para {} (reserva de manifesto: {} bytes)",
+                uploadId,
+                caminhoSaida,
+                reserva);
+    }
+
+    @Override
+    public void frameEscrito(Path arquivo, int indice, long ptsUs) throws IOException {
+        if ((ptsUs >= 0 && ptsUs <= ultimoPtsUs) || (limiteFrames != null && proximoIndice >= limiteFrames)) {
+            StorageFileUtil.deleteQuietly(arquivo);
+            return;
+        }
+        byte[] dados = Files.readAllBytes(arquivo);
+        StorageFileUtil.delete(arquivo);
+
+        String nome = "frame-" + proximoIndice + extensao(arquivo);
+        CRC32 crc = new CRC32();
+        crc.update(dados);
+        byte[] header = StoredZip.localHeader(nome, crc.getValue(), dados.length, checkpoint.dosTime());
+        buffer.write(header);
+        buffer.write(dados);
+
+        FrameManifestEntry entry =
+                new FrameManifestEntry(proximoIndice, nome, ptsUs, offset + header.length, dados.length, sha256(dados));
+        pendentes.add(new EntradaArquivada(entry, crc.getValue(), offset));
+        offset += header.length + dados.length;
+        if (ancoraUs < 0) ancoraUs = ptsUs;
+        proximoIndice++;
+        ultimoPtsUs = Math.max(ultimoPtsUs, ptsUs);
+
+        if (buffer.size() >= tamanhoParte) {
+            enviarParte();
+        }
+    }
+
+    /** Envia o manifesto e o diretório central e fecha o multipart upload. Devolve o manifesto final. */
+    public FrameManifest concluir() throws IOException {
+        if (checkpoint == null || (enviadas.isEmpty() && pendentes.isEmpty())) {
+            descartar();
+            throw new NoFramesExtractedException("No frames extracted from video: " + caminhoSaida);
+        }
+        List<EntradaArquivada> todas = new ArrayList<>(enviadas);
+        todas.addAll(pendentes);
+
+        FrameManifest manifest = new FrameManifest(
+                FrameManifest.VERSAO,
+                todas.stream().map(EntradaArquivada::frame).toList());
+        byte[] json = MAPPER.writeValueAsBytes(manifest);
+        if (json.length > checkpoint.reservaManifesto()) {
+            descartar();
+            throw new IllegalStateException("Manifesto com " + json.length + " bytes excede a reserva de "
+                    + checkpoint.reservaManifesto() + " bytes: " + caminhoSaida);
+        }
+        byte[] manifestoReservado = Arrays.copyOf(json, (int) checkpoint.reservaManifesto());
+        Arrays.fill(manifestoReservado, json.length, manifestoReservado.length, (byte) ' ');
+        CRC32 crc = new CRC32();
+        crc.update(manifestoReservado);
+
+        List<StoredZip.Entrada> diretorio = new ArrayList<>(todas.size() + 1);
+        diretorio.add(new StoredZip.Entrada(FrameManifest.ENTRADA, crc.getValue(), manifestoReservado.length, 0));
+        for (EntradaArquivada e : todas) {
+            diretorio.add(
+                    new StoredZip.Entrada(e.frame().nome(), e.crc32(), e.frame().tamanhoComprimido(), e.offsetLocal()));
+        }
+        buffer.write(StoredZip.diretorioCentral(diretorio, offset, checkpoint.dosTime()));
+
+        ByteArrayOutputStream primeira = new ByteArrayOutputStream(manifestoReservado.length + 64);
+        primeira.write(StoredZip.localHeader(
+                FrameManifest.ENTRADA, crc.getValue(), manifestoReservado.length, checkpoint.dosTime()));
+        primeira.write(manifestoReservado);
+
+        List<CompletedPart> partes = new ArrayList<>();
+        partes.add(part(1, uploadPart(1, primeira.toByteArray())));
+        checkpoint.partes().forEach(p -> partes.add(part(p.numero(), p.etag())));
+        int ultima = checkpoint.proximaParte();
+        partes.add(part(ultima, uploadPart(ultima, buffer.toByteArray())));
+        buffer.reset();
+
+        String uploadId = checkpoint.uploadId();
+        s3Client.completeMultipartUpload(
+                r -> r.bucket(bucket).key(caminhoSaida).uploadId(uploadId).multipartUpload(m -> m.parts(partes)));
+        s3Client.putObject(
+                r -> r.bucket(bucket)
+                        .key(FrameManifest.caminhoSidecar(caminhoSaida))
+                        .contentType("application/json"),
+                RequestBody.fromBytes(json));
+        store.remover(caminhoSaida, checkpoint);
+        log.info("Zip {} concluído com {} frames em {} partes", caminhoSaida, todas.size(), partes.size());
+        return manifest;
+    }
+
+    /** Aborta o multipart upload e apaga o checkpoint: a próxima entrega, se houver, recomeça do zero. */
+    public void abortar() {
+        descartar();
+        checkpoint = null;
+        close();
+    }
+
+    @Override
+    public void close() {
+        buffer.reset();
+        pendentes.clear();
+    }
+
+    private void enviarParte() throws IOException {
+        int numero = checkpoint.proximaParte();
+        long bytes = buffer.size();
+        String etag = uploadPart(numero, buffer.toByteArray());
+        ExtractionCheckpoint novo = checkpoint.comParte(
+                new ExtractionCheckpoint.ParteEnviada(numero, etag, bytes),
+                proximoIndice,
+                ultimoPtsUs,
+                offset,
+                ancoraUs);
+        store.salvar(caminhoSaida, novo, numero, pendentes);
+        checkpoint = novo;
+        enviadas.addAll(pendentes);
+        pendentes.clear();
+        buffer.reset();
+        log.debug("Parte {} de {} enviada ({} bytes, até o frame {})", numero, caminhoSaida, bytes, proximoIndice - 1);
+    }
+
+    private String uploadPart(int numero, byte[] dados) throws IOException {
+        String uploadId = checkpoint.uploadId();
+        try {
+            return s3Client.uploadPart(
+                            r -> r.bucket(bucket)
+                                    .key(caminhoSaida)
+                                    .uploadId(uploadId)
+                                    .partNumber(numero),
+                            RequestBody.fromBytes(dados))
+                    .eTag();
+        } catch (NoSuchUploadException e) {
+            // upload abortado ou expirado pela lifecycle do bucket: o checkpoint não vale mais, próxima tentativa
+            // recomeça do zero
+            store.remover(caminhoSaida, checkpoint);
+            throw new IOException("Multipart upload " + uploadId + " não existe mais: " + caminhoSaida, e);
+        }
+    }
+
+    /** Sem frames ou sem como fechar o zip: não há o que retomar. */
+    private void descartar() {
+        if (checkpoint == null) return;
+        String uploadId = checkpoint.uploadId();
+        try {
+            s3Client.abortMultipartUpload(
+                    r -> r.bucket(bucket).key(caminhoSaida).uploadId(uploadId));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao abortar multipart upload {} de {}", uploadId, caminhoSaida, e);
+        }
+        store.remover(caminhoSaida, checkpoint);
+    }
+
+    /**
+     * Espaço da parte 1. Não pode mudar depois do primeiro frame, então usa o menor limite conhecido entre o dobro da
+     * estimativa e o limite de frames do job, e nunca menos que o mínimo de parte do S3 (a parte 1 não é a última).
+     */
+    long reserva(int framesEstimados) {
+        long frames = framesEstimados > 0 ? framesEstimados * 2L + 100 : Long.MAX_VALUE;
+        if (limiteFrames != null) frames = Math.min(frames, limiteFrames);
+        long bytes = frames == Long.MAX_VALUE ? 0 : frames * BYTES_POR_ENTRADA + 1024;
+        return Math.max(reservaMinima - localHeader(FrameManifest.ENTRADA), bytes);
+    }
+
+    private static long localHeader(String nome) {
+        return 30 + nome.length();
+    }
+
+    private static CompletedPart part(int numero, String etag) {
+        return CompletedPart.builder().partNumber(numero).eTag(etag).build();
+    }
+
+    private static String extensao(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        int ponto = nome.lastIndexOf('.');
+        return ponto < 0 ? "" : nome.substring(ponto);
+    }
+
+    private static String sha256(byte[] dados) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(dados));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
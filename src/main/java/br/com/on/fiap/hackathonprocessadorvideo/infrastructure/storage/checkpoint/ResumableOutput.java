@@ -0,0 +1,38 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.S3MultipartOutputStream;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/** Configuração da extração retomável ({@code processador.checkpoint.*}) e fábrica de {@link ResumableArchiveUpload}. */
+@Component
+public class ResumableOutput {
+
+    private final S3Client s3Client;
+    private final CheckpointStore store;
+    private final boolean enabled;
+    private final int tamanhoParte;
+
+    public ResumableOutput(
+            S3Client s3Client,
+            CheckpointStore store,
+            @Value("${processador.checkpoint.enabled:false}") boolean enabled,
+            @Value("${processador.checkpoint.tamanho-parte-mb:16}") int tamanhoParteMb) {
+        this.s3Client = s3Client;
+        this.store = store;
+        this.enabled = enabled;
+        this.tamanhoParte = Math.max(S3MultipartOutputStream.MIN_PART_SIZE, tamanhoParteMb * 1024 * 1024);
+    }
+
+    public boolean ativo() {
+        return enabled;
+    }
+
+    /** Abre o upload de {@code caminhoSaida}, retomando o checkpoint existente se houver. */
+    public ResumableArchiveUpload abrir(String bucket, String caminhoSaida) throws IOException {
+        return new ResumableArchiveUpload(
+                s3Client, store, bucket, caminhoSaida, tamanhoParte, S3MultipartOutputStream.MIN_PART_SIZE);
+    }
+}
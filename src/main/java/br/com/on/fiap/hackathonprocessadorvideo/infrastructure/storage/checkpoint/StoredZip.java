@@ -0,0 +1,125 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escrita manual do formato zip para entradas STORED, usada quando o arquivo é montado em partes independentes de um
+ * multipart upload e o {@link java.util.zip.ZipOutputStream} (que guarda estado em memória) não serve para retomar.
+ * Cabeçalhos locais sem campos extras, mesmo layout do {@code FrameArchiveWriter}; diretório central com extensões
+ * ZIP64 quando offsets, tamanho ou número de entradas passam dos limites do formato clássico.
+ */
+final class StoredZip {
+
+    record Entrada(String nome, long crc32, long tamanho, long offsetLocal) {}
+
+    private static final int LOC_SIG = 0x04034b50;
+    private static final int CEN_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOC_SIG = 0x07064b50;
+    private static final long MAX32 = 0xFFFFFFFFL;
+    private static final int MAX16 = 0xFFFF;
+    private static final short VERSAO_STORED = 10;
+    private static final short VERSAO_ZIP64 = 45;
+
+    private StoredZip() {}
+
+    static long dosTime(LocalDateTime t) {
+        return ((long) (t.getYear() - 1980) << 25)
+                | ((long) t.getMonthValue() << 21)
+                | ((long) t.getDayOfMonth() << 16)
+                | ((long) t.getHour() << 11)
+                | ((long) t.getMinute() << 5)
+                | ((long) t.getSecond() >> 1);
+    }
+
+    static byte[] localHeader(String nome, long crc32, long tamanho, long dosTime) {
+        byte[] n = nome.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer b = le(30 + n.length);
+        b.putInt(LOC_SIG);
+        b.putShort(VERSAO_STORED);
+        b.putShort((short) 0); // flags
+        b.putShort((short) 0); // STORED
+        b.putInt((int) dosTime);
+        b.putInt((int) crc32);
+        b.putInt((int) tamanho);
+        b.putInt((int) tamanho);
+        b.putShort((short) n.length);
+        b.putShort((short) 0); // extra
+        b.put(n);
+        return b.array();
+    }
+
+    /** Diretório central + registros de fim, a partir de {@code offsetDiretorio}. */
+    static byte[] diretorioCentral(List<Entrada> entradas, long offsetDiretorio, long dosTime) {
+        int tamanho = 0;
+        for (Entrada e : entradas) {
+            tamanho += 46 + e.nome().getBytes(StandardCharsets.UTF_8).length + (e.offsetLocal() >= MAX32 ? 12 : 0);
+        }
+        boolean zip64 = entradas.size() >= MAX16 || offsetDiretorio >= MAX32 || tamanho >= MAX32;
+        ByteBuffer b = le(tamanho + (zip64 ? 56 + 20 : 0) + 22);
+
+        for (Entrada e : entradas) {
+            byte[] n = e.nome().getBytes(StandardCharsets.UTF_8);
+            boolean extra = e.offsetLocal() >= MAX32;
+            b.putInt(CEN_SIG);
+            b.putShort(VERSAO_ZIP64); // versão que gerou
+            b.putShort(extra ? VERSAO_ZIP64 : VERSAO_STORED);
+            b.putShort((short) 0);
+            b.putShort((short) 0);
+            b.putInt((int) dosTime);
+            b.putInt((int) e.crc32());
+            b.putInt((int) e.tamanho());
+            b.putInt((int) e.tamanho());
+            b.putShort((short) n.length);
+            b.putShort((short) (extra ? 12 : 0));
+            b.putShort((short) 0); // comentário
+            b.putShort((short) 0); // disco
+            b.putShort((short) 0); // atributos internos
+            b.putInt(0); // atributos externos
+            b.putInt((int) (extra ? MAX32 : e.offsetLocal()));
+            b.put(n);
+            if (extra) {
+                b.putShort((short) 0x0001);
+                b.putShort((short) 8);
+                b.putLong(e.offsetLocal());
+            }
+        }
+
+        long fimDiretorio = offsetDiretorio + tamanho;
+        if (zip64) {
+            b.putInt(ZIP64_END_SIG);
+            b.putLong(44);
+            b.putShort(VERSAO_ZIP64);
+            b.putShort(VERSAO_ZIP64);
+            b.putInt(0);
+            b.putInt(0);
+            b.putLong(entradas.size());
+            b.putLong(entradas.size());
+            b.putLong(tamanho);
+            b.putLong(offsetDiretorio);
+
+            b.putInt(ZIP64_LOC_SIG);
+            b.putInt(0);
+            b.putLong(fimDiretorio);
+            b.putInt(1);
+        }
+        b.putInt(END_SIG);
+        b.putShort((short) 0);
+        b.putShort((short) 0);
+        b.putShort((short) (zip64 ? MAX16 : entradas.size()));
+        b.putShort((short) (zip64 ? MAX16 : entradas.size()));
+        b.putInt((int) (zip64 ? MAX32 : tamanho));
+        b.putInt((int) (zip64 ? MAX32 : offsetDiretorio));
+        b.putShort((short) 0);
+        return b.array();
+    }
+
+    private static ByteBuffer le(int tamanho) {
+        return ByteBuffer.allocate(tamanho).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,216 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.chunk;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging.ProgressNotifier;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameListener;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameArchiveWriter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Fatia a saída de um job em partes enquanto a extração acontece. Os frames são movidos para o diretório da parte
+ * atual; ao atingir o limite de frames ou bytes a parte é fechada e enviada numa thread própria, e a extração segue. No
+ * máximo {@code maxPendentes} partes esperam upload — acima disso a extração aguarda, limitando o disco usado.
+ *
+ * <p>Uma instância por job; não reutilizar.
+ */
+@Slf4j
+public final class ChunkedArchiveSink implements FrameListener, AutoCloseable {
+
+    private final S3Client s3Client;
+    private final ObjectMapper objectMapper;
+    private final ProgressNotifier.Progresso progresso;
+    private final String bucket;
+    private final String base;
+    private final int maxFrames;
+    private final long maxBytes;
+    private final Semaphore pendentes;
+    private final ExecutorService uploader;
+    private final List<PartesIndice.Parte> enviadas = new ArrayList<>();
+    private final AtomicReference<Throwable> falha = new AtomicReference<>();
+
+    private Path parteDir;
+    private StringBuilder pts;
+    private int primeiroFrame;
+    private int framesNaParte;
+    private long bytesNaParte;
+    private int framesTotais;
+    private int proximaParte;
+
+    ChunkedArchiveSink(
+            S3Client s3Client,
+            ObjectMapper objectMapper,
+            ProgressNotifier.Progresso progresso,
+            String bucket,
+            String caminhoSaida,
+            int maxFrames,
+            long maxBytes,
+            int maxPendentes) {
+        this.s3Client = s3Client;
+        this.objectMapper = objectMapper;
+        this.progresso = progresso;
+        this.bucket = bucket;
+        this.base = caminhoSaida.endsWith(".zip")
+                ? caminhoSaida.substring(0, caminhoSaida.length() - ".zip".length())
+                : caminhoSaida;
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBytes;
+        this.pendentes = new Semaphore(maxPendentes);
+        this.uploader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "parte-upload");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void inicio(int framesEstimados) {
+        progresso.estimativa(framesEstimados);
+    }
+
+    @Override
+    public void frameEscrito(Path arquivo, int indice, long ptsUs) throws IOException {
+        verificarFalha();
+        if (parteDir == null) abrirParte(indice);
+
+        long tamanho = Files.size(arquivo);
+        Files.move(arquivo, parteDir.resolve(arquivo.getFileName()));
+        pts.append(indice).append(' ').append(ptsUs).append('\n');
+        framesNaParte++;
+        bytesNaParte += tamanho;
+        framesTotais++;
+        progresso.frames(framesTotais);
+
+        if (framesNaParte >= maxFrames || bytesNaParte >= maxBytes) fecharParte();
+    }
+
+    /**
+     * Fecha a última parte, espera os uploads e publica o índice.
+     *
+     * @return chave do índice {@code <saida>.partes.json}
+     */
+    public String concluir() throws IOException {
+        verificarFalha();
+        if (parteDir != null) fecharParte();
+        uploader.shutdown();
+        try {
+            while (!uploader.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Aguardando upload das partes de {} ({} pendentes)", base, pendentesAtuais());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido aguardando upload das partes de " + base);
+        }
+        verificarFalha();
+
+        List<PartesIndice.Parte> partes;
+        synchronized (enviadas) {
+            partes = enviadas.stream()
+                    .sorted(Comparator.comparingInt(PartesIndice.Parte::numero))
+                    .toList();
+        }
+        String chave = base + ".partes.json";
+        byte[] json = objectMapper.writeValueAsBytes(new PartesIndice(framesTotais, partes));
+        s3Client.putObject(
+                r -> r.bucket(bucket).key(chave).contentType("application/json"), RequestBody.fromBytes(json));
+        log.info(
+                "Saída fatiada concluída: {} partes, {} frames, índice s3://{}/{}",
+                partes.size(),
+                framesTotais,
+                bucket,
+                chave);
+        return chave;
+    }
+
+    @Override
+    public void close() {
+        uploader.shutdownNow();
+        StorageFileUtil.deleteRecursively(parteDir);
+        parteDir = null;
+    }
+
+    private void abrirParte(int indice) throws IOException {
+        parteDir = StorageFileUtil.createTempDirectory("parte-");
+        pts = new StringBuilder();
+        primeiroFrame = indice;
+        framesNaParte = 0;
+        bytesNaParte = 0;
+    }
+
+    private void fecharParte() throws IOException {
+        Files.writeString(parteDir.resolve(FrameManifest.PTS_FILE), pts);
+        Path dir = parteDir;
+        int numero = proximaParte++;
+        int primeiro = primeiroFrame;
+        int frames = framesNaParte;
+        parteDir = null;
+
+        try {
+            pendentes.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            StorageFileUtil.deleteRecursively(dir);
+            throw new InterruptedIOException("Interrompido aguardando vaga para upload de parte");
+        }
+        uploader.execute(() -> {
+            try {
+                enviarParte(dir, numero, primeiro, frames);
+            } catch (Throwable t) {
+                falha.compareAndSet(null, t);
+                log.error("Falha no upload da parte {} de {}", numero, base, t);
+            } finally {
+                StorageFileUtil.deleteRecursively(dir);
+                pendentes.release();
+            }
+        });
+    }
+
+    private void enviarParte(Path dir, int numero, int primeiro, int frames) throws IOException {
+        FrameArchiveWriter.Resultado archive = FrameArchiveWriter.escrever(dir);
+        try {
+            String chave = "%s.parte-%05d.zip".formatted(base, numero);
+            long bytes = Files.size(archive.zip());
+            s3Client.putObject(r -> r.bucket(bucket).key(chave), RequestBody.fromFile(archive.zip()));
+            s3Client.putObject(
+                    r -> r.bucket(bucket)
+                            .key(FrameManifest.caminhoSidecar(chave))
+                            .contentType("application/json"),
+                    RequestBody.fromBytes(archive.manifestJson()));
+            synchronized (enviadas) {
+                enviadas.add(new PartesIndice.Parte(numero, chave, primeiro, frames, bytes));
+            }
+            log.info("Parte {} enviada: s3://{}/{} ({} frames, {} bytes)", numero, bucket, chave, frames, bytes);
+            progresso.parteDisponivel(chave);
+        } finally {
+            StorageFileUtil.deleteQuietly(archive.zip());
+        }
+    }
+
+    private int pendentesAtuais() {
+        synchronized (enviadas) {
+            return Math.max(0, proximaParte - enviadas.size());
+        }
+    }
+
+    private void verificarFalha() throws IOException {
+        Throwable t = falha.get();
+        if (t == null) return;
+        if (t instanceof IOException io) throw new IOException("Upload de parte falhou: " + io.getMessage(), io);
+        throw new IOException("Upload de parte falhou", t);
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.chunk;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging.ProgressNotifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/** Configuração do modo de saída fatiada ({@code processador.partes.*}) e fábrica de {@link ChunkedArchiveSink}. */
+@Component
+public class ChunkedOutput {
+
+    private final S3Client s3Client;
+    private final ObjectMapper objectMapper;
+    private final ProgressNotifier progressNotifier;
+    private final boolean enabled;
+    private final int maxFrames;
+    private final long maxBytes;
+    private final int maxPendentes;
+
+    public ChunkedOutput(
+            S3Client s3Client,
+            ObjectMapper objectMapper,
+            ProgressNotifier progressNotifier,
+            @Value("${processador.partes.enabled:false}") boolean enabled,
+            @Value("${processador.partes.max-frames:500}") int maxFrames,
+            @Value("${processador.partes.max-mb:64}") int maxMb,
+            @Value("${processador.partes.max-pendentes:2}") int maxPendentes) {
+        this.s3Client = s3Client;
+        this.objectMapper = objectMapper;
+        this.progressNotifier = progressNotifier;
+        this.enabled = enabled;
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxMb * 1024L * 1024L;
+        this.maxPendentes = maxPendentes;
+    }
+
+    public boolean ativo() {
+        return enabled;
+    }
+
+    public ChunkedArchiveSink abrir(VideoMensagem mensagem, String bucket, String caminhoSaida) {
+        return new ChunkedArchiveSink(
+                s3Client,
+                objectMapper,
+                progressNotifier.iniciar(mensagem),
+                bucket,
+                caminhoSaida,
+                maxFrames,
+                maxBytes,
+                maxPendentes);
+    }
+}
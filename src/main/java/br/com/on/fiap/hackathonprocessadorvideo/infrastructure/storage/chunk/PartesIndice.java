@@ -0,0 +1,16 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.chunk;
+
+import java.util.List;
+
+/**
+ * Índice publicado em {@code <saida>.partes.json} ao fim de um job fatiado; é a chave que vai na notificação final.
+ * Cada parte é um zip completo (com seu próprio manifesto) e os frames mantêm a numeração global.
+ */
+public record PartesIndice(int frames, List<Parte> partes) {
+
+    public PartesIndice {
+        partes = List.copyOf(partes);
+    }
+
+    public record Parte(int numero, String caminho, int primeiroFrame, int frames, long bytes) {}
+}
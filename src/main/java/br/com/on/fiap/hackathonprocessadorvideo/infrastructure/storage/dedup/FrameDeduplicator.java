@@ -0,0 +1,114 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.dedup;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacv.Frame;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Descarta frames iguais ou quase iguais ao último frame emitido (cenas estáticas, slides, gravações de tela) antes do
+ * encode. A comparação é pela distância de Hamming entre dHashes ({@link PerceptualHash}); até {@code distancia-max}
+ * bits diferentes o frame é considerado repetido. O frame mantido cobre o intervalo até o próximo pts do manifesto.
+ *
+ * <p>Configuração em {@code processador.dedup.*}; a taxa de descarte de cada job vai para o log e para {@value
+ * #RATIO_METRIC}.
+ */
+@Slf4j
+@Component
+public class FrameDeduplicator {
+
+    static final String RATIO_METRIC = "processador.frames.dedup.ratio";
+    static final String DUPLICADOS_METRIC = "processador.frames.duplicados";
+
+    private final boolean enabled;
+    private final int distanciaMax;
+    private final DistributionSummary ratio;
+    private final Counter duplicados;
+
+    @Autowired
+    public FrameDeduplicator(
+            MeterRegistry meterRegistry,
+            @Value("${processador.dedup.enabled:false}") boolean enabled,
+            @Value("${processador.dedup.distancia-max:4}") int distanciaMax) {
+        this.enabled = enabled;
+        this.distanciaMax = distanciaMax;
+        this.ratio = DistributionSummary.builder(RATIO_METRIC)
+                .description("Fração dos frames selecionados descartada como repetida, por job")
+                .register(meterRegistry);
+        this.duplicados = Counter.builder(DUPLICADOS_METRIC)
+                .description("Frames descartados por serem repetidos")
+                .register(meterRegistry);
+    }
+
+    private FrameDeduplicator() {
+        this.enabled = false;
+        this.distanciaMax = 0;
+        this.ratio = null;
+        this.duplicados = null;
+    }
+
+    public static FrameDeduplicator desligado() {
+        return new FrameDeduplicator();
+    }
+
+    /** Estado de um job; usar na thread do extrator. */
+    public Sessao iniciar() {
+        return new Sessao();
+    }
+
+    public final class Sessao {
+
+        private long ultimoHash;
+        private boolean temUltimo;
+        private long candidato;
+        private boolean temCandidato;
+        private int candidatos;
+        private int descartados;
+
+        private Sessao() {}
+
+        /**
+         * {@code true} quando o frame repete o último emitido e não deve ser codificado. Um frame novo só vira a
+         * referência dos próximos em {@link #emitido()}: o orçamento ainda pode recusá-lo.
+         */
+        public boolean repetido(Frame frame) {
+            temCandidato = false;
+            if (!enabled || !PerceptualHash.suportado(frame)) return false;
+            candidatos++;
+            long hash = PerceptualHash.dHash(frame);
+            if (temUltimo && PerceptualHash.distancia(hash, ultimoHash) <= distanciaMax) {
+                descartados++;
+                return true;
+            }
+            candidato = hash;
+            temCandidato = true;
+            return false;
+        }
+
+        /** O último frame que passou por {@link #repetido} foi aceito pela saída. */
+        public void emitido() {
+            if (!temCandidato) return;
+            ultimoHash = candidato;
+            temUltimo = true;
+            temCandidato = false;
+        }
+
+        public int descartados() {
+            return descartados;
+        }
+
+        public void concluir() {
+            if (!enabled || candidatos == 0) return;
+            double taxa = (double) descartados / candidatos;
+            ratio.record(taxa);
+            duplicados.increment(descartados);
+            log.info(
+                    "Dedup: {} de {} frames descartados como repetidos ({}%)",
+                    descartados, candidatos, Math.round(taxa * 100));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.dedup;
+
+import java.nio.ByteBuffer;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * dHash de 64 bits calculado direto do buffer decodificado, sem swscale: a imagem é reduzida a uma grade 9x8 de
+ * luminância média (amostrando alguns pixels por célula) e cada bit diz se a célula é mais escura que a vizinha da
+ * direita. Frames visualmente iguais ficam a poucos bits de distância mesmo com ruído de compressão.
+ */
+final class PerceptualHash {
+
+    private static final int COLUNAS = 9;
+    private static final int LINHAS = 8;
+    private static final int AMOSTRAS_POR_EIXO = 4;
+
+    private PerceptualHash() {}
+
+    /** Frames de 8 bits com 1 (cinza), 3 (BGR) ou 4 (BGRA) canais — o que o grabber entrega. */
+    static boolean suportado(Frame frame) {
+        return frame != null
+                && frame.image != null
+                && frame.image[0] instanceof ByteBuffer
+                && frame.imageDepth == Frame.DEPTH_UBYTE
+                && (frame.imageChannels == 1 || frame.imageChannels == 3 || frame.imageChannels == 4)
+                && frame.imageWidth >= COLUNAS
+                && frame.imageHeight >= LINHAS;
+    }
+
+    static long dHash(Frame frame) {
+        ByteBuffer buf = (ByteBuffer) frame.image[0];
+        int w = frame.imageWidth;
+        int h = frame.imageHeight;
+        int canais = frame.imageChannels;
+        int stride = frame.imageStride;
+
+        int[] grade = new int[COLUNAS * LINHAS];
+        for (int l = 0; l < LINHAS; l++) {
+            int y0 = l * h / LINHAS;
+            int y1 = (l + 1) * h / LINHAS;
+            int passoY = Math.max(1, (y1 - y0) / AMOSTRAS_POR_EIXO);
+            for (int c = 0; c < COLUNAS; c++) {
+                int x0 = c * w / COLUNAS;
+                int x1 = (c + 1) * w / COLUNAS;
+                int passoX = Math.max(1, (x1 - x0) / AMOSTRAS_POR_EIXO);
+                int soma = 0;
+                int n = 0;
+                for (int y = y0; y < y1; y += passoY) {
+                    int linha = y * stride;
+                    for (int x = x0; x < x1; x += passoX) {
+                        soma += luma(buf, linha + x * canais, canais);
+                        n++;
+                    }
+                }
+                grade[l * COLUNAS + c] = soma / n;
+            }
+        }
+
+        long hash = 0;
+        int bit = 0;
+        for (int l = 0; l < LINHAS; l++) {
+            for (int c = 0; c < COLUNAS - 1; c++, bit++) {
+                if (grade[l * COLUNAS + c] < grade[l * COLUNAS + c + 1]) {
+                    hash |= 1L << bit;
+                }
+            }
+        }
+        return hash;
+    }
+
+    static int distancia(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static int luma(ByteBuffer buf, int p, int canais) {
+        if (canais == 1) return buf.get(p) & 0xFF;
+        int b = buf.get(p) & 0xFF;
+        int g = buf.get(p + 1) & 0xFF;
+        int r = buf.get(p + 2) & 0xFF;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+}
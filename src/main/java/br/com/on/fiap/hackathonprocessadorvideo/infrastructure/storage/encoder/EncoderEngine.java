@@ -0,0 +1,8 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder;
+
+public enum EncoderEngine {
+    /** swscale + encoders de imagem do FFmpeg; não depende do OpenCV. */
+    FFMPEG,
+    /** {@code OpenCVFrameConverter} + {@code imwrite}; exige {@code opencv-platform}. */
+    OPENCV
+}
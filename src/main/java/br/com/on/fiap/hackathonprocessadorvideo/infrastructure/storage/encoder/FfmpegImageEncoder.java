@@ -0,0 +1,284 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder;
+
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_FLAG_QSCALE;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_alloc;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_free;
+import static org.bytedeco.ffmpeg.global.avcodec.av_packet_unref;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_alloc_context3;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_find_encoder;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_find_encoder_by_name;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_free_context;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_open2;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_receive_packet;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_send_frame;
+import static org.bytedeco.ffmpeg.global.avutil.AVERROR_EAGAIN;
+import static org.bytedeco.ffmpeg.global.avutil.AVERROR_EOF;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGR24;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGRA;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_GRAY8;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_NONE;
+import static org.bytedeco.ffmpeg.global.avutil.FF_QP2LAMBDA;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_alloc;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_free;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_get_buffer;
+import static org.bytedeco.ffmpeg.global.avutil.av_frame_make_writable;
+import static org.bytedeco.ffmpeg.global.avutil.av_make_q;
+import static org.bytedeco.ffmpeg.global.avutil.av_strerror;
+import static org.bytedeco.ffmpeg.global.swscale.SWS_AREA;
+import static org.bytedeco.ffmpeg.global.swscale.SWS_BILINEAR;
+import static org.bytedeco.ffmpeg.global.swscale.sws_freeContext;
+import static org.bytedeco.ffmpeg.global.swscale.sws_getCachedContext;
+import static org.bytedeco.ffmpeg.global.swscale.sws_scale;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameEncodingException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.ffmpeg.avcodec.AVCodec;
+import org.bytedeco.ffmpeg.avcodec.AVCodecContext;
+import org.bytedeco.ffmpeg.avcodec.AVPacket;
+import org.bytedeco.ffmpeg.avutil.AVDictionary;
+import org.bytedeco.ffmpeg.avutil.AVFrame;
+import org.bytedeco.ffmpeg.swscale.SwsContext;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.PointerPointer;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Codifica frames direto com os encoders de imagem do FFmpeg (png/mjpeg/webp), sem passar
+ * pelo OpenCV. A conversão de cor é feita pelo swscale para um {@link AVFrame} reaproveitado e
+ * o pacote codificado é gravado no arquivo a partir do buffer nativo do {@link AVPacket}, que
+ * também é reaproveitado entre frames. Com {@code largura}, o mesmo swscale reduz o frame antes do encode. Com
+ * {@code qualidade}, JPEG e WebP usam a qualidade lida a cada frame (o codec é reaberto quando ela muda); PNG não tem
+ * perdas e a ignora.
+ */
+@Slf4j
+public final class FfmpegImageEncoder implements FrameEncoder {
+
+    private static final int JPEG_QSCALE = 2;
+
+    private final ImageFormat format;
+    private final int largura;
+    private final IntSupplier qualidade;
+    private final AVPacket packet = av_packet_alloc();
+    private final PointerPointer<BytePointer> srcData = new PointerPointer<>(4);
+    private final IntPointer srcStride = new IntPointer(4);
+
+    private AVCodecContext codecContext;
+    private int qualidadeAberta;
+    private AVFrame picture;
+    private SwsContext swsContext;
+    private Buffer lastSrcBuffer;
+    private BytePointer srcPointer;
+    private long pts;
+
+    public FfmpegImageEncoder(ImageFormat format) {
+        this(format, 0);
+    }
+
+    /** @param largura largura de saída; {@code 0}, ou maior que a do frame, mantém a resolução de origem */
+    public FfmpegImageEncoder(ImageFormat format, int largura) {
+        this(format, largura, () -> 0);
+    }
+
+    /** @param qualidade 1–100, maior é melhor; {@code 0} usa o padrão do formato */
+    public FfmpegImageEncoder(ImageFormat format, int largura, IntSupplier qualidade) {
+        this.format = format;
+        this.largura = largura;
+        this.qualidade = qualidade;
+    }
+
+    @Override
+    public ImageFormat format() {
+        return format;
+    }
+
+    @Override
+    public boolean write(Frame frame, Path out) throws IOException {
+        if (frame == null || frame.image == null || frame.image[0] == null) return false;
+
+        int srcFormat = sourcePixelFormat(frame);
+        if (srcFormat == AV_PIX_FMT_NONE) {
+            log.warn(
+                    "Unsupported frame layout for FFmpeg encoder (depth={}, channels={})",
+                    frame.imageDepth,
+                    frame.imageChannels);
+            return false;
+        }
+
+        int width = frame.imageWidth;
+        int height = frame.imageHeight;
+        if (largura > 0 && largura < width) {
+            // par nas duas dimensões: os formatos 4:2:0 (jpeg/webp) subamostram a croma em blocos de 2x2
+            width = Math.max(2, largura & ~1);
+            height = Math.max(2, (int) Math.round((double) frame.imageHeight * width / frame.imageWidth) & ~1);
+        }
+        openCodec(width, height, format == ImageFormat.PNG ? 0 : qualidade.getAsInt());
+        scale(frame, srcFormat);
+        return encodeTo(out);
+    }
+
+    private static int sourcePixelFormat(Frame frame) {
+        if (frame.imageDepth != Frame.DEPTH_UBYTE) return AV_PIX_FMT_NONE;
+        return switch (frame.imageChannels) {
+            case 1 -> AV_PIX_FMT_GRAY8;
+            case 3 -> AV_PIX_FMT_BGR24;
+            case 4 -> AV_PIX_FMT_BGRA;
+            default -> AV_PIX_FMT_NONE;
+        };
+    }
+
+    private void openCodec(int width, int height, int quality) throws FrameEncodingException {
+        if (codecContext != null
+                && codecContext.width() == width
+                && codecContext.height() == height
+                && qualidadeAberta == quality) {
+            return;
+        }
+        releaseCodec();
+
+        AVCodec codec = findEncoder(format);
+
+        codecContext = avcodec_alloc_context3(codec);
+        codecContext
+                .width(width)
+                .height(height)
+                .pix_fmt(format.getPixelFormat())
+                .time_base(av_make_q(1, 25));
+        if (format == ImageFormat.JPEG) {
+            codecContext.flags(codecContext.flags() | AV_CODEC_FLAG_QSCALE);
+            codecContext.global_quality(FF_QP2LAMBDA * (quality > 0 ? jpegQscale(quality) : JPEG_QSCALE));
+        } else if (format == ImageFormat.WEBP && quality > 0) {
+            // o libwebp lê global_quality / FF_QP2LAMBDA como a própria qualidade 0–100
+            codecContext.flags(codecContext.flags() | AV_CODEC_FLAG_QSCALE);
+            codecContext.global_quality(FF_QP2LAMBDA * Math.min(100, quality));
+        }
+        check(avcodec_open2(codecContext, codec, (AVDictionary) null), "avcodec_open2");
+        qualidadeAberta = quality;
+
+        picture = av_frame_alloc();
+        picture.format(format.getPixelFormat()).width(width).height(height);
+        check(av_frame_get_buffer(picture, 0), "av_frame_get_buffer");
+        log.debug("Opened FFmpeg {} encoder for {}x{}", format, width, height);
+    }
+
+    /** Qualidade 1–100 na escala do mjpeg: qscale 2 (melhor) a 31 (pior). */
+    static int jpegQscale(int quality) {
+        int q = Math.max(1, Math.min(100, quality));
+        return 2 + Math.round((100 - q) * 29f / 99);
+    }
+
+    /**
+     * Encoder pelo nome; para WebP não há fallback pelo codec id, que resolve para o libwebp_anim — ele só emite o
+     * pacote no flush e todo {@link #write} voltaria {@code false} em silêncio.
+     */
+    static AVCodec findEncoder(ImageFormat format) throws FrameEncodingException {
+        AVCodec codec = avcodec_find_encoder_by_name(format.getEncoderName());
+        if (codec == null && format != ImageFormat.WEBP) codec = avcodec_find_encoder(format.getCodecId());
+        if (codec == null) {
+            throw new FrameEncodingException(
+                    "FFmpeg encoder '" + format.getEncoderName() + "' not available for format " + format);
+        }
+        return codec;
+    }
+
+    private void scale(Frame frame, int srcFormat) throws FrameEncodingException {
+        int width = frame.imageWidth;
+        int height = frame.imageHeight;
+        int dstWidth = codecContext.width();
+        swsContext = sws_getCachedContext(
+                swsContext,
+                width,
+                height,
+                srcFormat,
+                dstWidth,
+                codecContext.height(),
+                format.getPixelFormat(),
+                dstWidth < width ? SWS_AREA : SWS_BILINEAR,
+                null,
+                null,
+                (DoublePointer) null);
+        if (swsContext == null) throw new FrameEncodingException("Cannot initialize swscale context");
+
+        // O grabber reaproveita o mesmo buffer direto entre frames; só recria o ponteiro se mudar.
+        Buffer src = frame.image[0];
+        if (src != lastSrcBuffer) {
+            if (srcPointer != null) srcPointer.close();
+            srcPointer = new BytePointer((ByteBuffer) src);
+            lastSrcBuffer = src;
+        }
+        srcData.put(0, srcPointer);
+        srcStride.put(0, frame.imageStride);
+
+        check(av_frame_make_writable(picture), "av_frame_make_writable");
+        sws_scale(swsContext, srcData, srcStride, 0, height, picture.data(), picture.linesize());
+        picture.pts(pts++);
+    }
+
+    private boolean encodeTo(Path out) throws IOException {
+        check(avcodec_send_frame(codecContext, picture), "avcodec_send_frame");
+
+        boolean wrote = false;
+        int ret;
+        try (FileChannel channel = FileChannel.open(
+                out, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while ((ret = avcodec_receive_packet(codecContext, packet)) >= 0) {
+                try {
+                    ByteBuffer data = packet.data().capacity(packet.size()).asByteBuffer();
+                    while (data.hasRemaining()) channel.write(data);
+                    wrote = true;
+                } finally {
+                    av_packet_unref(packet);
+                }
+            }
+        }
+        if (ret != AVERROR_EAGAIN() && ret != AVERROR_EOF) check(ret, "avcodec_receive_packet");
+        if (!wrote) Files.deleteIfExists(out);
+        return wrote;
+    }
+
+    private static void check(int ret, String call) throws FrameEncodingException {
+        if (ret < 0) throw new FrameEncodingException(call + " failed: " + errorString(ret));
+    }
+
+    private static String errorString(int ret) {
+        byte[] buf = new byte[256];
+        av_strerror(ret, buf, buf.length);
+        int len = 0;
+        while (len < buf.length && buf[len] != 0) len++;
+        return new String(buf, 0, len, StandardCharsets.UTF_8) + " (" + ret + ")";
+    }
+
+    private void releaseCodec() {
+        if (picture != null) {
+            av_frame_free(picture);
+            picture = null;
+        }
+        if (codecContext != null) {
+            avcodec_free_context(codecContext);
+            codecContext = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        releaseCodec();
+        if (swsContext != null) {
+            sws_freeContext(swsContext);
+            swsContext = null;
+        }
+        if (srcPointer != null) srcPointer.close();
+        av_packet_free(packet);
+        srcData.close();
+        srcStride.close();
+    }
+}
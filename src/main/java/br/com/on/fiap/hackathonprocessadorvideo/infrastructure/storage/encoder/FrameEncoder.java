@@ -0,0 +1,24 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Codifica frames decodificados em arquivos de imagem. Instâncias guardam estado nativo
+ * (contextos de codec/escala, buffers) reaproveitado entre frames, portanto não são
+ * thread-safe e devem ser fechadas ao fim de cada extração.
+ */
+public interface FrameEncoder extends AutoCloseable {
+
+    ImageFormat format();
+
+    /**
+     * @return {@code true} se o frame foi gravado em {@code out}; {@code false} se o frame
+     *     não tinha imagem ou o encoder não produziu saída.
+     */
+    boolean write(Frame frame, Path out) throws IOException;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,54 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder;
+
+import java.util.function.IntSupplier;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Component
+public class FrameEncoderFactory {
+
+    private final EncoderEngine engine;
+    private final ImageFormat format;
+
+    public FrameEncoderFactory(
+            @Value("${processador.encoder.engine:FFMPEG}") EncoderEngine engine,
+            @Value("${processador.encoder.formato:PNG}") ImageFormat format) {
+        this.engine = engine;
+        this.format = format;
+    }
+
+    public static FrameEncoderFactory padrao() {
+        return new FrameEncoderFactory(EncoderEngine.FFMPEG, ImageFormat.PNG);
+    }
+
+    public FrameEncoder create() {
+        return create(format);
+    }
+
+    public FrameEncoder create(ImageFormat imageFormat) {
+        return create(imageFormat, 0);
+    }
+
+    /** Encoder que reduz cada frame para {@code largura} (proporção mantida); {@code 0} mantém a origem. */
+    public FrameEncoder create(ImageFormat imageFormat, int largura) {
+        return create(imageFormat, largura, () -> 0);
+    }
+
+    /**
+     * Encoder com qualidade variável: {@code qualidade} (1–100) é lida a cada frame, para quem ajusta o tamanho
+     * durante a extração.
+     */
+    public FrameEncoder create(ImageFormat imageFormat, int largura, IntSupplier qualidade) {
+        return switch (engine) {
+            case FFMPEG -> new FfmpegImageEncoder(imageFormat, largura, qualidade);
+            case OPENCV -> new OpenCvFrameEncoder(imageFormat, largura, qualidade);
+        };
+    }
+
+    /** Formato com perdas para o modo de tamanho-alvo: o configurado, se já for, senão JPEG. */
+    public ImageFormat formatoComPerdas() {
+        return format == ImageFormat.PNG ? ImageFormat.JPEG : format;
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder;
+
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_MJPEG;
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_PNG;
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_WEBP;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_RGB24;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_YUV420P;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_YUVJ420P;
+
+import lombok.Getter;
+
+/**
+ * Formatos de imagem suportados na saída de frames, com o codec e o pixel format
+ * que o encoder FFmpeg usa para cada um.
+ */
+@Getter
+public enum ImageFormat {
+    PNG("png", "png", AV_CODEC_ID_PNG, AV_PIX_FMT_RGB24),
+    JPEG("jpg", "mjpeg", AV_CODEC_ID_MJPEG, AV_PIX_FMT_YUVJ420P),
+    // "libwebp" e não o padrão do codec id (libwebp_anim), que só emite pacotes no flush.
+    WEBP("webp", "libwebp", AV_CODEC_ID_WEBP, AV_PIX_FMT_YUV420P);
+
+    private final String extension;
+    private final String encoderName;
+    private final int codecId;
+    private final int pixelFormat;
+
+    ImageFormat(String extension, String encoderName, int codecId, int pixelFormat) {
+        this.extension = extension;
+        this.encoderName = encoderName;
+        this.codecId = codecId;
+        this.pixelFormat = pixelFormat;
+    }
+}
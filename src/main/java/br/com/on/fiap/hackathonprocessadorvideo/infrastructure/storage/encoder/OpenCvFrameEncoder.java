@@ -0,0 +1,78 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder;
+
+import java.nio.file.Path;
+import java.util.function.IntSupplier;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.OpenCVFrameConverter;
+import org.bytedeco.opencv.global.opencv_imgcodecs;
+import org.bytedeco.opencv.global.opencv_imgproc;
+import org.bytedeco.opencv.opencv_core.Mat;
+import org.bytedeco.opencv.opencv_core.Size;
+
+/** Caminho original: {@code Frame} → {@code Mat} → {@code imwrite}. Exige os nativos do OpenCV. */
+public final class OpenCvFrameEncoder implements FrameEncoder {
+
+    private final ImageFormat format;
+    private final int largura;
+    private final IntSupplier qualidade;
+    private final OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+
+    public OpenCvFrameEncoder(ImageFormat format) {
+        this(format, 0);
+    }
+
+    /** @param largura largura de saída; {@code 0}, ou maior que a do frame, mantém a resolução de origem */
+    public OpenCvFrameEncoder(ImageFormat format, int largura) {
+        this(format, largura, () -> 0);
+    }
+
+    /** @param qualidade 1–100 para JPEG e WebP, lida a cada frame; {@code 0} usa o padrão do OpenCV */
+    public OpenCvFrameEncoder(ImageFormat format, int largura, IntSupplier qualidade) {
+        this.format = format;
+        this.largura = largura;
+        this.qualidade = qualidade;
+    }
+
+    @Override
+    public ImageFormat format() {
+        return format;
+    }
+
+    @Override
+    public boolean write(Frame frame, Path out) {
+        Mat mat = converter.convert(frame);
+        if (mat == null || mat.empty()) return false;
+        if (largura <= 0 || largura >= mat.cols()) {
+            try {
+                return gravar(out, mat);
+            } finally {
+                mat.release();
+            }
+        }
+        int altura = Math.max(1, (int) Math.round((double) mat.rows() * largura / mat.cols()));
+        try (Mat reduzido = new Mat();
+                Size tamanho = new Size(largura, altura)) {
+            opencv_imgproc.resize(mat, reduzido, tamanho, 0, 0, opencv_imgproc.INTER_AREA);
+            return gravar(out, reduzido);
+        } finally {
+            mat.release();
+        }
+    }
+
+    private boolean gravar(Path out, Mat mat) {
+        int q = format == ImageFormat.PNG ? 0 : qualidade.getAsInt();
+        if (q <= 0) return opencv_imgcodecs.imwrite(out.toString(), mat);
+        int parametro = format == ImageFormat.JPEG
+                ? opencv_imgcodecs.IMWRITE_JPEG_QUALITY
+                : opencv_imgcodecs.IMWRITE_WEBP_QUALITY;
+        try (IntPointer params = new IntPointer(parametro, Math.min(100, q))) {
+            return opencv_imgcodecs.imwrite(out.toString(), mat, params);
+        }
+    }
+
+    @Override
+    public void close() {
+        converter.close();
+    }
+}
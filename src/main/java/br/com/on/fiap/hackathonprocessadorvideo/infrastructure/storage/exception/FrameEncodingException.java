@@ -0,0 +1,11 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception;
+
+public class FrameEncodingException extends FrameExtractionException {
+    public FrameEncodingException(String message) {
+        super(message);
+    }
+
+    public FrameEncodingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Containers de entrada aceitos. MP4, MOV, MKV e WebM são arquivos únicos; HLS e DASH são playlists cujos segmentos
+ * ficam em outros objetos e são buscados durante a extração.
+ */
+public enum ContainerFormat {
+    MP4(".mp4"),
+    MOV(".mov"),
+    MKV(".mkv"),
+    WEBM(".webm"),
+    HLS(".m3u8"),
+    DASH(".mpd");
+
+    /** Bytes lidos do início do arquivo para reconhecer o container. */
+    static final int CABECALHO = 4096;
+
+    private static final String PADRAO_TEMPORARIO = ".mp4";
+
+    private final String extensao;
+
+    ContainerFormat(String extensao) {
+        this.extensao = extensao;
+    }
+
+    public String extensao() {
+        return extensao;
+    }
+
+    /** Playlist (HLS/DASH) em vez de um arquivo de vídeo. */
+    public boolean segmentado() {
+        return this == HLS || this == DASH;
+    }
+
+    /** Pela extensão da chave ou do nome do arquivo, sem diferenciar maiúsculas. */
+    public static Optional<ContainerFormat> daChave(String chave) {
+        if (chave == null) return Optional.empty();
+        String nome = chave.toLowerCase(Locale.ROOT);
+        for (ContainerFormat formato : values()) {
+            if (nome.endsWith(formato.extensao)) return Optional.of(formato);
+        }
+        return Optional.empty();
+    }
+
+    public static boolean segmentado(String chave) {
+        return daChave(chave).filter(ContainerFormat::segmentado).isPresent();
+    }
+
+    /**
+     * Sufixo para o temporário de um vídeo baixado: o do container da chave, ou {@code .mp4} quando ela não tem um
+     * conhecido. O FFmpeg reconhece o container pelo conteúdo; o sufixo só deixa o temporário legível.
+     */
+    public static String sufixoTemporario(String chave) {
+        return daChave(chave)
+                .filter(formato -> !formato.segmentado())
+                .map(ContainerFormat::extensao)
+                .orElse(PADRAO_TEMPORARIO);
+    }
+
+    /** Troca a extensão de container de {@code chave} por {@code extensao}; chaves sem uma conhecida ficam iguais. */
+    public static String trocarExtensao(String chave, String extensao) {
+        return daChave(chave)
+                .map(formato -> chave.substring(0, chave.length() - formato.extensao.length()) + extensao)
+                .orElse(chave);
+    }
+
+    /** Pelos primeiros bytes de {@code arquivo}; vazio quando não é um dos containers aceitos. */
+    public static Optional<ContainerFormat> detectar(Path arquivo) throws IOException {
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            return doCabecalho(in.readNBytes(CABECALHO));
+        }
+    }
+
+    /** Pelos primeiros bytes de um arquivo (bastam {@value #CABECALHO}). */
+    public static Optional<ContainerFormat> doCabecalho(byte[] inicio) {
+        if (inicio.length >= 12 && ascii(inicio, 4, 4).equals("ftyp")) {
+            // a marca principal separa o QuickTime do resto da família ISO BMFF
+            return Optional.of(ascii(inicio, 8, 4).equals("qt  ") ? MOV : MP4);
+        }
+        if (inicio.length >= 4
+                && (inicio[0] & 0xff) == 0x1a
+                && (inicio[1] & 0xff) == 0x45
+                && (inicio[2] & 0xff) == 0xdf
+                && (inicio[3] & 0xff) == 0xa3) {
+            // EBML: o DocType vem logo no cabeçalho
+            return Optional.of(ascii(inicio, 0, Math.min(inicio.length, 64)).contains("webm") ? WEBM : MKV);
+        }
+        String texto = new String(inicio, StandardCharsets.UTF_8);
+        if (texto.startsWith("\uFEFF")) texto = texto.substring(1);
+        texto = texto.stripLeading();
+        if (texto.startsWith("#EXTM3U")) return Optional.of(HLS);
+        if (texto.startsWith("<") && texto.contains("<MPD")) return Optional.of(DASH);
+        return Optional.empty();
+    }
+
+    private static String ascii(byte[] bytes, int offset, int tamanho) {
+        return new String(bytes, offset, tamanho, StandardCharsets.ISO_8859_1);
+    }
+}
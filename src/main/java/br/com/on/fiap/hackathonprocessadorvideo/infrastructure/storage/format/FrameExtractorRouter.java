@@ -0,0 +1,72 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameListener;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameSink;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented.SegmentedExtractor;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Escolhe o {@link FrameExtractor} pelo container da entrada: reconhecido pelos primeiros bytes do arquivo local ou,
+ * para URLs, pela extensão. MP4, MOV, MKV e WebM vão para o extrator FFmpeg, que demultiplexa os quatro; playlists HLS
+ * e DASH vão para o {@link SegmentedExtractor}. Containers não reconhecidos ficam com o FFmpeg, que decide se os abre.
+ */
+@Slf4j
+@Component("videoExtractor")
+public class FrameExtractorRouter implements FrameExtractor {
+
+    private final FrameExtractor padrao;
+    private final Map<ContainerFormat, FrameExtractor> rotas = new EnumMap<>(ContainerFormat.class);
+
+    public FrameExtractorRouter(@Qualifier("mp4Extractor") FrameExtractor ffmpeg, SegmentedExtractor segmentado) {
+        this.padrao = ffmpeg;
+        for (ContainerFormat formato : ContainerFormat.values()) {
+            rotas.put(formato, formato.segmentado() ? segmentado : ffmpeg);
+        }
+    }
+
+    @Override
+    public Path extract(Path videoFile, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+        return rota(videoFile).extract(videoFile, opcoes, listener);
+    }
+
+    @Override
+    public Path extract(URI source, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+        ContainerFormat formato = ContainerFormat.daChave(source.getPath()).orElse(null);
+        log.debug("Entrada {}: container {}", source.getPath(), formato);
+        return formato == null
+                ? padrao.extract(source, opcoes, listener)
+                : rotas.get(formato).extract(source, opcoes, listener);
+    }
+
+    @Override
+    public int decode(Path videoFile, OpcoesProcessamento opcoes, FrameSink sink) throws IOException {
+        return rota(videoFile).decode(videoFile, opcoes, sink);
+    }
+
+    @Override
+    public int distribuir(Path videoFile, OpcoesProcessamento opcoes, List<Faixa> faixas) throws IOException {
+        return rota(videoFile).distribuir(videoFile, opcoes, faixas);
+    }
+
+    /** Lotes são de clipes em arquivo: ficam com o FFmpeg, que reaproveita o encoder entre eles. */
+    @Override
+    public Lote abrirLote() {
+        return padrao.abrirLote();
+    }
+
+    FrameExtractor rota(Path videoFile) throws IOException {
+        ContainerFormat formato = ContainerFormat.detectar(videoFile).orElse(null);
+        log.debug("Entrada {}: container {}", videoFile, formato);
+        return formato == null ? padrao : rotas.get(formato);
+    }
+}
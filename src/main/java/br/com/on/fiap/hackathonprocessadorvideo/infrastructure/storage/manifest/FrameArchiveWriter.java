@@ -0,0 +1,223 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * Escreve zips de frames com o manifesto como primeira entrada. Como os tamanhos dos frames são conhecidos antes da
+ * escrita e as entradas são STORED, os offsets são calculados de antemão; o tamanho do manifesto depende dos próprios
+ * offsets, então o layout é iterado até estabilizar. Cada frame escrito é conferido contra o offset previsto.
+ *
+ * <p>Uso em streaming: {@link #abrir(OutputStream, List)} grava o manifesto, depois um {@link #escreverProximo} por
+ * frame, na ordem do manifesto, e {@link #close()} grava o diretório central.
+ */
+public final class FrameArchiveWriter implements Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_ITERACOES = 8;
+
+    private final CountingOutputStream contador;
+    private final ZipOutputStream zos;
+    private final FrameManifest manifest;
+    private final byte[] manifestJson;
+    private int proximo;
+    private boolean fechado;
+
+    private FrameArchiveWriter(OutputStream destino, FrameManifest manifest, byte[] manifestJson) {
+        this.contador = new CountingOutputStream(new BufferedOutputStream(destino, 1 << 16));
+        this.zos = new ZipOutputStream(contador);
+        this.manifest = manifest;
+        this.manifestJson = manifestJson;
+    }
+
+    /**
+     * @param frames entradas na ordem final, com nome, pts, tamanho e hash; o offset é ignorado e recalculado
+     */
+    public static FrameArchiveWriter abrir(OutputStream destino, List<FrameManifestEntry> frames) throws IOException {
+        long tamanho = 0;
+        for (int i = 0; i < MAX_ITERACOES; i++) {
+            FrameManifest manifest = FrameManifest.comLayout(frames, tamanho);
+            byte[] json = MAPPER.writeValueAsBytes(manifest);
+            if (json.length <= tamanho) {
+                // Espaços à direita são JSON válido e mantêm os offsets já calculados.
+                byte[] ajustado = Arrays.copyOf(json, (int) tamanho);
+                Arrays.fill(ajustado, json.length, ajustado.length, (byte) ' ');
+                FrameArchiveWriter writer = new FrameArchiveWriter(destino, manifest, ajustado);
+                writer.escrever(
+                        FrameManifest.ENTRADA,
+                        FrameManifest.localHeader(FrameManifest.ENTRADA),
+                        crc(ajustado),
+                        ajustado.length,
+                        new ByteArrayInputStream(ajustado));
+                return writer;
+            }
+            tamanho = json.length;
+        }
+        throw new IllegalStateException("Layout do manifesto não convergiu para " + frames.size() + " frames");
+    }
+
+    /**
+     * Lista os frames de um diretório gerado pelo extrator, em ordem, com tamanho, hash, CRC e pts — tudo que um
+     * formato de saída precisa para montar o manifesto antes de escrever.
+     */
+    public static Catalogo catalogar(Path framesDir) throws IOException {
+        List<Path> arquivos;
+        try (Stream<Path> paths = Files.list(framesDir)) {
+            arquivos = paths.filter(Files::isRegularFile)
+                    .filter(p -> !p.getFileName().toString().equals(FrameManifest.PTS_FILE))
+                    .filter(p -> !p.getFileName().toString().startsWith(FrameManifest.PREVIEW + "."))
+                    .sorted(StorageFileUtil.FRAME_ORDER)
+                    .toList();
+        }
+        Map<Integer, Long> pts = lerPts(framesDir);
+
+        List<FrameManifestEntry> entradas = new ArrayList<>(arquivos.size());
+        long[] crcs = new long[arquivos.size()];
+        for (int i = 0; i < arquivos.size(); i++) {
+            Path arquivo = arquivos.get(i);
+            CRC32 crc = new CRC32();
+            MessageDigest sha = sha256();
+            byte[] buf = new byte[1 << 16];
+            try (InputStream in = Files.newInputStream(arquivo)) {
+                for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+                    crc.update(buf, 0, n);
+                    sha.update(buf, 0, n);
+                }
+            }
+            crcs[i] = crc.getValue();
+            // Partes de uma saída fatiada mantêm a numeração global que vem no nome do arquivo.
+            long doNome = StorageFileUtil.frameIndex(arquivo.getFileName().toString());
+            int indice = doNome == Long.MAX_VALUE ? i : (int) doNome;
+            entradas.add(new FrameManifestEntry(
+                    indice,
+                    arquivo.getFileName().toString(),
+                    pts.getOrDefault(indice, -1L),
+                    0,
+                    Files.size(arquivo),
+                    HexFormat.of().formatHex(sha.digest())));
+        }
+        return new Catalogo(arquivos, entradas, crcs);
+    }
+
+    /** Escreve o zip de um diretório gerado pelo extrator num arquivo temporário. */
+    public static Resultado escrever(Path framesDir) throws IOException {
+        Catalogo catalogo = catalogar(framesDir);
+        List<Path> arquivos = catalogo.arquivos();
+        long[] crcs = catalogo.crcs();
+
+        Path zip = StorageFileUtil.createTempFile(framesDir, "frames-", ".zip");
+        try (OutputStream out = Files.newOutputStream(zip);
+                FrameArchiveWriter writer = abrir(out, catalogo.entradas())) {
+            for (int i = 0; i < arquivos.size(); i++) {
+                try (InputStream in = Files.newInputStream(arquivos.get(i))) {
+                    writer.escreverProximo(crcs[i], in);
+                }
+            }
+            writer.close();
+            StorageFileUtil.contabilizar(zip);
+            return new Resultado(zip, writer.manifest(), writer.manifestJson());
+        } catch (IOException | RuntimeException e) {
+            StorageFileUtil.deleteQuietly(zip);
+            throw e;
+        }
+    }
+
+    /** Escreve o próximo frame do manifesto; {@code dados} é consumido até o fim. */
+    public void escreverProximo(long crc32, InputStream dados) throws IOException {
+        if (proximo >= manifest.frames().size()) {
+            throw new IllegalStateException(
+                    "Manifesto tem só " + manifest.frames().size() + " frames");
+        }
+        FrameManifestEntry e = manifest.frames().get(proximo++);
+        escrever(e.nome(), e.offset(), crc32, e.tamanhoComprimido(), dados);
+    }
+
+    public FrameManifest manifest() {
+        return manifest;
+    }
+
+    /** Bytes exatos do manifesto gravado no zip, para publicar como sidecar. */
+    public byte[] manifestJson() {
+        return manifestJson.clone();
+    }
+
+    /** Grava o diretório central; falha se algum frame do manifesto não foi escrito. */
+    @Override
+    public void close() throws IOException {
+        if (fechado) return;
+        fechado = true;
+        if (proximo != manifest.frames().size()) {
+            throw new IllegalStateException(
+                    "Escritos " + proximo + " de " + manifest.frames().size() + " frames do manifesto");
+        }
+        zos.close();
+    }
+
+    private void escrever(String nome, long offsetEsperado, long crc32, long tamanho, InputStream dados)
+            throws IOException {
+        ZipEntry entry = new ZipEntry(nome);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(tamanho);
+        entry.setCompressedSize(tamanho);
+        entry.setCrc(crc32);
+        zos.putNextEntry(entry);
+        if (contador.getByteCount() != offsetEsperado) {
+            throw new IllegalStateException("Offset de " + nome + " divergente: esperado " + offsetEsperado + ", real "
+                    + contador.getByteCount());
+        }
+        dados.transferTo(zos);
+        zos.closeEntry();
+    }
+
+    private static Map<Integer, Long> lerPts(Path framesDir) throws IOException {
+        Path arquivo = framesDir.resolve(FrameManifest.PTS_FILE);
+        Map<Integer, Long> pts = new HashMap<>();
+        if (!Files.exists(arquivo)) return pts;
+        for (String linha : Files.readAllLines(arquivo)) {
+            String[] partes = linha.split(" ");
+            if (partes.length == 2) pts.put(Integer.parseInt(partes[0]), Long.parseLong(partes[1]));
+        }
+        return pts;
+    }
+
+    private static long crc(byte[] dados) {
+        CRC32 crc = new CRC32();
+        crc.update(dados);
+        return crc.getValue();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Frames de um diretório na ordem de saída; {@code crcs[i]} é o CRC-32 de {@code arquivos.get(i)}. */
+    public record Catalogo(List<Path> arquivos, List<FrameManifestEntry> entradas, long[] crcs) {}
+
+    /** Zip temporário com o manifesto gravado e o JSON para o sidecar. */
+    public record Resultado(Path zip, FrameManifest manifest, byte[] manifestJson) {}
+}
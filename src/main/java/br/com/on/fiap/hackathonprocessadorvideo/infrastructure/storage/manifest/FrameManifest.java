@@ -0,0 +1,69 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Índice dos frames de um zip de saída: vai como primeira entrada do próprio zip ({@value #ENTRADA}) e como objeto
+ * irmão no S3 ({@link #caminhoSidecar(String)}), para que consumidores busquem frames isolados sem baixar o arquivo.
+ */
+public record FrameManifest(int versao, List<FrameManifestEntry> frames) {
+
+    public static final int VERSAO = 1;
+    public static final String ENTRADA = "manifest.json";
+
+    /** Arquivo que o extrator deixa no diretório de frames com {@code <indice> <ptsUs>} por linha. */
+    public static final String PTS_FILE = "frames.pts";
+
+    /** Prefixo do preview animado que o extrator pode deixar no diretório de frames; não entra no arquivo de saída. */
+    public static final String PREVIEW = "preview";
+
+    private static final List<String> EXTENSOES = List.of(".zip", ".tar.zst", ".tar");
+
+    /** Cabeçalho local de uma entrada zip sem campos extras: 30 bytes fixos + nome. */
+    private static final int LOCAL_HEADER = 30;
+
+    public FrameManifest {
+        frames = List.copyOf(frames);
+    }
+
+    /** {@code saida/x.zip} (ou {@code .tar}, {@code .tar.zst}) → {@code saida/x.manifest.json} */
+    public static String caminhoSidecar(String caminhoZip) {
+        String base = caminhoZip;
+        for (String extensao : EXTENSOES) {
+            if (base.endsWith(extensao)) {
+                base = base.substring(0, base.length() - extensao.length());
+                break;
+            }
+        }
+        return base + ".manifest.json";
+    }
+
+    public List<FrameManifestEntry> intervalo(int de, int ate) {
+        if (de < 0 || ate > frames.size() || de >= ate) {
+            throw new IndexOutOfBoundsException(
+                    "Intervalo [" + de + ", " + ate + ") fora do manifesto com " + frames.size() + " frames");
+        }
+        return frames.subList(de, ate);
+    }
+
+    /**
+     * Calcula os offsets de cada frame num zip em que o manifesto, com {@code tamanhoManifesto} bytes, é a primeira
+     * entrada e os frames vêm em seguida, na ordem da lista.
+     */
+    static FrameManifest comLayout(List<FrameManifestEntry> frames, long tamanhoManifesto) {
+        long pos = localHeader(ENTRADA) + tamanhoManifesto;
+        List<FrameManifestEntry> posicionados = new ArrayList<>(frames.size());
+        for (FrameManifestEntry e : frames) {
+            FrameManifestEntry p = e.comOffset(pos + localHeader(e.nome()));
+            posicionados.add(p);
+            pos = p.fim();
+        }
+        return new FrameManifest(VERSAO, posicionados);
+    }
+
+    static long localHeader(String nome) {
+        return LOCAL_HEADER + nome.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
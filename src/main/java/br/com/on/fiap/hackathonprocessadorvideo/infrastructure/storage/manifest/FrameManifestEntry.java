@@ -0,0 +1,22 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest;
+
+/**
+ * Posição de um frame dentro do zip de saída. As entradas de frame são gravadas sem compressão (STORED — PNG/JPEG/WebP
+ * já são comprimidos), então {@code [offset, offset + tamanhoComprimido)} são exatamente os bytes da imagem e um GET
+ * com {@code Range} devolve o arquivo pronto.
+ *
+ * @param ptsUs timestamp de apresentação no vídeo de origem, em microssegundos ({@code -1} se desconhecido)
+ * @param offset posição do primeiro byte da imagem no zip (após o cabeçalho local da entrada)
+ * @param sha256 hash hex do conteúdo da imagem
+ */
+public record FrameManifestEntry(
+        int indice, String nome, long ptsUs, long offset, long tamanhoComprimido, String sha256) {
+
+    FrameManifestEntry comOffset(long novoOffset) {
+        return new FrameManifestEntry(indice, nome, ptsUs, novoOffset, tamanhoComprimido, sha256);
+    }
+
+    public long fim() {
+        return offset + tamanhoComprimido;
+    }
+}
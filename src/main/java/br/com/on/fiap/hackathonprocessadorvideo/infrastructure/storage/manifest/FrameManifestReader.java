@@ -0,0 +1,78 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Leitura de frames isolados de um zip de saída sem baixá-lo: o manifesto vem do sidecar e cada sequência contígua de
+ * frames pedida custa um único GET com {@code Range}. O conteúdo é conferido contra o SHA-256 do manifesto.
+ */
+@Slf4j
+@Component
+public class FrameManifestReader {
+
+    private final S3Client s3Client;
+    private final ObjectMapper objectMapper;
+    private final String bucket;
+
+    public FrameManifestReader(S3Client s3Client, ObjectMapper objectMapper, @Value("${nomeBucket}") String bucket) {
+        this.s3Client = s3Client;
+        this.objectMapper = objectMapper;
+        this.bucket = bucket;
+    }
+
+    /** Recusa arquivos comprimidos ({@code .zst}): os offsets do manifesto não valem nos bytes publicados. */
+    public FrameManifest manifesto(String caminhoZip) throws IOException {
+        if (caminhoZip.endsWith(".zst")) {
+            throw new IllegalArgumentException("Arquivo comprimido não permite leitura por faixa: " + caminhoZip);
+        }
+        byte[] json = s3Client.getObjectAsBytes(r -> r.bucket(bucket).key(FrameManifest.caminhoSidecar(caminhoZip)))
+                .asByteArray();
+        return objectMapper.readValue(json, FrameManifest.class);
+    }
+
+    public byte[] frame(String caminhoZip, int indice) throws IOException {
+        return frames(caminhoZip, manifesto(caminhoZip), indice, indice + 1).get(0);
+    }
+
+    /** Frames {@code [de, ate)} em uma única requisição. */
+    public List<byte[]> frames(String caminhoZip, FrameManifest manifest, int de, int ate) throws IOException {
+        List<FrameManifestEntry> pedidos = manifest.intervalo(de, ate);
+        long inicio = pedidos.get(0).offset();
+        long fim = pedidos.get(pedidos.size() - 1).fim();
+
+        byte[] faixa = s3Client.getObjectAsBytes(
+                        r -> r.bucket(bucket).key(caminhoZip).range("bytes=" + inicio + "-" + (fim - 1)))
+                .asByteArray();
+        if (faixa.length != fim - inicio) {
+            throw new IOException("Resposta parcial inesperada para " + caminhoZip + ": " + faixa.length + " de "
+                    + (fim - inicio) + " bytes");
+        }
+        log.debug("Lidos {} frames ({} bytes) de s3://{}/{}", pedidos.size(), faixa.length, bucket, caminhoZip);
+
+        List<byte[]> resultado = new ArrayList<>(pedidos.size());
+        for (FrameManifestEntry e : pedidos) {
+            int de0 = (int) (e.offset() - inicio);
+            byte[] dados = Arrays.copyOfRange(faixa, de0, de0 + (int) e.tamanhoComprimido());
+            verificar(caminhoZip, e, dados);
+            resultado.add(dados);
+        }
+        return resultado;
+    }
+
+    private static void verificar(String caminhoZip, FrameManifestEntry e, byte[] dados) throws IOException {
+        MessageDigest sha = FrameArchiveWriter.sha256();
+        if (!HexFormat.of().formatHex(sha.digest(dados)).equals(e.sha256())) {
+            throw new IOException("Hash divergente para frame " + e.indice() + " em " + caminhoZip);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.preview;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.FormatoPreview;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preview animado em baixa resolução ({@code processador.preview.*}): o extrator grava um quadro a cada
+ * {@code 1/fps} segundos do mesmo loop de decodificação dos frames, reduzido a {@code largura} pixels. O arquivo fica
+ * no diretório de frames ({@link #arquivo}), fora do catálogo do arquivo de saída, e é publicado ao lado dele
+ * ({@link #caminho}).
+ */
+@Slf4j
+@Component
+public class PreviewOutput {
+
+    private final double fps;
+    private final int largura;
+    private final int qualidade;
+    private final int bitrateKbps;
+
+    public PreviewOutput(
+            @Value("${processador.preview.fps:2}") double fps,
+            @Value("${processador.preview.largura:320}") int largura,
+            @Value("${processador.preview.qualidade:60}") int qualidade,
+            @Value("${processador.preview.bitrate-kbps:300}") int bitrateKbps) {
+        this.fps = fps;
+        this.largura = largura;
+        this.qualidade = qualidade;
+        this.bitrateKbps = bitrateKbps;
+    }
+
+    public static PreviewOutput padrao() {
+        return new PreviewOutput(2, 320, 60, 300);
+    }
+
+    /** Onde o extrator deixa o preview de um diretório de frames. */
+    public static Path arquivo(Path framesDir, FormatoPreview formato) {
+        return framesDir.resolve(FrameManifest.PREVIEW + extensao(formato));
+    }
+
+    /** {@code saida/x.zip} → {@code saida/x.preview.webp} */
+    public static String caminho(String caminhoSaida, FormatoPreview formato) {
+        int ponto = caminhoSaida.lastIndexOf('.');
+        String base = ponto > caminhoSaida.lastIndexOf('/') ? caminhoSaida.substring(0, ponto) : caminhoSaida;
+        if (base.endsWith(".tar")) base = base.substring(0, base.length() - ".tar".length());
+        return base + "." + FrameManifest.PREVIEW + extensao(formato);
+    }
+
+    public static String contentType(FormatoPreview formato) {
+        return formato == FormatoPreview.MP4 ? "video/mp4" : "image/webp";
+    }
+
+    static String extensao(FormatoPreview formato) {
+        return formato == FormatoPreview.MP4 ? ".mp4" : ".webp";
+    }
+
+    /**
+     * Abre o gravador para um vídeo de {@code larguraOrigem}x{@code alturaOrigem}; {@code null} se o encoder não abrir
+     * — o preview é opcional e não derruba a extração.
+     */
+    public PreviewRecorder abrir(
+            Path framesDir,
+            FormatoPreview formato,
+            int larguraOrigem,
+            int alturaOrigem,
+            double fpsOrigem,
+            long inicioUs) {
+        if (larguraOrigem <= 0 || alturaOrigem <= 0) {
+            log.warn("Preview {} ignorado: dimensões do vídeo desconhecidas", formato);
+            return null;
+        }
+        int w = par(Math.min(largura, larguraOrigem));
+        int h = par((int) Math.round((double) alturaOrigem * w / larguraOrigem));
+        return PreviewRecorder.abrir(
+                arquivo(framesDir, formato), formato, w, h, fps, fpsOrigem, inicioUs, qualidade, bitrateKbps);
+    }
+
+    /** yuv420p exige dimensões pares. */
+    private static int par(int v) {
+        return Math.max(2, v & ~1);
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.preview;
+
+import static org.bytedeco.ffmpeg.global.avcodec.AV_CODEC_ID_H264;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_YUV420P;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.FormatoPreview;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.IOException;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Grava o preview a partir dos frames que o extrator já decodificou. Só pede imagem convertida ao grabber para os
+ * frames que cruzam o próximo instante do preview ({@link #querProximo}); os demais seguem sem conversão. Erros de
+ * encode desligam o preview e apagam o arquivo, sem afetar a extração. Não é thread-safe.
+ */
+@Slf4j
+public final class PreviewRecorder implements AutoCloseable {
+
+    private final FFmpegFrameRecorder recorder;
+    private final Path destino;
+    private final long intervaloUs;
+    private final long duracaoFrameUs;
+    private long alvoUs;
+    private boolean ativo = true;
+    private int gravados;
+
+    private PreviewRecorder(FFmpegFrameRecorder recorder, Path destino, double fps, double fpsOrigem, long inicioUs) {
+        this.recorder = recorder;
+        this.destino = destino;
+        this.intervaloUs = Math.round(1_000_000 / fps);
+        this.duracaoFrameUs = fpsOrigem > 0 ? Math.round(1_000_000 / fpsOrigem) : 0;
+        this.alvoUs = inicioUs;
+    }
+
+    static PreviewRecorder abrir(
+            Path destino,
+            FormatoPreview formato,
+            int largura,
+            int altura,
+            double fps,
+            double fpsOrigem,
+            long inicioUs,
+            int qualidade,
+            int bitrateKbps) {
+        FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(destino.toFile(), largura, altura, 0);
+        recorder.setFrameRate(fps);
+        recorder.setPixelFormat(AV_PIX_FMT_YUV420P);
+        if (formato == FormatoPreview.MP4) {
+            recorder.setFormat("mp4");
+            recorder.setVideoCodec(AV_CODEC_ID_H264);
+            recorder.setVideoBitrate(bitrateKbps * 1000);
+            recorder.setGopSize((int) Math.max(1, Math.round(fps * 2)));
+            recorder.setOption("movflags", "+faststart");
+        } else {
+            recorder.setFormat("webp");
+            recorder.setVideoCodecName("libwebp_anim");
+            recorder.setVideoOption("quality", String.valueOf(qualidade));
+            recorder.setOption("loop", "0");
+        }
+        try {
+            recorder.start();
+        } catch (FFmpegFrameRecorder.Exception e) {
+            log.warn("Preview {} desligado: encoder não abriu ({})", formato, e.getMessage());
+            liberar(recorder);
+            StorageFileUtil.deleteQuietly(destino);
+            return null;
+        }
+        log.debug("Preview {} {}x{} @ {} fps em {}", formato, largura, altura, fps, destino);
+        return new PreviewRecorder(recorder, destino, fps, fpsOrigem, inicioUs);
+    }
+
+    /** Se o próximo frame provavelmente cruza o instante do próximo quadro do preview e precisa vir convertido. */
+    public boolean querProximo(long ultimoPtsUs) {
+        return ativo && ultimoPtsUs + duracaoFrameUs >= alvoUs;
+    }
+
+    /**
+     * Grava {@code frame} se ele alcançou o próximo instante do preview. {@code comImagem} diz se o grabber converteu
+     * este frame; sem isso a imagem do {@link Frame} é a do último frame convertido e o instante é pulado.
+     */
+    public void oferecer(Frame frame, boolean comImagem) {
+        if (!ativo || frame.image == null || frame.timestamp < alvoUs) return;
+        if (comImagem) {
+            try {
+                recorder.record(frame);
+                gravados++;
+            } catch (FFmpegFrameRecorder.Exception e) {
+                log.warn("Preview desligado após {} quadros: {}", gravados, e.getMessage());
+                ativo = false;
+            }
+        }
+        while (alvoUs <= frame.timestamp) alvoUs += intervaloUs;
+    }
+
+    /** Fecha o arquivo; devolve-o, ou {@code null} (apagado) se nenhum quadro foi gravado ou o encode falhou. */
+    public Path concluir() throws IOException {
+        boolean ok = ativo && gravados > 0;
+        try {
+            recorder.stop();
+        } catch (FFmpegFrameRecorder.Exception e) {
+            log.warn("Falha ao finalizar preview {}: {}", destino, e.getMessage());
+            ok = false;
+        } finally {
+            liberar(recorder);
+            ativo = false;
+        }
+        if (!ok) {
+            StorageFileUtil.deleteQuietly(destino);
+            return null;
+        }
+        StorageFileUtil.contabilizar(destino);
+        log.info("Preview com {} quadros gravado em {}", gravados, destino);
+        return destino;
+    }
+
+    @Override
+    public void close() {
+        if (!ativo) return;
+        ativo = false;
+        liberar(recorder);
+        StorageFileUtil.deleteQuietly(destino);
+    }
+
+    private static void liberar(FFmpegFrameRecorder recorder) {
+        try {
+            recorder.release();
+        } catch (FFmpegFrameRecorder.Exception e) {
+            log.debug("Falha ao liberar gravador do preview", e);
+        }
+    }
+}
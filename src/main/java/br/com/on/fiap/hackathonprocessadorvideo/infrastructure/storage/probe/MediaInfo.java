@@ -0,0 +1,29 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe;
+
+/**
+ * O que o probe descobre sobre um vídeo sem baixá-lo.
+ *
+ * @param container marca do {@code ftyp} (ex.: {@code isom}, {@code qt}) ou o formato informado pelo FFmpeg
+ * @param codec fourcc da trilha de vídeo (ex.: {@code avc1}, {@code hvc1}) ou nome do codec no FFmpeg; {@code null}
+ *     quando não há trilha de vídeo
+ * @param fps {@code 0} quando desconhecido (ex.: MP4 fragmentado)
+ * @param totalFrames {@code 0} quando desconhecido
+ */
+public record MediaInfo(
+        String container,
+        long duracaoMs,
+        String codec,
+        int largura,
+        int altura,
+        double fps,
+        long totalFrames,
+        long tamanhoBytes) {
+
+    public boolean temVideo() {
+        return codec != null;
+    }
+
+    public long pixels() {
+        return (long) largura * altura;
+    }
+}
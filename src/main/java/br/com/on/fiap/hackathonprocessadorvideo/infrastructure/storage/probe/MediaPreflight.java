@@ -0,0 +1,102 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.ContainerFormat;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verificação antes do download ({@code processador.preflight.*}): recusa arquivos sem trilha de vídeo, com cabeçalho
+ * corrompido, codec fora da lista permitida ou acima dos limites de tamanho, duração e resolução (limites {@code 0}
+ * ficam desligados). Também estima quantos frames o job vai emitir, para agendamento.
+ */
+@Slf4j
+@Component
+public class MediaPreflight {
+
+    private final MediaProbe probe;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxDuracaoMs;
+    private final long maxPixels;
+    private final Set<String> codecsPermitidos;
+
+    public MediaPreflight(
+            MediaProbe probe,
+            @Value("${processador.preflight.enabled:true}") boolean enabled,
+            @Value("${processador.preflight.max-mb:0}") long maxMb,
+            @Value("${processador.preflight.max-duracao-ms:0}") long maxDuracaoMs,
+            @Value("${processador.preflight.max-pixels:0}") long maxPixels,
+            @Value("${processador.preflight.codecs-permitidos:}") Set<String> codecsPermitidos) {
+        this.probe = probe;
+        this.enabled = enabled;
+        this.maxBytes = maxMb * 1024 * 1024;
+        this.maxDuracaoMs = maxDuracaoMs;
+        this.maxPixels = maxPixels;
+        this.codecsPermitidos = codecsPermitidos;
+    }
+
+    /** @return metadados do vídeo, ou vazio com o pre-flight desligado */
+    public Optional<MediaInfo> verificar(String key, OpcoesProcessamento opcoes) throws IOException {
+        if (!enabled) return Optional.empty();
+        if (ContainerFormat.segmentado(key)) {
+            // a playlist é texto; os segmentos só são conhecidos quando o extrator a lê
+            log.debug("Pre-flight {}: playlist, sem probe", key);
+            return Optional.empty();
+        }
+
+        MediaInfo info = probe.probe(key);
+        if (!info.temVideo()) {
+            throw new VideoRejeitadoException("Arquivo sem trilha de vídeo: " + key);
+        }
+        if (!codecsPermitidos.isEmpty() && !codecsPermitidos.contains(info.codec())) {
+            throw new VideoRejeitadoException("Codec " + info.codec() + " não permitido: " + key);
+        }
+        if (maxBytes > 0 && info.tamanhoBytes() > maxBytes) {
+            throw new VideoRejeitadoException(
+                    "Arquivo de " + info.tamanhoBytes() + " bytes acima do limite de " + maxBytes + ": " + key);
+        }
+        if (maxDuracaoMs > 0 && info.duracaoMs() > maxDuracaoMs) {
+            throw new VideoRejeitadoException(
+                    "Vídeo de " + info.duracaoMs() + " ms acima do limite de " + maxDuracaoMs + " ms: " + key);
+        }
+        if (maxPixels > 0 && info.pixels() > maxPixels) {
+            throw new VideoRejeitadoException("Resolução " + info.largura() + "x" + info.altura()
+                    + " acima do limite de " + maxPixels + " pixels: " + key);
+        }
+        log.info(
+                "Pre-flight {}: {} {} {}x{} {} fps, {} ms, {} bytes; ~{} frames de saída",
+                key,
+                info.container(),
+                info.codec(),
+                info.largura(),
+                info.altura(),
+                Math.round(info.fps() * 100) / 100.0,
+                info.duracaoMs(),
+                info.tamanhoBytes(),
+                framesEstimados(info, opcoes));
+        return Optional.of(info);
+    }
+
+    /** Frames que o job deve emitir com o recorte e a amostragem pedidos; {@code -1} se o vídeo não informa o fps. */
+    public static long framesEstimados(MediaInfo info, OpcoesProcessamento opcoes) {
+        if (info.fps() <= 0) return -1;
+        long inicio = opcoes.inicioMs() == null ? 0 : opcoes.inicioMs();
+        long fim = opcoes.fimMs() == null ? info.duracaoMs() : Math.min(opcoes.fimMs(), info.duracaoMs());
+        double janelaS = Math.max(0, fim - inicio) / 1000.0;
+        double frames;
+        if (opcoes.intervaloFrames() != null) {
+            frames = janelaS * info.fps() / opcoes.intervaloFrames();
+        } else if (opcoes.fpsSaida() != null) {
+            frames = janelaS * Math.min(info.fps(), opcoes.fpsSaida());
+        } else {
+            frames = janelaS * info.fps();
+        }
+        long estimado = (long) Math.ceil(frames);
+        return opcoes.maxFrames() != null ? Math.min(estimado, opcoes.maxFrames()) : estimado;
+    }
+}
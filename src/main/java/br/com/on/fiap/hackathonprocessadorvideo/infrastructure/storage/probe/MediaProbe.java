@@ -0,0 +1,160 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.VideoProbe;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+/**
+ * Descobre duração, codec, resolução, fps e número de frames de um vídeo no S3 lendo só o cabeçalho, com GETs
+ * parciais ({@code Range}). Para MP4/MOV as caixas de topo são percorridas pelo tamanho — o {@code mdat} é pulado sem
+ * ser lido, e o {@code moov} é buscado onde estiver (início ou fim do arquivo): em geral 2 ou 3 requisições pequenas.
+ * Outros containers caem no {@link VideoProbe}, que abre o cabeçalho pelo FFmpeg via URL pré-assinada.
+ */
+@Slf4j
+@Component
+public class MediaProbe {
+
+    static final int LEITURA_INICIAL = 64 * 1024;
+    private static final int CABECALHO_MAX = 16;
+
+    private final S3Client s3Client;
+    private final S3Presigner presigner;
+    private final VideoProbe videoProbe;
+    private final String bucket;
+    private final long moovMaxBytes;
+
+    public MediaProbe(
+            S3Client s3Client,
+            S3Presigner presigner,
+            VideoProbe videoProbe,
+            @Value("${nomeBucket}") String bucket,
+            @Value("${processador.preflight.moov-max-mb:32}") int moovMaxMb) {
+        this.s3Client = s3Client;
+        this.presigner = presigner;
+        this.videoProbe = videoProbe;
+        this.bucket = bucket;
+        this.moovMaxBytes = moovMaxMb * 1024L * 1024L;
+    }
+
+    /**
+     * @throws VideoRejeitadoException se o arquivo se diz MP4 mas o cabeçalho está corrompido ou não tem {@code moov}
+     */
+    public MediaInfo probe(String key) throws IOException {
+        ResponseBytes<GetObjectResponse> inicio = ler(key, 0, LEITURA_INICIAL - 1);
+        long tamanho = tamanhoTotal(inicio.response());
+        ByteBuffer buf = inicio.asByteBuffer();
+
+        if (!isoBmff(buf)) {
+            log.debug("Probe {}: não é ISO BMFF, usando FFmpeg", key);
+            MediaInfo info = videoProbe.info(urlPresignada(key));
+            return new MediaInfo(
+                    info.container(),
+                    info.duracaoMs(),
+                    info.codec(),
+                    info.largura(),
+                    info.altura(),
+                    info.fps(),
+                    info.totalFrames(),
+                    tamanho);
+        }
+
+        String container = "mp4";
+        // janela: trecho do arquivo já lido, a partir de {@code base}
+        ByteBuffer janela = buf;
+        long base = 0;
+        long offset = 0;
+        int requisicoes = 1;
+        while (offset + 8 <= tamanho) {
+            long fimJanela = base + janela.limit();
+            if (offset + CABECALHO_MAX > fimJanela && fimJanela < tamanho) {
+                // caixa fora do que foi lido (tipicamente logo após o mdat): uma leitura do mesmo tamanho da inicial
+                // costuma trazer o moov inteiro
+                janela = ler(key, offset, Math.min(tamanho, offset + LEITURA_INICIAL) - 1)
+                        .asByteBuffer();
+                base = offset;
+                fimJanela = base + janela.limit();
+                requisicoes++;
+            }
+            int rel = (int) (offset - base);
+            Mp4BoxParser.Caixa caixa = Mp4BoxParser.caixa(janela.duplicate().position(rel));
+            long tamanhoCaixa = caixa.tamanho() < 0 ? tamanho - offset : caixa.tamanho();
+            if (tamanhoCaixa < caixa.cabecalho() || offset + tamanhoCaixa > tamanho) {
+                throw new VideoRejeitadoException("Cabeçalho MP4 inválido em " + key + ": caixa " + caixa.tipo()
+                        + " com " + tamanhoCaixa + " bytes no offset " + offset);
+            }
+
+            if (caixa.tipo().equals("ftyp") && offset + caixa.cabecalho() + 4 <= fimJanela) {
+                container = Mp4BoxParser.marca(janela.duplicate().position(rel + caixa.cabecalho()));
+            } else if (caixa.tipo().equals("moov")) {
+                if (tamanhoCaixa > moovMaxBytes) {
+                    throw new VideoRejeitadoException(
+                            "moov de " + tamanhoCaixa + " bytes excede o limite do probe: " + key);
+                }
+                ByteBuffer moov;
+                if (offset + tamanhoCaixa <= fimJanela) {
+                    moov = janela.duplicate().position(rel).limit((int) (rel + tamanhoCaixa));
+                } else {
+                    moov = ler(key, offset, offset + tamanhoCaixa - 1).asByteBuffer();
+                    requisicoes++;
+                }
+                try {
+                    MediaInfo info = Mp4BoxParser.parse(moov, container, tamanho);
+                    log.info("Probe {} em {} requisições: {}", key, requisicoes, info);
+                    return info;
+                } catch (IllegalArgumentException e) {
+                    throw new VideoRejeitadoException("moov inválido em " + key + ": " + e.getMessage(), e);
+                }
+            }
+            offset += tamanhoCaixa;
+        }
+        throw new VideoRejeitadoException("MP4 sem moov (upload incompleto?): " + key);
+    }
+
+    private ResponseBytes<GetObjectResponse> ler(String key, long de, long ate) {
+        return s3Client.getObjectAsBytes(r -> r.bucket(bucket).key(key).range("bytes=" + de + "-" + ate));
+    }
+
+    /** {@code Content-Range: bytes 0-65535/123456}; sem o header (objeto menor que o range), o próprio tamanho lido. */
+    private static long tamanhoTotal(GetObjectResponse resposta) {
+        String range = resposta.contentRange();
+        if (range != null && range.contains("/")) {
+            String total = range.substring(range.indexOf('/') + 1).trim();
+            if (!total.equals("*")) return Long.parseLong(total);
+        }
+        return resposta.contentLength();
+    }
+
+    /** Arquivos ISO BMFF começam com uma caixa de topo conhecida ({@code ftyp}, ou {@code moov}/{@code free} em MOVs antigos). */
+    private static boolean isoBmff(ByteBuffer buf) {
+        if (buf.limit() < 8) return false;
+        String tipo =
+                new String(new byte[] {buf.get(4), buf.get(5), buf.get(6), buf.get(7)}, StandardCharsets.ISO_8859_1);
+        return switch (tipo) {
+            case "ftyp", "moov", "free", "wide", "mdat", "skip" -> true;
+            default -> false;
+        };
+    }
+
+    private URI urlPresignada(String key) throws IOException {
+        try {
+            return presigner
+                    .presignGetObject(r -> r.signatureDuration(Duration.ofMinutes(10))
+                            .getObjectRequest(g -> g.bucket(bucket).key(key)))
+                    .url()
+                    .toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("URL pré-assinada inválida para " + key, e);
+        }
+    }
+}
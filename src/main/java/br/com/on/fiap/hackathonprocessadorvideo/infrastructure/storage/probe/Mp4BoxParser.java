@@ -0,0 +1,180 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Lê o {@code moov} de um MP4/MOV (ISO BMFF) e extrai duração, codec, resolução e contagem de frames da primeira
+ * trilha de vídeo. Só percorre as caixas necessárias; o resto é pulado pelo tamanho.
+ */
+final class Mp4BoxParser {
+
+    /** Caixas que só contêm outras caixas no caminho até a tabela de amostras. */
+    private static final Set<String> CONTAINERS = Set.of("moov", "trak", "mdia", "minf", "stbl");
+
+    private long movieTimescale;
+    private long movieDuration;
+
+    private boolean trilhaVideo;
+    private boolean achouVideo;
+    private int largura;
+    private int altura;
+    private long mediaTimescale;
+    private long mediaDuration;
+    private String codec;
+    private long frames;
+
+    private Mp4BoxParser() {}
+
+    /** Cabeçalho de caixa; {@code tamanho} já resolve o largesize e o "até o fim" ({@code -1}). */
+    record Caixa(String tipo, long tamanho, int cabecalho) {}
+
+    static Caixa caixa(ByteBuffer buf) {
+        long tamanho = buf.getInt() & 0xFFFFFFFFL;
+        String tipo = tipo(buf);
+        int cabecalho = 8;
+        if (tamanho == 1) {
+            tamanho = buf.getLong();
+            cabecalho = 16;
+        } else if (tamanho == 0) {
+            tamanho = -1;
+        }
+        return new Caixa(tipo, tamanho, cabecalho);
+    }
+
+    /** Major brand do {@code ftyp}, sem espaços de preenchimento. */
+    static String marca(ByteBuffer ftypPayload) {
+        return tipo(ftypPayload).trim();
+    }
+
+    /**
+     * @param moov a caixa {@code moov} completa, a partir do cabeçalho
+     * @throws IllegalArgumentException se a estrutura estiver truncada ou inconsistente
+     */
+    static MediaInfo parse(ByteBuffer moov, String container, long tamanhoBytes) {
+        Mp4BoxParser p = new Mp4BoxParser();
+        try {
+            p.percorrer(moov.slice(), moov.remaining());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("moov truncado ou inválido", e);
+        }
+        long duracaoMs = p.movieTimescale > 0 ? p.movieDuration * 1000 / p.movieTimescale : 0;
+        if (!p.achouVideo) {
+            return new MediaInfo(container, duracaoMs, null, 0, 0, 0, 0, tamanhoBytes);
+        }
+        double fps = 0;
+        if (p.frames > 0 && p.mediaDuration > 0 && p.mediaTimescale > 0) {
+            fps = (double) p.frames * p.mediaTimescale / p.mediaDuration;
+        }
+        if (duracaoMs == 0 && p.mediaTimescale > 0) {
+            duracaoMs = p.mediaDuration * 1000 / p.mediaTimescale;
+        }
+        return new MediaInfo(container, duracaoMs, p.codec, p.largura, p.altura, fps, p.frames, tamanhoBytes);
+    }
+
+    private void percorrer(ByteBuffer buf, long limite) {
+        while (buf.position() + 8 <= limite) {
+            int inicio = buf.position();
+            Caixa c = caixa(buf);
+            long tamanho = c.tamanho() < 0 ? limite - inicio : c.tamanho();
+            if (tamanho < c.cabecalho() || inicio + tamanho > limite) {
+                throw new IllegalArgumentException("Caixa " + c.tipo() + " com tamanho inválido: " + tamanho);
+            }
+            int fim = (int) (inicio + tamanho);
+            ByteBuffer payload =
+                    buf.duplicate().position(inicio + c.cabecalho()).limit(fim).slice();
+
+            if (CONTAINERS.contains(c.tipo())) {
+                if (c.tipo().equals("trak")) {
+                    trilhaVideo = false;
+                    if (achouVideo) {
+                        buf.position(fim);
+                        continue;
+                    }
+                    int antes = largura;
+                    int antesAltura = altura;
+                    percorrer(payload, payload.remaining());
+                    if (!trilhaVideo) {
+                        // tkhd de trilha de áudio não deve valer como resolução
+                        largura = antes;
+                        altura = antesAltura;
+                    } else {
+                        achouVideo = true;
+                    }
+                } else {
+                    percorrer(payload, payload.remaining());
+                }
+            } else {
+                folha(c.tipo(), payload);
+            }
+            buf.position(fim);
+        }
+    }
+
+    private void folha(String tipo, ByteBuffer p) {
+        switch (tipo) {
+            case "mvhd" -> {
+                int versao = p.get() & 0xFF;
+                p.position(4 + (versao == 1 ? 16 : 8));
+                movieTimescale = p.getInt() & 0xFFFFFFFFL;
+                movieDuration = versao == 1 ? p.getLong() : p.getInt() & 0xFFFFFFFFL;
+            }
+            case "tkhd" -> {
+                int versao = p.get() & 0xFF;
+                // datas, id, reservado, duração, reservado, layer, grupo, volume, reservado, matriz
+                p.position(4 + (versao == 1 ? 32 : 20) + 8 + 8 + 36);
+                largura = p.getInt() >>> 16;
+                altura = p.getInt() >>> 16;
+            }
+            case "mdhd" -> {
+                if (achouVideo) return;
+                int versao = p.get() & 0xFF;
+                p.position(4 + (versao == 1 ? 16 : 8));
+                long timescale = p.getInt() & 0xFFFFFFFFL;
+                long duracao = versao == 1 ? p.getLong() : p.getInt() & 0xFFFFFFFFL;
+                mediaTimescale = timescale;
+                mediaDuration = duracao;
+            }
+            case "hdlr" -> {
+                p.position(8);
+                trilhaVideo = tipo(p).equals("vide");
+            }
+            case "stsd" -> {
+                if (!trilhaVideo) return;
+                p.position(8); // versão/flags + número de entradas
+                Caixa entrada = caixa(p);
+                codec = entrada.tipo().trim();
+                // SampleEntry (6 reservados + índice) + VisualSampleEntry (16 pré-definidos) + largura/altura
+                p.position(8 + entrada.cabecalho() + 8 + 16);
+                int w = p.getShort() & 0xFFFF;
+                int h = p.getShort() & 0xFFFF;
+                if (largura == 0 || altura == 0) {
+                    largura = w;
+                    altura = h;
+                }
+            }
+            case "stts" -> {
+                if (!trilhaVideo) return;
+                p.position(4);
+                long entradas = p.getInt() & 0xFFFFFFFFL;
+                long total = 0;
+                for (long i = 0; i < entradas; i++) {
+                    total += p.getInt() & 0xFFFFFFFFL;
+                    p.getInt();
+                }
+                frames = total;
+            }
+            default -> {
+                // caixa irrelevante para o probe
+            }
+        }
+    }
+
+    private static String tipo(ByteBuffer buf) {
+        byte[] b = new byte[4];
+        buf.get(b);
+        return new String(b, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe;
+
+/**
+ * Vídeo recusado no pre-flight (cabeçalho corrompido, sem trilha de vídeo, fora dos limites). Não é {@link
+ * java.io.IOException} de propósito: reentregar a mensagem não muda o arquivo, então o listener a trata como erro
+ * permanente.
+ */
+public class VideoRejeitadoException extends RuntimeException {
+
+    public VideoRejeitadoException(String message) {
+        super(message);
+    }
+
+    public VideoRejeitadoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
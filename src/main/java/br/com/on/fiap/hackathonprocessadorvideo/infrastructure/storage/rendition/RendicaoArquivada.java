@@ -0,0 +1,8 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.rendition;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.Rendicao;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArquivoFrames;
+
+/** Arquivo temporário de uma rendição, pronto para publicar em {@link RenditionOutput#caminho}. */
+public record RendicaoArquivada(Rendicao rendicao, ArchiveFormat formato, ArquivoFrames arquivo) {}
@@ -0,0 +1,191 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.rendition;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.Rendicao;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameSink;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArquivoFrames;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameExtractionException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.FrameCopyPool;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.Workspace;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Faixa de uma rendição: o decode copia cada frame pedido para uma fila limitada e uma thread própria reduz, codifica
+ * e grava em {@code dir}; ao fim, a mesma thread escreve o arquivo. Fila cheia bloqueia o decode só quando esta faixa
+ * fica para trás — cada faixa tem a sua, então uma lenta não segura as outras até encher. As cópias vêm de um
+ * {@link FrameCopyPool}, sem alocação nativa por frame.
+ */
+@Slf4j
+final class RenditionLane implements FrameSink, AutoCloseable {
+
+    private static final Item FIM = new Item(null, -1, -1);
+    private static final long ESPERA_MS = 200;
+
+    private final Rendicao rendicao;
+    private final FrameEncoder encoder;
+    private final Path dir;
+    private final ArchiveOutput archiveOutput;
+    private final ArchiveFormat formatoArquivo;
+    private final BlockingQueue<Item> fila;
+    private final FrameCopyPool copias = new FrameCopyPool();
+    private final CompletableFuture<ArquivoFrames> resultado = new CompletableFuture<>();
+    private final StringBuilder pts = new StringBuilder();
+    private volatile boolean cancelada;
+    private boolean encerrada;
+
+    RenditionLane(
+            Rendicao rendicao,
+            FrameEncoder encoder,
+            Path dir,
+            ArchiveOutput archiveOutput,
+            ArchiveFormat formatoArquivo,
+            int capacidade) {
+        this.rendicao = rendicao;
+        this.encoder = encoder;
+        this.dir = dir;
+        this.archiveOutput = archiveOutput;
+        this.formatoArquivo = formatoArquivo;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+    }
+
+    Rendicao rendicao() {
+        return rendicao;
+    }
+
+    ArchiveFormat formatoArquivo() {
+        return formatoArquivo;
+    }
+
+    int pendentes() {
+        return fila.size();
+    }
+
+    void iniciar(Executor executor, Workspace workspace) {
+        executor.execute(() -> {
+            try (Workspace.Vinculo vinculo = workspace != null ? workspace.vincular() : null) {
+                executar();
+            }
+        });
+    }
+
+    @Override
+    public boolean aceitar(Frame frame, int indice, long ptsUs) throws IOException {
+        falhaSeConcluida();
+        colocar(new Item(copias.copiar(frame), indice, ptsUs));
+        return true;
+    }
+
+    /** Sinaliza o fim dos frames; completa com o arquivo escrito. */
+    CompletableFuture<ArquivoFrames> concluir() throws IOException {
+        if (!encerrada) {
+            encerrada = true;
+            colocar(FIM);
+        }
+        return resultado;
+    }
+
+    /** Sem {@link #concluir()}, descarta o que estiver na fila e para a thread. */
+    @Override
+    public void close() {
+        if (encerrada) return;
+        encerrada = true;
+        cancelada = true;
+        descartarFila();
+        fila.offer(FIM);
+    }
+
+    private void colocar(Item item) throws IOException {
+        boolean enfileirado = false;
+        try {
+            while (!(enfileirado = fila.offer(item, ESPERA_MS, TimeUnit.MILLISECONDS))) {
+                // a thread da faixa pode ter falhado e parado de consumir
+                falhaSeConcluida();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrompido enfileirando frame da rendição " + rendicao.nome());
+        } finally {
+            if (!enfileirado && item.frame() != null) item.frame().close();
+        }
+        falhaSeConcluida();
+    }
+
+    /**
+     * Falha se a thread da faixa já terminou com erro ou foi cancelada. Ela não consome mais a fila, então as cópias
+     * que entraram depois da limpeza dela são liberadas aqui.
+     */
+    private void falhaSeConcluida() throws IOException {
+        if (!resultado.isDone()) return;
+        descartarFila();
+        if (resultado.isCancelled()) {
+            CancellationToken.atual().verificar();
+            throw new FrameExtractionException("Rendição " + rendicao.nome() + " descartada");
+        }
+        Throwable causa = resultado.handle((r, e) -> e).join();
+        if (causa == null) return;
+        if (causa instanceof IOException io) throw io;
+        throw new FrameExtractionException("Falha na rendição " + rendicao.nome(), causa);
+    }
+
+    private void executar() {
+        try {
+            for (Item item = fila.take(); item != FIM; item = fila.take()) {
+                try {
+                    gravar(item);
+                } finally {
+                    copias.devolver(item.frame());
+                }
+            }
+            if (cancelada) {
+                resultado.cancel(false);
+                return;
+            }
+            Files.writeString(dir.resolve(FrameManifest.PTS_FILE), pts);
+            resultado.complete(archiveOutput.escrever(dir, formatoArquivo));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.completeExceptionally(e);
+        } catch (Throwable e) {
+            log.warn("Rendição {} falhou: {}", rendicao.nome(), e.toString());
+            resultado.completeExceptionally(e);
+        } finally {
+            encoder.close();
+            descartarFila();
+            copias.close();
+        }
+    }
+
+    private void gravar(Item item) throws IOException {
+        if (cancelada) return;
+        Path out = dir.resolve("frame-" + item.indice() + "." + encoder.format().getExtension());
+        if (!encoder.write(item.frame(), out)) {
+            throw new FrameExtractionException(
+                    "Encoder não gravou o frame " + item.indice() + " da rendição " + rendicao.nome());
+        }
+        StorageFileUtil.contabilizar(out);
+        pts.append(item.indice()).append(' ').append(item.ptsUs()).append('\n');
+    }
+
+    private void descartarFila() {
+        for (Item item = fila.poll(); item != null; item = fila.poll()) {
+            if (item.frame() != null) item.frame().close();
+        }
+    }
+
+    private record Item(Frame frame, int indice, long ptsUs) {}
+}
@@ -0,0 +1,161 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.rendition;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.Rendicao;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArquivoFrames;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.Workspace;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Várias rendições de um só decode ({@link OpcoesProcessamento#rendicoes()}): cada uma vira uma {@link RenditionLane}
+ * com encoder, fila ({@code processador.rendicoes.fila} frames) e thread próprios, e é publicada em
+ * {@code saida/x.<nome><extensão>} com o manifesto ao lado. Até {@code processador.rendicoes.max} por job.
+ */
+@Slf4j
+@Component
+public class RenditionOutput {
+
+    private static final AtomicInteger SEQUENCIA_THREADS = new AtomicInteger();
+
+    private final FrameEncoderFactory encoderFactory;
+    private final ArchiveOutput archiveOutput;
+    private final int capacidadeFila;
+    private final int maxRendicoes;
+    private final ExecutorService faixas = Executors.newCachedThreadPool(RenditionOutput::threadFaixa);
+
+    public RenditionOutput(
+            FrameEncoderFactory encoderFactory,
+            ArchiveOutput archiveOutput,
+            @Value("${processador.rendicoes.fila:4}") int capacidadeFila,
+            @Value("${processador.rendicoes.max:6}") int maxRendicoes) {
+        this.encoderFactory = encoderFactory;
+        this.archiveOutput = archiveOutput;
+        this.capacidadeFila = capacidadeFila;
+        this.maxRendicoes = maxRendicoes;
+    }
+
+    /** {@code saida/x.zip} + rendição {@code thumbs} em tar → {@code saida/x.thumbs.tar} */
+    public static String caminho(String caminhoSaida, String nome, ArchiveFormat formato) {
+        String base = caminhoSaida.endsWith(".zip")
+                ? caminhoSaida.substring(0, caminhoSaida.length() - ".zip".length())
+                : caminhoSaida;
+        return base + "." + nome + formato.extensao();
+    }
+
+    /** Recusa o job antes do download: limite de rendições, formatos de imagem e de arquivo conhecidos. */
+    public void validar(OpcoesProcessamento opcoes) {
+        List<Rendicao> rendicoes = opcoes.rendicoes();
+        if (rendicoes.size() > maxRendicoes) {
+            throw new IllegalArgumentException(rendicoes.size() + " rendições pedidas; o máximo é " + maxRendicoes);
+        }
+        for (Rendicao rendicao : rendicoes) {
+            formatoImagem(rendicao);
+            archiveOutput.formato(rendicao.arquivo());
+        }
+    }
+
+    /**
+     * Abre uma faixa por rendição em subdiretórios de {@code raiz}, com as threads já consumindo. Passe
+     * {@link Sessao#faixas()} ao extrator e depois chame {@link Sessao#concluir()}.
+     */
+    public Sessao abrir(Path raiz, OpcoesProcessamento opcoes) throws IOException {
+        Workspace workspace = Workspace.atual().orElse(null);
+        List<RenditionLane> lanes = new ArrayList<>();
+        List<FrameExtractor.Faixa> faixasExtrator = new ArrayList<>();
+        try {
+            for (Rendicao rendicao : opcoes.rendicoes()) {
+                Path dir = Files.createDirectory(raiz.resolve(rendicao.nome()));
+                int largura = rendicao.largura() != null ? rendicao.largura() : 0;
+                RenditionLane lane = new RenditionLane(
+                        rendicao,
+                        encoderFactory.create(formatoImagem(rendicao), largura),
+                        dir,
+                        archiveOutput,
+                        archiveOutput.formato(rendicao.arquivo()),
+                        capacidadeFila);
+                lanes.add(lane);
+                lane.iniciar(faixas, workspace);
+                faixasExtrator.add(new FrameExtractor.Faixa(rendicao.amostragem(opcoes), lane));
+            }
+        } catch (IOException | RuntimeException e) {
+            lanes.forEach(RenditionLane::close);
+            throw e;
+        }
+        return new Sessao(lanes, faixasExtrator);
+    }
+
+    private ImageFormat formatoImagem(Rendicao rendicao) {
+        if (rendicao.formato() == null) return encoderFactory.getFormat();
+        try {
+            return ImageFormat.valueOf(rendicao.formato().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "formato de imagem desconhecido na rendição " + rendicao.nome() + ": " + rendicao.formato(), e);
+        }
+    }
+
+    private static Thread threadFaixa(Runnable r) {
+        Thread t = new Thread(r, "rendicao-" + SEQUENCIA_THREADS.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        faixas.shutdownNow();
+    }
+
+    /** Faixas abertas de um job; fechar sem concluir descarta as rendições. */
+    public static final class Sessao implements AutoCloseable {
+
+        private final List<RenditionLane> lanes;
+        private final List<FrameExtractor.Faixa> faixas;
+
+        private Sessao(List<RenditionLane> lanes, List<FrameExtractor.Faixa> faixas) {
+            this.lanes = lanes;
+            this.faixas = faixas;
+        }
+
+        public List<FrameExtractor.Faixa> faixas() {
+            return faixas;
+        }
+
+        /**
+         * Fecha a entrada das faixas; cada uma termina a fila e escreve o arquivo na própria thread. Completa, na
+         * ordem das rendições, quando todas terminarem.
+         */
+        public CompletableFuture<List<RendicaoArquivada>> concluir() throws IOException {
+            List<CompletableFuture<RendicaoArquivada>> arquivos = new ArrayList<>(lanes.size());
+            for (RenditionLane lane : lanes) {
+                arquivos.add(lane.concluir()
+                        .thenApply(
+                                (ArquivoFrames a) -> new RendicaoArquivada(lane.rendicao(), lane.formatoArquivo(), a)));
+            }
+            return CompletableFuture.allOf(arquivos.toArray(CompletableFuture[]::new))
+                    .thenApply(
+                            v -> arquivos.stream().map(CompletableFuture::join).toList());
+        }
+
+        @Override
+        public void close() {
+            lanes.forEach(RenditionLane::close);
+        }
+    }
+}
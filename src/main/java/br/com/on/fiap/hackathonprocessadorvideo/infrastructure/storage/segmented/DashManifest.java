@@ -0,0 +1,226 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.VideoRejeitadoException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Leitura de manifestos DASH (MPD estático). Fica com o primeiro {@code Period}, a adaptação de vídeo e, nela, a
+ * representação de maior {@code bandwidth}. Os segmentos vêm de um {@code SegmentTemplate} (com {@code
+ * SegmentTimeline} ou {@code duration}), de um {@code SegmentList} ou, com {@code SegmentBase}, do próprio arquivo da
+ * representação. Os {@code BaseURL} de cada nível são resolvidos em cascata.
+ */
+final class DashManifest {
+
+    private static final Pattern VARIAVEL =
+            Pattern.compile("\\$(RepresentationID|Number|Bandwidth|Time)(%0(\\d+)d)?\\$");
+
+    private DashManifest() {}
+
+    static Playlist ler(String xml, URI base) {
+        Element mpd = parse(xml, base).getDocumentElement();
+        if ("dynamic".equals(mpd.getAttribute("type"))) {
+            throw new VideoRejeitadoException("Manifesto DASH ao vivo (type=dynamic) não é suportado: " + base);
+        }
+        Element period = filho(mpd, "Period");
+        if (period == null) throw new VideoRejeitadoException("Manifesto DASH sem Period: " + base);
+        long duracaoUs = duracaoUs(period.hasAttribute("duration") ? period : mpd, base);
+
+        Element adaptacao = null;
+        for (Element a : filhos(period, "AdaptationSet")) {
+            if (video(a)
+                    || (adaptacao == null
+                            && filhos(a, "Representation").stream().anyMatch(DashManifest::video))) {
+                adaptacao = a;
+                if (video(a)) break;
+            }
+        }
+        if (adaptacao == null) throw new VideoRejeitadoException("Manifesto DASH sem trilha de vídeo: " + base);
+        Element representacao = null;
+        for (Element r : filhos(adaptacao, "Representation")) {
+            if (representacao == null || banda(r) > banda(representacao)) representacao = r;
+        }
+        if (representacao == null) {
+            throw new VideoRejeitadoException("AdaptationSet de vídeo sem Representation: " + base);
+        }
+
+        URI raiz = baseUrl(baseUrl(baseUrl(baseUrl(base, mpd), period), adaptacao), representacao);
+        String id = representacao.getAttribute("id");
+        long bandwidth = banda(representacao);
+
+        Element template = herdado(representacao, adaptacao, "SegmentTemplate");
+        if (template != null) return doTemplate(template, raiz, id, bandwidth, duracaoUs, base);
+        Element lista = herdado(representacao, adaptacao, "SegmentList");
+        if (lista != null) return daLista(lista, raiz);
+        // SegmentBase ou nada: a representação é um arquivo só
+        return new Playlist(null, List.of(new Playlist.Segmento(raiz, 0, duracaoUs)));
+    }
+
+    private static Playlist doTemplate(
+            Element template, URI raiz, String id, long bandwidth, long duracaoUs, URI base) {
+        String media = template.getAttribute("media");
+        if (media.isEmpty()) throw new VideoRejeitadoException("SegmentTemplate sem media: " + base);
+        long timescale = atributoLong(template, "timescale", 1);
+        long numero = atributoLong(template, "startNumber", 1);
+        long offset = atributoLong(template, "presentationTimeOffset", 0);
+        URI init = template.hasAttribute("initialization")
+                ? raiz.resolve(substituir(template.getAttribute("initialization"), id, bandwidth, 0, 0))
+                : null;
+
+        List<Playlist.Segmento> segmentos = new ArrayList<>();
+        Element timeline = filho(template, "SegmentTimeline");
+        if (timeline != null) {
+            long t = 0;
+            for (Element s : filhos(timeline, "S")) {
+                if (s.hasAttribute("t")) t = Long.parseLong(s.getAttribute("t"));
+                long d = Long.parseLong(s.getAttribute("d"));
+                long repeticoes = atributoLong(s, "r", 0);
+                if (repeticoes < 0) {
+                    // r=-1: repete até o fim do período
+                    long fim = offset + duracaoUs * timescale / 1_000_000L;
+                    repeticoes = Math.max(0, (fim - t + d - 1) / d - 1);
+                }
+                for (long i = 0; i <= repeticoes; i++) {
+                    URI uri = raiz.resolve(substituir(media, id, bandwidth, numero++, t));
+                    segmentos.add(new Playlist.Segmento(uri, us(t - offset, timescale), us(d, timescale)));
+                    t += d;
+                }
+            }
+        } else {
+            long d = atributoLong(template, "duration", 0);
+            if (d <= 0 || duracaoUs <= 0) {
+                throw new VideoRejeitadoException("SegmentTemplate sem SegmentTimeline nem duration: " + base);
+            }
+            long duracaoSegmentoUs = us(d, timescale);
+            long total = (duracaoUs + duracaoSegmentoUs - 1) / duracaoSegmentoUs;
+            for (long i = 0; i < total; i++) {
+                long inicioUs = i * duracaoSegmentoUs;
+                URI uri = raiz.resolve(substituir(media, id, bandwidth, numero++, i * d));
+                segmentos.add(new Playlist.Segmento(uri, inicioUs, Math.min(duracaoSegmentoUs, duracaoUs - inicioUs)));
+            }
+        }
+        if (segmentos.isEmpty()) throw new VideoRejeitadoException("Manifesto DASH sem segmentos: " + base);
+        return new Playlist(init, segmentos);
+    }
+
+    private static Playlist daLista(Element lista, URI raiz) {
+        long timescale = atributoLong(lista, "timescale", 1);
+        long duracaoUs = us(atributoLong(lista, "duration", 0), timescale);
+        Element inicializacao = filho(lista, "Initialization");
+        URI init = inicializacao != null ? raiz.resolve(inicializacao.getAttribute("sourceURL")) : null;
+        List<Playlist.Segmento> segmentos = new ArrayList<>();
+        long inicioUs = 0;
+        for (Element url : filhos(lista, "SegmentURL")) {
+            segmentos.add(new Playlist.Segmento(raiz.resolve(url.getAttribute("media")), inicioUs, duracaoUs));
+            inicioUs += duracaoUs;
+        }
+        if (segmentos.isEmpty()) throw new VideoRejeitadoException("SegmentList sem SegmentURL: " + raiz);
+        return new Playlist(init, segmentos);
+    }
+
+    /** Expande os identificadores de template ({@code $Number%05d$} etc.) de ISO/IEC 23009-1 5.3.9.4.4. */
+    static String substituir(String template, String id, long bandwidth, long numero, long tempo) {
+        Matcher m = VARIAVEL.matcher(template);
+        StringBuilder sb = new StringBuilder();
+        while (m.find()) {
+            String valor =
+                    switch (m.group(1)) {
+                        case "RepresentationID" -> id;
+                        case "Number" -> largura(numero, m.group(3));
+                        case "Bandwidth" -> largura(bandwidth, m.group(3));
+                        default -> largura(tempo, m.group(3));
+                    };
+            m.appendReplacement(sb, Matcher.quoteReplacement(valor));
+        }
+        m.appendTail(sb);
+        return sb.toString().replace("$$", "$");
+    }
+
+    private static String largura(long valor, String digitos) {
+        return digitos == null ? Long.toString(valor) : String.format("%0" + digitos + "d", valor);
+    }
+
+    private static Document parse(String xml, URI base) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            // manifesto vem do usuário: nada de DTD nem entidades externas
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setExpandEntityReferences(false);
+            return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        } catch (ParserConfigurationException | SAXException | IOException e) {
+            throw new VideoRejeitadoException("Manifesto DASH inválido: " + base, e);
+        }
+    }
+
+    private static long duracaoUs(Element elemento, URI base) {
+        String valor =
+                elemento.getAttribute(elemento.hasAttribute("duration") ? "duration" : "mediaPresentationDuration");
+        if (valor.isEmpty()) return 0;
+        try {
+            return Duration.parse(valor).toNanos() / 1000;
+        } catch (DateTimeParseException e) {
+            throw new VideoRejeitadoException("Duração inválida no manifesto DASH " + base + ": " + valor, e);
+        }
+    }
+
+    private static boolean video(Element elemento) {
+        return "video".equals(elemento.getAttribute("contentType"))
+                || elemento.getAttribute("mimeType").startsWith("video/");
+    }
+
+    private static long banda(Element representacao) {
+        return atributoLong(representacao, "bandwidth", 0);
+    }
+
+    private static URI baseUrl(URI atual, Element elemento) {
+        Element baseUrl = filho(elemento, "BaseURL");
+        return baseUrl == null ? atual : atual.resolve(baseUrl.getTextContent().strip());
+    }
+
+    /** Elemento de segmentação da representação ou, na falta, o da adaptação. */
+    private static Element herdado(Element representacao, Element adaptacao, String nome) {
+        Element proprio = filho(representacao, nome);
+        return proprio != null ? proprio : filho(adaptacao, nome);
+    }
+
+    private static long atributoLong(Element elemento, String nome, long padrao) {
+        String valor = elemento.getAttribute(nome);
+        return valor.isEmpty() ? padrao : Long.parseLong(valor);
+    }
+
+    private static long us(long unidades, long timescale) {
+        return unidades * 1_000_000L / timescale;
+    }
+
+    private static Element filho(Element pai, String nome) {
+        List<Element> todos = filhos(pai, nome);
+        return todos.isEmpty() ? null : todos.get(0);
+    }
+
+    private static List<Element> filhos(Element pai, String nome) {
+        List<Element> encontrados = new ArrayList<>();
+        for (Node n = pai.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n instanceof Element e && nome.equals(e.getLocalName() != null ? e.getLocalName() : e.getNodeName())) {
+                encontrados.add(e);
+            }
+        }
+        return encontrados;
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.VideoRejeitadoException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Leitura de playlists HLS (RFC 8216). Numa playlist mestre, fica com a variante de maior {@code BANDWIDTH}; numa de
+ * mídia, com os segmentos e o {@code EXT-X-MAP}. Recusa o que a extração não sabe ler: segmentos criptografados,
+ * sub-faixas de bytes e descontinuidades, que reiniciam os timestamps no meio do vídeo.
+ */
+final class HlsPlaylist {
+
+    private static final Pattern BANDWIDTH = Pattern.compile("[:,]BANDWIDTH=(\\d+)");
+    private static final Pattern URI_ATRIBUTO = Pattern.compile("URI=\"([^\"]+)\"");
+    private static final Pattern METODO = Pattern.compile("METHOD=([A-Z0-9-]+)");
+
+    private HlsPlaylist() {}
+
+    static boolean mestre(String texto) {
+        return texto.contains("#EXT-X-STREAM-INF");
+    }
+
+    /** Variante de maior banda de uma playlist mestre, resolvida contra {@code base}. */
+    static Optional<URI> variante(String texto, URI base) {
+        URI melhor = null;
+        long maiorBanda = -1;
+        long banda = -1;
+        boolean esperandoUri = false;
+        for (String linha : texto.lines().map(String::strip).toList()) {
+            if (linha.startsWith("#EXT-X-STREAM-INF")) {
+                Matcher m = BANDWIDTH.matcher(linha);
+                banda = m.find() ? Long.parseLong(m.group(1)) : 0;
+                esperandoUri = true;
+            } else if (esperandoUri && !linha.isEmpty() && !linha.startsWith("#")) {
+                if (banda > maiorBanda) {
+                    maiorBanda = banda;
+                    melhor = base.resolve(linha);
+                }
+                esperandoUri = false;
+            }
+        }
+        return Optional.ofNullable(melhor);
+    }
+
+    static Playlist midia(String texto, URI base) {
+        if (!texto.strip().startsWith("#EXTM3U")) {
+            throw new VideoRejeitadoException("Playlist HLS sem #EXTM3U: " + base);
+        }
+        URI init = null;
+        List<Playlist.Segmento> segmentos = new ArrayList<>();
+        long inicioUs = 0;
+        long duracaoUs = -1;
+        for (String linha : texto.lines().map(String::strip).toList()) {
+            if (linha.isEmpty()) continue;
+            if (linha.startsWith("#EXTINF:")) {
+                String valor = linha.substring("#EXTINF:".length());
+                int virgula = valor.indexOf(',');
+                duracaoUs = Math.round(Double.parseDouble(virgula >= 0 ? valor.substring(0, virgula) : valor) * 1e6);
+            } else if (linha.startsWith("#EXT-X-MAP:")) {
+                if (linha.contains("BYTERANGE")) recusar("EXT-X-MAP com BYTERANGE", base);
+                init = base.resolve(atributo(URI_ATRIBUTO, linha, base));
+            } else if (linha.startsWith("#EXT-X-KEY:")) {
+                Matcher m = METODO.matcher(linha);
+                if (!m.find() || !m.group(1).equals("NONE")) recusar("segmentos criptografados", base);
+            } else if (linha.startsWith("#EXT-X-BYTERANGE")) {
+                recusar("EXT-X-BYTERANGE", base);
+            } else if (linha.startsWith("#EXT-X-DISCONTINUITY") && !linha.startsWith("#EXT-X-DISCONTINUITY-SEQUENCE")) {
+                recusar("EXT-X-DISCONTINUITY", base);
+            } else if (!linha.startsWith("#")) {
+                if (duracaoUs < 0) throw new VideoRejeitadoException("Segmento sem #EXTINF em " + base + ": " + linha);
+                segmentos.add(new Playlist.Segmento(base.resolve(linha), inicioUs, duracaoUs));
+                inicioUs += duracaoUs;
+                duracaoUs = -1;
+            }
+        }
+        if (segmentos.isEmpty()) throw new VideoRejeitadoException("Playlist HLS sem segmentos: " + base);
+        return new Playlist(init, segmentos);
+    }
+
+    private static String atributo(Pattern padrao, String linha, URI base) {
+        Matcher m = padrao.matcher(linha);
+        if (!m.find()) throw new VideoRejeitadoException("Atributo ausente em " + base + ": " + linha);
+        return m.group(1);
+    }
+
+    private static void recusar(String motivo, URI base) {
+        throw new VideoRejeitadoException("Playlist HLS com " + motivo + " não é suportada: " + base);
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Uma trilha de vídeo de uma playlist HLS ou DASH: os segmentos em ordem, com o instante de cada um na linha do tempo
+ * da playlist, e o segmento de inicialização quando há (fMP4/CMAF).
+ *
+ * @param init segmento de inicialização, que vai antes de qualquer outro; {@code null} em MPEG-TS
+ */
+public record Playlist(URI init, List<Segmento> segmentos) {
+
+    public Playlist {
+        segmentos = List.copyOf(segmentos);
+    }
+
+    public long duracaoUs() {
+        return segmentos.isEmpty() ? 0 : segmentos.get(segmentos.size() - 1).fimUs();
+    }
+
+    /**
+     * Segmentos que cobrem ao menos parte de {@code [inicioMs, fimMs)}; {@code null} deixa o lado aberto. O primeiro e
+     * o último vêm inteiros: o extrator descarta os frames de fora.
+     */
+    public List<Segmento> recorte(Long inicioMs, Long fimMs) {
+        long inicioUs = inicioMs == null ? 0 : inicioMs * 1000L;
+        long fimUs = fimMs == null ? Long.MAX_VALUE : fimMs * 1000L;
+        return segmentos.stream()
+                .filter(s -> s.fimUs() > inicioUs && s.inicioUs() < fimUs)
+                .toList();
+    }
+
+    /** @param inicioUs instante do segmento na linha do tempo da playlist */
+    public record Segmento(URI uri, long inicioUs, long duracaoUs) {
+
+        public long fimUs() {
+            return inicioUs + duracaoUs;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Os segmentos de uma playlist como um único fluxo de bytes, na ordem da playlist. Mantém até {@code janela} downloads
+ * em voo à frente do que o decoder está lendo: o decode começa assim que chega o primeiro segmento, e só espera a rede
+ * quando ela fica para trás. Segmentos MPEG-TS concatenados, ou o init fMP4 seguido dos fragmentos, formam um fluxo
+ * que o FFmpeg lê de ponta a ponta sem seek.
+ *
+ * <p>O FFmpeg lê o fluxo por um callback que trata qualquer exceção como fim de arquivo; por isso a falha de um
+ * download fica guardada em {@link #falha()}, e quem extrai precisa consultá-la para não tomar um vídeo truncado por
+ * completo.
+ *
+ * <p>Não é thread-safe: é lido pela thread do decode. Fechar cancela os downloads pendentes.
+ */
+@Slf4j
+final class SegmentStream extends InputStream {
+
+    private final Function<URI, CompletableFuture<byte[]>> buscar;
+    private final Iterator<URI> proximos;
+    private final ArrayDeque<CompletableFuture<byte[]>> emVoo = new ArrayDeque<>();
+    private final int janela;
+
+    private byte[] atual = new byte[0];
+    private int posicao;
+    private int lidos;
+    private long bytes;
+    private long esperaNs;
+    private boolean fechado;
+    private IOException falha;
+
+    /** @param partes URIs na ordem do fluxo (o init, se houver, primeiro) */
+    SegmentStream(Function<URI, CompletableFuture<byte[]>> buscar, List<URI> partes, int janela) {
+        this.buscar = buscar;
+        this.proximos = partes.iterator();
+        this.janela = Math.max(1, janela);
+        encher();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!disponivel()) return -1;
+        return atual[posicao++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!disponivel()) return -1;
+        int n = Math.min(len, atual.length - posicao);
+        System.arraycopy(atual, posicao, b, off, n);
+        posicao += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return atual.length - posicao;
+    }
+
+    /** Primeira falha de download ou leitura; {@code null} se o fluxo foi lido sem erro até onde o decoder chegou. */
+    IOException falha() {
+        return falha;
+    }
+
+    @Override
+    public void close() {
+        if (fechado) return;
+        fechado = true;
+        emVoo.forEach(f -> f.cancel(true));
+        emVoo.clear();
+        log.info("{} segmentos lidos ({} bytes); decode esperou a rede por {} ms", lidos, bytes, esperaNs / 1_000_000);
+    }
+
+    /** Garante bytes em {@link #atual}, esperando o próximo segmento se preciso; {@code false} no fim do fluxo. */
+    private boolean disponivel() throws IOException {
+        if (falha != null) throw falha;
+        if (fechado) throw new IOException("Fluxo de segmentos fechado");
+        while (posicao >= atual.length) {
+            CompletableFuture<byte[]> proximo = emVoo.pollFirst();
+            if (proximo == null) return false;
+            encher();
+            long antes = System.nanoTime();
+            try {
+                atual = proximo.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw falha = new InterruptedIOException("Interrompido esperando o segmento " + (lidos + 1));
+            } catch (ExecutionException | CancellationException e) {
+                Throwable causa = e.getCause() != null ? e.getCause() : e;
+                if (causa instanceof CompletionException && causa.getCause() != null) causa = causa.getCause();
+                throw falha = new IOException("Falha ao buscar o segmento " + (lidos + 1), causa);
+            }
+            esperaNs += System.nanoTime() - antes;
+            posicao = 0;
+            lidos++;
+            bytes += atual.length;
+        }
+        return true;
+    }
+
+    private void encher() {
+        while (emVoo.size() < janela && proximos.hasNext()) {
+            emVoo.addLast(buscar.apply(proximos.next()));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FfmpegFrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameListener;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameSink;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.ContainerFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.VideoRejeitadoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+/**
+ * Entradas HLS ({@code .m3u8}) e DASH ({@code .mpd}) ({@code processador.playlist.*}): lê a playlist, fica com a
+ * variante de maior banda e os segmentos que cobrem o recorte, e os entrega ao {@link FfmpegFrameExtractor} como um
+ * fluxo único ({@link SegmentStream}). Até {@code paralelismo} segmentos são baixados à frente do decode, que começa
+ * com o primeiro — o vídeo nunca existe inteiro em disco.
+ *
+ * <p>Os segmentos só são buscados onde a playlist está: no bucket de entrada, para playlists no S3, ou no diretório da
+ * playlist, para arquivos locais. URLs de outros hosts são recusadas, para uma playlist enviada pelo usuário não fazer
+ * o serviço buscar endereços arbitrários.
+ */
+@Slf4j
+@Component
+public class SegmentedExtractor implements FrameExtractor {
+
+    private final FfmpegFrameExtractor ffmpeg;
+    private final S3AsyncClient s3;
+    private final String bucket;
+    private final int paralelismo;
+
+    @Autowired
+    public SegmentedExtractor(
+            FfmpegFrameExtractor ffmpeg,
+            S3AsyncClient s3,
+            @Value("${nomeBucket}") String bucket,
+            @Value("${processador.playlist.paralelismo:4}") int paralelismo) {
+        this.ffmpeg = ffmpeg;
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+    /** Só playlists e segmentos locais. */
+    public SegmentedExtractor(FfmpegFrameExtractor ffmpeg, int paralelismo) {
+        this(ffmpeg, null, null, paralelismo);
+    }
+
+    /** Playlist local; os segmentos são lidos do diretório dela. */
+    @Override
+    public Path extract(Path playlist, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+        return extract(playlist.toAbsolutePath().normalize().toUri(), opcoes, listener);
+    }
+
+    /** Playlist em {@code s3://bucket/chave} ou {@code file:}. */
+    @Override
+    public Path extract(URI playlist, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+        Playlist lista = carregar(playlist);
+        List<Playlist.Segmento> segmentos = lista.recorte(opcoes.inicioMs(), opcoes.fimMs());
+        if (segmentos.isEmpty()) {
+            throw new NoFramesExtractedException(
+                    "Recorte fora da playlist (" + lista.duracaoUs() / 1000 + " ms): " + playlist);
+        }
+        List<URI> partes = new ArrayList<>(segmentos.size() + 1);
+        if (lista.init() != null) partes.add(lista.init());
+        segmentos.forEach(s -> partes.add(s.uri()));
+        partes.forEach(uri -> permitido(uri, playlist));
+
+        long inicioUs = segmentos.get(0).inicioUs();
+        long fimUs = segmentos.get(segmentos.size() - 1).fimUs();
+        log.info(
+                "Playlist {}: {} de {} segmentos ({}–{} ms), até {} baixando à frente do decode",
+                playlist,
+                segmentos.size(),
+                lista.segmentos().size(),
+                inicioUs / 1000,
+                fimUs / 1000,
+                paralelismo);
+
+        // job parado: os downloads em voo são cancelados e o decode vê o fim do fluxo
+        CancellationToken cancelamento = CancellationToken.atual();
+        Path framesDir;
+        try (SegmentStream fluxo =
+                new SegmentStream(uri -> cancelamento.acompanhar(buscar(uri)), partes, paralelismo)) {
+            try {
+                framesDir = ffmpeg.extract(fluxo, playlist.toString(), inicioUs, fimUs, opcoes, listener);
+            } catch (IOException | RuntimeException e) {
+                cancelamento.verificar();
+                // um download que falhou aparece para o FFmpeg como fim de arquivo; a causa real é a falha
+                if (fluxo.falha() != null) {
+                    fluxo.falha().addSuppressed(e);
+                    throw fluxo.falha();
+                }
+                throw e;
+            }
+            if (fluxo.falha() != null) {
+                StorageFileUtil.deleteRecursively(framesDir);
+                throw fluxo.falha();
+            }
+        }
+        return framesDir;
+    }
+
+    @Override
+    public int decode(Path videoFile, OpcoesProcessamento opcoes, FrameSink sink) {
+        throw new VideoRejeitadoException("Entradas HLS/DASH só geram o arquivo de frames: " + videoFile);
+    }
+
+    @Override
+    public int distribuir(Path videoFile, OpcoesProcessamento opcoes, List<Faixa> faixas) {
+        throw new VideoRejeitadoException("Entradas HLS/DASH só geram o arquivo de frames: " + videoFile);
+    }
+
+    @Override
+    public Lote abrirLote() {
+        throw new VideoRejeitadoException("Entradas HLS/DASH não entram em lotes");
+    }
+
+    /** Lê a playlist e, se ela for uma playlist mestre HLS, a variante de maior banda. */
+    Playlist carregar(URI playlist) throws IOException {
+        permitido(playlist, playlist);
+        byte[] conteudo = ler(playlist);
+        ContainerFormat formato = ContainerFormat.doCabecalho(conteudo)
+                .filter(ContainerFormat::segmentado)
+                .orElseThrow(() -> new VideoRejeitadoException("Não é uma playlist HLS nem DASH: " + playlist));
+        String texto = new String(conteudo, StandardCharsets.UTF_8);
+        if (formato == ContainerFormat.DASH) return DashManifest.ler(texto, playlist);
+        if (!HlsPlaylist.mestre(texto)) return HlsPlaylist.midia(texto, playlist);
+
+        URI variante = HlsPlaylist.variante(texto, playlist)
+                .orElseThrow(() -> new VideoRejeitadoException("Playlist mestre sem variantes: " + playlist));
+        permitido(variante, playlist);
+        log.debug("Playlist mestre {}: variante {}", playlist, variante);
+        return HlsPlaylist.midia(new String(ler(variante), StandardCharsets.UTF_8), variante);
+    }
+
+    private byte[] ler(URI uri) throws IOException {
+        try {
+            return buscar(uri).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido lendo " + uri, e);
+        } catch (ExecutionException e) {
+            Throwable causa =
+                    e.getCause() instanceof CompletionException c && c.getCause() != null ? c.getCause() : e.getCause();
+            if (causa instanceof IOException io) throw io;
+            if (causa instanceof UncheckedIOException io) throw io.getCause();
+            throw new IOException("Falha ao ler " + uri, causa);
+        }
+    }
+
+    private CompletableFuture<byte[]> buscar(URI uri) {
+        if ("s3".equals(uri.getScheme())) {
+            return s3.getObject(
+                            r -> r.bucket(uri.getHost()).key(uri.getPath().substring(1)),
+                            AsyncResponseTransformer.toBytes())
+                    .thenApply(ResponseBytes::asByteArrayUnsafe);
+        }
+        // arquivos locais são playlists de teste ou de uploads: ler na hora basta
+        try {
+            return CompletableFuture.completedFuture(Files.readAllBytes(Path.of(uri)));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Recusa {@code uri} fora do diretório da playlist {@code origem}: no S3, fora do bucket de entrada ou do prefixo da
+     * chave da playlist (até a última {@code /}).
+     */
+    private void permitido(URI uri, URI origem) {
+        boolean ok =
+                switch (String.valueOf(uri.getScheme())) {
+                    case "s3" ->
+                        s3 != null
+                                && uri.getHost() != null
+                                && uri.getHost().equals(bucket)
+                                && "s3".equals(origem.getScheme())
+                                && uri.getHost().equals(origem.getHost())
+                                && dentroDoPrefixo(uri, origem);
+                    case "file" ->
+                        "file".equals(origem.getScheme())
+                                && Path.of(uri)
+                                        .normalize()
+                                        .startsWith(Path.of(origem).normalize().getParent());
+                    default -> false;
+                };
+        if (!ok) throw new VideoRejeitadoException("Segmento fora do armazenamento da playlist: " + uri);
+    }
+
+    private static boolean dentroDoPrefixo(URI uri, URI origem) {
+        String chave = uri.normalize().getPath();
+        String playlist = origem.normalize().getPath();
+        if (chave == null || playlist == null || chave.contains("/../")) return false;
+        String prefixo = playlist.substring(0, playlist.lastIndexOf('/') + 1);
+        return chave.length() > prefixo.length() && chave.startsWith(prefixo);
+    }
+}
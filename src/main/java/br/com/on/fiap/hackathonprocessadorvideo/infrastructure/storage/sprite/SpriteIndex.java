@@ -0,0 +1,58 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.sprite;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Índice das folhas de sprites de um job: para cada miniatura, o intervalo do vídeo que ela representa e a região da
+ * folha onde está. Publicado em JSON e em WebVTT (formato de thumbnails dos players: {@code folha#xywh=x,y,w,h}).
+ */
+public record SpriteIndex(
+        int colunas, int linhas, int larguraTile, int alturaTile, List<String> folhas, List<Tile> tiles) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public record Tile(long inicioMs, long fimMs, String folha, int x, int y) {}
+
+    public SpriteIndex {
+        folhas = List.copyOf(folhas);
+        tiles = List.copyOf(tiles);
+    }
+
+    public byte[] json() {
+        try {
+            return MAPPER.writeValueAsBytes(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar índice de sprites", e);
+        }
+    }
+
+    /** As URLs das folhas são relativas ao próprio .vtt, que é publicado no mesmo prefixo. */
+    public byte[] webVtt() {
+        StringBuilder vtt = new StringBuilder("WEBVTT\n");
+        for (Tile t : tiles) {
+            vtt.append('\n')
+                    .append(tempo(t.inicioMs()))
+                    .append(" --> ")
+                    .append(tempo(t.fimMs()))
+                    .append('\n')
+                    .append(t.folha())
+                    .append("#xywh=")
+                    .append(t.x())
+                    .append(',')
+                    .append(t.y())
+                    .append(',')
+                    .append(larguraTile)
+                    .append(',')
+                    .append(alturaTile)
+                    .append('\n');
+        }
+        return vtt.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String tempo(long ms) {
+        return "%02d:%02d:%02d.%03d".formatted(ms / 3_600_000, ms / 60_000 % 60, ms / 1000 % 60, ms % 1000);
+    }
+}
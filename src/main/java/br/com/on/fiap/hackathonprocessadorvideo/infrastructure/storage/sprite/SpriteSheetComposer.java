@@ -0,0 +1,196 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.sprite;
+
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGR24;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_BGRA;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_GRAY8;
+import static org.bytedeco.ffmpeg.global.avutil.AV_PIX_FMT_NONE;
+import static org.bytedeco.ffmpeg.global.swscale.SWS_BILINEAR;
+import static org.bytedeco.ffmpeg.global.swscale.sws_freeContext;
+import static org.bytedeco.ffmpeg.global.swscale.sws_getCachedContext;
+import static org.bytedeco.ffmpeg.global.swscale.sws_scale;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameSink;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameEncodingException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.ffmpeg.swscale.SwsContext;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.PointerPointer;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Monta folhas de miniaturas em grade conforme os frames são decodificados. Cada frame é reduzido pelo swscale direto
+ * para a sua célula de um canvas BGR único, reaproveitado entre folhas — sem imagem intermediária por miniatura. Com a
+ * folha cheia, o canvas é codificado pelo {@link FrameEncoder} e zerado para a próxima.
+ *
+ * <p>A miniatura mantém a proporção do vídeo, centralizada na célula com fundo preto. Uma instância por job; não é
+ * thread-safe.
+ */
+@Slf4j
+public final class SpriteSheetComposer implements FrameSink, AutoCloseable {
+
+    private final int colunas;
+    private final int linhas;
+    private final int larguraTile;
+    private final int alturaTile;
+    private final FrameEncoder encoder;
+    private final Path dir;
+
+    private final Frame canvas;
+    private final BytePointer canvasPointer;
+    private final BytePointer destino;
+    private final PointerPointer<BytePointer> srcData = new PointerPointer<>(4);
+    private final IntPointer srcStride = new IntPointer(4);
+    private final PointerPointer<BytePointer> dstData = new PointerPointer<>(4);
+    private final IntPointer dstStride = new IntPointer(4);
+
+    private final List<String> folhas = new ArrayList<>();
+    private final List<Long> inicios = new ArrayList<>();
+    private final List<String> folhaDoTile = new ArrayList<>();
+
+    private SwsContext swsContext;
+    private Buffer lastSrcBuffer;
+    private BytePointer srcPointer;
+    private int naFolha;
+
+    SpriteSheetComposer(int colunas, int linhas, int larguraTile, int alturaTile, FrameEncoder encoder, Path dir) {
+        this.colunas = colunas;
+        this.linhas = linhas;
+        this.larguraTile = larguraTile;
+        this.alturaTile = alturaTile;
+        this.encoder = encoder;
+        this.dir = dir;
+        this.canvas = new Frame(colunas * larguraTile, linhas * alturaTile, Frame.DEPTH_UBYTE, 3);
+        this.canvasPointer = new BytePointer((ByteBuffer) canvas.image[0]);
+        this.destino = new BytePointer(canvasPointer);
+        this.dstStride.put(0, canvas.imageStride);
+        canvasPointer.zero();
+    }
+
+    @Override
+    public boolean aceitar(Frame frame, int indice, long ptsUs) throws IOException {
+        int srcFormat = sourcePixelFormat(frame);
+        if (srcFormat == AV_PIX_FMT_NONE) {
+            log.warn("Frame {} com layout não suportado para sprites (channels={})", indice, frame.imageChannels);
+            return false;
+        }
+
+        double escala = Math.min((double) larguraTile / frame.imageWidth, (double) alturaTile / frame.imageHeight);
+        int w = Math.max(1, (int) Math.round(frame.imageWidth * escala));
+        int h = Math.max(1, (int) Math.round(frame.imageHeight * escala));
+        int x = (naFolha % colunas) * larguraTile;
+        int y = (naFolha / colunas) * alturaTile;
+
+        swsContext = sws_getCachedContext(
+                swsContext,
+                frame.imageWidth,
+                frame.imageHeight,
+                srcFormat,
+                w,
+                h,
+                AV_PIX_FMT_BGR24,
+                SWS_BILINEAR,
+                null,
+                null,
+                (DoublePointer) null);
+        if (swsContext == null) throw new FrameEncodingException("Cannot initialize swscale context");
+
+        Buffer src = frame.image[0];
+        if (src != lastSrcBuffer) {
+            if (srcPointer != null) srcPointer.close();
+            srcPointer = new BytePointer((ByteBuffer) src);
+            lastSrcBuffer = src;
+        }
+        srcData.put(0, srcPointer);
+        srcStride.put(0, frame.imageStride);
+
+        long offset = (long) (y + (alturaTile - h) / 2) * canvas.imageStride + (long) (x + (larguraTile - w) / 2) * 3;
+        dstData.put(0, destino.position(offset));
+        sws_scale(swsContext, srcData, srcStride, 0, frame.imageHeight, dstData, dstStride);
+
+        inicios.add(ptsUs);
+        folhaDoTile.add(nomeFolha(folhas.size()));
+        if (++naFolha == colunas * linhas) {
+            gravarFolha();
+        }
+        return true;
+    }
+
+    /**
+     * Grava a última folha (parcial) e monta o índice. O fim de cada miniatura é o início da seguinte; a última vai
+     * até {@code fimUs} ou, se desconhecido, dura o intervalo médio entre miniaturas.
+     */
+    public SpriteIndex concluir(long fimUs) throws IOException {
+        if (naFolha > 0) gravarFolha();
+
+        int n = inicios.size();
+        long passoUs = n > 1 ? (inicios.get(n - 1) - inicios.get(0)) / (n - 1) : 1_000_000;
+        List<SpriteIndex.Tile> tiles = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            long inicio = inicios.get(i);
+            long fim = i + 1 < n ? inicios.get(i + 1) : (fimUs > inicio ? fimUs : inicio + Math.max(passoUs, 1000));
+            int celula = i % (colunas * linhas);
+            tiles.add(new SpriteIndex.Tile(
+                    inicio / 1000,
+                    fim / 1000,
+                    folhaDoTile.get(i),
+                    (celula % colunas) * larguraTile,
+                    (celula / colunas) * alturaTile));
+        }
+        log.info("{} miniaturas em {} folhas de {}x{}", n, folhas.size(), colunas, linhas);
+        return new SpriteIndex(colunas, linhas, larguraTile, alturaTile, folhas, tiles);
+    }
+
+    /** Canvas atual, para inspeção em testes. */
+    Frame canvas() {
+        return canvas;
+    }
+
+    private void gravarFolha() throws IOException {
+        String nome = nomeFolha(folhas.size());
+        if (!encoder.write(canvas, dir.resolve(nome))) {
+            throw new FrameEncodingException("Falha ao codificar folha de sprites " + nome);
+        }
+        folhas.add(nome);
+        canvasPointer.zero();
+        naFolha = 0;
+    }
+
+    private String nomeFolha(int numero) {
+        return "sprite-%03d.%s".formatted(numero, encoder.format().getExtension());
+    }
+
+    private static int sourcePixelFormat(Frame frame) {
+        if (frame == null || frame.image == null || frame.image[0] == null) return AV_PIX_FMT_NONE;
+        if (frame.imageDepth != Frame.DEPTH_UBYTE) return AV_PIX_FMT_NONE;
+        return switch (frame.imageChannels) {
+            case 1 -> AV_PIX_FMT_GRAY8;
+            case 3 -> AV_PIX_FMT_BGR24;
+            case 4 -> AV_PIX_FMT_BGRA;
+            default -> AV_PIX_FMT_NONE;
+        };
+    }
+
+    @Override
+    public void close() {
+        if (swsContext != null) {
+            sws_freeContext(swsContext);
+            swsContext = null;
+        }
+        if (srcPointer != null) srcPointer.close();
+        srcData.close();
+        srcStride.close();
+        dstData.close();
+        dstStride.close();
+        encoder.close();
+        canvas.close();
+    }
+}
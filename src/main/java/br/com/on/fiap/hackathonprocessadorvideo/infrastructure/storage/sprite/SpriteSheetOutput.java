@@ -0,0 +1,52 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.sprite;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/** Configuração do modo de saída em sprites ({@code processador.sprites.*}) e fábrica de {@link SpriteSheetComposer}. */
+@Component
+public class SpriteSheetOutput {
+
+    private final FrameEncoderFactory encoderFactory;
+    private final int colunas;
+    private final int linhas;
+    private final int larguraTile;
+    private final int alturaTile;
+    private final ImageFormat formato;
+
+    @Autowired
+    public SpriteSheetOutput(
+            FrameEncoderFactory encoderFactory,
+            @Value("${processador.sprites.colunas:10}") int colunas,
+            @Value("${processador.sprites.linhas:10}") int linhas,
+            @Value("${processador.sprites.largura-tile:160}") int larguraTile,
+            @Value("${processador.sprites.altura-tile:90}") int alturaTile,
+            @Value("${processador.sprites.formato:JPEG}") ImageFormat formato) {
+        this.encoderFactory = encoderFactory;
+        this.colunas = colunas;
+        this.linhas = linhas;
+        this.larguraTile = larguraTile;
+        this.alturaTile = alturaTile;
+        this.formato = formato;
+    }
+
+    public static SpriteSheetOutput padrao() {
+        return new SpriteSheetOutput(FrameEncoderFactory.padrao(), 10, 10, 160, 90, ImageFormat.JPEG);
+    }
+
+    public SpriteSheetComposer abrir(Path dir) {
+        return new SpriteSheetComposer(colunas, linhas, larguraTile, alturaTile, encoderFactory.create(formato), dir);
+    }
+
+    /** {@code saida/x.zip} → {@code saida/x.sprites/} */
+    public static String prefixo(String caminhoSaida) {
+        String base = caminhoSaida.endsWith(".zip")
+                ? caminhoSaida.substring(0, caminhoSaida.length() - ".zip".length())
+                : caminhoSaida;
+        return base + ".sprites/";
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.stream;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ModoSaida;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.ContainerFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.MediaPreflight;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Extração síncrona para o endpoint HTTP: em vez de publicar no S3, escreve o zip dos frames direto no stream da
+ * resposta, à medida que são extraídos. Só o modo {@link ModoSaida#FRAMES}; sem manifesto (o cliente recebe os frames
+ * na ordem em que saem).
+ */
+@Slf4j
+@Component
+public class StreamingExtraction {
+
+    private final S3Client s3Client;
+    private final FrameExtractor extractor;
+    private final MediaPreflight preflight;
+    private final String bucket;
+
+    public StreamingExtraction(
+            S3Client s3Client,
+            @Qualifier("mp4Extractor") FrameExtractor extractor,
+            MediaPreflight preflight,
+            @Value("${nomeBucket}") String bucket) {
+        this.s3Client = s3Client;
+        this.extractor = extractor;
+        this.preflight = preflight;
+        this.bucket = bucket;
+    }
+
+    /** Valida as opções e, para entradas no S3, roda o pre-flight — antes de a resposta começar. */
+    public void validar(String key, OpcoesProcessamento opcoes) throws IOException {
+        opcoes.validar();
+        if (opcoes.saidaOuPadrao() != ModoSaida.FRAMES) {
+            throw new IllegalArgumentException("Extração síncrona só suporta saída FRAMES: " + opcoes.saida());
+        }
+        if (ContainerFormat.segmentado(key)) {
+            throw new IllegalArgumentException("Extração síncrona não aceita playlists HLS/DASH: " + key);
+        }
+        if (key != null) {
+            preflight.verificar(key, opcoes);
+        }
+    }
+
+    /** Baixa o vídeo do bucket e extrai para {@code destino}. */
+    public int extrairDoS3(String key, OpcoesProcessamento opcoes, OutputStream destino) throws IOException {
+        Path video = StorageFileUtil.createTempFile("video-", ContainerFormat.sufixoTemporario(key));
+        try {
+            try (InputStream in = s3Client.getObject(r -> r.bucket(bucket).key(key))) {
+                StorageFileUtil.copy(in, video);
+            }
+            return extrair(video, opcoes, destino);
+        } finally {
+            StorageFileUtil.deleteQuietly(video);
+        }
+    }
+
+    /**
+     * Extrai {@code video} escrevendo o zip em {@code destino}; devolve quantos frames foram enviados. Se a extração
+     * falha o zip fica sem diretório central, para o cliente não tomar um arquivo truncado por completo.
+     */
+    public int extrair(Path video, OpcoesProcessamento opcoes, OutputStream destino) throws IOException {
+        Path framesDir = null;
+        StreamingZipWriter zip = new StreamingZipWriter(destino);
+        try {
+            framesDir = extractor.extract(video, opcoes, zip);
+            zip.close();
+            log.info("Extração síncrona concluída: {} frames enviados", zip.frames());
+            return zip.frames();
+        } finally {
+            StorageFileUtil.deleteRecursively(framesDir);
+        }
+    }
+}
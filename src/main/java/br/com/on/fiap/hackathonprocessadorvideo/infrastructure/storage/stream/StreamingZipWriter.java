@@ -0,0 +1,55 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.stream;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameListener;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escreve cada frame num zip assim que o extrator o grava, com flush por entrada — numa resposta HTTP sem
+ * Content-Length isso vira um chunk por frame, e o cliente começa a receber antes do fim da extração. Entradas STORED
+ * (as imagens já são comprimidas); o arquivo do frame é apagado depois de copiado.
+ */
+public final class StreamingZipWriter implements FrameListener, AutoCloseable {
+
+    private final ZipOutputStream zip;
+    private int frames;
+
+    public StreamingZipWriter(OutputStream destino) {
+        this.zip = new ZipOutputStream(destino);
+        this.zip.setMethod(ZipOutputStream.STORED);
+    }
+
+    @Override
+    public void frameEscrito(Path arquivo, int indice, long ptsUs) throws IOException {
+        byte[] dados = Files.readAllBytes(arquivo);
+        CRC32 crc = new CRC32();
+        crc.update(dados);
+        ZipEntry entry = new ZipEntry(arquivo.getFileName().toString());
+        entry.setSize(dados.length);
+        entry.setCompressedSize(dados.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(dados);
+        zip.closeEntry();
+        zip.flush();
+        StorageFileUtil.delete(arquivo);
+        frames++;
+    }
+
+    public int frames() {
+        return frames;
+    }
+
+    /** Escreve o diretório central; não fecha o stream de destino (é da resposta HTTP). */
+    @Override
+    public void close() throws IOException {
+        zip.finish();
+        zip.flush();
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.bytedeco.javacv.Frame;
+
+/**
+ * Cópias de frames decodificados para quem precisa deles depois do próximo grab (o grabber reaproveita o buffer). As
+ * cópias voltam ao pool com {@link #devolver}, então o custo nativo de alocação só acontece até o pool aquecer ou a
+ * resolução mudar. Thread-safe: o decode copia e as threads de encode devolvem.
+ */
+public final class FrameCopyPool implements AutoCloseable {
+
+    private final ConcurrentLinkedQueue<Frame> livres = new ConcurrentLinkedQueue<>();
+
+    /** Copia a imagem de {@code origem} (BGR/gray de 8 bits) para um frame do pool. */
+    public Frame copiar(Frame origem) {
+        Frame copia = livres.poll();
+        if (copia != null
+                && (copia.imageWidth != origem.imageWidth
+                        || copia.imageHeight != origem.imageHeight
+                        || copia.imageChannels != origem.imageChannels
+                        || copia.imageStride != origem.imageStride)) {
+            copia.close();
+            copia = null;
+        }
+        if (copia == null) {
+            copia = new Frame(
+                    origem.imageWidth, origem.imageHeight, origem.imageDepth, origem.imageChannels, origem.imageStride);
+        }
+        ByteBuffer de = ((ByteBuffer) origem.image[0]).duplicate();
+        ByteBuffer para = ((ByteBuffer) copia.image[0]).clear();
+        de.clear().limit(Math.min(de.capacity(), para.capacity()));
+        para.put(de);
+        copia.timestamp = origem.timestamp;
+        return copia;
+    }
+
+    public void devolver(Frame copia) {
+        if (copia != null) livres.offer(copia);
+    }
+
+    /** Libera a memória nativa das cópias devolvidas. */
+    @Override
+    public void close() {
+        for (Frame livre = livres.poll(); livre != null; livre = livres.poll()) livre.close();
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.ffmpeg.global.avformat;
+import org.bytedeco.ffmpeg.global.avutil;
+import org.bytedeco.ffmpeg.global.swresample;
+import org.bytedeco.ffmpeg.global.swscale;
+import org.bytedeco.javacpp.Loader;
+
+/**
+ * Carga única das bibliotecas nativas. {@link Loader#load(Class)} extrai e linka os
+ * binários na primeira chamada; as seguintes só consultam um mapa, mas ainda assim
+ * evitamos repetir a chamada a cada extração.
+ */
+@Slf4j
+public final class NativeLibraries {
+
+    public static final String CACHE_DIR_PROPERTY = "org.bytedeco.javacpp.cachedir";
+    private static final String OPENCV_IMGCODECS = "org.bytedeco.opencv.global.opencv_imgcodecs";
+
+    private static final AtomicBoolean FFMPEG_LOADED = new AtomicBoolean();
+    private static final AtomicBoolean OPENCV_LOADED = new AtomicBoolean();
+
+    private NativeLibraries() {}
+
+    /**
+     * Aponta o cache do JavaCPP para um diretório persistente. Precisa rodar antes da
+     * primeira carga nativa; uma propriedade de sistema já definida (ex.: via
+     * {@code JAVA_TOOL_OPTIONS}) tem precedência.
+     */
+    public static void configureCacheDir(String cacheDir) {
+        if (cacheDir == null || cacheDir.isBlank() || System.getProperty(CACHE_DIR_PROPERTY) != null) return;
+        System.setProperty(CACHE_DIR_PROPERTY, cacheDir);
+        log.info("JavaCPP cache dir: {}", cacheDir);
+    }
+
+    /** Só o necessário para decode de arquivo + encode; avdevice (captura) exige libs de X11. */
+    public static void ensureFfmpegLoaded() {
+        if (FFMPEG_LOADED.get()) return;
+        synchronized (FFMPEG_LOADED) {
+            if (FFMPEG_LOADED.get()) return;
+            Loader.load(avutil.class);
+            Loader.load(swresample.class);
+            Loader.load(avcodec.class);
+            Loader.load(avformat.class);
+            Loader.load(swscale.class);
+            FFMPEG_LOADED.set(true);
+        }
+    }
+
+    /** Carrega o OpenCV sem referência estática, para que o jar seja opcional no classpath. */
+    public static void ensureOpenCvLoaded() throws ClassNotFoundException {
+        if (OPENCV_LOADED.get()) return;
+        synchronized (OPENCV_LOADED) {
+            if (OPENCV_LOADED.get()) return;
+            Loader.load(Class.forName(OPENCV_IMGCODECS));
+            OPENCV_LOADED.set(true);
+        }
+    }
+}
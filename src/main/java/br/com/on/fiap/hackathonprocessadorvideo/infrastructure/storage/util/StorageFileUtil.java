@@ -1,27 +1,93 @@
 package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util;
 
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.Workspace;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UncheckedIOException;
+import java.io.OutputStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.Comparator;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public final class StorageFileUtil {
 
+    /**
+     * Ordena {@code frame-<n>.<ext>} pelo índice numérico (frame-2 antes de frame-10), para que o zip tenha as entradas
+     * na ordem do vídeo e possa ser consumido/mesclado em streaming.
+     */
+    public static final Comparator<Path> FRAME_ORDER = Comparator.comparingLong(
+                    (Path p) -> frameIndex(p.getFileName().toString()))
+            .thenComparing(p -> p.getFileName().toString());
+
     private StorageFileUtil() {}
 
+    /** Índice de um nome {@code frame-<n>.<ext>}; {@link Long#MAX_VALUE} quando o nome não segue o padrão. */
+    public static long frameIndex(String fileName) {
+        int dash = fileName.lastIndexOf('-');
+        int dot = fileName.lastIndexOf('.');
+        if (dash < 0 || dot <= dash + 1) return Long.MAX_VALUE;
+        try {
+            return Long.parseLong(fileName.substring(dash + 1, dot));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /** Arquivo temporário no workspace do job da thread atual ou, sem workspace, no diretório temporário do sistema. */
+    public static Path createTempFile(String prefix, String suffix) throws IOException {
+        Optional<Workspace> ws = Workspace.atual();
+        return ws.isPresent() ? ws.get().arquivo(prefix, suffix) : Files.createTempFile(prefix, suffix);
+    }
+
+    /** Arquivo temporário no mesmo workspace de {@code vizinho}; para threads auxiliares, que não têm vínculo. */
+    public static Path createTempFile(Path vizinho, String prefix, String suffix) throws IOException {
+        Optional<Workspace> ws = Workspace.de(vizinho);
+        return ws.isPresent() ? ws.get().arquivo(prefix, suffix) : createTempFile(prefix, suffix);
+    }
+
+    public static Path createTempDirectory(String prefix) throws IOException {
+        Optional<Workspace> ws = Workspace.atual();
+        return ws.isPresent() ? ws.get().diretorio(prefix) : Files.createTempDirectory(prefix);
+    }
+
+    /** Copia {@code in} para {@code destino}, contando cada bloco na quota do workspace dono do arquivo. */
+    public static long copy(InputStream in, Path destino) throws IOException {
+        Optional<Workspace> ws = Workspace.de(destino);
+        long total = 0;
+        byte[] buf = new byte[1 << 20];
+        try (OutputStream out = Files.newOutputStream(destino)) {
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                if (ws.isPresent()) ws.get().reservar(n);
+                out.write(buf, 0, n);
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    /** Conta um arquivo já escrito na quota do workspace dono dele, se houver. */
+    public static void contabilizar(Path arquivo) throws IOException {
+        Optional<Workspace> ws = Workspace.de(arquivo);
+        if (ws.isPresent()) ws.get().reservar(Files.size(arquivo));
+    }
+
+    /** Como {@link Files#delete(Path)}, devolvendo o espaço à quota do workspace. */
+    public static void delete(Path p) throws IOException {
+        long tamanho = Files.size(p);
+        Files.delete(p);
+        Workspace.de(p).ifPresent(ws -> ws.liberar(tamanho));
+    }
+
     public static void deleteQuietly(Path p) {
         if (p == null) return;
         try {
-            Files.deleteIfExists(p);
+            long tamanho = Files.isRegularFile(p) ? Files.size(p) : 0;
+            if (Files.deleteIfExists(p)) Workspace.de(p).ifPresent(ws -> ws.liberar(tamanho));
         } catch (IOException e) {
             log.warn("Failed to delete path {}", p, e);
         }
@@ -29,13 +95,15 @@ public final class StorageFileUtil {
 
     public static void deleteRecursively(Path root) {
         if (root == null || !Files.exists(root)) return;
+        Optional<Workspace> ws = Workspace.de(root);
         try {
             Files.walkFileTree(root, new SimpleFileVisitor<>() {
                 @Override
                 @SuppressWarnings("NullableProblems")
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
                     try {
-                        Files.deleteIfExists(file);
+                        if (Files.deleteIfExists(file) && ws.isPresent())
+                            ws.get().liberar(attrs.size());
                     } catch (IOException e) {
                         log.warn("Failed to delete file {}", file, e);
                     }
@@ -57,29 +125,4 @@ public final class StorageFileUtil {
             log.warn("Error walking tree for {}", root, e);
         }
     }
-
-    public static Path zipDirectory(Path dir) throws IOException {
-        Path zip = Files.createTempFile("frames-", ".zip");
-        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zip));
-                Stream<Path> paths = Files.walk(dir)) {
-
-            paths.filter(Files::isRegularFile).forEach(file -> {
-                try (InputStream in = Files.newInputStream(file)) {
-                    zos.putNextEntry(new ZipEntry(file.getFileName().toString()));
-                    in.transferTo(zos);
-                    zos.closeEntry();
-                } catch (IOException e) {
-                    log.warn("Error zipping file {} from dir {}", file, dir, e);
-                    throw new UncheckedIOException(e);
-                }
-            });
-        } catch (UncheckedIOException e) {
-            log.warn("Zip operation failed for dir {}", dir, e.getCause());
-            throw e.getCause();
-        } catch (IOException e) {
-            log.warn("Zip operation failed for dir {}", dir, e);
-            throw e;
-        }
-        return zip;
-    }
 }
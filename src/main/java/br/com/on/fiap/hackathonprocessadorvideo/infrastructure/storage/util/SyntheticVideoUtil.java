@@ -0,0 +1,41 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
+
+/** Gera vídeos MP4 pequenos (MPEG-4 Part 2, sempre presente no FFmpeg) com um gradiente animado. */
+public final class SyntheticVideoUtil {
+
+    private SyntheticVideoUtil() {}
+
+    public static Path write(Path target, int width, int height, int frames, double fps) throws IOException {
+        try (FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(target.toString(), width, height);
+                Frame frame = new Frame(width, height, Frame.DEPTH_UBYTE, 3)) {
+            recorder.setFormat("mp4");
+            recorder.setVideoCodec(avcodec.AV_CODEC_ID_MPEG4);
+            recorder.setFrameRate(fps);
+            recorder.setGopSize((int) Math.max(1, Math.round(fps)));
+            recorder.start();
+
+            ByteBuffer buf = (ByteBuffer) frame.image[0];
+            for (int i = 0; i < frames; i++) {
+                for (int y = 0; y < height; y++) {
+                    int row = y * frame.imageStride;
+                    for (int x = 0; x < width; x++) {
+                        int p = row + x * 3;
+                        buf.put(p, (byte) (x * 255 / width));
+                        buf.put(p + 1, (byte) (y * 255 / height));
+                        buf.put(p + 2, (byte) (i * 255 / Math.max(1, frames - 1)));
+                    }
+                }
+                recorder.record(frame);
+            }
+            recorder.stop();
+        }
+        return target;
+    }
+}
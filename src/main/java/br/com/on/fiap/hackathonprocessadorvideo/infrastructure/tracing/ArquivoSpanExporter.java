@@ -0,0 +1,132 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Grava cada span terminado como uma linha JSON num arquivo local, em modo append: dá para seguir um job inteiro sem
+ * coletor, e os testes leem o arquivo direto. Com limite, o arquivo que passa dele vira {@code <arquivo>.1} (trocando
+ * o anterior) e a gravação recomeça num novo — o disco fica em no máximo duas vezes o limite.
+ */
+@Slf4j
+public class ArquivoSpanExporter implements SpanExporter {
+
+    private final Path arquivo;
+    private final Path rotacionado;
+    private final ObjectMapper objectMapper;
+    private final long limiteBytes;
+    private OutputStream out;
+    private long tamanho;
+    private boolean fechado;
+
+    /** Sem limite de tamanho. */
+    public ArquivoSpanExporter(Path arquivo, ObjectMapper objectMapper) throws IOException {
+        this(arquivo, objectMapper, 0);
+    }
+
+    /** @param limiteBytes tamanho a partir do qual o arquivo é rotacionado; {@code 0} sem limite */
+    public ArquivoSpanExporter(Path arquivo, ObjectMapper objectMapper, long limiteBytes) throws IOException {
+        this.arquivo = arquivo;
+        this.rotacionado = arquivo.resolveSibling(arquivo.getFileName() + ".1");
+        this.objectMapper = objectMapper;
+        this.limiteBytes = Math.max(0, limiteBytes);
+        Path pasta = arquivo.toAbsolutePath().getParent();
+        if (pasta != null) Files.createDirectories(pasta);
+        abrir();
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        if (fechado) return CompletableResultCode.ofFailure();
+        try {
+            for (SpanData span : spans) {
+                byte[] json = objectMapper.writeValueAsBytes(linha(span));
+                out.write(json);
+                out.write('\n');
+                tamanho += json.length + 1;
+            }
+            out.flush();
+            if (limiteBytes > 0 && tamanho >= limiteBytes) rotacionar();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Falha ao gravar {} spans em {}: {}", spans.size(), arquivo, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode flush() {
+        if (fechado) return CompletableResultCode.ofSuccess();
+        try {
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (fechado) return CompletableResultCode.ofSuccess();
+        fechado = true;
+        try {
+            out.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private void abrir() throws IOException {
+        out = new BufferedOutputStream(
+                Files.newOutputStream(arquivo, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        tamanho = Files.size(arquivo);
+    }
+
+    private void rotacionar() throws IOException {
+        out.close();
+        Files.move(arquivo, rotacionado, StandardCopyOption.REPLACE_EXISTING);
+        log.info("Spans rotacionados para {} ({} bytes)", rotacionado, tamanho);
+        abrir();
+    }
+
+    static Map<String, Object> linha(SpanData span) {
+        Map<String, Object> linha = new LinkedHashMap<>();
+        linha.put("traceId", span.getTraceId());
+        linha.put("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) linha.put("parentSpanId", span.getParentSpanId());
+        linha.put("nome", span.getName());
+        linha.put("tipo", span.getKind().name());
+        linha.put("inicioNanos", span.getStartEpochNanos());
+        linha.put("duracaoMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+        linha.put("status", span.getStatus().getStatusCode().name());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            linha.put("descricao", span.getStatus().getDescription());
+        }
+        Map<String, Object> atributos = new LinkedHashMap<>();
+        span.getAttributes().forEach((chave, valor) -> atributos.put(chave.getKey(), valor));
+        if (!atributos.isEmpty()) linha.put("atributos", atributos);
+        if (!span.getEvents().isEmpty()) {
+            List<String> eventos = new ArrayList<>(span.getEvents().size());
+            for (EventData evento : span.getEvents()) eventos.add(evento.getName());
+            linha.put("eventos", eventos);
+        }
+        return linha;
+    }
+}
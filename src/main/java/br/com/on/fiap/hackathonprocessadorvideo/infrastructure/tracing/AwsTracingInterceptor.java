@@ -0,0 +1,62 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import software.amazon.awssdk.core.client.builder.SdkClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+/**
+ * Um span CLIENT por chamada ao SDK da AWS ({@code S3.GetObject}, {@code Sns.Publish}...), filho do span corrente na
+ * thread que fez a chamada. Chamadas fora de um job (o long polling do SQS, por exemplo) não abrem span.
+ */
+public final class AwsTracingInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Span> SPAN = new ExecutionAttribute<>("processador.tracing.span");
+
+    /** Acrescenta o interceptor ao builder, preservando o que já estiver em {@code overrideConfiguration}. */
+    public static <B extends SdkClientBuilder<?, ?>> B instrumentar(B builder) {
+        ClientOverrideConfiguration atual = builder.overrideConfiguration();
+        ClientOverrideConfiguration.Builder config =
+                atual != null ? atual.toBuilder() : ClientOverrideConfiguration.builder();
+        builder.overrideConfiguration(
+                config.addExecutionInterceptor(new AwsTracingInterceptor()).build());
+        return builder;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        io.opentelemetry.context.Context pai = io.opentelemetry.context.Context.current();
+        if (!Span.fromContext(pai).getSpanContext().isValid()) return;
+        String servico = attributes.getAttribute(SdkExecutionAttribute.SERVICE_NAME);
+        String operacao = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        Span span = Tracing.tracer()
+                .spanBuilder(servico + "." + operacao)
+                .setParent(pai)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("rpc.system", "aws-api")
+                .setAttribute("rpc.service", servico)
+                .setAttribute("rpc.method", operacao)
+                .startSpan();
+        attributes.putAttribute(SPAN, span);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        Span span = attributes.getAttribute(SPAN);
+        if (span == null) return;
+        span.setAttribute("http.response.status_code", context.httpResponse().statusCode());
+        Tracing.encerrar(span, null);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        Span span = attributes.getAttribute(SPAN);
+        if (span == null) return;
+        Tracing.encerrar(span, context.exception());
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Acesso estático ao tracing para quem não é bean (ou é construído à mão nos testes). Até o {@link TracingConfig}
+ * instalar o SDK, tudo é no-op: spans não são gravados e nada é propagado.
+ */
+public final class Tracing {
+
+    static final String INSTRUMENTACAO = "hackathon-processador-video";
+
+    private static final TextMapGetter<Map<String, ?>> HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Map<String, ?> carrier) {
+            return carrier.keySet();
+        }
+
+        @Override
+        public String get(Map<String, ?> carrier, String key) {
+            if (carrier == null) return null;
+            Object valor = carrier.get(key);
+            return valor == null ? null : valor.toString();
+        }
+    };
+
+    private static volatile OpenTelemetry openTelemetry = OpenTelemetry.noop();
+    private static volatile Tracer tracer = openTelemetry.getTracer(INSTRUMENTACAO);
+
+    private Tracing() {}
+
+    /** Troca a implementação usada por todo o processo; {@link OpenTelemetry#noop()} desliga. */
+    public static void instalar(OpenTelemetry otel) {
+        openTelemetry = otel;
+        tracer = otel.getTracer(INSTRUMENTACAO);
+    }
+
+    public static Tracer tracer() {
+        return tracer;
+    }
+
+    /** Contexto remoto vindo dos atributos da mensagem ({@code traceparent}); sem eles, a raiz. */
+    public static Context extrair(Map<String, ?> atributos) {
+        return openTelemetry.getPropagators().getTextMapPropagator().extract(Context.root(), atributos, HEADERS);
+    }
+
+    /** Escreve o contexto em {@code destino} como atributos de mensagem, para o consumidor seguinte continuar o trace. */
+    public static void injetar(Context contexto, BiConsumer<String, String> destino) {
+        openTelemetry
+                .getPropagators()
+                .getTextMapPropagator()
+                .inject(contexto, destino, (d, chave, valor) -> d.accept(chave, valor));
+    }
+
+    /**
+     * Span de uma etapa assíncrona, filho de {@code pai}: fica corrente enquanto {@code etapa} monta o future (as
+     * chamadas ao SDK feitas ali viram filhas dele) e termina quando o future completa. {@code etapa} recebe o contexto
+     * do span para levá-lo às threads em que continuar.
+     */
+    public static <T> CompletableFuture<T> etapa(
+            Context pai, String nome, Function<Context, CompletableFuture<T>> etapa) {
+        Span span = tracer.spanBuilder(nome).setParent(pai).startSpan();
+        Context contexto = pai.with(span);
+        CompletableFuture<T> future;
+        try (Scope ignored = contexto.makeCurrent()) {
+            future = etapa.apply(contexto);
+        } catch (RuntimeException e) {
+            encerrar(span, e);
+            throw e;
+        }
+        return future.whenComplete((r, e) -> encerrar(span, e));
+    }
+
+    /** Span de uma etapa síncrona, filho do contexto corrente. */
+    public static <T> T etapa(String nome, Callable<T> etapa) throws Exception {
+        Span span = tracer.spanBuilder(nome).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            T resultado = etapa.call();
+            encerrar(span, null);
+            return resultado;
+        } catch (Exception e) {
+            encerrar(span, e);
+            throw e;
+        }
+    }
+
+    /** Span de consumo de uma mensagem, continuando o trace de quem a publicou. */
+    public static Span consumir(Context pai, String nome) {
+        return tracer.spanBuilder(nome)
+                .setParent(pai)
+                .setSpanKind(SpanKind.CONSUMER)
+                .startSpan();
+    }
+
+    /** Termina {@code span}, marcando erro quando {@code erro} não é nulo. */
+    public static void encerrar(Span span, Throwable erro) {
+        if (erro instanceof CompletionException && erro.getCause() != null) {
+            erro = erro.getCause();
+        }
+        if (erro != null) {
+            span.recordException(erro);
+            span.setStatus(StatusCode.ERROR, String.valueOf(erro.getMessage()));
+        }
+        span.end();
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.awspring.cloud.autoconfigure.AwsSyncClientCustomizer;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import java.io.IOException;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.core.client.builder.SdkClientBuilder;
+
+/**
+ * Tracing do job ({@code processador.tracing.*}): o listener continua o trace recebido nos atributos da mensagem, cada
+ * etapa e cada chamada à AWS viram spans filhos, e o contexto segue nos atributos da notificação SNS. Os spans vão em
+ * lote para {@code arquivo}, uma linha JSON por span; o {@link OpenTelemetry} em si é montado pelo Spring Boot a partir
+ * destes beans.
+ */
+@Slf4j
+@Configuration
+public class TracingConfig {
+
+    /**
+     * @param amostragem fração dos traces iniciados aqui que são gravados; traces recebidos seguem a decisão de quem
+     *     publicou a mensagem
+     * @param maxMb tamanho do arquivo de spans antes de rotacionar; {@code 0} sem limite
+     */
+    @Bean
+    @ConditionalOnProperty(name = "processador.tracing.enabled", havingValue = "true", matchIfMissing = true)
+    public SdkTracerProvider sdkTracerProvider(
+            Resource openTelemetryResource,
+            ObjectMapper objectMapper,
+            @Value("${processador.tracing.arquivo:${java.io.tmpdir}/processador-traces.jsonl}") String arquivo,
+            @Value("${processador.tracing.amostragem:0.1}") double amostragem,
+            @Value("${processador.tracing.max-mb:64}") long maxMb)
+            throws IOException {
+        Path destino = Path.of(arquivo);
+        log.info(
+                "Tracing ligado: spans em {} (amostragem {}, rotação em {} MB)",
+                destino.toAbsolutePath(),
+                amostragem,
+                maxMb);
+        ArquivoSpanExporter exporter = new ArquivoSpanExporter(destino, objectMapper, maxMb * 1024 * 1024);
+        return SdkTracerProvider.builder()
+                .setResource(openTelemetryResource)
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(amostragem)))
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter).build())
+                .build();
+    }
+
+    @Bean
+    public ContextPropagators contextPropagators() {
+        return ContextPropagators.create(W3CTraceContextPropagator.getInstance());
+    }
+
+    /** Clientes síncronos criados pelo Spring Cloud AWS (S3, DynamoDB); os assíncronos são instrumentados onde nascem. */
+    @Bean
+    public AwsSyncClientCustomizer awsSyncTracing() {
+        return builder -> {
+            if (builder instanceof SdkClientBuilder<?, ?> sdk) AwsTracingInterceptor.instrumentar(sdk);
+        };
+    }
+
+    /** Publica o SDK para o {@link Tracing} antes de o listener começar a consumir. */
+    @Bean
+    public SmartInitializingSingleton instalarTracing(OpenTelemetry openTelemetry) {
+        return () -> Tracing.instalar(openTelemetry);
+    }
+}
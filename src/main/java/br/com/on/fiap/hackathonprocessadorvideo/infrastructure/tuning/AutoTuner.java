@@ -0,0 +1,252 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tuning;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Divide os núcleos do nó entre jobs concorrentes e paralelismo dentro do job ({@code processador.tuning.*}). A cada
+ * {@code periodo-s} compara os frames/s do nó com o período anterior e ajusta as vagas do {@link AdmissionControl} por
+ * subida de encosta (um passo por vez, revertendo se a vazão cair); o perfil dos jobs recentes, pelo custo estimado no
+ * início da extração, escolhe o ponto de partida: muitos jobs de uma thread para vídeos curtos, poucos jobs largos para
+ * vídeos longos ou 4K. Do número de jobs saem as threads do decoder FFmpeg e a largura do pool de encoders de cada job.
+ * Cada decisão é logada e exportada em {@code processador.tuning.*}.
+ */
+@Slf4j
+@Component
+public class AutoTuner {
+
+    static final String FRAMES_METRIC = "processador.extracao.frames";
+    static final String JOBS_METRIC = "processador.tuning.jobs";
+    static final String THREADS_METRIC = "processador.tuning.threads-decoder";
+    static final String ENCODERS_METRIC = "processador.tuning.largura-encoder";
+    static final String FPS_METRIC = "processador.tuning.fps";
+    static final String DECISOES_METRIC = "processador.tuning.decisoes";
+
+    /** Perfil da carga recente. */
+    public enum Perfil {
+        LEVE,
+        PESADO
+    }
+
+    /** O que foi aplicado num período, e por quê. */
+    public record Decisao(int jobs, int threadsDecoder, int larguraEncoder, double fps, Perfil perfil, String motivo) {}
+
+    private final AdmissionControl admission;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int nucleos;
+    private final long periodoS;
+    private final double limiarPesadoMp;
+    private final double tolerancia;
+    private final int janelaJobs;
+    private final Counter frames;
+    private final Deque<Boolean> pesadosRecentes = new ArrayDeque<>();
+
+    private volatile int threadsDecoder;
+    private volatile int larguraEncoder = 1;
+    private volatile double fps;
+    private Perfil perfilAtual;
+    private int passo = 1;
+    private boolean mudouJobs;
+    private int espera;
+    private double fpsAnterior;
+    private double contagemAnterior;
+    private long amostraAnterior;
+    private ScheduledExecutorService agenda;
+
+    @Autowired
+    public AutoTuner(
+            AdmissionControl admission,
+            MeterRegistry meterRegistry,
+            @Value("${processador.tuning.enabled:false}") boolean enabled,
+            @Value("${processador.tuning.nucleos:0}") int nucleos,
+            @Value("${processador.tuning.periodo-s:30}") long periodoS,
+            @Value("${processador.tuning.limiar-pesado-mp:5000}") double limiarPesadoMp,
+            @Value("${processador.tuning.tolerancia:0.05}") double tolerancia,
+            @Value("${processador.tuning.janela-jobs:20}") int janelaJobs) {
+        this.admission = admission;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled && admission != null;
+        this.nucleos = nucleos > 0 ? nucleos : Runtime.getRuntime().availableProcessors();
+        this.periodoS = periodoS;
+        this.limiarPesadoMp = limiarPesadoMp;
+        this.tolerancia = tolerancia;
+        this.janelaJobs = janelaJobs;
+        this.frames = Counter.builder(FRAMES_METRIC)
+                .description("Frames escritos pelas extrações")
+                .register(meterRegistry);
+        this.amostraAnterior = System.nanoTime();
+        if (this.enabled) {
+            Gauge.builder(JOBS_METRIC, admission, AdmissionControl::maxJobs)
+                    .description("Extrações concorrentes permitidas")
+                    .register(meterRegistry);
+            Gauge.builder(THREADS_METRIC, this, t -> t.threadsDecoder)
+                    .description("Threads do decoder FFmpeg por job")
+                    .register(meterRegistry);
+            Gauge.builder(ENCODERS_METRIC, this, t -> t.larguraEncoder)
+                    .description("Encoders paralelos por job pesado")
+                    .register(meterRegistry);
+            Gauge.builder(FPS_METRIC, this, t -> t.fps)
+                    .description("Frames por segundo do nó no último período")
+                    .register(meterRegistry);
+        }
+    }
+
+    /** Sem ajuste: o decoder escolhe as próprias threads e cada job codifica numa thread só. */
+    public static AutoTuner desligado() {
+        return new AutoTuner(null, new SimpleMeterRegistry(), false, 0, 30, 5000, 0.05, 20);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!enabled) return;
+        agenda = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "auto-tuning");
+            t.setDaemon(true);
+            return t;
+        });
+        agenda.scheduleAtFixedRate(this::avaliarAgora, periodoS, periodoS, TimeUnit.SECONDS);
+        log.info(
+                "Auto-tuning ligado: {} núcleos, até {} jobs, período de {} s",
+                nucleos,
+                admission.limiteJobs(),
+                periodoS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (agenda != null) agenda.shutdownNow();
+    }
+
+    /** Threads para o decoder de um job novo; {@code 0} deixa o FFmpeg decidir. */
+    public int threadsDecoder() {
+        return enabled ? threadsDecoder : 0;
+    }
+
+    /**
+     * Encoders paralelos para um job com esse custo: jobs leves codificam na thread do decode, que já é o que rende
+     * mais quando há muitos deles rodando juntos.
+     */
+    public int larguraEncoder(double custoMp) {
+        if (!enabled || (custoMp >= 0 && custoMp < limiarPesadoMp)) return 1;
+        return larguraEncoder;
+    }
+
+    /**
+     * Registra o custo estimado de um job que começou: megapixels a decodificar (pixels por frame × frames de origem
+     * no recorte); negativo quando o vídeo não informa a duração.
+     */
+    public void registrarJob(double custoMp) {
+        if (!enabled || custoMp < 0) return;
+        synchronized (pesadosRecentes) {
+            pesadosRecentes.addLast(custoMp >= limiarPesadoMp);
+            while (pesadosRecentes.size() > janelaJobs) pesadosRecentes.removeFirst();
+        }
+    }
+
+    public void frameEscrito() {
+        frames.increment();
+    }
+
+    private void avaliarAgora() {
+        try {
+            avaliar(System.nanoTime());
+        } catch (RuntimeException e) {
+            log.warn("Auto-tuning falhou neste período: {}", e.toString());
+        }
+    }
+
+    /** Um passo do controlador; {@code null} quando não houve carga para medir. */
+    synchronized Decisao avaliar(long agoraNanos) {
+        double contagem = frames.count();
+        double segundos = (agoraNanos - amostraAnterior) / 1e9;
+        if (segundos <= 0) return null;
+        fps = (contagem - contagemAnterior) / segundos;
+        contagemAnterior = contagem;
+        amostraAnterior = agoraNanos;
+
+        Perfil perfil = perfil();
+        int jobs = admission.maxJobs();
+        boolean ocupado = admission.vagasLivres() <= 0;
+        if (perfil == null || (fps == 0 && !ocupado)) return null;
+
+        int alvo = jobs;
+        String motivo;
+        if (perfil != perfilAtual) {
+            alvo = perfil == Perfil.LEVE ? nucleos : Math.max(1, nucleos / 4);
+            passo = perfil == Perfil.LEVE ? 1 : -1;
+            espera = 0;
+            motivo = "perfil";
+        } else if (mudouJobs && fps < fpsAnterior * (1 - tolerancia)) {
+            passo = -passo;
+            alvo = jobs + passo;
+            espera = 3;
+            motivo = "reverte";
+        } else if (espera > 0) {
+            espera--;
+            motivo = "estavel";
+        } else if (ocupado && (!mudouJobs || fps > fpsAnterior * (1 + tolerancia))) {
+            // só explora com todas as vagas em uso: com vagas sobrando, mais vagas não mudam a vazão
+            alvo = jobs + passo;
+            motivo = "explora";
+        } else {
+            motivo = "estavel";
+        }
+
+        int aplicado = admission.ajustarMaxJobs(alvo);
+        mudouJobs = aplicado != jobs;
+        perfilAtual = perfil;
+        fpsAnterior = fps;
+
+        int orcamento = Math.max(1, nucleos / aplicado);
+        int decoder = perfil == Perfil.LEVE ? 1 : Math.max(1, (orcamento + 2) / 3);
+        int encoder = Math.max(1, orcamento - decoder);
+        boolean mudouLarguras = decoder != threadsDecoder || encoder != larguraEncoder;
+        threadsDecoder = decoder;
+        larguraEncoder = encoder;
+
+        Decisao decisao = new Decisao(aplicado, decoder, encoder, fps, perfil, motivo);
+        Counter.builder(DECISOES_METRIC)
+                .description("Decisões do auto-tuning por motivo")
+                .tag("motivo", motivo)
+                .register(meterRegistry)
+                .increment();
+        if (mudouJobs || mudouLarguras) {
+            log.info(
+                    "Auto-tuning ({}): jobs {} -> {}, decoder {} threads, {} encoders; perfil {}, {} frames/s",
+                    motivo,
+                    jobs,
+                    aplicado,
+                    decoder,
+                    encoder,
+                    perfil,
+                    Math.round(fps * 10) / 10.0);
+        } else {
+            log.debug(
+                    "Auto-tuning ({}): sem mudança em {} jobs, {} frames/s", motivo, jobs, Math.round(fps * 10) / 10.0);
+        }
+        return decisao;
+    }
+
+    private Perfil perfil() {
+        synchronized (pesadosRecentes) {
+            if (pesadosRecentes.isEmpty()) return null;
+            long pesados = pesadosRecentes.stream().filter(p -> p).count();
+            return pesados * 2 >= pesadosRecentes.size() ? Perfil.PESADO : Perfil.LEVE;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.warmup;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.EncoderEngine;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.NativeLibraries;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.SyntheticVideoUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pré-carrega os nativos do FFmpeg (e do OpenCV, se for o engine configurado) e roda um ciclo
+ * sintético de decode/encode durante o refresh do contexto. Como roda antes do start dos
+ * listeners SQS e do evento de readiness, o worker só passa a consumir mensagens — e só
+ * reporta {@code ACCEPTING_TRAFFIC} — depois que o primeiro job deixou de ser "frio".
+ */
+@Slf4j
+@Component
+public class NativeWarmup implements SmartInitializingSingleton {
+
+    static final String METRIC = "processador.warmup.duration";
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+    private static final double FPS = 10;
+
+    private final FrameExtractor extractor;
+    private final FrameEncoderFactory encoderFactory;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int iterations;
+    private final int frames;
+    private final boolean failOnError;
+
+    public NativeWarmup(
+            @Qualifier("mp4Extractor") FrameExtractor extractor,
+            FrameEncoderFactory encoderFactory,
+            MeterRegistry meterRegistry,
+            @Value("${processador.warmup.enabled:true}") boolean enabled,
+            @Value("${processador.warmup.iteracoes:3}") int iterations,
+            @Value("${processador.warmup.frames:20}") int frames,
+            @Value("${processador.warmup.falhar-inicializacao:false}") boolean failOnError,
+            @Value("${processador.natives.cache-dir:}") String cacheDir) {
+        this.extractor = extractor;
+        this.encoderFactory = encoderFactory;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.frames = frames;
+        this.failOnError = failOnError;
+        NativeLibraries.configureCacheDir(cacheDir);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            log.info("Warm-up nativo desabilitado");
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "success";
+        try {
+            preloadNatives();
+            runSyntheticCycle();
+        } catch (Exception | LinkageError e) {
+            result = "failure";
+            if (failOnError) throw new IllegalStateException("Warm-up nativo falhou", e);
+            log.warn("Warm-up nativo falhou; o primeiro job pagará a carga a frio. Causa={}", e.toString(), e);
+        } finally {
+            long nanos = sample.stop(Timer.builder(METRIC).tag("result", result).register(meterRegistry));
+            log.info("Warm-up nativo concluído em {} ms ({})", nanos / 1_000_000, result);
+        }
+    }
+
+    private void preloadNatives() throws ClassNotFoundException {
+        NativeLibraries.ensureFfmpegLoaded();
+        if (encoderFactory.getEngine() == EncoderEngine.OPENCV) {
+            NativeLibraries.ensureOpenCvLoaded();
+        }
+    }
+
+    private void runSyntheticCycle() throws Exception {
+        Path video = Files.createTempFile("warmup-", ".mp4");
+        try {
+            SyntheticVideoUtil.write(video, WIDTH, HEIGHT, frames, FPS);
+            for (int i = 0; i < iterations; i++) {
+                Path framesDir = extractor.extract(video);
+                StorageFileUtil.deleteRecursively(framesDir);
+            }
+        } finally {
+            StorageFileUtil.deleteQuietly(video);
+        }
+    }
+}
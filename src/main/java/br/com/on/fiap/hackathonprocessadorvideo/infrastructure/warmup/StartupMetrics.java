@@ -0,0 +1,49 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mede o tempo entre o início do processo e a primeira mensagem recebida — o número que
+ * importa para escalar do zero. Usa o instante de criação do processo (que, num restore
+ * CRaC, é o instante do restore) e cai para o início da JVM se o SO não o informar.
+ * Os tempos de {@code started}/{@code ready} do contexto já são exportados pelo Actuator
+ * ({@code application.started.time}, {@code application.ready.time}).
+ */
+@Slf4j
+@Component
+public class StartupMetrics {
+
+    static final String FIRST_MESSAGE_METRIC = "processador.startup.first-message";
+
+    private final AtomicLong firstMessageMillis = new AtomicLong(-1);
+
+    public StartupMetrics(MeterRegistry meterRegistry) {
+        TimeGauge.builder(FIRST_MESSAGE_METRIC, firstMessageMillis, TimeUnit.MILLISECONDS, AtomicLong::doubleValue)
+                .description("Tempo do início do processo até a primeira mensagem SQS (-1 enquanto não houver)")
+                .register(meterRegistry);
+    }
+
+    public void mensagemRecebida() {
+        if (firstMessageMillis.get() >= 0) return;
+        long elapsed = Duration.between(processStart(), Instant.now()).toMillis();
+        if (firstMessageMillis.compareAndSet(-1, elapsed)) {
+            log.info("Primeira mensagem recebida {} ms após o início do processo", elapsed);
+        }
+    }
+
+    private static Instant processStart() {
+        return ProcessHandle.current()
+                .info()
+                .startInstant()
+                .orElseGet(() -> Instant.ofEpochMilli(
+                        ManagementFactory.getRuntimeMXBean().getStartTime()));
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.web;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Reserva a vaga HTTP do upload ({@code POST /extracoes} multipart) antes de o servlet ler o corpo. O multipart é
+ * lido inteiro para o disco antes do controller rodar, então sem vaga cada upload recusado já tinha custado o envio e
+ * o arquivo temporário; aqui ele é recusado com 503 e Retry-After sem que o corpo seja lido. A vaga segue como atributo
+ * da requisição até o {@link ExtracaoController} {@link #tomar(HttpServletRequest) tomá-la}; se ele não chegar a tomar
+ * (multipart inválido ou grande demais, opções recusadas), ela volta ao sair do filtro.
+ */
+@Slf4j
+@Component
+public class AdmissaoUploadFilter extends OncePerRequestFilter {
+
+    static final String PERMISSAO = AdmissaoUploadFilter.class.getName() + ".permissao";
+
+    private final AdmissionControl admissionControl;
+    private final long retryAfterSegundos;
+
+    public AdmissaoUploadFilter(
+            AdmissionControl admissionControl, @Value("${processador.http.retry-after-s:30}") long retryAfterSegundos) {
+        this.admissionControl = admissionControl;
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    /** A vaga reservada para a requisição, que passa a ser de quem a tomou. */
+    static Optional<AdmissionControl.Permissao> tomar(HttpServletRequest request) {
+        Object permissao = request.getAttribute(PERMISSAO);
+        request.removeAttribute(PERMISSAO);
+        return Optional.ofNullable((AdmissionControl.Permissao) permissao);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String tipo = request.getContentType();
+        return !"POST".equals(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + "/extracoes")
+                || tipo == null
+                || !tipo.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Optional<AdmissionControl.Permissao> vaga;
+        try {
+            vaga = admissionControl.entrarHttp();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            vaga = Optional.empty();
+        }
+        if (vaga.isEmpty()) {
+            log.warn("Upload recusado antes de ler o corpo: sem vaga (livres={})", admissionControl.vagasLivres());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos));
+            return;
+        }
+        request.setAttribute(PERMISSAO, vaga.get());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            tomar(request).ifPresent(AdmissionControl.Permissao::close);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.web;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationRegistry;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Cancelamento de jobs por HTTP, equivalente à mensagem de controle {@code {"caminhoVideo": ..., "cancelar": true}}.
+ * Vale para este worker: responde 202 com quantos jobs em andamento foram parados; com zero, o pedido fica guardado
+ * para o job que chegar em seguida (ver {@link CancellationRegistry}).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/jobs")
+public class CancelamentoController {
+
+    private final CancellationRegistry cancelamentos;
+
+    public CancelamentoController(CancellationRegistry cancelamentos) {
+        this.cancelamentos = cancelamentos;
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> cancelar(@RequestParam String caminhoVideo) {
+        if (caminhoVideo.isBlank()) throw new IllegalArgumentException("caminhoVideo é obrigatório");
+        int parados = cancelamentos.cancelar(caminhoVideo);
+        log.info("Cancelamento de {} pedido por HTTP: {} job(s) parado(s)", caminhoVideo, parados);
+        return ResponseEntity.accepted().body(Map.of("caminhoVideo", caminhoVideo, "jobsParados", parados));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    ResponseEntity<Map<String, String>> pedidoInvalido(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+    }
+}
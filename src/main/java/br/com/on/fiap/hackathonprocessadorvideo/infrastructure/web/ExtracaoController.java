@@ -0,0 +1,272 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.web;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationRegistry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.ContainerFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.VideoRejeitadoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.stream.StreamingExtraction;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.Workspace;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.WorkspaceManager;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Extração síncrona: recebe um vídeo (upload ou chave no bucket) e devolve o zip dos frames na própria resposta, sem
+ * Content-Length — o corpo sai em chunks enquanto os frames são extraídos. Disputa as vagas de extração com a fila
+ * via {@link AdmissionControl}; sem vaga, responde 503 com Retry-After em vez de esperar — no upload, antes de ler o
+ * corpo (ver {@link AdmissaoUploadFilter}). Como os jobs da fila, cada extração tem prazo
+ * ({@code processador.cancelamento.prazo-padrao-ms}) e pode ser cancelada pelo nome do vídeo.
+ *
+ * <p>A extração por chave lê o bucket com as credenciais do worker, então só aceita chaves do próprio chamador: ele se
+ * identifica em {@value #USUARIO} (preenchido pelo gateway autenticado) e a chave tem de estar sob
+ * {@code processador.http.prefixo-entrada} + id + {@code /}, como as que a fila recebe.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/extracoes")
+public class ExtracaoController {
+
+    static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+    static final String USUARIO = "X-Id-Usuario";
+
+    private final StreamingExtraction extraction;
+    private final AdmissionControl admissionControl;
+    private final WorkspaceManager workspaceManager;
+    private final CancellationRegistry cancelamentos;
+    private final long retryAfterSegundos;
+    private final String prefixoEntrada;
+
+    public ExtracaoController(
+            StreamingExtraction extraction,
+            AdmissionControl admissionControl,
+            WorkspaceManager workspaceManager,
+            CancellationRegistry cancelamentos,
+            @Value("${processador.http.retry-after-s:30}") long retryAfterSegundos,
+            @Value("${processador.http.prefixo-entrada:entrada/}") String prefixoEntrada) {
+        this.extraction = extraction;
+        this.admissionControl = admissionControl;
+        this.workspaceManager = workspaceManager;
+        this.cancelamentos = cancelamentos;
+        this.retryAfterSegundos = retryAfterSegundos;
+        this.prefixoEntrada = prefixoEntrada;
+    }
+
+    /** Corpo de {@code POST /extracoes/s3}. */
+    public record ExtracaoS3(String caminhoVideo, OpcoesProcessamento opcoes) {}
+
+    @PostMapping(value = "/s3", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> extrairDoS3(
+            @RequestHeader(value = USUARIO, required = false) String idUsuario,
+            @RequestBody ExtracaoS3 pedido,
+            HttpServletRequest request)
+            throws IOException, InterruptedException {
+        if (pedido.caminhoVideo() == null || pedido.caminhoVideo().isBlank()) {
+            throw new IllegalArgumentException("caminhoVideo é obrigatório");
+        }
+        String key = pedido.caminhoVideo();
+        if (idUsuario == null || idUsuario.isBlank()) {
+            log.warn("Extração síncrona de {} recusada: sem {}", key, USUARIO);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!doUsuario(key, idUsuario)) {
+            log.warn("Extração síncrona de {} recusada: fora da entrada do usuário {}", key, idUsuario);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        OpcoesProcessamento opcoes = OpcoesProcessamento.ouPadrao(pedido.opcoes());
+
+        Optional<AdmissionControl.Permissao> vaga = admissionControl.entrarHttp();
+        if (vaga.isEmpty()) return semVaga();
+        AdmissionControl.Permissao permissao = vaga.get();
+        try {
+            extraction.validar(key, opcoes);
+        } catch (IOException | RuntimeException e) {
+            permissao.close();
+            throw e;
+        }
+
+        log.info("Extração síncrona de s3://{}", key);
+        Reserva reserva = Reserva.registrar(request, permissao);
+        StreamingResponseBody corpo = out -> {
+            if (!reserva.assumir()) return;
+            try (permissao;
+                    Workspace workspace = workspaceManager.abrir("http-s3");
+                    Workspace.Vinculo vinculo = workspace.vincular();
+                    CancellationToken token = cancelamentos.abrir(key, null);
+                    CancellationToken.Vinculo cancelamento = token.vincular()) {
+                extraction.extrairDoS3(key, opcoes, out);
+            }
+        };
+        return zip(nomeArquivo(key), corpo);
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> extrairUpload(
+            @RequestPart("video") MultipartFile video,
+            @RequestPart(value = "opcoes", required = false) OpcoesProcessamento opcoesInformadas,
+            HttpServletRequest request)
+            throws IOException, InterruptedException {
+        OpcoesProcessamento opcoes = OpcoesProcessamento.ouPadrao(opcoesInformadas);
+        extraction.validar(null, opcoes);
+
+        // a vaga já vem do AdmissaoUploadFilter, reservada antes da leitura do multipart
+        Optional<AdmissionControl.Permissao> vaga = AdmissaoUploadFilter.tomar(request);
+        if (vaga.isEmpty()) vaga = admissionControl.entrarHttp();
+        if (vaga.isEmpty()) return semVaga();
+        AdmissionControl.Permissao permissao = vaga.get();
+
+        // o upload é temporário da requisição: copia antes de sair da thread do servlet
+        Workspace workspace = null;
+        Path arquivo;
+        try {
+            workspace = workspaceManager.abrir("http-upload");
+            arquivo = workspace.arquivo("video-", ContainerFormat.sufixoTemporario(video.getOriginalFilename()));
+            try (InputStream in = video.getInputStream()) {
+                StorageFileUtil.copy(in, arquivo);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (workspace != null) workspace.close();
+            permissao.close();
+            throw e;
+        }
+
+        log.info("Extração síncrona de upload {} ({} bytes)", video.getOriginalFilename(), video.getSize());
+        Workspace doJob = workspace;
+        String nome = video.getOriginalFilename();
+        Reserva reserva = Reserva.registrar(request, permissao, doJob);
+        StreamingResponseBody corpo = out -> {
+            if (!reserva.assumir()) return;
+            try (permissao;
+                    doJob;
+                    Workspace.Vinculo vinculo = doJob.vincular();
+                    CancellationToken token = cancelamentos.abrir(nome, null);
+                    CancellationToken.Vinculo cancelamento = token.vincular()) {
+                extraction.extrair(arquivo, opcoes, out);
+            }
+        };
+        return zip(nomeArquivo(nome), corpo);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    ResponseEntity<Map<String, String>> opcoesInvalidas(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("erro", e.getMessage()));
+    }
+
+    @ExceptionHandler(VideoRejeitadoException.class)
+    ResponseEntity<Map<String, String>> videoRejeitado(VideoRejeitadoException e) {
+        return ResponseEntity.unprocessableEntity().body(Map.of("erro", e.getMessage()));
+    }
+
+    /** A chave está na pasta de entrada do usuário, sem segmentos {@code .}/{@code ..} nem vazios. */
+    private boolean doUsuario(String key, String idUsuario) {
+        if (idUsuario.contains("/") || idUsuario.equals(".") || idUsuario.equals("..")) return false;
+        String pasta = prefixoEntrada + idUsuario + "/";
+        if (!key.startsWith(pasta) || key.length() == pasta.length()) return false;
+        for (String parte : key.substring(pasta.length()).split("/", -1)) {
+            if (parte.isEmpty() || parte.equals(".") || parte.equals("..")) return false;
+        }
+        return true;
+    }
+
+    private <T> ResponseEntity<T> semVaga() {
+        log.warn("Extração síncrona recusada: sem vaga (livres={})", admissionControl.vagasLivres());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos))
+                .build();
+    }
+
+    private static ResponseEntity<StreamingResponseBody> zip(String nome, StreamingResponseBody corpo) {
+        return ResponseEntity.ok()
+                .contentType(ZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + nome + "\"")
+                .body(corpo);
+    }
+
+    /**
+     * Vaga (e workspace) de uma extração até o corpo da resposta assumi-los. Se o processamento assíncrono acabar antes
+     * de o corpo rodar — timeout, erro, cliente que desconectou —, os callbacks do async os devolvem e o corpo não roda
+     * mais; depois de assumidos, quem fecha é o próprio corpo.
+     */
+    static final class Reserva implements CallableProcessingInterceptor {
+
+        private final AutoCloseable[] recursos;
+        private final AtomicBoolean tomada = new AtomicBoolean();
+
+        Reserva(AutoCloseable... recursos) {
+            this.recursos = recursos;
+        }
+
+        static Reserva registrar(HttpServletRequest request, AutoCloseable... recursos) {
+            Reserva reserva = new Reserva(recursos);
+            WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(reserva, reserva);
+            return reserva;
+        }
+
+        /** {@code false} se os recursos já foram devolvidos: o corpo não deve rodar. */
+        boolean assumir() {
+            return tomada.compareAndSet(false, true);
+        }
+
+        @Override
+        public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+            devolver("timeout");
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+            devolver("erro");
+            return RESULT_NONE;
+        }
+
+        @Override
+        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+            devolver("conclusão");
+        }
+
+        private void devolver(String motivo) {
+            if (!tomada.compareAndSet(false, true)) return;
+            log.warn("Extração síncrona terminou ({}) antes de começar; devolvendo a vaga", motivo);
+            for (AutoCloseable recurso : recursos) {
+                try {
+                    recurso.close();
+                } catch (Exception e) {
+                    log.warn("Falha ao devolver recurso da extração", e);
+                }
+            }
+        }
+    }
+
+    static String nomeArquivo(String origem) {
+        if (origem == null || origem.isBlank()) return "frames.zip";
+        String nome = origem.substring(origem.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+        int ponto = nome.lastIndexOf('.');
+        return (ponto > 0 ? nome.substring(0, ponto) : nome) + ".zip";
+    }
+}
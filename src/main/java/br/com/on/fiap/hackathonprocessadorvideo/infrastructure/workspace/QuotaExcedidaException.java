@@ -0,0 +1,12 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace;
+
+/**
+ * O job passou da quota de disco do seu workspace. Não é {@link java.io.IOException} de propósito: o mesmo vídeo com
+ * as mesmas opções estouraria de novo, então a mensagem é descartada em vez de reentregue.
+ */
+public class QuotaExcedidaException extends RuntimeException {
+
+    public QuotaExcedidaException(String message) {
+        super(message);
+    }
+}
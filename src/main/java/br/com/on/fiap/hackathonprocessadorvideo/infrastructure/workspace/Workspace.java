@@ -0,0 +1,109 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diretório de trabalho de um job, criado pelo {@link WorkspaceManager}. Enquanto vinculado à thread do job
+ * ({@link #vincular()}), os temporários criados por {@code StorageFileUtil} vão para cá; o uso de disco é contado nas
+ * escritas ({@link #reservar(long)}) e descontado nas remoções, e passar da quota interrompe o job. Fechar remove o
+ * diretório inteiro em segundo plano.
+ *
+ * <p>Threads auxiliares do job (ex.: upload de partes) não veem o vínculo; para elas o dono de um arquivo é achado pelo
+ * caminho ({@link #de(Path)}).
+ */
+public final class Workspace implements AutoCloseable {
+
+    private static final ThreadLocal<Workspace> ATUAL = new ThreadLocal<>();
+    private static final Map<Path, Workspace> ABERTOS = new ConcurrentHashMap<>();
+
+    private final Path dir;
+    private final long quotaBytes;
+    private final WorkspaceManager manager;
+    private final AtomicLong usado = new AtomicLong();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final AtomicBoolean fechado = new AtomicBoolean();
+
+    Workspace(Path dir, long quotaBytes, WorkspaceManager manager) {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.quotaBytes = quotaBytes;
+        this.manager = manager;
+        ABERTOS.put(this.dir, this);
+    }
+
+    /** Workspace vinculado à thread atual. */
+    public static Optional<Workspace> atual() {
+        return Optional.ofNullable(ATUAL.get());
+    }
+
+    /** Workspace aberto que contém {@code caminho}. */
+    public static Optional<Workspace> de(Path caminho) {
+        if (caminho == null || ABERTOS.isEmpty()) return Optional.empty();
+        Path p = caminho.toAbsolutePath().normalize();
+        for (Map.Entry<Path, Workspace> e : ABERTOS.entrySet()) {
+            if (p.startsWith(e.getKey())) return Optional.of(e.getValue());
+        }
+        return Optional.empty();
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    public long usado() {
+        return usado.get();
+    }
+
+    public Path arquivo(String prefixo, String sufixo) throws IOException {
+        return Files.createFile(dir.resolve(prefixo + sequencia.incrementAndGet() + sufixo));
+    }
+
+    public Path diretorio(String prefixo) throws IOException {
+        return Files.createDirectory(dir.resolve(prefixo + sequencia.incrementAndGet()));
+    }
+
+    /** Conta {@code bytes} a escrever; falha, sem contá-los, se a quota for ultrapassada. */
+    public void reservar(long bytes) {
+        long total = usado.addAndGet(bytes);
+        if (quotaBytes > 0 && total > quotaBytes) {
+            usado.addAndGet(-bytes);
+            manager.quotaExcedida();
+            throw new QuotaExcedidaException(
+                    "Workspace " + dir.getFileName() + " passou da quota: " + total + " de " + quotaBytes + " bytes");
+        }
+    }
+
+    public void liberar(long bytes) {
+        usado.addAndGet(-bytes);
+    }
+
+    /** Vincula o workspace à thread atual até o {@code close()} do vínculo, que restaura o anterior. */
+    public Vinculo vincular() {
+        Workspace anterior = ATUAL.get();
+        ATUAL.set(this);
+        return () -> {
+            if (anterior == null) ATUAL.remove();
+            else ATUAL.set(anterior);
+        };
+    }
+
+    @Override
+    public void close() {
+        if (!fechado.compareAndSet(false, true)) return;
+        ABERTOS.remove(dir);
+        manager.descartar(this);
+    }
+
+    /** {@link AutoCloseable} sem exceção checada, para uso em try-with-resources. */
+    @FunctionalInterface
+    public interface Vinculo extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Workspaces dos jobs ({@code processador.workspace.*}). Cada processo usa {@code <raiz>/inst-<pid>-<início>}, com um
+ * diretório por job; a raiz pode ficar num tmpfs ({@code /dev/shm/...}) para tirar o disco do caminho dos frames.
+ * Workspaces fechados são renomeados para {@code <raiz>/lixo} e apagados numa thread própria, fora da thread do
+ * listener. Na inicialização, diretórios de processos que já não existem (JVM que caiu) são varridos.
+ */
+@Slf4j
+@Component
+public class WorkspaceManager {
+
+    static final String USADO_METRIC = "processador.workspace.usado";
+    static final String ATIVOS_METRIC = "processador.workspace.ativos";
+    static final String LIVRE_METRIC = "processador.workspace.livre";
+    static final String ORFAOS_METRIC = "processador.workspace.orfaos";
+    static final String QUOTA_METRIC = "processador.workspace.quota-excedida";
+
+    private static final String PREFIXO_INSTANCIA = "inst-";
+
+    private final Path raiz;
+    private final Path instancia;
+    private final Path lixo;
+    private final long quotaBytes;
+    private final Set<Workspace> abertos = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final ExecutorService limpeza = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "workspace-limpeza");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Counter orfaos;
+    private final Counter quotaExcedida;
+
+    public WorkspaceManager(
+            MeterRegistry meterRegistry,
+            @Value("${processador.workspace.raiz:}") String raiz,
+            @Value("${processador.workspace.quota-mb:0}") long quotaMb)
+            throws IOException {
+        this.raiz = (raiz == null || raiz.isBlank()
+                        ? Path.of(System.getProperty("java.io.tmpdir"), "processador-video")
+                        : Path.of(raiz))
+                .toAbsolutePath()
+                .normalize();
+        this.instancia = this.raiz.resolve(nomeInstancia(ProcessHandle.current()));
+        this.lixo = this.raiz.resolve("lixo");
+        this.quotaBytes = quotaMb * 1024 * 1024;
+        Files.createDirectories(instancia);
+        Files.createDirectories(lixo);
+
+        Gauge.builder(USADO_METRIC, abertos, s -> s.stream()
+                        .mapToLong(Workspace::usado)
+                        .sum())
+                .description("Bytes em uso nos workspaces abertos")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(ATIVOS_METRIC, abertos, Set::size)
+                .description("Workspaces abertos")
+                .register(meterRegistry);
+        Gauge.builder(LIVRE_METRIC, this, WorkspaceManager::espacoLivre)
+                .description("Espaço livre no volume da raiz dos workspaces")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.orfaos = Counter.builder(ORFAOS_METRIC)
+                .description("Diretórios de processos mortos removidos")
+                .register(meterRegistry);
+        this.quotaExcedida = Counter.builder(QUOTA_METRIC)
+                .description("Jobs interrompidos por passar da quota do workspace")
+                .register(meterRegistry);
+
+        log.info(
+                "Workspaces em {} ({}), quota por job: {}",
+                instancia,
+                tipoVolume(),
+                quotaBytes > 0 ? quotaMb + " MB" : "sem limite");
+        limpeza.execute(this::varrerOrfaos);
+    }
+
+    /** Novo workspace para um job; {@code rotulo} entra no nome do diretório, para diagnóstico. */
+    public Workspace abrir(String rotulo) throws IOException {
+        String nome = "job-" + sequencia.incrementAndGet() + "-" + sanitizar(rotulo);
+        Workspace ws = new Workspace(Files.createDirectory(instancia.resolve(nome)), quotaBytes, this);
+        abertos.add(ws);
+        return ws;
+    }
+
+    void descartar(Workspace ws) {
+        abertos.remove(ws);
+        Path alvo = moverParaLixo(ws.dir());
+        limpeza.execute(() -> StorageFileUtil.deleteRecursively(alvo));
+    }
+
+    void quotaExcedida() {
+        quotaExcedida.increment();
+    }
+
+    Path instancia() {
+        return instancia;
+    }
+
+    /** Remove o lixo de execuções anteriores e as instâncias cujo processo não existe mais. */
+    void varrerOrfaos() {
+        try (DirectoryStream<Path> lixoAntigo = Files.newDirectoryStream(lixo)) {
+            for (Path p : lixoAntigo) StorageFileUtil.deleteRecursively(p);
+        } catch (IOException e) {
+            log.warn("Falha ao limpar {}", lixo, e);
+        }
+        try (DirectoryStream<Path> instancias = Files.newDirectoryStream(raiz, PREFIXO_INSTANCIA + "*")) {
+            for (Path p : instancias) {
+                if (p.equals(instancia) || vivo(p.getFileName().toString())) continue;
+                log.info("Removendo workspace órfão {}", p);
+                StorageFileUtil.deleteRecursively(moverParaLixo(p));
+                orfaos.increment();
+            }
+        } catch (IOException e) {
+            log.warn("Falha ao varrer workspaces órfãos em {}", raiz, e);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        limpeza.shutdown();
+        if (!limpeza.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Limpeza de workspaces não terminou; o restante será varrido na próxima inicialização");
+        }
+    }
+
+    private Path moverParaLixo(Path dir) {
+        Path alvo = lixo.resolve(dir.getFileName() + "-" + UUID.randomUUID());
+        try {
+            return Files.move(dir, alvo, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            return dir;
+        } catch (IOException e) {
+            log.warn("Falha ao mover {} para o lixo; apagando no lugar", dir, e);
+            return dir;
+        }
+    }
+
+    /** {@code inst-<pid>-<início em ms>}: o pid sozinho se repete entre contêineres. */
+    static String nomeInstancia(ProcessHandle processo) {
+        long inicio = processo.info().startInstant().map(Instant::toEpochMilli).orElse(0L);
+        return PREFIXO_INSTANCIA + processo.pid() + "-" + inicio;
+    }
+
+    private static boolean vivo(String nomeInstancia) {
+        String[] partes = nomeInstancia.split("-");
+        if (partes.length != 3) return false;
+        try {
+            Optional<ProcessHandle> processo = ProcessHandle.of(Long.parseLong(partes[1]));
+            return processo.isPresent() && nomeInstancia(processo.get()).equals(nomeInstancia);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private long espacoLivre() {
+        try {
+            return Files.getFileStore(raiz).getUsableSpace();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private String tipoVolume() {
+        try {
+            FileStore store = Files.getFileStore(raiz);
+            return store.type();
+        } catch (IOException e) {
+            return "?";
+        }
+    }
+
+    private static String sanitizar(String rotulo) {
+        if (rotulo == null || rotulo.isBlank()) return "sem-rotulo";
+        String s = rotulo.replaceAll("[^A-Za-z0-9._-]", "_");
+        return s.length() > 40 ? s.substring(s.length() - 40) : s;
+    }
+}
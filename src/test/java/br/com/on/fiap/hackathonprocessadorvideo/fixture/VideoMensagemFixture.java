@@ -1,5 +1,8 @@
 package br.com.on.fiap.hackathonprocessadorvideo.fixture;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.LoteVideos;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SegmentoVideo;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
 import java.time.LocalDateTime;
 
@@ -26,6 +29,11 @@ public final class VideoMensagemFixture {
         private String caminhoVideo;
         private LocalDateTime dataCriacao;
         private String email;
+        private OpcoesProcessamento opcoes;
+        private SegmentoVideo segmento;
+        private LoteVideos lote;
+        private Long prazoMs;
+        private boolean cancelar;
 
         public Builder idUsuario(String v) {
             this.idUsuario = v;
@@ -52,8 +60,34 @@ public final class VideoMensagemFixture {
             return this;
         }
 
+        public Builder opcoes(OpcoesProcessamento v) {
+            this.opcoes = v;
+            return this;
+        }
+
+        public Builder segmento(SegmentoVideo v) {
+            this.segmento = v;
+            return this;
+        }
+
+        public Builder lote(LoteVideos v) {
+            this.lote = v;
+            return this;
+        }
+
+        public Builder prazoMs(Long v) {
+            this.prazoMs = v;
+            return this;
+        }
+
+        public Builder cancelar(boolean v) {
+            this.cancelar = v;
+            return this;
+        }
+
         public VideoMensagem build() {
-            return new VideoMensagem(idUsuario, nomeVideo, caminhoVideo, dataCriacao, email);
+            return new VideoMensagem(
+                    idUsuario, nomeVideo, caminhoVideo, dataCriacao, email, opcoes, segmento, lote, prazoMs, cancelar);
         }
     }
 }
@@ -0,0 +1,53 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("HTTP nunca ocupa todas as vagas: a fila sempre consegue entrar")
+    void givenHttpAtLimit_whenQueueEnters_thenQueueStillGetsSlot() throws Exception {
+        AdmissionControl control = new AdmissionControl(registry, 2, 5, 0);
+
+        Optional<AdmissionControl.Permissao> http = control.entrarHttp();
+        assertThat(http).isPresent();
+        assertThat(control.entrarHttp()).isEmpty();
+
+        try (AdmissionControl.Permissao fila = control.entrarFila()) {
+            assertThat(control.vagasLivres()).isZero();
+            assertThat(registry.get(AdmissionControl.EM_USO_METRIC).gauge().value())
+                    .isEqualTo(2.0);
+        }
+        http.get().close();
+        assertThat(control.vagasLivres()).isEqualTo(2);
+        assertThat(registry.get(AdmissionControl.RECUSADAS_METRIC).counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("HTTP é recusado quando a fila já ocupa todas as vagas; fechar duas vezes libera uma só")
+    void givenQueueUsingAllSlots_whenHttpEnters_thenRejected() throws Exception {
+        AdmissionControl control = new AdmissionControl(registry, 2, 1, 0);
+
+        AdmissionControl.Permissao a = control.entrarFila();
+        AdmissionControl.Permissao b = control.entrarFila();
+        assertThat(control.entrarHttp()).isEmpty();
+
+        a.close();
+        a.close();
+        assertThat(control.vagasLivres()).isEqualTo(1);
+
+        Optional<AdmissionControl.Permissao> http = control.entrarHttp();
+        assertThat(http).isPresent();
+        http.get().close();
+        b.close();
+        assertThat(control.vagasLivres()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CancellationRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CancellationRegistry registry = new CancellationRegistry(meterRegistry, 0, 60);
+
+    @AfterEach
+    void cleanup() {
+        registry.encerrar();
+    }
+
+    private double parados(CancellationToken.Motivo motivo) {
+        return meterRegistry
+                .get(CancellationRegistry.PARADOS_METRIC)
+                .tag("motivo", motivo.name())
+                .counter()
+                .count();
+    }
+
+    @Test
+    @DisplayName("Prazo: o timer cancela a transferência em voo e verificar() passa a falhar")
+    void givenDeadline_whenExpires_thenCancelsInFlightFutureAndVerifyFails() throws Exception {
+        CancellationToken token = registry.abrir("entrada/22/video.mp4", 50L);
+        CompletableFuture<Void> transferencia = token.acompanhar(new CompletableFuture<>());
+        CountDownLatch gancho = new CountDownLatch(1);
+        token.aoCancelar(gancho::countDown);
+
+        assertThat(gancho.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(transferencia).isCancelled();
+        assertThatThrownBy(token::verificar)
+                .isInstanceOf(JobCanceladoException.class)
+                .extracting(e -> ((JobCanceladoException) e).motivo())
+                .isEqualTo(CancellationToken.Motivo.PRAZO_ESGOTADO);
+        assertThat(parados(CancellationToken.Motivo.PRAZO_ESGOTADO)).isEqualTo(1.0);
+        token.close();
+    }
+
+    @Test
+    @DisplayName("Cancelamento: para só os jobs do vídeo, uma vez, e o que já terminou não é desfeito")
+    void givenRunningJobs_whenCancel_thenStopsOnlyMatchingJob() {
+        CancellationToken alvo = registry.abrir("entrada/22/a.mp4", null);
+        CancellationToken outro = registry.abrir("entrada/22/b.mp4", null);
+        CompletableFuture<String> concluida = alvo.acompanhar(new CompletableFuture<>());
+        concluida.complete("ok");
+        CompletableFuture<String> emVoo = alvo.acompanhar(new CompletableFuture<>());
+
+        assertThat(registry.cancelar("entrada/22/a.mp4")).isEqualTo(1);
+        assertThat(registry.cancelar("entrada/22/a.mp4")).isZero();
+
+        assertThat(emVoo).isCancelled();
+        assertThat(concluida).isCompletedWithValue("ok");
+        assertThat(alvo.motivo()).isEqualTo(CancellationToken.Motivo.CANCELADO);
+        assertThat(outro.motivo()).isNull();
+        assertThat(parados(CancellationToken.Motivo.CANCELADO)).isEqualTo(1.0);
+        alvo.close();
+        outro.close();
+    }
+
+    @Test
+    @DisplayName("Pedido sem job em andamento fica guardado: o próximo job do vídeo nasce cancelado, uma vez só")
+    void givenCancelBeforeJob_whenJobStarts_thenBornCancelled() {
+        assertThat(registry.cancelar("entrada/22/video.mp4")).isZero();
+
+        try (CancellationToken token = registry.abrir("entrada/22/video.mp4", null)) {
+            assertThatThrownBy(token::verificar).isInstanceOf(JobCanceladoException.class);
+        }
+        try (CancellationToken token = registry.abrir("entrada/22/video.mp4", null)) {
+            token.verificar();
+        }
+    }
+
+    @Test
+    @DisplayName("Vínculo: atual() devolve o token do job na thread e volta a NENHUM ao sair")
+    void givenBoundToken_whenLeaving_thenRestoresPrevious() {
+        try (CancellationToken token = registry.abrir("entrada/22/video.mp4", null)) {
+            try (CancellationToken.Vinculo vinculo = token.vincular()) {
+                assertThat(CancellationToken.atual()).isSameAs(token);
+            }
+        }
+        assertThat(CancellationToken.atual()).isSameAs(CancellationToken.NENHUM);
+        assertThat(CancellationToken.NENHUM.cancelar(CancellationToken.Motivo.CANCELADO))
+                .isFalse();
+    }
+}
@@ -3,6 +3,7 @@ package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.config;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing.AwsTracingInterceptor;
 import java.net.URI;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,30 +12,34 @@ import org.mockito.MockedStatic;
 import org.springframework.test.util.ReflectionTestUtils;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.SnsClientBuilder;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClientBuilder;
 
-@DisplayName("AwsSnsConfig - configuração do bean SnsClient")
+@DisplayName("AwsSnsConfig - configuração do bean SnsAsyncClient")
 class AwsSnsConfigTest {
 
     @Test
-    @DisplayName("Dado properties válidas quando snsClient então builder é configurado corretamente")
-    void givenProperties_whenSnsClient_thenBuilderConfiguredProperly() {
+    @DisplayName(
+            "Dado properties válidas quando snsAsyncClient então builder usa o HTTP compartilhado, com tracing, e é configurado corretamente")
+    void givenProperties_whenSnsAsyncClient_thenBuilderConfiguredProperly() {
         AwsSnsConfig config = new AwsSnsConfig();
         ReflectionTestUtils.setField(config, "region", "us-east-1");
         ReflectionTestUtils.setField(config, "accessKey", "test-ak");
         ReflectionTestUtils.setField(config, "secretKey", "test-sk");
         ReflectionTestUtils.setField(config, "endpoint", "http://localhost:4566");
 
-        SnsClientBuilder builder = mock(SnsClientBuilder.class, RETURNS_SELF);
-        SnsClient clientMock = mock(SnsClient.class);
+        SnsAsyncClientBuilder builder = mock(SnsAsyncClientBuilder.class, RETURNS_SELF);
+        SdkAsyncHttpClient httpMock = mock(SdkAsyncHttpClient.class);
+        SnsAsyncClient clientMock = mock(SnsAsyncClient.class);
 
-        try (MockedStatic<SnsClient> snsStatic = mockStatic(SnsClient.class);
+        try (MockedStatic<SnsAsyncClient> snsStatic = mockStatic(SnsAsyncClient.class);
                 MockedStatic<AwsBasicCredentials> credsStatic = mockStatic(AwsBasicCredentials.class);
                 MockedStatic<StaticCredentialsProvider> providerStatic = mockStatic(StaticCredentialsProvider.class)) {
 
-            snsStatic.when(SnsClient::builder).thenReturn(builder);
+            snsStatic.when(SnsAsyncClient::builder).thenReturn(builder);
             when(builder.build()).thenReturn(clientMock);
 
             AwsBasicCredentials credsMock = mock(AwsBasicCredentials.class);
@@ -47,7 +52,7 @@ class AwsSnsConfigTest {
                     .when(() -> StaticCredentialsProvider.create(credsMock))
                     .thenReturn(providerMock);
 
-            SnsClient result = config.snsClient();
+            SnsAsyncClient result = config.snsAsyncClient(httpMock);
 
             assertThat(result).isSameAs(clientMock);
 
@@ -64,6 +69,14 @@ class AwsSnsConfigTest {
             verify(builder).endpointOverride(uriCaptor.capture());
             assertThat(uriCaptor.getValue()).hasToString("http://localhost:4566");
 
+            verify(builder).httpClient(httpMock);
+
+            ArgumentCaptor<ClientOverrideConfiguration> overrideCaptor =
+                    ArgumentCaptor.forClass(ClientOverrideConfiguration.class);
+            verify(builder).overrideConfiguration();
+            verify(builder).overrideConfiguration(overrideCaptor.capture());
+            assertThat(overrideCaptor.getValue().executionInterceptors())
+                    .hasExactlyElementsOfTypes(AwsTracingInterceptor.class);
             verify(builder).build();
             verifyNoMoreInteractions(builder);
         }
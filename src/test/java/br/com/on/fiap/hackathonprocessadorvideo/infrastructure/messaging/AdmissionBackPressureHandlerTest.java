@@ -0,0 +1,66 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdmissionBackPressureHandlerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdmissionBackPressureHandler handler(AdmissionControl admission, int bufferPorVaga) {
+        return new AdmissionBackPressureHandler(
+                admission, new ListenerBuffer(admission, registry, bufferPorVaga, 10, 30), 10);
+    }
+
+    @Test
+    @DisplayName("Dado buffer cheio quando pedir lote então o poll não traz mais nada até uma mensagem terminar")
+    void givenFullCapacity_whenRequestBatch_thenNoPermitsUntilRelease() throws Exception {
+        // uma vaga e uma mensagem de buffer: no máximo duas em voo
+        AdmissionBackPressureHandler handler = handler(new AdmissionControl(registry, 1, 0, 0), 1);
+
+        assertThat(handler.requestBatch()).isEqualTo(2);
+        assertThat(handler.requestBatch()).isZero();
+
+        CompletableFuture<Integer> proximo = CompletableFuture.supplyAsync(() -> {
+            try {
+                return handler.requestBatch();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        handler.release(1);
+
+        assertThat(proximo.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(handler.emVoo()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Dado HTTP ocupando vaga quando pedir lote então o poll traz uma mensagem a menos")
+    void givenHttpInUse_whenRequestBatch_thenCapacityShrinks() throws Exception {
+        AdmissionControl admission = new AdmissionControl(registry, 2, 1, 0);
+        AdmissionBackPressureHandler handler = handler(admission, 1);
+        assertThat(handler.capacidade()).isEqualTo(4);
+
+        try (AdmissionControl.Permissao http = admission.entrarHttp().orElseThrow()) {
+            assertThat(handler.requestBatch()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Dado mensagens em voo quando drenar então espera até elas terminarem")
+    void givenInFlight_whenDrain_thenWaitsForRelease() throws Exception {
+        AdmissionBackPressureHandler handler = handler(new AdmissionControl(registry, 1, 0, 0), 0);
+        assertThat(handler.requestBatch()).isEqualTo(1);
+
+        assertThat(handler.drain(Duration.ofMillis(50))).isFalse();
+        handler.release(1);
+        assertThat(handler.drain(Duration.ofMillis(50))).isTrue();
+    }
+}
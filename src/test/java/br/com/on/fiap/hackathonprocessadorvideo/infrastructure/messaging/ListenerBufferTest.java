@@ -0,0 +1,131 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import io.awspring.cloud.sqs.listener.Visibility;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ListenerBufferTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // uma vaga, sem HTTP; o buffer segura uma mensagem por vaga
+    private final AdmissionControl admission = new AdmissionControl(registry, 1, 0, 0);
+    private final ListenerBuffer buffer = new ListenerBuffer(admission, registry, 1, 10, 30);
+    private AdmissionControl.Permissao ocupada;
+
+    @AfterEach
+    void liberar() {
+        if (ocupada != null) ocupada.close();
+    }
+
+    private static Visibility visibility() {
+        Visibility visibility = mock(Visibility.class);
+        when(visibility.changeToAsync(anyInt())).thenReturn(CompletableFuture.completedFuture(null));
+        return visibility;
+    }
+
+    private CompletableFuture<Optional<AdmissionControl.Permissao>> aguardar(String id, Visibility visibility) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return buffer.aguardarVaga(id, visibility);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private void esperarNoBuffer(int n) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (buffer.esperando() < n && System.nanoTime() < limite) Thread.sleep(10);
+        assertThat(buffer.esperando()).isEqualTo(n);
+    }
+
+    @Test
+    @DisplayName("Sobrecarga: além da capacidade, a mensagem volta à fila com atraso; a do buffer pega a vaga liberada")
+    void givenFullBuffer_whenAguardarVaga_thenReleaseVisibilityWithDelay() throws Exception {
+        ocupada = buffer.aguardarVaga("m0", null).orElseThrow();
+        Visibility naFila = visibility();
+        CompletableFuture<Optional<AdmissionControl.Permissao>> esperando = aguardar("m1", naFila);
+        esperarNoBuffer(1);
+
+        Visibility excedente = visibility();
+        assertThat(buffer.aguardarVaga("m2", excedente)).isEmpty();
+        verify(excedente).changeToAsync(10);
+
+        ocupada.close();
+        ocupada = esperando.get(5, TimeUnit.SECONDS).orElseThrow();
+        verifyNoInteractions(naFila);
+        assertThat(registry.get(ListenerBuffer.DEVOLVIDAS_METRIC)
+                        .tag("motivo", "sobrecarga")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Espera longa: a mensagem no buffer tem a visibilidade renovada até pegar a vaga")
+    void givenLongWait_whenAguardarVaga_thenRenewsVisibility() throws Exception {
+        ListenerBuffer renovando = new ListenerBuffer(admission, registry, 1, 10, 1);
+        ocupada = renovando.aguardarVaga("m0", null).orElseThrow();
+        Visibility visibility = visibility();
+        CompletableFuture<Optional<AdmissionControl.Permissao>> esperando = CompletableFuture.supplyAsync(() -> {
+            try {
+                return renovando.aguardarVaga("m1", visibility);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        verify(visibility, timeout(3000).atLeast(2)).changeToAsync(1);
+        ocupada.close();
+        ocupada = esperando.get(5, TimeUnit.SECONDS).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Dado job em andamento quando passa do timeout da fila então renova a visibilidade até ele terminar")
+    void givenRunningJob_whenManterInvisivel_thenRenewsUntilJobCompletes() throws Exception {
+        ListenerBuffer renovando = new ListenerBuffer(admission, registry, 1, 10, 1);
+        Visibility visibility = visibility();
+        CompletableFuture<Void> job = new CompletableFuture<>();
+
+        renovando.manterInvisivel("m1", visibility, job);
+
+        verify(visibility, timeout(3000).atLeast(2)).changeToAsync(1);
+        job.complete(null);
+        Thread.sleep(100);
+        clearInvocations(visibility);
+        Thread.sleep(1200);
+        verifyNoInteractions(visibility);
+        renovando.encerrar();
+    }
+
+    @Test
+    @DisplayName("Desligamento: mensagens que não começaram voltam à fila com visibilidade zero")
+    void givenBufferedMessage_whenDesligar_thenReleaseVisibilityImmediately() throws Exception {
+        ocupada = buffer.aguardarVaga("m0", null).orElseThrow();
+        Visibility visibility = visibility();
+        CompletableFuture<Optional<AdmissionControl.Permissao>> esperando = aguardar("m1", visibility);
+        esperarNoBuffer(1);
+
+        buffer.desligar();
+
+        assertThat(esperando.get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(visibility, timeout(1000)).changeToAsync(0);
+        assertThat(buffer.esperando()).isZero();
+        assertThat(buffer.aguardarVaga("m2", visibility())).isEmpty();
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.NotificacaoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.fixture.VideoMensagemFixture;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ProgressNotifierTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    @Mock
+    private VideoSendMessageServiceAdapter sender;
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    @DisplayName("Limita a frequência e calcula a previsão de conclusão")
+    void givenFrames_whenIntervalElapses_thenOneNotificationWithEta() {
+        ProgressNotifier notifier = new ProgressNotifier(sender, "arn", Duration.ofSeconds(10), clock);
+        ProgressNotifier.Progresso progresso = notifier.iniciar(VideoMensagemFixture.sample());
+        progresso.estimativa(100);
+
+        clock.avancar(Duration.ofSeconds(5));
+        progresso.frames(10);
+        verifyNoInteractions(sender);
+
+        clock.avancar(Duration.ofSeconds(5));
+        progresso.frames(25);
+        clock.avancar(Duration.ofSeconds(1));
+        progresso.frames(26);
+
+        ArgumentCaptor<NotificacaoVideo> notif = ArgumentCaptor.forClass(NotificacaoVideo.class);
+        verify(sender).enviar(notif.capture(), eq("arn"));
+        NotificacaoVideo n = notif.getValue();
+        assertThat(n.situacao()).isEqualTo(ProgressNotifier.SITUACAO);
+        assertThat(n.progresso().framesProcessados()).isEqualTo(25);
+        assertThat(n.progresso().framesEstimados()).isEqualTo(100);
+        // 25 frames em 10 s -> faltam 75 frames = 30 s
+        assertThat(n.progresso().previsaoConclusao()).isEqualTo("2026-01-01T10:00:40Z");
+    }
+
+    @Test
+    @DisplayName("Primeira parte disponível é notificada na hora, as seguintes não")
+    void givenParts_whenParteDisponivel_thenOnlyFirstIsImmediate() {
+        ProgressNotifier notifier = new ProgressNotifier(sender, "arn", Duration.ofMinutes(1), clock);
+        ProgressNotifier.Progresso progresso = notifier.iniciar(VideoMensagemFixture.sample());
+
+        progresso.frames(5);
+        progresso.parteDisponivel("saida/v.parte-00000.zip");
+        progresso.parteDisponivel("saida/v.parte-00001.zip");
+
+        ArgumentCaptor<NotificacaoVideo> notif = ArgumentCaptor.forClass(NotificacaoVideo.class);
+        verify(sender, times(1)).enviar(notif.capture(), eq("arn"));
+        assertThat(notif.getValue().caminhoSaida()).isEqualTo("saida/v.parte-00000.zip");
+        assertThat(notif.getValue().progresso().framesEstimados()).isNull();
+    }
+
+    @Test
+    @DisplayName("Falha ao publicar o progresso não interrompe a extração")
+    void givenSenderFails_whenFrames_thenDoesNotPropagate() {
+        when(sender.enviar(any(), any())).thenThrow(new IllegalStateException("sns fora"));
+        ProgressNotifier notifier = new ProgressNotifier(sender, "arn", Duration.ofSeconds(1), clock);
+        ProgressNotifier.Progresso progresso = notifier.iniciar(VideoMensagemFixture.sample());
+
+        clock.avancar(Duration.ofSeconds(2));
+        assertThatCode(() -> progresso.frames(10)).doesNotThrowAnyException();
+        assertThatCode(() -> progresso.parteDisponivel("saida/v.parte-00000.zip"))
+                .doesNotThrowAnyException();
+        verify(sender, times(2)).enviar(any(), eq("arn"));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant agora = T0;
+
+        void avancar(Duration d) {
+            agora = agora.plus(d);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+}
@@ -3,14 +3,36 @@ package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ClipeProcessado;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.LoteVideos;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.NotificacaoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ResultadoLote;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SaidaVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SegmentoVideo;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.service.VideoProcessingPort;
 import br.com.on.fiap.hackathonprocessadorvideo.fixture.VideoMensagemFixture;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationRegistry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.JobCanceladoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment.MergeEmAndamentoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment.SegmentCoordinator;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.warmup.StartupMetrics;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.WorkspaceManager;
+import io.awspring.cloud.sqs.listener.Visibility;
 import io.awspring.cloud.sqs.listener.acknowledgement.Acknowledgement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,6 +40,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -30,17 +53,36 @@ class SqsListenerAdapterTest {
     @Mock
     private VideoSendMessageServiceAdapter videoSendMessageServiceAdapter;
 
+    @Mock
+    private StartupMetrics startupMetrics;
+
+    @Mock
+    private SegmentCoordinator segmentCoordinator;
+
+    @Mock
+    private ListenerBuffer buffer;
+
+    @Mock
+    private AdmissionControl.Permissao vaga;
+
+    @Mock
+    private WorkspaceManager workspaceManager;
+
     @Mock
     private Acknowledgement ack;
 
+    @Spy
+    private CancellationRegistry cancelamentos = new CancellationRegistry(new SimpleMeterRegistry(), 0, 60);
+
     @InjectMocks
     private SqsListenerAdapter listener;
 
     private final String topicArn = "arn:aws:sns:us-east-1:000000000000:processed-videos";
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws InterruptedException {
         ReflectionTestUtils.setField(listener, "topicArn", topicArn);
+        lenient().when(buffer.aguardarVaga(any(), any())).thenReturn(Optional.of(vaga));
     }
 
     @Test
@@ -54,15 +96,18 @@ class SqsListenerAdapterTest {
                 .build();
 
         String caminhoSaidaGerado = "saida/22/video_ok.zip";
-        when(videoProcessingPort.processarVideo(any(VideoMensagem.class))).thenReturn(caminhoSaidaGerado);
+        when(videoProcessingPort.processarVideo(any(VideoMensagem.class)))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new SaidaVideo(caminhoSaidaGerado, "saida/22/video_ok.preview.webp")));
 
         ArgumentCaptor<NotificacaoVideo> notifCaptor = ArgumentCaptor.forClass(NotificacaoVideo.class);
 
-        listener.listen(entrada, "msg-1", ack);
+        listener.listen(entrada, "msg-1", ack).join();
 
         verify(videoProcessingPort).processarVideo(entrada);
         verify(videoSendMessageServiceAdapter).enviar(notifCaptor.capture(), eq(topicArn));
         verify(ack).acknowledge();
+        verify(buffer).manterInvisivel(eq("msg-1"), any(), any());
         verifyNoMoreInteractions(videoProcessingPort, videoSendMessageServiceAdapter, ack);
 
         NotificacaoVideo notif = notifCaptor.getValue();
@@ -72,6 +117,34 @@ class SqsListenerAdapterTest {
         assertThat(notif.situacao()).isEqualTo("ARQUIVO_PROCESSADO");
         assertThat(notif.descricao()).isEqualTo("Video processado com successo.");
         assertThat(notif.email()).isEqualTo("user@example.com");
+        assertThat(notif.caminhoPreview()).isEqualTo("saida/22/video_ok.preview.webp");
+    }
+
+    @Test
+    @DisplayName("Lote: sem caminhoVideo, processa os clipes e publica uma única notificação com cada clipe")
+    void givenBatchMessage_whenListen_thenSingleNotificationWithClips() {
+        VideoMensagem entrada = VideoMensagemFixture.builder()
+                .caminhoVideo(null)
+                .lote(new LoteVideos(List.of("entrada/22/a.mp4", "entrada/22/b.mp4"), null))
+                .build();
+        List<ClipeProcessado> clipes = List.of(
+                ClipeProcessado.ok("entrada/22/a.mp4", "000-a/", 12),
+                ClipeProcessado.falha("entrada/22/b.mp4", "java.io.IOException: corrompido"));
+        when(videoProcessingPort.processarLote(entrada))
+                .thenReturn(CompletableFuture.completedFuture(new ResultadoLote("saida/22/a.lote.zip", clipes)));
+
+        ArgumentCaptor<NotificacaoVideo> notifCaptor = ArgumentCaptor.forClass(NotificacaoVideo.class);
+
+        listener.listen(entrada, "msg-lote", ack).join();
+
+        verify(videoProcessingPort, never()).processarVideo(any());
+        verify(videoSendMessageServiceAdapter).enviar(notifCaptor.capture(), eq(topicArn));
+        verify(ack).acknowledge();
+        NotificacaoVideo notif = notifCaptor.getValue();
+        assertThat(notif.situacao()).isEqualTo("LOTE_PROCESSADO");
+        assertThat(notif.caminhoSaida()).isEqualTo("saida/22/a.lote.zip");
+        assertThat(notif.descricao()).isEqualTo("1 de 2 clipes processados.");
+        assertThat(notif.clipes()).isEqualTo(clipes);
     }
 
     @Test
@@ -84,9 +157,10 @@ class SqsListenerAdapterTest {
                 .caminhoVideo("entrada/22/video_falha.mp4")
                 .build();
 
-        when(videoProcessingPort.processarVideo(any(VideoMensagem.class))).thenThrow(new IOException("S3 timeout"));
+        when(videoProcessingPort.processarVideo(any(VideoMensagem.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("S3 timeout")));
 
-        assertDoesNotThrow(() -> listener.listen(entrada, "msg-2", ack));
+        assertDoesNotThrow(() -> listener.listen(entrada, "msg-2", ack).join());
 
         verify(videoProcessingPort).processarVideo(entrada);
         verifyNoInteractions(videoSendMessageServiceAdapter);
@@ -105,9 +179,9 @@ class SqsListenerAdapterTest {
                 .build();
 
         when(videoProcessingPort.processarVideo(any(VideoMensagem.class)))
-                .thenThrow(new IllegalArgumentException("formato inválido"));
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("formato inválido")));
 
-        assertDoesNotThrow(() -> listener.listen(entrada, "msg-3", ack));
+        assertDoesNotThrow(() -> listener.listen(entrada, "msg-3", ack).join());
 
         verify(videoProcessingPort).processarVideo(entrada);
         verifyNoInteractions(videoSendMessageServiceAdapter);
@@ -115,6 +189,51 @@ class SqsListenerAdapterTest {
         verifyNoMoreInteractions(videoProcessingPort, ack);
     }
 
+    @Test
+    @DisplayName(
+            "Cancelamento: a mensagem de controle para o job em andamento, que notifica ARQUIVO_CANCELADO e dá ACK")
+    void givenRunningJob_whenCancelMessage_thenStopsNotifiesAndAcks() throws IOException {
+        VideoMensagem entrada = VideoMensagemFixture.builder()
+                .caminhoVideo("entrada/22/longo.mp4")
+                .build();
+        VideoMensagem controle = VideoMensagemFixture.builder()
+                .caminhoVideo("entrada/22/longo.mp4")
+                .cancelar(true)
+                .build();
+        // como o adapter: o que está em voo acompanha o token do job
+        when(videoProcessingPort.processarVideo(entrada))
+                .thenAnswer(inv -> CancellationToken.atual().acompanhar(new CompletableFuture<SaidaVideo>()));
+        Acknowledgement ackControle = mock(Acknowledgement.class);
+
+        CompletableFuture<Void> job = listener.listen(entrada, "msg-job", ack);
+        assertThat(job).isNotDone();
+        listener.listen(controle, "msg-cancelar", ackControle).join();
+        job.join();
+
+        ArgumentCaptor<NotificacaoVideo> notifCaptor = ArgumentCaptor.forClass(NotificacaoVideo.class);
+        verify(videoSendMessageServiceAdapter).enviar(notifCaptor.capture(), eq(topicArn));
+        assertThat(notifCaptor.getValue().situacao()).isEqualTo("ARQUIVO_CANCELADO");
+        assertThat(notifCaptor.getValue().caminhoSaida()).isNull();
+        verify(ack).acknowledge();
+        verify(ackControle).acknowledge();
+        verify(vaga).close();
+    }
+
+    @Test
+    @DisplayName("Prazo: job que passa do prazo da mensagem é parado e notifica PRAZO_ESGOTADO")
+    void givenDeadline_whenJobOverruns_thenNotifiesDeadlineAndAcks() throws IOException {
+        VideoMensagem entrada = VideoMensagemFixture.builder().prazoMs(50L).build();
+        when(videoProcessingPort.processarVideo(entrada))
+                .thenAnswer(inv -> CancellationToken.atual().acompanhar(new CompletableFuture<SaidaVideo>()));
+
+        listener.listen(entrada, "msg-prazo", ack).join();
+
+        ArgumentCaptor<NotificacaoVideo> notifCaptor = ArgumentCaptor.forClass(NotificacaoVideo.class);
+        verify(videoSendMessageServiceAdapter).enviar(notifCaptor.capture(), eq(topicArn));
+        assertThat(notifCaptor.getValue().situacao()).isEqualTo("PRAZO_ESGOTADO");
+        verify(ack).acknowledge();
+    }
+
     @Test
     @DisplayName("Payload inválido: ACK imediato e não processa")
     void givenInvalidPayload_whenListen_thenAckAndSkip() {
@@ -155,4 +274,116 @@ class SqsListenerAdapterTest {
         verify(ack).acknowledge();
         verifyNoInteractions(videoProcessingPort, videoSendMessageServiceAdapter);
     }
+
+    @Test
+    @DisplayName("Buffer cheio: mensagem devolvida à fila, sem processar nem dar ACK")
+    void givenFullBuffer_whenListen_thenReturnWithoutAck() throws Exception {
+        VideoMensagem entrada = VideoMensagemFixture.sample();
+        when(buffer.aguardarVaga(eq("msg-cheio"), any())).thenReturn(Optional.empty());
+
+        listener.listen(entrada, "msg-cheio", ack).join();
+
+        verifyNoInteractions(ack, videoProcessingPort, segmentCoordinator, workspaceManager);
+    }
+
+    @Test
+    @DisplayName("Vídeo longo: distribui em segmentos, dá ACK e não notifica")
+    void givenOversizedVideo_whenListen_thenDistributeAndAckWithoutNotification() throws IOException {
+        VideoMensagem entrada = VideoMensagemFixture.sample();
+        when(segmentCoordinator.distribuirSeNecessario(entrada, "msg-big")).thenReturn(true);
+
+        listener.listen(entrada, "msg-big", ack);
+
+        verify(ack).acknowledge();
+        verifyNoInteractions(videoProcessingPort, videoSendMessageServiceAdapter);
+    }
+
+    @Test
+    @DisplayName("Segmento: notifica só quando o merge final é concluído")
+    void givenSegmentMessages_whenListen_thenNotifyOnlyAfterMerge() throws IOException {
+        VideoMensagem intermediario = VideoMensagemFixture.builder()
+                .segmento(new SegmentoVideo("job-1", 0, 2))
+                .build();
+        VideoMensagem ultimo = VideoMensagemFixture.builder()
+                .segmento(new SegmentoVideo("job-1", 1, 2))
+                .build();
+        when(videoProcessingPort.processarSegmento(intermediario))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(videoProcessingPort.processarSegmento(ultimo))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of("saida/job.zip")));
+        when(videoSendMessageServiceAdapter.publicar(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        listener.listen(intermediario, "seg-0", ack);
+        verifyNoInteractions(videoSendMessageServiceAdapter);
+
+        listener.listen(ultimo, "seg-1", ack).join();
+
+        ArgumentCaptor<NotificacaoVideo> notifCaptor = ArgumentCaptor.forClass(NotificacaoVideo.class);
+        verify(videoSendMessageServiceAdapter).publicar(notifCaptor.capture(), eq(topicArn));
+        assertThat(notifCaptor.getValue().caminhoSaida()).isEqualTo("saida/job.zip");
+        verify(ack, times(2)).acknowledge();
+        verify(segmentCoordinator).concluir("job-1");
+        verify(segmentCoordinator, never()).distribuirSeNecessario(any(), any());
+        verify(videoProcessingPort, never()).processarVideo(any());
+    }
+
+    @Test
+    @DisplayName("Segmento: notificação final com falha mantém o estado do job e não dá ACK")
+    void givenFinalNotificationFails_whenListen_thenKeepJobStateAndNoAck() throws IOException {
+        VideoMensagem ultimo = VideoMensagemFixture.builder()
+                .segmento(new SegmentoVideo("job-1", 1, 2))
+                .build();
+        when(videoProcessingPort.processarSegmento(ultimo))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of("saida/job.zip")));
+        when(videoSendMessageServiceAdapter.publicar(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("sns fora")));
+
+        listener.listen(ultimo, "seg-1", ack).join();
+
+        verify(segmentCoordinator, never()).concluir(any());
+        verify(ack, never()).acknowledge();
+    }
+
+    @Test
+    @DisplayName("Dado merge com outro worker quando o último segmento chega então fica sem ACK e volta após o lease")
+    void givenMergeInProgressElsewhere_whenListen_thenNoAckAndDelayedRedelivery() throws IOException {
+        VideoMensagem ultimo = VideoMensagemFixture.builder()
+                .segmento(new SegmentoVideo("job-1", 1, 2))
+                .build();
+        when(videoProcessingPort.processarSegmento(ultimo))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new CompletionException(new MergeEmAndamentoException("job-1", Duration.ofSeconds(90)))));
+        Visibility visibility = mock(Visibility.class);
+        when(visibility.changeToAsync(anyInt())).thenReturn(CompletableFuture.completedFuture(null));
+
+        listener.listen(ultimo, "seg-1", Map.of(), ack, visibility).join();
+
+        verify(visibility).changeToAsync(91);
+        verify(ack, never()).acknowledge();
+        verifyNoInteractions(videoSendMessageServiceAdapter);
+    }
+
+    @Test
+    @DisplayName("Dado segmentos parados quando o job é cancelado então o job é abortado e notificado uma vez só")
+    void givenStoppedSegments_whenListen_thenJobAbortedAndNotifiedOnce() {
+        VideoMensagem primeiro = VideoMensagemFixture.builder()
+                .segmento(new SegmentoVideo("job-1", 0, 2))
+                .build();
+        VideoMensagem segundo = VideoMensagemFixture.builder()
+                .segmento(new SegmentoVideo("job-1", 1, 2))
+                .build();
+        CompletableFuture<Optional<String>> cancelado = CompletableFuture.failedFuture(
+                new JobCanceladoException("job-1", CancellationToken.Motivo.CANCELADO));
+        when(videoProcessingPort.processarSegmento(any())).thenReturn(cancelado);
+        when(segmentCoordinator.abortar("job-1")).thenReturn(true, false);
+
+        listener.listen(primeiro, "seg-0", ack).join();
+        listener.listen(segundo, "seg-1", ack).join();
+
+        ArgumentCaptor<NotificacaoVideo> notifCaptor = ArgumentCaptor.forClass(NotificacaoVideo.class);
+        verify(videoSendMessageServiceAdapter, times(1)).enviar(notifCaptor.capture(), eq(topicArn));
+        assertThat(notifCaptor.getValue().situacao()).isEqualTo("ARQUIVO_CANCELADO");
+        verify(segmentCoordinator, times(2)).abortar("job-1");
+        verify(ack, times(2)).acknowledge();
+    }
 }
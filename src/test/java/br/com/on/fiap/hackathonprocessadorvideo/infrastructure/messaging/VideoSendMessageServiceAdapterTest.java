@@ -6,6 +6,7 @@ import static org.mockito.Mockito.*;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.NotificacaoVideo;
 import br.com.on.fiap.hackathonprocessadorvideo.fixture.NotificacaoVideoFixture;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,14 +14,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
 import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
 
 @ExtendWith(MockitoExtension.class)
 class VideoSendMessageServiceAdapterTest {
 
     @Mock
-    private SnsClient snsClient;
+    private SnsAsyncClient snsClient;
 
     @Mock
     private ObjectMapper objectMapper;
@@ -39,8 +41,11 @@ class VideoSendMessageServiceAdapterTest {
         when(objectMapper.writeValueAsString(notif)).thenReturn(expectedJson);
 
         ArgumentCaptor<PublishRequest> reqCaptor = ArgumentCaptor.forClass(PublishRequest.class);
+        when(snsClient.publish(any(PublishRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(
+                        PublishResponse.builder().build()));
 
-        adapter.enviar(notif, topicArn);
+        adapter.enviar(notif, topicArn).join();
 
         verify(objectMapper, times(1)).writeValueAsString(notif);
         verify(snsClient, times(1)).publish(reqCaptor.capture());
@@ -57,9 +62,33 @@ class VideoSendMessageServiceAdapterTest {
         NotificacaoVideo notif = NotificacaoVideoFixture.sample();
         when(objectMapper.writeValueAsString(notif)).thenThrow(new RuntimeException("boom"));
 
-        adapter.enviar(notif, topicArn);
+        assertThat(adapter.enviar(notif, topicArn)).isCompleted();
 
         verify(objectMapper, times(1)).writeValueAsString(notif);
         verifyNoInteractions(snsClient);
     }
+
+    @Test
+    @DisplayName("Deve completar normalmente quando a publicação assíncrona falhar")
+    void givenPublishFails_whenEnviar_thenFutureCompletesNormally() throws Exception {
+        NotificacaoVideo notif = NotificacaoVideoFixture.sample();
+        when(objectMapper.writeValueAsString(notif)).thenReturn("{}");
+        when(snsClient.publish(any(PublishRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("sns fora")));
+
+        CompletableFuture<Void> envio = adapter.enviar(notif, topicArn);
+
+        assertThat(envio).isCompletedWithValue(null);
+    }
+
+    @Test
+    @DisplayName("publicar propaga a falha da publicação assíncrona")
+    void givenPublishFails_whenPublicar_thenFutureFails() throws Exception {
+        NotificacaoVideo notif = NotificacaoVideoFixture.sample();
+        when(objectMapper.writeValueAsString(notif)).thenReturn("{}");
+        when(snsClient.publish(any(PublishRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("sns fora")));
+
+        assertThat(adapter.publicar(notif, topicArn)).isCompletedExceptionally();
+    }
 }
@@ -0,0 +1,166 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameArchiveWriter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+@ExtendWith(MockitoExtension.class)
+class SegmentArchiveMergerTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    private final Map<String, byte[]> objetos = new HashMap<>();
+
+    private SegmentArchiveMerger merger;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        merger = new SegmentArchiveMerger(s3Client, new ObjectMapper(), 5);
+        lenient().when(s3Client.getObjectAsBytes(any(Consumer.class))).thenAnswer(inv -> {
+            GetObjectRequest.Builder b = GetObjectRequest.builder();
+            ((Consumer<GetObjectRequest.Builder>) inv.getArgument(0)).accept(b);
+            return ResponseBytes.fromByteArray(
+                    GetObjectResponse.builder().build(), objetos.get(b.build().key()));
+        });
+        lenient().when(s3Client.getObject(any(Consumer.class))).thenAnswer(inv -> {
+            GetObjectRequest.Builder b = GetObjectRequest.builder();
+            ((Consumer<GetObjectRequest.Builder>) inv.getArgument(0)).accept(b);
+            return new ResponseInputStream<>(
+                    GetObjectResponse.builder().build(),
+                    AbortableInputStream.create(
+                            new ByteArrayInputStream(objetos.get(b.build().key()))));
+        });
+    }
+
+    @Test
+    @DisplayName("Merge: renumera frames de forma contínua na ordem dos segmentos")
+    void givenPartials_whenMerge_thenContiguousNumbering() throws IOException {
+        parcial("p0", "a", 3);
+        parcial("p2", "c", 2);
+
+        int total = merger.merge(
+                "videos",
+                List.of(
+                        new SegmentoConcluido(0, "p0", 3),
+                        new SegmentoConcluido(1, null, 0),
+                        new SegmentoConcluido(2, "p2", 2)),
+                "saida/v.zip",
+                null);
+
+        assertThat(total).isEqualTo(5);
+        assertThat(entradasEnviadas())
+                .containsExactly(
+                        "frame-0.png=a0", "frame-1.png=a1", "frame-2.png=a2", "frame-3.png=c0", "frame-4.png=c1");
+    }
+
+    @Test
+    @DisplayName("Merge: aplica o maxFrames global")
+    void givenMaxFrames_whenMerge_thenTruncate() throws IOException {
+        parcial("p0", "a", 3);
+        parcial("p1", "b", 3);
+
+        int total = merger.merge(
+                "videos", List.of(new SegmentoConcluido(0, "p0", 3), new SegmentoConcluido(1, "p1", 3)), "out", 4);
+
+        assertThat(total).isEqualTo(4);
+        assertThat(entradasEnviadas())
+                .containsExactly("frame-0.png=a0", "frame-1.png=a1", "frame-2.png=a2", "frame-3.png=b0");
+    }
+
+    @Test
+    @DisplayName("Merge: sem frames em nenhum segmento não grava o zip final")
+    @SuppressWarnings("unchecked")
+    void givenNoFrames_whenMerge_thenThrowAndDoNotUpload() {
+        assertThatThrownBy(() -> merger.merge("videos", List.of(new SegmentoConcluido(0, null, 0)), "out", null))
+                .isInstanceOf(NoFramesExtractedException.class);
+        verify(s3Client, never()).putObject(any(Consumer.class), any(RequestBody.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> entradasEnviadas() throws IOException {
+        ArgumentCaptor<RequestBody> body = ArgumentCaptor.forClass(RequestBody.class);
+        verify(s3Client, times(2)).putObject(any(Consumer.class), body.capture());
+        List<String> entradas = new ArrayList<>();
+        try (InputStream in = body.getAllValues().get(0).contentStreamProvider().newStream();
+                ZipInputStream zis = new ZipInputStream(in)) {
+            assertThat(zis.getNextEntry().getName()).isEqualTo(FrameManifest.ENTRADA);
+            for (ZipEntry e = zis.getNextEntry(); e != null; e = zis.getNextEntry()) {
+                entradas.add(e.getName() + "=" + new String(zis.readAllBytes()));
+            }
+        }
+        try (InputStream in = body.getAllValues().get(1).contentStreamProvider().newStream()) {
+            FrameManifest manifest = new ObjectMapper().readValue(in, FrameManifest.class);
+            assertThat(manifest.frames()).hasSize(entradas.size());
+            assertThat(manifest.frames().get(entradas.size() - 1).nome())
+                    .isEqualTo("frame-" + (entradas.size() - 1) + ".png");
+        }
+        return entradas;
+    }
+
+    /** Zip parcial manifest-first + sidecar, como o coordenador grava. */
+    private void parcial(String chave, String prefixo, int frames) throws IOException {
+        List<byte[]> conteudos = new ArrayList<>();
+        List<FrameManifestEntry> entradas = new ArrayList<>();
+        for (int i = 0; i < frames; i++) {
+            byte[] dados = (prefixo + i).getBytes();
+            conteudos.add(dados);
+            entradas.add(new FrameManifestEntry(i, "frame-" + i + ".png", i * 1000L, 0, dados.length, sha256(dados)));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FrameArchiveWriter writer = FrameArchiveWriter.abrir(bytes, entradas);
+        for (byte[] dados : conteudos) {
+            CRC32 crc = new CRC32();
+            crc.update(dados);
+            writer.escreverProximo(crc.getValue(), new ByteArrayInputStream(dados));
+        }
+        writer.close();
+        objetos.put(chave, bytes.toByteArray());
+        objetos.put(FrameManifest.caminhoSidecar(chave), writer.manifestJson());
+    }
+
+    private static String sha256(byte[] dados) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(dados));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.FormatoPreview;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SegmentoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import br.com.on.fiap.hackathonprocessadorvideo.fixture.VideoMensagemFixture;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.MediaInfo;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.MediaProbe;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+
+@ExtendWith(MockitoExtension.class)
+class SegmentCoordinatorTest {
+
+    private static final long MIN = 60_000L;
+    private static final long LEASE_MS = 15 * MIN;
+
+    @Mock
+    private SegmentArchiveMerger merger;
+
+    @Mock
+    private SqsTemplate sqsTemplate;
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private S3Presigner presigner;
+
+    @Mock
+    private FrameExtractor extractor;
+
+    @Mock
+    private MediaProbe probe;
+
+    private final InMemorySegmentJobStore store = new InMemorySegmentJobStore();
+
+    private SegmentCoordinator coordinator(boolean enabled) {
+        return coordinator(enabled, LEASE_MS);
+    }
+
+    private SegmentCoordinator coordinator(boolean enabled, long leaseMs) {
+        return new SegmentCoordinator(
+                store,
+                merger,
+                sqsTemplate,
+                s3Client,
+                presigner,
+                extractor,
+                probe,
+                "videos",
+                enabled,
+                20 * MIN,
+                5 * MIN,
+                "fila",
+                60,
+                leaseMs);
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PresignedGetObjectRequest presigned = mock(PresignedGetObjectRequest.class);
+        lenient().when(presigned.url()).thenReturn(new URL("http://localhost:4566/videos/entrada/v.mp4?X-Amz=1"));
+        lenient().when(presigner.presignGetObject(any(Consumer.class))).thenReturn(presigned);
+    }
+
+    @Test
+    @DisplayName("Planejamento: 4h viram 48 trechos contíguos de 5 min")
+    void givenFourHourVideo_whenPlanejar_thenContiguousSegments() {
+        List<OpcoesProcessamento> trechos =
+                SegmentCoordinator.planejar(OpcoesProcessamento.padrao(), 240 * MIN, 20 * MIN, 5 * MIN);
+
+        assertThat(trechos).hasSize(48);
+        assertThat(trechos.get(0).inicioMs()).isZero();
+        assertThat(trechos.get(47).fimMs()).isEqualTo(240 * MIN);
+        for (int i = 1; i < trechos.size(); i++) {
+            assertThat(trechos.get(i).inicioMs()).isEqualTo(trechos.get(i - 1).fimMs());
+        }
+    }
+
+    @Test
+    @DisplayName("Planejamento: respeita o recorte pedido e não divide abaixo do limiar")
+    void givenRangeOrShortVideo_whenPlanejar_thenRespectLimits() {
+        OpcoesProcessamento recorte = new OpcoesProcessamento(10 * MIN, 32 * MIN, 1.0, null, 100);
+        List<OpcoesProcessamento> trechos = SegmentCoordinator.planejar(recorte, 240 * MIN, 20 * MIN, 5 * MIN);
+
+        assertThat(trechos).hasSize(5);
+        assertThat(trechos.get(0).inicioMs()).isEqualTo(10 * MIN);
+        assertThat(trechos.get(4).fimMs()).isEqualTo(32 * MIN);
+        assertThat(trechos).allSatisfy(t -> {
+            assertThat(t.fpsSaida()).isEqualTo(1.0);
+            assertThat(t.maxFrames()).isEqualTo(100);
+        });
+
+        assertThat(SegmentCoordinator.planejar(OpcoesProcessamento.padrao(), 15 * MIN, 20 * MIN, 5 * MIN))
+                .containsExactly(OpcoesProcessamento.padrao());
+    }
+
+    @Test
+    @DisplayName("Distribuição: publica sub-jobs em lotes e registra o job")
+    @SuppressWarnings("unchecked")
+    void givenOversizedVideo_whenDistribuir_thenPublishSubJobs() throws IOException {
+        when(probe.probe(anyString()))
+                .thenReturn(new MediaInfo("isom", 60 * MIN, "avc1", 1280, 720, 30, 30 * 3600, 1L << 30));
+        VideoMensagem original =
+                VideoMensagemFixture.builder().caminhoVideo("entrada/v.mp4").build();
+
+        assertThat(coordinator(true).distribuirSeNecessario(original, "msg-1")).isTrue();
+
+        ArgumentCaptor<Collection<Message<VideoMensagem>>> lotes = ArgumentCaptor.forClass(Collection.class);
+        verify(sqsTemplate, times(2)).sendMany(eq("fila"), lotes.capture());
+        List<VideoMensagem> enviados = lotes.getAllValues().stream()
+                .flatMap(Collection::stream)
+                .map(Message::getPayload)
+                .toList();
+        assertThat(enviados).hasSize(12);
+        assertThat(enviados.get(11).getSegmento()).isEqualTo(new SegmentoVideo("msg-1", 11, 12));
+        assertThat(enviados.get(11).getOpcoes().fimMs()).isEqualTo(60 * MIN);
+        assertThat(store.buscar("msg-1"))
+                .get()
+                .extracting(SegmentJob::total, SegmentJob::caminhoSaida)
+                .containsExactly(12, "saida/v.zip");
+    }
+
+    @Test
+    @DisplayName("Distribuição com preview: o job segue inteiro, sem consultar a duração")
+    void givenPreview_whenDistribuir_thenFalse() throws IOException {
+        VideoMensagem original = VideoMensagemFixture.builder()
+                .caminhoVideo("entrada/v.mp4")
+                .opcoes(new OpcoesProcessamento(null, null, null, null, null, null, FormatoPreview.WEBP))
+                .build();
+
+        assertThat(coordinator(true).distribuirSeNecessario(original, "msg-1")).isFalse();
+        verifyNoInteractions(probe, sqsTemplate);
+    }
+
+    @Test
+    @DisplayName("Distribuição desligada: não consulta a duração")
+    void givenDisabled_whenDistribuir_thenFalse() throws IOException {
+        assertThat(coordinator(false).distribuirSeNecessario(VideoMensagemFixture.sample(), "msg-1"))
+                .isFalse();
+        verifyNoInteractions(probe, sqsTemplate);
+    }
+
+    @Test
+    @DisplayName("Segmentos: o último a concluir faz o merge em ordem; o estado sai só em concluir")
+    void givenAllSegmentsDone_whenProcessar_thenLastOneMerges() throws IOException {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 2));
+        when(extractor.extract(any(URI.class), any())).thenAnswer(inv -> framesDir(3));
+        SegmentCoordinator coordinator = coordinator(true);
+
+        assertThat(coordinator.processarSegmento(segmento(1))).isEmpty();
+        assertThat(coordinator.processarSegmento(segmento(0))).contains("saida/v.zip");
+
+        verify(s3Client, times(4)).putObject(any(Consumer.class), any(RequestBody.class));
+        verify(merger)
+                .merge(
+                        "videos",
+                        List.of(
+                                new SegmentoConcluido(0, "saida/v.parts/job/segmento-00000.zip", 3),
+                                new SegmentoConcluido(1, "saida/v.parts/job/segmento-00001.zip", 3)),
+                        "saida/v.zip",
+                        null);
+        verify(merger).removerParciais(eq("videos"), anyList());
+        assertThat(store.buscar("job")).get().extracting(SegmentJob::mesclado).isEqualTo(true);
+
+        coordinator.concluir("job");
+        assertThat(store.buscar("job")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Notificação falhou: a reentrega do último segmento devolve a saída sem refazer o merge")
+    void givenMergedButNotConcluded_whenRedelivered_thenSameOutputWithoutMerging() throws IOException {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 1));
+        when(extractor.extract(any(URI.class), any())).thenAnswer(inv -> framesDir(2));
+        SegmentCoordinator coordinator = coordinator(true);
+
+        assertThat(coordinator.processarSegmento(segmento(0))).contains("saida/v.zip");
+        assertThat(coordinator.processarSegmento(segmento(0))).contains("saida/v.zip");
+
+        verify(extractor, times(1)).extract(any(URI.class), any());
+        verify(merger, times(1)).merge(any(), anyList(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Job já concluído: reentrega de um segmento é ignorada sem extrair")
+    void givenConcludedJob_whenRedelivered_thenIgnored() throws IOException {
+        assertThat(coordinator(true).processarSegmento(segmento(0))).isEmpty();
+        verifyNoInteractions(extractor, merger);
+    }
+
+    @Test
+    @DisplayName("Merge com falha: libera o merge e a reentrega tenta de novo sem reextrair")
+    void givenMergeFailure_whenRedelivered_thenRetryMergeWithoutExtracting() throws IOException {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 1));
+        when(extractor.extract(any(URI.class), any())).thenAnswer(inv -> framesDir(2));
+        when(merger.merge(any(), anyList(), any(), any()))
+                .thenThrow(new IOException("s3 fora"))
+                .thenReturn(2);
+        SegmentCoordinator coordinator = coordinator(true);
+
+        assertThatThrownBy(() -> coordinator.processarSegmento(segmento(0))).isInstanceOf(IOException.class);
+        assertThat(store.buscar("job"))
+                .get()
+                .extracting(SegmentJob::mergeIniciado)
+                .isEqualTo(false);
+
+        assertThat(coordinator.processarSegmento(segmento(0))).contains("saida/v.zip");
+        verify(extractor, times(1)).extract(any(URI.class), any());
+    }
+
+    @Test
+    @DisplayName("Dado merge com outro worker quando o último segmento volta então fica sem ACK até o lease vencer")
+    void givenMergeClaimedElsewhere_whenLastSegmentRedelivered_thenNotAckedUntilLeaseExpires() throws IOException {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 1));
+        store.registrarConclusao("job", new SegmentoConcluido(0, "saida/v.parts/job/segmento-00000.zip", 2));
+        assertThat(store.reivindicarMerge("job", "worker-morto", Duration.ofMillis(LEASE_MS)))
+                .isTrue();
+        SegmentCoordinator coordinator = coordinator(true);
+
+        assertThatThrownBy(() -> coordinator.processarSegmento(segmento(0)))
+                .isInstanceOfSatisfying(
+                        MergeEmAndamentoException.class,
+                        e -> assertThat(e.espera()).isPositive().isLessThanOrEqualTo(Duration.ofMillis(LEASE_MS)));
+        verifyNoInteractions(extractor, merger);
+    }
+
+    @Test
+    @DisplayName("Dado dono do merge morto quando o lease vence então a reentrega retoma o merge")
+    void givenExpiredMergeClaim_whenLastSegmentRedelivered_thenReclaimsAndMerges() throws IOException {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 1));
+        store.registrarConclusao("job", new SegmentoConcluido(0, "saida/v.parts/job/segmento-00000.zip", 2));
+        assertThat(store.reivindicarMerge("job", "worker-morto", Duration.ZERO)).isTrue();
+        // lease negativo: qualquer reivindicação anterior já venceu
+        SegmentCoordinator coordinator = coordinator(true, -1);
+
+        assertThat(coordinator.processarSegmento(segmento(0))).contains("saida/v.zip");
+        verify(merger).merge(eq("videos"), anyList(), eq("saida/v.zip"), any());
+        assertThat(store.buscar("job")).get().extracting(SegmentJob::mesclado).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("Dono antigo não libera o merge retomado por outro worker")
+    void givenReclaimedMerge_whenOldOwnerReleases_thenClaimKept() {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 1));
+        assertThat(store.reivindicarMerge("job", "antigo", Duration.ZERO)).isTrue();
+        assertThat(store.reivindicarMerge("job", "novo", Duration.ofMillis(-1))).isTrue();
+
+        store.liberarMerge("job", "antigo");
+
+        assertThat(store.buscar("job")).get().satisfies(job -> {
+            assertThat(job.mergeIniciado()).isTrue();
+            assertThat(job.mergeDono()).isEqualTo("novo");
+        });
+        assertThat(store.reivindicarMerge("job", "terceiro", Duration.ofMillis(LEASE_MS)))
+                .isFalse();
+    }
+
+    @Test
+    @DisplayName("Dado segmento parado quando abortar então só o primeiro encerra o job e os parciais saem")
+    void givenStoppedSegment_whenAbortar_thenOnlyFirstEndsJobAndPartialsRemoved() throws IOException {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 2));
+        store.registrarConclusao("job", new SegmentoConcluido(1, "saida/v.parts/job/segmento-00001.zip", 3));
+        SegmentCoordinator coordinator = coordinator(true);
+
+        assertThat(coordinator.abortar("job")).isTrue();
+        assertThat(coordinator.abortar("job")).isFalse();
+
+        SegmentoConcluido parcial = new SegmentoConcluido(1, "saida/v.parts/job/segmento-00001.zip", 3);
+        verify(merger, times(1)).removerParciais("videos", List.of(parcial));
+        assertThat(store.buscar("job")).isEmpty();
+        assertThat(coordinator.processarSegmento(segmento(0))).isEmpty();
+        verifyNoInteractions(extractor);
+    }
+
+    @Test
+    @DisplayName("Dado job abortado durante a extração quando o segmento termina então descarta o próprio parcial")
+    void givenJobAbortedDuringExtraction_whenSegmentFinishes_thenOwnPartialRemoved() throws IOException {
+        store.criar(SegmentJob.novo("job", "saida/v.zip", 2));
+        SegmentCoordinator coordinator = coordinator(true);
+        when(extractor.extract(any(URI.class), any())).thenAnswer(inv -> {
+            coordinator.abortar("job");
+            return framesDir(2);
+        });
+
+        assertThat(coordinator.processarSegmento(segmento(0))).isEmpty();
+
+        SegmentoConcluido parcial = new SegmentoConcluido(0, "saida/v.parts/job/segmento-00000.zip", 2);
+        verify(merger).removerParciais("videos", List.of(parcial));
+        verify(merger, never()).merge(any(), anyList(), any(), any());
+    }
+
+    private static VideoMensagem segmento(int indice) {
+        return VideoMensagemFixture.builder()
+                .caminhoVideo("entrada/v.mp4")
+                .opcoes(new OpcoesProcessamento(indice * MIN, (indice + 1) * MIN, null, null, null))
+                .segmento(new SegmentoVideo("job", indice, 2))
+                .build();
+    }
+
+    private static Path framesDir(int frames) throws IOException {
+        Path dir = Files.createTempDirectory("frames-seg-");
+        for (int i = 0; i < frames; i++) {
+            Files.write(dir.resolve("frame-" + i + ".png"), new byte[] {(byte) i});
+        }
+        return dir;
+    }
+}
@@ -0,0 +1,327 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.AjusteTamanho;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.FormatoPreview;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationRegistry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.JobCanceladoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.dedup.FrameDeduplicator;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.EncoderEngine;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameArchiveWriter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.preview.PreviewOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.SyntheticVideoUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tuning.AutoTuner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("FfmpegFrameExtractor - recorte, amostragem e limite com vídeo sintético (3 s a 10 fps)")
+class FfmpegFrameExtractorTest {
+
+    private final FfmpegFrameExtractor extractor = new FfmpegFrameExtractor();
+    private Path video;
+    private Path framesDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        video = SyntheticVideoUtil.write(Files.createTempFile("synthetic-", ".mp4"), 64, 48, 30, 10);
+    }
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteQuietly(video);
+        StorageFileUtil.deleteRecursively(framesDir);
+    }
+
+    private long extract(OpcoesProcessamento opcoes) throws IOException {
+        framesDir = extractor.extract(video, opcoes);
+        try (Stream<Path> files = Files.list(framesDir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("frame-"))
+                    .count();
+        }
+    }
+
+    @Test
+    @DisplayName("Sem opções extrai todos os frames")
+    void givenNoOptions_whenExtract_thenAllFrames() throws IOException {
+        assertThat(extract(OpcoesProcessamento.padrao())).isEqualTo(30);
+    }
+
+    @Test
+    @DisplayName("Recorte [1 s, 2 s) faz seek e extrai só os frames do intervalo")
+    void givenTimeRange_whenExtract_thenOnlyFramesInRange() throws IOException {
+        assertThat(extract(new OpcoesProcessamento(1000L, 2000L, null, null, null)))
+                .isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("intervaloFrames=3 emite um a cada três frames")
+    void givenStride_whenExtract_thenEveryNthFrame() throws IOException {
+        assertThat(extract(new OpcoesProcessamento(null, null, null, 3, null))).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("fpsSaida=2 reduz 10 fps para 2 fps")
+    void givenTargetFps_whenExtract_thenResampled() throws IOException {
+        assertThat(extract(new OpcoesProcessamento(null, null, 2.0, null, null)))
+                .isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("maxFrames interrompe a extração e numera os frames a partir de zero")
+    void givenMaxFrames_whenExtract_thenStopsEarly() throws IOException {
+        assertThat(extract(new OpcoesProcessamento(500L, null, null, 2, 4))).isEqualTo(4);
+        assertThat(framesDir.resolve("frame-0.png")).exists();
+        assertThat(framesDir.resolve("frame-3.png")).exists();
+    }
+
+    @Test
+    @DisplayName("Job cancelado no meio: a extração para no frame seguinte e não deixa diretório de frames")
+    void givenJobCancelledMidway_whenExtract_thenStopsAtNextFrame() {
+        CancellationRegistry cancelamentos = new CancellationRegistry(new SimpleMeterRegistry(), 0, 60);
+        List<Path> escritos = new ArrayList<>();
+        try (CancellationToken token = cancelamentos.abrir("video", null);
+                CancellationToken.Vinculo vinculo = token.vincular()) {
+            assertThatThrownBy(() -> extractor.extract(video, OpcoesProcessamento.padrao(), new FrameListener() {
+                        @Override
+                        public void frameEscrito(Path arquivo, int indice, long ptsUs) {
+                            escritos.add(arquivo);
+                            if (indice == 5) cancelamentos.cancelar("video");
+                        }
+                    }))
+                    .isInstanceOf(JobCanceladoException.class);
+        }
+
+        assertThat(escritos).hasSizeLessThan(30);
+        assertThat(escritos.get(0).getParent()).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Listener recebe a estimativa e cada frame com o pts de origem")
+    void givenListener_whenExtract_thenEstimateAndFramesReported() throws IOException {
+        List<Long> pts = new ArrayList<>();
+        int[] estimativa = {-2};
+        framesDir = extractor.extract(video, new OpcoesProcessamento(null, null, null, 3, null), new FrameListener() {
+            @Override
+            public void inicio(int framesEstimados) {
+                estimativa[0] = framesEstimados;
+            }
+
+            @Override
+            public void frameEscrito(Path arquivo, int indice, long ptsUs) {
+                assertThat(arquivo).exists().hasFileName("frame-" + indice + ".png");
+                pts.add(ptsUs);
+            }
+        });
+
+        assertThat(estimativa[0]).isEqualTo(10);
+        assertThat(pts).hasSize(10).startsWith(0L, 300_000L);
+    }
+
+    @Test
+    @DisplayName("Retomada ancorada: a amostragem por fps segue a cadência da extração completa")
+    void givenAnchor_whenResumeMidway_thenSameCadenceAsFullRun() throws IOException {
+        OpcoesProcessamento opcoes = new OpcoesProcessamento(null, null, 3.0, null, null);
+        List<Long> completa = pts(opcoes, -1);
+        StorageFileUtil.deleteRecursively(framesDir);
+        long retomada = completa.get(2);
+
+        List<Long> retomados = pts(new OpcoesProcessamento(retomada / 1000, null, 3.0, null, null), completa.get(0));
+
+        assertThat(retomados).isEqualTo(completa.subList(2, completa.size()));
+    }
+
+    private List<Long> pts(OpcoesProcessamento opcoes, long ancoraUs) throws IOException {
+        List<Long> pts = new ArrayList<>();
+        framesDir = extractor.extract(video, opcoes, new FrameListener() {
+            @Override
+            public long ancoraAmostragemUs() {
+                return ancoraUs;
+            }
+
+            @Override
+            public void frameEscrito(Path arquivo, int indice, long ptsUs) {
+                pts.add(ptsUs);
+            }
+        });
+        return pts;
+    }
+
+    @Test
+    @DisplayName("Com dedup ligado, o gradiente que só muda de tom vira poucos frames")
+    void givenDedupEnabled_whenExtract_thenRepeatedFramesSkipped() throws IOException {
+        FfmpegFrameExtractor dedupExtractor = new FfmpegFrameExtractor(
+                FrameEncoderFactory.padrao(), new FrameDeduplicator(new SimpleMeterRegistry(), true, 4));
+
+        framesDir = dedupExtractor.extract(video, OpcoesProcessamento.padrao());
+
+        try (Stream<Path> files = Files.list(framesDir)) {
+            assertThat(files.filter(f -> f.getFileName().toString().startsWith("frame-")))
+                    .hasSizeBetween(1, 5);
+        }
+        assertThat(framesDir.resolve("frame-0.png")).exists();
+    }
+
+    @Test
+    @DisplayName("Pool de encoders largo grava os mesmos frames, confirmados ao listener em ordem de índice")
+    void givenWideEncoderPool_whenExtract_thenSameFramesInOrder() throws IOException {
+        AutoTuner largo = new AutoTuner(null, new SimpleMeterRegistry(), false, 4, 30, 5000, 0.05, 20) {
+            @Override
+            public int larguraEncoder(double custoMp) {
+                return 3;
+            }
+        };
+        FfmpegFrameExtractor paralelo = new FfmpegFrameExtractor(
+                FrameEncoderFactory.padrao(), FrameDeduplicator.desligado(), PreviewOutput.padrao(), largo);
+        List<Integer> indices = new ArrayList<>();
+
+        framesDir = paralelo.extract(video, OpcoesProcessamento.padrao(), new FrameListener() {
+            @Override
+            public void frameEscrito(Path arquivo, int indice, long ptsUs) {
+                assertThat(arquivo).exists();
+                indices.add(indice);
+            }
+        });
+
+        assertThat(indices).hasSize(30).isSorted().doesNotHaveDuplicates();
+        assertThat(FrameArchiveWriter.catalogar(framesDir).entradas())
+                .hasSize(30)
+                .allSatisfy(e -> assertThat(e.ptsUs()).isEqualTo(e.indice() * 100_000L));
+    }
+
+    @Test
+    @DisplayName("Dado pool largo com encoder que falha quando há maxFrames então só frames gravados contam no limite")
+    void givenWidePoolWithFailingEncoder_whenMaxFrames_thenCountsOnlyWrittenFrames() throws IOException {
+        AutoTuner largo = new AutoTuner(null, new SimpleMeterRegistry(), false, 4, 30, 5000, 0.05, 20) {
+            @Override
+            public int larguraEncoder(double custoMp) {
+                return 3;
+            }
+        };
+        AtomicInteger escritas = new AtomicInteger();
+        FrameEncoderFactory falhaUmEmDois = new FrameEncoderFactory(EncoderEngine.FFMPEG, ImageFormat.PNG) {
+            @Override
+            public FrameEncoder create(ImageFormat imageFormat) {
+                FrameEncoder real = super.create(imageFormat);
+                return new FrameEncoder() {
+                    @Override
+                    public ImageFormat format() {
+                        return real.format();
+                    }
+
+                    @Override
+                    public boolean write(Frame frame, Path out) throws IOException {
+                        return escritas.getAndIncrement() % 2 == 0 && real.write(frame, out);
+                    }
+
+                    @Override
+                    public void close() {
+                        real.close();
+                    }
+                };
+            }
+        };
+        FfmpegFrameExtractor paralelo = new FfmpegFrameExtractor(
+                falhaUmEmDois, FrameDeduplicator.desligado(), PreviewOutput.padrao(), largo);
+
+        framesDir = paralelo.extract(video, new OpcoesProcessamento(null, null, null, null, 6));
+
+        assertThat(FrameArchiveWriter.catalogar(framesDir).entradas()).hasSize(6);
+        assertThat(escritas.get()).isGreaterThanOrEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("tamanhoAlvoKb apertado troca PNG por JPEG, espaça a amostragem e o zip cabe no alvo")
+    void givenTightTargetSize_whenExtract_thenArchiveFitsBudget() throws IOException {
+        OpcoesProcessamento opcoes = new OpcoesProcessamento(null, null, null, null, null, null, null, null, 20L);
+        AtomicReference<AjusteTamanho> ajuste = new AtomicReference<>();
+
+        framesDir = extractor.extract(video, opcoes, new FrameListener() {
+            @Override
+            public void frameEscrito(Path arquivo, int indice, long ptsUs) {
+                assertThat(arquivo.getFileName().toString()).endsWith(".jpg");
+            }
+
+            @Override
+            public void ajusteTamanho(AjusteTamanho a) {
+                ajuste.set(a);
+            }
+        });
+
+        FrameArchiveWriter.Resultado zip = FrameArchiveWriter.escrever(framesDir);
+        assertThat(Files.size(zip.zip())).isLessThanOrEqualTo(20 * 1024);
+        assertThat(ajuste.get().formato()).isEqualTo("JPEG");
+        assertThat(ajuste.get().intervalo()).isGreaterThan(1);
+        assertThat(ajuste.get().frames())
+                .isEqualTo(zip.manifest().frames().size())
+                .isBetween(2, 29);
+    }
+
+    @Test
+    @DisplayName("decode entrega os frames selecionados ao sink, sem gravar arquivos")
+    void givenSink_whenDecode_thenFramesDelivered() throws IOException {
+        List<Long> pts = new ArrayList<>();
+
+        int count = extractor.decode(
+                video, new OpcoesProcessamento(null, null, 2.0, null, null), (frame, indice, ptsUs) -> {
+                    assertThat(frame.imageWidth).isEqualTo(64);
+                    pts.add(ptsUs);
+                    return true;
+                });
+
+        assertThat(count).isEqualTo(6);
+        assertThat(pts).hasSize(6).isSorted();
+    }
+
+    @Test
+    @DisplayName("Preview WebP sai do mesmo loop: arquivo animado ao lado dos frames e fora do catálogo do zip")
+    void givenWebpPreview_whenExtract_thenPreviewWrittenAndFramesUnchanged() throws IOException {
+        long frames = extract(new OpcoesProcessamento(null, null, 5.0, null, null, null, FormatoPreview.WEBP));
+
+        Path preview = PreviewOutput.arquivo(framesDir, FormatoPreview.WEBP);
+        byte[] cabecalho = Arrays.copyOf(Files.readAllBytes(preview), 16);
+        assertThat(new String(cabecalho, 0, 4, StandardCharsets.US_ASCII)).isEqualTo("RIFF");
+        assertThat(new String(cabecalho, 8, 4, StandardCharsets.US_ASCII)).isEqualTo("WEBP");
+        assertThat(frames).isEqualTo(15);
+        assertThat(FrameArchiveWriter.catalogar(framesDir).arquivos())
+                .hasSize(15)
+                .doesNotContain(preview);
+    }
+
+    @Test
+    @DisplayName("Preview MP4 é um H.264 reduzido a 2 fps, gravado junto com a extração")
+    void givenMp4Preview_whenExtract_thenPlayableLowFpsVideo() throws IOException {
+        extract(new OpcoesProcessamento(null, null, null, null, null, null, FormatoPreview.MP4));
+
+        Path preview = PreviewOutput.arquivo(framesDir, FormatoPreview.MP4);
+        try (FFmpegFrameGrabber grabber = new FFmpegFrameGrabber(preview.toFile())) {
+            grabber.start();
+            assertThat(grabber.getVideoCodecName()).contains("h264");
+            assertThat(grabber.getImageWidth()).isEqualTo(64);
+            assertThat(grabber.getLengthInVideoFrames()).isBetween(5, 7);
+            grabber.stop();
+        }
+    }
+}
@@ -4,11 +4,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.budget.ByteBudget;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.dedup.FrameDeduplicator;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.OpenCvFrameEncoder;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameExtractionException;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameReadException;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.NoFramesExtractedException;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.VideoOpenException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.preview.PreviewRecorder;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
@@ -17,8 +24,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 import org.bytedeco.javacv.FFmpegFrameGrabber;
-import org.bytedeco.javacv.OpenCVFrameConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -65,9 +72,10 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
                         GetObjectResponse.builder().build(),
                         AbortableInputStream.create(new ByteArrayInputStream(new byte[] {0}))));
 
-        when(extractorMock.extract(any(Path.class))).thenThrow(new FrameReadException(3, new IOException("read fail")));
+        when(extractorMock.extract(any(Path.class), any()))
+                .thenThrow(new FrameReadException(3, new IOException("read fail")));
 
-        FrameReadException ex = assertThrows(FrameReadException.class, () -> service.processarVideo(videoMsg()));
+        FrameReadException ex = assertThrows(FrameReadException.class, () -> processar(videoMsg()));
         assertThat(ex.getMessage()).contains("3");
         verifyNoMoreInteractions(s3Client);
     }
@@ -80,10 +88,10 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
                         GetObjectResponse.builder().build(),
                         AbortableInputStream.create(new ByteArrayInputStream(new byte[] {0}))));
 
-        when(extractorMock.extract(any(Path.class)))
+        when(extractorMock.extract(any(Path.class), any()))
                 .thenThrow(new VideoOpenException("fail open", new IOException("cause")));
 
-        VideoOpenException ex = assertThrows(VideoOpenException.class, () -> service.processarVideo(videoMsg()));
+        VideoOpenException ex = assertThrows(VideoOpenException.class, () -> processar(videoMsg()));
         assertThat(ex.getMessage()).contains("fail open");
         verifyNoMoreInteractions(s3Client);
     }
@@ -96,9 +104,9 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
                         GetObjectResponse.builder().build(),
                         AbortableInputStream.create(new ByteArrayInputStream(new byte[] {0}))));
 
-        when(extractorMock.extract(any(Path.class))).thenThrow(new VideoOpenException("fail open"));
+        when(extractorMock.extract(any(Path.class), any())).thenThrow(new VideoOpenException("fail open"));
 
-        VideoOpenException ex = assertThrows(VideoOpenException.class, () -> service.processarVideo(videoMsg()));
+        VideoOpenException ex = assertThrows(VideoOpenException.class, () -> processar(videoMsg()));
         assertThat(ex.getMessage()).contains("fail open");
         verifyNoMoreInteractions(s3Client);
     }
@@ -111,9 +119,10 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
                         GetObjectResponse.builder().build(),
                         AbortableInputStream.create(new ByteArrayInputStream(new byte[] {0}))));
 
-        when(extractorMock.extract(any(Path.class))).thenThrow(new FrameReadException(5, new IOException("read fail")));
+        when(extractorMock.extract(any(Path.class), any()))
+                .thenThrow(new FrameReadException(5, new IOException("read fail")));
 
-        FrameReadException ex = assertThrows(FrameReadException.class, () -> service.processarVideo(videoMsg()));
+        FrameReadException ex = assertThrows(FrameReadException.class, () -> processar(videoMsg()));
         assertThat(ex.getMessage()).contains("5");
         assertNotEquals(0, ex.getFrameIndex());
         verifyNoMoreInteractions(s3Client);
@@ -127,10 +136,10 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
                         GetObjectResponse.builder().build(),
                         AbortableInputStream.create(new ByteArrayInputStream(new byte[] {0}))));
 
-        when(extractorMock.extract(any(Path.class)))
+        when(extractorMock.extract(any(Path.class), any()))
                 .thenThrow(new FrameReadException("custom message", new IOException("cause")));
 
-        FrameReadException ex = assertThrows(FrameReadException.class, () -> service.processarVideo(videoMsg()));
+        FrameReadException ex = assertThrows(FrameReadException.class, () -> processar(videoMsg()));
         assertThat(ex.getMessage()).contains("custom message");
         verifyNoMoreInteractions(s3Client);
     }
@@ -142,10 +151,9 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
                 .thenReturn(new ResponseInputStream<>(
                         GetObjectResponse.builder().build(),
                         AbortableInputStream.create(new ByteArrayInputStream(new byte[] {0}))));
-        when(extractorMock.extract(any(Path.class))).thenThrow(new FrameExtractionException("extract fail"));
+        when(extractorMock.extract(any(Path.class), any())).thenThrow(new FrameExtractionException("extract fail"));
 
-        FrameExtractionException ex =
-                assertThrows(FrameExtractionException.class, () -> service.processarVideo(videoMsg()));
+        FrameExtractionException ex = assertThrows(FrameExtractionException.class, () -> processar(videoMsg()));
         assertThat(ex.getMessage()).contains("extract fail");
         verifyNoMoreInteractions(s3Client);
     }
@@ -170,14 +178,15 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
         Path framesDir = Files.createTempDirectory("frames");
 
         Method method = FfmpegFrameExtractor.class.getDeclaredMethod(
-                "finalizeOrThrowIfEmpty", int.class, Path.class, Path.class);
+                "finalizeOrThrowIfEmpty", int.class, VideoSource.class, Path.class);
         method.setAccessible(true);
 
-        Path result = (Path) method.invoke(extractor, 5, videoFile, framesDir);
+        Path result = (Path) method.invoke(extractor, 5, VideoSource.local(videoFile), framesDir);
         assertEquals(framesDir, result);
 
-        InvocationTargetException ex =
-                assertThrows(InvocationTargetException.class, () -> method.invoke(extractor, 0, videoFile, framesDir));
+        InvocationTargetException ex = assertThrows(
+                InvocationTargetException.class,
+                () -> method.invoke(extractor, 0, VideoSource.local(videoFile), framesDir));
         assertInstanceOf(NoFramesExtractedException.class, ex.getCause());
     }
 
@@ -193,11 +202,12 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
                 .start();
 
         Method method = FfmpegFrameExtractor.class.getDeclaredMethod(
-                "startGrabberOrThrow", FFmpegFrameGrabber.class, Path.class, Path.class);
+                "startGrabberOrThrow", FFmpegFrameGrabber.class, VideoSource.class, Path.class);
         method.setAccessible(true);
 
         InvocationTargetException ex = assertThrows(
-                InvocationTargetException.class, () -> method.invoke(extractor, grabberMock, videoFile, framesDir));
+                InvocationTargetException.class,
+                () -> method.invoke(extractor, grabberMock, VideoSource.local(videoFile), framesDir));
 
         assertInstanceOf(VideoOpenException.class, ex.getCause());
         assertThat(ex.getCause().getMessage()).contains("Failed to open video via FFmpeg");
@@ -211,14 +221,36 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
         FFmpegFrameGrabber grabberMock = mock(FFmpegFrameGrabber.class);
         when(grabberMock.grabImage()).thenThrow(new FFmpegFrameGrabber.Exception("grab fail"));
 
-        OpenCVFrameConverter.ToMat converter = new OpenCVFrameConverter.ToMat();
+        FrameEncoder encoder = new OpenCvFrameEncoder(ImageFormat.PNG);
+        FrameSelector selector = FrameSelector.of(OpcoesProcessamento.padrao(), 30);
 
         Method method = FfmpegFrameExtractor.class.getDeclaredMethod(
-                "extractFrames", FFmpegFrameGrabber.class, OpenCVFrameConverter.ToMat.class, Path.class);
+                "extractFrames",
+                FFmpegFrameGrabber.class,
+                EncoderPool.class,
+                Path.class,
+                FrameSelector.class,
+                FrameDeduplicator.Sessao.class,
+                FrameListener.class,
+                PreviewRecorder.class,
+                OpcoesProcessamento.class,
+                ByteBudget.class);
         method.setAccessible(true);
 
+        FrameDeduplicator.Sessao dedup = FrameDeduplicator.desligado().iniciar();
         InvocationTargetException ex = assertThrows(
-                InvocationTargetException.class, () -> method.invoke(extractor, grabberMock, converter, framesDir));
+                InvocationTargetException.class,
+                () -> method.invoke(
+                        extractor,
+                        grabberMock,
+                        EncoderPool.inline(encoder),
+                        framesDir,
+                        selector,
+                        dedup,
+                        FrameListener.NENHUM,
+                        null,
+                        OpcoesProcessamento.padrao(),
+                        null));
 
         assertInstanceOf(FrameReadException.class, ex.getCause());
         assertInstanceOf(FFmpegFrameGrabber.Exception.class, ex.getCause().getCause());
@@ -246,4 +278,13 @@ class VideoProcessingServiceAdapterExtractorExceptionTest {
             assertEquals(tempDir, result);
         }
     }
+
+    /** Espera o job e devolve a falha original, como a versão síncrona lançava. */
+    private String processar(VideoMensagem msg) throws Throwable {
+        try {
+            return service.processarVideo(msg).join().caminhoSaida();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
 }
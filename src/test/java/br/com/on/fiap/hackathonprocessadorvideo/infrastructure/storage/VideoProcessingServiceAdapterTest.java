@@ -5,14 +5,29 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.SegmentoVideo;
 import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import br.com.on.fiap.hackathonprocessadorvideo.fixture.VideoMensagemFixture;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationRegistry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationToken;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.segment.SegmentCoordinator;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
 import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.ZipInputStream;
 import org.bytedeco.ffmpeg.global.avutil;
 import org.bytedeco.javacpp.Loader;
@@ -78,7 +93,7 @@ class VideoProcessingServiceAdapterTest {
     @Test
     @DisplayName(
             "Happy path: baixa do S3, extrai frames (FFmpeg), zipa, envia — valida conteúdo do ZIP e limpa com StorageFileUtil")
-    void givenResourceVideo_whenProcessarVideo_thenOkAndZipHasPngs() throws Exception {
+    void givenResourceVideo_whenProcessarVideo_thenOkAndZipHasPngs() throws Throwable {
         byte[] video = loadResourceVideo();
         Assumptions.assumeTrue(ffmpegAvailable(video), "Pulando: FFmpeg não disponível");
 
@@ -102,7 +117,7 @@ class VideoProcessingServiceAdapterTest {
                 .when(s3Client)
                 .putObject(any(PutObjectRequest.class), any(RequestBody.class));
 
-        String outKey = service.processarVideo(msg);
+        String outKey = processar(msg);
         assertThat(outKey).isEqualTo("/saida/video_teste.zip");
 
         ArgumentCaptor<PutObjectRequest> reqCap = ArgumentCaptor.forClass(PutObjectRequest.class);
@@ -112,6 +127,7 @@ class VideoProcessingServiceAdapterTest {
 
         assertThat(uploadedZipRef[0]).isNotNull();
         try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(uploadedZipRef[0]))) {
+            assertThat(zis.getNextEntry().getName()).isEqualTo(FrameManifest.ENTRADA);
             int entries = 0, pngs = 0;
             for (var e = zis.getNextEntry(); e != null; e = zis.getNextEntry()) {
                 entries++;
@@ -131,7 +147,7 @@ class VideoProcessingServiceAdapterTest {
         var msg = new VideoMensagem(
                 "user-123", "video_teste.mp4", "/entrada/video_teste.mp4", LocalDateTime.now(), "user@example.com");
 
-        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.processarVideo(msg));
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> processar(msg));
         assertThat(ex).hasMessage("S3 down");
         verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
     }
@@ -153,9 +169,80 @@ class VideoProcessingServiceAdapterTest {
         var msg =
                 new VideoMensagem("u1", "video_teste.mp4", "/entrada/video_teste.mp4", LocalDateTime.now(), "x@y.com");
 
-        IOException ex = assertThrows(IOException.class, () -> service.processarVideo(msg));
+        IOException ex = assertThrows(IOException.class, () -> processar(msg));
         assertThat(ex).hasMessage("io-boom");
 
         verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
     }
+
+    @Test
+    @DisplayName("Opções inválidas são rejeitadas antes de qualquer download")
+    void givenInvalidOptions_whenProcessarVideo_thenIllegalArgumentWithoutDownload() {
+        ReflectionTestUtils.setField(service, "bucket", "my-bucket");
+        var msg = new VideoMensagem(
+                "u1",
+                "video_teste.mp4",
+                "/entrada/video_teste.mp4",
+                LocalDateTime.now(),
+                "x@y.com",
+                new OpcoesProcessamento(2000L, 1000L, null, null, null));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> processar(msg));
+        assertThat(ex).hasMessageContaining("fimMs");
+
+        verifyNoInteractions(s3Client);
+    }
+
+    @Test
+    @DisplayName("Segmento roda numa thread de processamento com o token de cancelamento do job")
+    void givenSegmentMessage_whenProcessarSegmento_thenRunsOnProcessingThreadWithJobToken() throws Exception {
+        SegmentCoordinator coordinator = mock(SegmentCoordinator.class);
+        ExecutorService pool = Executors.newSingleThreadExecutor(r -> new Thread(r, "processamento-teste"));
+        VideoProcessingServiceAdapter adapter = new VideoProcessingServiceAdapter(
+                s3Client,
+                new FfmpegFrameExtractor(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                coordinator,
+                pool);
+        VideoMensagem msg = VideoMensagemFixture.builder()
+                .segmento(new SegmentoVideo("job", 0, 2))
+                .build();
+        CancellationToken token =
+                new CancellationRegistry(new SimpleMeterRegistry(), 0, 60).abrir(msg.getCaminhoVideo(), null);
+        AtomicReference<String> thread = new AtomicReference<>();
+        AtomicReference<CancellationToken> vinculado = new AtomicReference<>();
+        when(coordinator.processarSegmento(msg)).thenAnswer(inv -> {
+            thread.set(Thread.currentThread().getName());
+            vinculado.set(CancellationToken.atual());
+            return Optional.of("saida/v.zip");
+        });
+
+        CompletableFuture<Optional<String>> saida;
+        try (CancellationToken.Vinculo v = token.vincular()) {
+            saida = adapter.processarSegmento(msg);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(saida.get(5, TimeUnit.SECONDS)).contains("saida/v.zip");
+        assertThat(thread).hasValue("processamento-teste");
+        assertThat(vinculado).hasValue(token);
+    }
+
+    /** Espera o job e devolve a falha original, como a versão síncrona lançava. */
+    private String processar(VideoMensagem msg) throws Throwable {
+        try {
+            return service.processarVideo(msg).join().caminhoSaida();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ArchiveOutputTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<ArchiveFormat> formatos =
+            List.of(new ZipArchiveFormat(), new TarArchiveFormat(), new TarZstdArchiveFormat(3, 2));
+
+    private Path framesDir;
+    private Path arquivo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        framesDir = Files.createTempDirectory("frames-arquivo-");
+        Random random = new Random(7);
+        // 80 frames deixam o manifesto com mais de um bloco de 512 bytes
+        for (int i = 0; i < 80; i++) {
+            byte[] dados = new byte[1 + random.nextInt(3000)];
+            random.nextBytes(dados);
+            Files.write(framesDir.resolve("frame-" + i + ".png"), dados);
+        }
+        Files.writeString(framesDir.resolve(FrameManifest.PTS_FILE), "0 0\n1 40000\n");
+    }
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteRecursively(framesDir);
+        StorageFileUtil.deleteQuietly(arquivo);
+    }
+
+    @Test
+    @DisplayName("tar.zst: descomprimido é um tar com o manifesto primeiro e offsets exatos; sem sidecar; métricas")
+    void givenTarZst_whenEscrever_thenManifestFirstAndOffsetsMatchDecompressedTar() throws Exception {
+        ArchiveOutput output = new ArchiveOutput(formatos, registry, "tar.zst");
+
+        ArquivoFrames resultado = output.escrever(framesDir);
+        arquivo = resultado.arquivo();
+        byte[] tar;
+        try (InputStream in = new ZstdInputStream(Files.newInputStream(arquivo))) {
+            tar = in.readAllBytes();
+        }
+
+        assertThat(new String(tar, 0, FrameManifest.ENTRADA.length(), StandardCharsets.US_ASCII))
+                .isEqualTo(FrameManifest.ENTRADA);
+        assertThat(new String(tar, 257, 5, StandardCharsets.US_ASCII)).isEqualTo("ustar");
+        assertThat(tar.length % TarFrameWriter.BLOCO).isZero();
+        // offsets valem no tar descomprimido, não no arquivo publicado: nada de sidecar para GET com Range
+        assertThat(resultado.manifestJson()).isNull();
+        int tamanhoManifesto = Integer.parseInt(new String(tar, 124, 11, StandardCharsets.US_ASCII).trim(), 8);
+        byte[] manifestoNoTar =
+                Arrays.copyOfRange(tar, TarFrameWriter.BLOCO, TarFrameWriter.BLOCO + tamanhoManifesto);
+        assertThat(new ObjectMapper().readValue(manifestoNoTar, FrameManifest.class))
+                .isEqualTo(resultado.manifest());
+
+        assertThat(resultado.manifest().frames()).hasSize(80);
+        assertThat(resultado.manifest().frames().get(1).ptsUs()).isEqualTo(40000);
+        for (FrameManifestEntry e : resultado.manifest().frames()) {
+            assertThat(Arrays.copyOfRange(tar, (int) e.offset(), (int) e.fim()))
+                    .isEqualTo(Files.readAllBytes(framesDir.resolve(e.nome())));
+        }
+
+        assertThat(output.caminho("saida/u/v.zip")).isEqualTo("saida/u/v.tar.zst");
+        assertThat(registry.get(ArchiveOutput.BYTES_METRIC)
+                        .tag("formato", "tar.zst")
+                        .summary()
+                        .totalAmount())
+                .isEqualTo(Files.size(arquivo));
+        assertThat(registry.get(ArchiveOutput.DURACAO_METRIC)
+                        .tag("formato", "tar.zst")
+                        .timer()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Formato desconhecido falha na inicialização")
+    void givenUnknownFormat_whenCreate_thenFails() {
+        assertThatThrownBy(() -> new ArchiveOutput(formatos, registry, "rar"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("rar");
+    }
+}
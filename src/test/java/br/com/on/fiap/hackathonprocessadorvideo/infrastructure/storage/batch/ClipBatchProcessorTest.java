@@ -0,0 +1,209 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ClipeProcessado;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.FormatoPreview;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.LoteVideos;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.Rendicao;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ResultadoLote;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.VideoMensagem;
+import br.com.on.fiap.hackathonprocessadorvideo.fixture.VideoMensagemFixture;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameListener;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameSink;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.S3AsyncTransfer;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ZipArchiveFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ClipBatchProcessorTest {
+
+    private final S3AsyncTransfer transfer = mock(S3AsyncTransfer.class);
+    private final ExtratorFalso extractor = new ExtratorFalso();
+    private final Map<String, byte[]> enviados = new HashMap<>();
+    private final List<String> baixados = new ArrayList<>();
+    private ClipBatchProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveOutput archiveOutput =
+                new ArchiveOutput(List.of(new ZipArchiveFormat()), new SimpleMeterRegistry(), "zip");
+        processor = new ClipBatchProcessor(transfer, extractor, archiveOutput, 2, 10, "bucket");
+        when(transfer.baixar(eq("bucket"), anyString(), any(Path.class))).thenAnswer(inv -> {
+            String key = inv.getArgument(1);
+            Path destino = inv.getArgument(2);
+            baixados.add(key);
+            if (key.contains("ausente")) return CompletableFuture.failedFuture(new IOException("NoSuchKey"));
+            Files.writeString(destino, key);
+            return CompletableFuture.completedFuture(destino);
+        });
+        when(transfer.enviar(eq("bucket"), anyString(), any(Path.class), anyString()))
+                .thenAnswer(inv -> {
+                    enviados.put(inv.getArgument(1), Files.readAllBytes(inv.<Path>getArgument(2)));
+                    return CompletableFuture.completedFuture(null);
+                });
+        when(transfer.enviar(eq("bucket"), anyString(), any(byte[].class), anyString()))
+                .thenAnswer(inv -> {
+                    enviados.put(inv.getArgument(1), inv.getArgument(2));
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+
+    @Test
+    @DisplayName("Combinada: um zip com uma pasta por clipe e lote.json; clipe ausente entra com erro; uma sessão")
+    void givenCombinedBatch_whenProcessar_thenSingleZipWithFolderPerClipAndIndex() throws Exception {
+        VideoMensagem mensagem =
+                mensagem(new LoteVideos(List.of("entrada/u/a.mp4", "entrada/u/ausente.mp4", "entrada/u/c.mp4"), null));
+
+        ResultadoLote resultado = processor
+                .processar(mensagem, OpcoesProcessamento.padrao(), Runnable::run)
+                .join();
+
+        assertThat(resultado.caminhoSaida()).isEqualTo("saida/u/a.lote.zip");
+        assertThat(resultado.clipes())
+                .extracting(ClipeProcessado::caminhoSaida)
+                .containsExactly("000-a/", null, "002-c/");
+        assertThat(resultado.clipes().get(1).erro()).contains("NoSuchKey");
+        assertThat(extractor.sessoes).hasValue(1);
+        assertThat(extractor.fechadas).hasValue(1);
+
+        List<String> entradas = new ArrayList<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(enviados.get("saida/u/a.lote.zip")))) {
+            for (ZipEntry e = zis.getNextEntry(); e != null; e = zis.getNextEntry()) entradas.add(e.getName());
+        }
+        assertThat(entradas)
+                .containsExactly(
+                        "000-a/frame-0.png",
+                        "000-a/frame-1.png",
+                        "002-c/frame-0.png",
+                        "002-c/frame-1.png",
+                        ClipBatchProcessor.INDICE);
+    }
+
+    @Test
+    @DisplayName("Por clipe: cada clipe com arquivo e manifesto próprios, mais o índice .lote.json")
+    void givenPerClipBatch_whenProcessar_thenArchivePerClipAndIndex() {
+        VideoMensagem mensagem =
+                mensagem(new LoteVideos(List.of("entrada/u/a.mp4", "entrada/u/b.mp4"), LoteVideos.SaidaLote.POR_CLIPE));
+
+        ResultadoLote resultado = processor
+                .processar(mensagem, OpcoesProcessamento.padrao(), Runnable::run)
+                .join();
+
+        assertThat(resultado.caminhoSaida()).isEqualTo("saida/u/a.lote.json");
+        assertThat(resultado.clipes()).allMatch(ClipeProcessado::sucesso);
+        assertThat(enviados)
+                .containsKeys(
+                        "saida/u/a.zip",
+                        "saida/u/a.manifest.json",
+                        "saida/u/b.zip",
+                        "saida/u/b.manifest.json",
+                        "saida/u/a.lote.json");
+        assertThat(baixados).containsExactly("entrada/u/a.mp4", "entrada/u/b.mp4");
+    }
+
+    @Test
+    @DisplayName("Dado upload de um clipe que falha quando o lote é por clipe então só esse clipe entra com erro")
+    void givenClipUploadFails_whenProcessarPerClip_thenOnlyThatClipFails() {
+        when(transfer.enviar(eq("bucket"), eq("saida/u/b.zip"), any(Path.class), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("SlowDown")));
+        VideoMensagem mensagem =
+                mensagem(new LoteVideos(List.of("entrada/u/a.mp4", "entrada/u/b.mp4"), LoteVideos.SaidaLote.POR_CLIPE));
+
+        ResultadoLote resultado = processor
+                .processar(mensagem, OpcoesProcessamento.padrao(), Runnable::run)
+                .join();
+
+        assertThat(resultado.clipes()).extracting(ClipeProcessado::sucesso).containsExactly(true, false);
+        assertThat(resultado.clipes().get(1).erro()).contains("SlowDown");
+        assertThat(enviados).containsKeys("saida/u/a.zip", "saida/u/a.lote.json");
+    }
+
+    @Test
+    @DisplayName("Dado preview ou rendições quando validar o lote então rejeita")
+    void givenPreviewOrRenditions_whenValidar_thenRejects() {
+        LoteVideos lote = new LoteVideos(List.of("entrada/u/a.mp4"), null);
+        OpcoesProcessamento comPreview =
+                new OpcoesProcessamento(null, null, null, null, null, null, FormatoPreview.WEBP);
+        Rendicao thumb = new Rendicao("thumb", null, null, null, null, null, null);
+        OpcoesProcessamento comRendicoes =
+                new OpcoesProcessamento(null, null, null, null, null, null, null, List.of(thumb));
+
+        assertThatThrownBy(() -> processor.validar(lote, comPreview))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("preview");
+        assertThatThrownBy(() -> processor.validar(lote, comRendicoes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("rendicoes");
+    }
+
+    private static VideoMensagem mensagem(LoteVideos lote) {
+        return VideoMensagemFixture.builder().caminhoVideo(null).lote(lote).build();
+    }
+
+    /** Escreve dois frames por vídeo e conta as sessões de lote abertas e fechadas. */
+    private static final class ExtratorFalso implements FrameExtractor {
+
+        private final AtomicInteger sessoes = new AtomicInteger();
+        private final AtomicInteger fechadas = new AtomicInteger();
+
+        @Override
+        public Lote abrirLote() {
+            sessoes.incrementAndGet();
+            return new Lote() {
+                @Override
+                public Path extract(Path videoFile, OpcoesProcessamento opcoes, FrameListener listener)
+                        throws IOException {
+                    return ExtratorFalso.this.extract(videoFile, opcoes, listener);
+                }
+
+                @Override
+                public void close() {
+                    fechadas.incrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        public Path extract(Path videoFile, OpcoesProcessamento opcoes, FrameListener listener) throws IOException {
+            Path dir = Files.createTempDirectory("frames-lote-");
+            Files.writeString(dir.resolve("frame-0.png"), "f0");
+            Files.writeString(dir.resolve("frame-1.png"), "f1");
+            return dir;
+        }
+
+        @Override
+        public Path extract(URI source, OpcoesProcessamento opcoes, FrameListener listener) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int decode(Path videoFile, OpcoesProcessamento opcoes, FrameSink sink) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
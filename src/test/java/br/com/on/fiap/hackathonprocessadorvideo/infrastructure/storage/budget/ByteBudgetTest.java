@@ -0,0 +1,53 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.budget;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.AjusteTamanho;
+import java.util.Arrays;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ByteBudget - plano a partir da calibração e ajustes durante a extração")
+class ByteBudgetTest {
+
+    /** Bytes por frame calibrados em 90, 75, 60, 45, 30 e 15. */
+    private static final long[] AMOSTRAS = {9000, 6000, 4500, 3500, 2500, 1500};
+
+    private static int nivel(int qualidade) {
+        return Arrays.stream(ByteBudget.QUALIDADES).boxed().toList().indexOf(qualidade);
+    }
+
+    @Test
+    @DisplayName("Plano fica com a maior qualidade que cabe; se nem a menor cabe, espaça a amostragem")
+    void givenCalibration_whenPlanejar_thenBestFittingQualityOrStride() {
+        ByteBudget folgado = ByteBudget.planejar(800_000, AMOSTRAS, 100);
+        assertThat(folgado.qualidade()).isEqualTo(75);
+        assertThat(folgado.intervalo()).isEqualTo(1);
+
+        ByteBudget apertado = ByteBudget.planejar(ByteBudget.OVERHEAD_FIXO + 100_000, AMOSTRAS, 100);
+        assertThat(apertado.qualidade()).isEqualTo(15);
+        assertThat(apertado.intervalo()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Frames maiores que a calibração derrubam a qualidade e o total não passa do alvo, sem perder frames")
+    void givenFramesLargerThanCalibrated_whenRegistrar_thenQualityDropsAndStaysWithinBudget() {
+        long alvo = 500_000;
+        ByteBudget orcamento = ByteBudget.planejar(alvo, AMOSTRAS, 60);
+        int qualidadePlanejada = orcamento.qualidade();
+
+        long total = ByteBudget.OVERHEAD_FIXO;
+        for (int i = 0; i < 60; i++) {
+            if (!orcamento.aceitar()) continue;
+            // o vídeo real comprime duas vezes pior que a amostra
+            long bytes = 2 * AMOSTRAS[nivel(orcamento.qualidade())];
+            if (orcamento.registrar(bytes)) total += bytes + ByteBudget.OVERHEAD_POR_FRAME;
+        }
+
+        AjusteTamanho ajuste = orcamento.ajuste("JPEG");
+        assertThat(total).isLessThanOrEqualTo(alvo);
+        assertThat(ajuste.qualidadeInicial()).isEqualTo(qualidadePlanejada);
+        assertThat(ajuste.qualidadeMinima()).isLessThan(qualidadePlanejada);
+        assertThat(ajuste.frames()).isEqualTo(60);
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+class VideoCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path tmp;
+
+    private Path video(String nome, int bytes) throws IOException {
+        Path arquivo = tmp.resolve(nome);
+        Files.write(arquivo, new byte[bytes]);
+        return arquivo;
+    }
+
+    private double contador(String nome) {
+        return registry.get(nome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Acerto: o mesmo ETag restaura o vídeo sem depender dos temporários do job")
+    void givenCachedVideo_whenRestaurar_thenJobGetsIndependentCopy() throws IOException {
+        VideoCache cache = new VideoCache(registry, true, tmp.resolve("cache"), 1024);
+        Path baixado = video("baixado.mp4", 100);
+        cache.guardar("videos", "entrada/v.mp4", "\"e1\"", baixado);
+        Files.delete(baixado);
+
+        assertThat(cache.etag("videos", "entrada/v.mp4")).contains("\"e1\"");
+        Path destino = video("job.mp4", 0);
+        assertThat(cache.restaurar("videos", "entrada/v.mp4", "\"e1\"", destino))
+                .isTrue();
+        assertThat(Files.size(destino)).isEqualTo(100);
+        Files.delete(destino);
+
+        Path outro = tmp.resolve("outro.mp4");
+        assertThat(cache.restaurar("videos", "entrada/v.mp4", "\"e1\"", outro)).isTrue();
+        assertThat(cache.restaurar("videos", "entrada/v.mp4", "\"e2\"", tmp.resolve("x.mp4")))
+                .isFalse();
+        assertThat(contador(VideoCache.ACERTOS_METRIC)).isEqualTo(2.0);
+        assertThat(contador(VideoCache.FALTAS_METRIC)).isEqualTo(1.0);
+        assertThat(VideoCache.naoModificado(
+                        S3Exception.builder().statusCode(304).build()))
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("Sem espaço: despeja o vídeo usado há mais tempo, sem apagar o arquivo de quem já o recebeu")
+    void givenFullCache_whenGuardar_thenEvictLeastRecentlyUsed() throws IOException {
+        VideoCache cache = new VideoCache(registry, true, tmp.resolve("cache"), 250);
+        cache.guardar("videos", "a.mp4", "\"a\"", video("a.mp4", 100));
+        cache.guardar("videos", "b.mp4", "\"b\"", video("b.mp4", 100));
+        Path emUso = tmp.resolve("em-uso.mp4");
+        // a vira o mais recente; b é o próximo a sair
+        assertThat(cache.restaurar("videos", "a.mp4", "\"a\"", emUso)).isTrue();
+        Path leitor = tmp.resolve("leitor.mp4");
+        assertThat(cache.restaurar("videos", "b.mp4", "\"b\"", leitor)).isTrue();
+        cache.etag("videos", "a.mp4");
+        cache.restaurar("videos", "a.mp4", "\"a\"", tmp.resolve("de-novo.mp4"));
+
+        cache.guardar("videos", "c.mp4", "\"c\"", video("c.mp4", 100));
+
+        assertThat(cache.etag("videos", "b.mp4")).isEmpty();
+        assertThat(cache.etag("videos", "a.mp4")).isPresent();
+        assertThat(cache.etag("videos", "c.mp4")).isPresent();
+        assertThat(Files.size(leitor)).isEqualTo(100);
+        assertThat(cache.bytes()).isEqualTo(200);
+        assertThat(contador(VideoCache.DESPEJOS_METRIC)).isEqualTo(1.0);
+    }
+}
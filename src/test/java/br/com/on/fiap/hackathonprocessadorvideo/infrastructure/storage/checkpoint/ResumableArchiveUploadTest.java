@@ -0,0 +1,256 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.checkpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+@ExtendWith(MockitoExtension.class)
+class ResumableArchiveUploadTest {
+
+    private static final String SAIDA = "saida/v.zip";
+    private static final int TAMANHO_PARTE = 1000;
+
+    @Mock
+    private S3Client s3Client;
+
+    private final Map<String, byte[]> objetos = new ConcurrentHashMap<>();
+    private final Map<Integer, byte[]> partes = new TreeMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CheckpointStore store;
+    private Path framesDir;
+    private Path zip;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        framesDir = Files.createTempDirectory("frames-checkpoint-");
+        store = new CheckpointStore(s3Client, objectMapper, "videos");
+
+        lenient()
+                .when(s3Client.putObject(any(Consumer.class), any(RequestBody.class)))
+                .thenAnswer(inv -> {
+                    PutObjectRequest.Builder b = PutObjectRequest.builder();
+                    ((Consumer<PutObjectRequest.Builder>) inv.getArgument(0)).accept(b);
+                    objetos.put(b.build().key(), ler(inv.getArgument(1)));
+                    return null;
+                });
+        lenient().when(s3Client.getObjectAsBytes(any(Consumer.class))).thenAnswer(inv -> {
+            GetObjectRequest.Builder b = GetObjectRequest.builder();
+            ((Consumer<GetObjectRequest.Builder>) inv.getArgument(0)).accept(b);
+            byte[] dados = objetos.get(b.build().key());
+            if (dados == null) throw NoSuchKeyException.builder().build();
+            return ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), dados);
+        });
+        lenient().when(s3Client.deleteObjects(any(Consumer.class))).thenAnswer(inv -> {
+            DeleteObjectsRequest.Builder b = DeleteObjectsRequest.builder();
+            ((Consumer<DeleteObjectsRequest.Builder>) inv.getArgument(0)).accept(b);
+            b.build().delete().objects().stream().map(ObjectIdentifier::key).forEach(objetos::remove);
+            return null;
+        });
+        lenient()
+                .when(s3Client.createMultipartUpload(any(Consumer.class)))
+                .thenReturn(
+                        CreateMultipartUploadResponse.builder().uploadId("up-1").build());
+        lenient()
+                .when(s3Client.uploadPart(any(Consumer.class), any(RequestBody.class)))
+                .thenAnswer(inv -> {
+                    UploadPartRequest.Builder b = UploadPartRequest.builder();
+                    ((Consumer<UploadPartRequest.Builder>) inv.getArgument(0)).accept(b);
+                    int numero = b.build().partNumber();
+                    partes.put(numero, ler(inv.getArgument(1)));
+                    return UploadPartResponse.builder().eTag("etag-" + numero).build();
+                });
+        lenient().when(s3Client.completeMultipartUpload(any(Consumer.class))).thenAnswer(inv -> {
+            CompleteMultipartUploadRequest.Builder b = CompleteMultipartUploadRequest.builder();
+            ((Consumer<CompleteMultipartUploadRequest.Builder>) inv.getArgument(0)).accept(b);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (CompletedPart p : b.build().multipartUpload().parts()) {
+                assertThat(p.eTag()).isEqualTo("etag-" + p.partNumber());
+                out.write(partes.get(p.partNumber()));
+            }
+            objetos.put(b.build().key(), out.toByteArray());
+            return null;
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteRecursively(framesDir);
+        StorageFileUtil.deleteQuietly(zip);
+    }
+
+    private ResumableArchiveUpload abrir() throws IOException {
+        return new ResumableArchiveUpload(s3Client, store, "videos", SAIDA, TAMANHO_PARTE, 0);
+    }
+
+    private static byte[] ler(RequestBody body) throws IOException {
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static long pts(int frame) {
+        return frame * 40_000L;
+    }
+
+    private static byte[] conteudo(int frame) {
+        byte[] b = new byte[300];
+        Arrays.fill(b, (byte) ('a' + frame));
+        return b;
+    }
+
+    /** Simula o extrator: grava o arquivo do frame (numeração local) e avisa o listener. */
+    private void emitir(ResumableArchiveUpload upload, int indiceLocal, int frame) throws IOException {
+        Path arquivo = framesDir.resolve("frame-" + indiceLocal + ".png");
+        Files.write(arquivo, conteudo(frame));
+        upload.frameEscrito(arquivo, indiceLocal, pts(frame));
+    }
+
+    private ZipFile zipConcluido() throws IOException {
+        zip = Files.createTempFile("checkpoint-", ".zip");
+        Files.write(zip, objetos.get(SAIDA));
+        return new ZipFile(zip.toFile());
+    }
+
+    private void verificarZip(int frames) throws IOException {
+        byte[] bytes = objetos.get(SAIDA);
+        try (ZipFile zf = zipConcluido()) {
+            List<String> nomes = Collections.list(zf.entries()).stream()
+                    .map(ZipEntry::getName)
+                    .toList();
+            List<String> esperados = new ArrayList<>();
+            esperados.add(FrameManifest.ENTRADA);
+            for (int i = 0; i < frames; i++) esperados.add("frame-" + i + ".png");
+            assertThat(nomes).containsExactlyElementsOf(esperados);
+
+            byte[] manifestJson =
+                    zf.getInputStream(zf.getEntry(FrameManifest.ENTRADA)).readAllBytes();
+            // no zip o manifesto ocupa a reserva inteira; o sidecar leva só o JSON
+            String json = new String(manifestJson, StandardCharsets.UTF_8).trim();
+            assertThat(new String(objetos.get(FrameManifest.caminhoSidecar(SAIDA)), StandardCharsets.UTF_8))
+                    .isEqualTo(json);
+            FrameManifest manifest = objectMapper.readValue(json, FrameManifest.class);
+            assertThat(manifest.frames()).hasSize(frames);
+            for (int i = 0; i < frames; i++) {
+                FrameManifestEntry e = manifest.frames().get(i);
+                assertThat(e.indice()).isEqualTo(i);
+                assertThat(e.ptsUs()).isEqualTo(pts(i));
+                assertThat(zf.getInputStream(zf.getEntry(e.nome())).readAllBytes())
+                        .isEqualTo(conteudo(i));
+                assertThat(Arrays.copyOfRange(bytes, (int) e.offset(), (int) e.fim()))
+                        .isEqualTo(conteudo(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve montar o zip em partes com o manifesto como primeira entrada e limpar o checkpoint")
+    void givenFrames_whenConcluir_thenZipValidoComManifestoPrimeiro() throws IOException {
+        try (ResumableArchiveUpload upload = abrir()) {
+            upload.ajustar(OpcoesProcessamento.padrao());
+            upload.inicio(10);
+            for (int i = 0; i < 10; i++) emitir(upload, i, i);
+            upload.concluir();
+        }
+
+        assertThat(partes).hasSizeGreaterThan(3);
+        verificarZip(10);
+        assertThat(objetos.keySet()).noneMatch(k -> k.startsWith(CheckpointStore.prefixo(SAIDA)));
+    }
+
+    @Test
+    @DisplayName("Deve retomar do checkpoint, descartar frames já enviados e concluir o mesmo upload")
+    void givenQuedaNoMeio_whenReentrega_thenRetomaDoCheckpoint() throws IOException {
+        try (ResumableArchiveUpload upload = abrir()) {
+            upload.ajustar(OpcoesProcessamento.padrao());
+            upload.inicio(10);
+            for (int i = 0; i < 7; i++) emitir(upload, i, i);
+            // worker cai aqui: frames no buffer não chegaram ao S3
+        }
+        ExtractionCheckpoint checkpoint = store.carregar(SAIDA).orElseThrow();
+        assertThat(checkpoint.partes()).isNotEmpty();
+        int retomarDe = checkpoint.proximoIndice();
+        assertThat(retomarDe).isBetween(1, 6);
+        assertThat(checkpoint.ancoraUs()).isEqualTo(pts(0));
+
+        try (ResumableArchiveUpload upload = abrir()) {
+            assertThat(upload.retomado()).isTrue();
+            assertThat(upload.ancoraAmostragemUs()).isEqualTo(pts(0));
+            OpcoesProcessamento restante = upload.ajustar(OpcoesProcessamento.padrao());
+            assertThat(restante.inicioMs()).isEqualTo(pts(retomarDe - 1) / 1000);
+            upload.inicio(10);
+            // o seek cai no último frame já enviado: o extrator o entrega de novo
+            int local = 0;
+            for (int frame = retomarDe - 1; frame < 10; frame++) emitir(upload, local++, frame);
+            upload.concluir();
+        }
+
+        verify(s3Client, times(1)).createMultipartUpload(any(Consumer.class));
+        verificarZip(10);
+    }
+
+    @Test
+    @DisplayName("Deve descontar do limite de frames o que já foi enviado")
+    void givenLimiteDeFrames_whenRetomado_thenLimiteRestante() throws IOException {
+        OpcoesProcessamento opcoes = new OpcoesProcessamento(null, null, null, null, 8);
+        try (ResumableArchiveUpload upload = abrir()) {
+            upload.ajustar(opcoes);
+            upload.inicio(-1);
+            for (int i = 0; i < 6; i++) emitir(upload, i, i);
+        }
+        int enviados = store.carregar(SAIDA).orElseThrow().proximoIndice();
+
+        try (ResumableArchiveUpload upload = abrir()) {
+            OpcoesProcessamento restante = upload.ajustar(opcoes);
+            assertThat(restante.maxFrames()).isEqualTo(8 - enviados + 2);
+            int local = 0;
+            for (int frame = enviados - 1; frame < 10; frame++) emitir(upload, local++, frame);
+            upload.concluir();
+        }
+
+        verificarZip(8);
+    }
+}
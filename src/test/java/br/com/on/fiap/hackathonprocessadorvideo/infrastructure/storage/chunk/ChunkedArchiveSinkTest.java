@@ -0,0 +1,152 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.chunk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.NotificacaoVideo;
+import br.com.on.fiap.hackathonprocessadorvideo.fixture.VideoMensagemFixture;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging.ProgressNotifier;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.messaging.VideoSendMessageServiceAdapter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedArchiveSinkTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private VideoSendMessageServiceAdapter sender;
+
+    private final Map<String, byte[]> enviados = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path framesDir;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        framesDir = Files.createTempDirectory("frames-chunk-");
+        lenient()
+                .when(s3Client.putObject(any(Consumer.class), any(RequestBody.class)))
+                .thenAnswer(inv -> {
+                    PutObjectRequest.Builder b = PutObjectRequest.builder();
+                    ((Consumer<PutObjectRequest.Builder>) inv.getArgument(0)).accept(b);
+                    try (InputStream in = ((RequestBody) inv.getArgument(1))
+                            .contentStreamProvider()
+                            .newStream()) {
+                        enviados.put(b.build().key(), in.readAllBytes());
+                    }
+                    return null;
+                });
+    }
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteRecursively(framesDir);
+    }
+
+    private ChunkedArchiveSink sink(int maxFrames, long maxBytes) {
+        ProgressNotifier notifier = new ProgressNotifier(sender, "arn:topic", 60_000);
+        return new ChunkedArchiveSink(
+                s3Client,
+                objectMapper,
+                notifier.iniciar(VideoMensagemFixture.sample()),
+                "videos",
+                "saida/v.zip",
+                maxFrames,
+                maxBytes,
+                1);
+    }
+
+    private void frames(ChunkedArchiveSink sink, int de, int ate, int tamanho) throws IOException {
+        for (int i = de; i < ate; i++) {
+            Path f = framesDir.resolve("frame-" + i + ".png");
+            Files.write(f, new byte[tamanho]);
+            sink.frameEscrito(f, i, i * 100_000L);
+        }
+    }
+
+    @Test
+    @DisplayName("Fecha partes por quantidade de frames e publica índice com numeração global")
+    void givenFrameLimit_whenConcluir_thenPartsAndIndex() throws IOException {
+        String indice;
+        try (ChunkedArchiveSink sink = sink(4, Long.MAX_VALUE)) {
+            sink.inicio(10);
+            frames(sink, 0, 10, 10);
+            indice = sink.concluir();
+        }
+
+        assertThat(indice).isEqualTo("saida/v.partes.json");
+        PartesIndice partes = objectMapper.readValue(enviados.get(indice), PartesIndice.class);
+        assertThat(partes.frames()).isEqualTo(10);
+        assertThat(partes.partes())
+                .extracting(PartesIndice.Parte::caminho, PartesIndice.Parte::primeiroFrame, PartesIndice.Parte::frames)
+                .containsExactly(
+                        tuple("saida/v.parte-00000.zip", 0, 4),
+                        tuple("saida/v.parte-00001.zip", 4, 4),
+                        tuple("saida/v.parte-00002.zip", 8, 2));
+        assertThat(enviados).containsKey("saida/v.parte-00001.manifest.json");
+
+        try (ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(enviados.get("saida/v.parte-00001.zip")))) {
+            zis.getNextEntry();
+            assertThat(zis.getNextEntry().getName()).isEqualTo("frame-4.png");
+        }
+        assertThat(framesDir).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Fecha partes por tamanho e notifica a primeira parte imediatamente")
+    void givenByteLimit_whenFrames_thenSplitAndNotifyFirstPart() throws IOException {
+        try (ChunkedArchiveSink sink = sink(1000, 250)) {
+            sink.inicio(6);
+            frames(sink, 0, 6, 100);
+            sink.concluir();
+        }
+
+        assertThat(enviados).containsKeys("saida/v.parte-00000.zip", "saida/v.parte-00001.zip");
+        ArgumentCaptor<NotificacaoVideo> notif = ArgumentCaptor.forClass(NotificacaoVideo.class);
+        verify(sender).enviar(notif.capture(), eq("arn:topic"));
+        assertThat(notif.getValue().situacao()).isEqualTo("EM_PROCESSAMENTO");
+        assertThat(notif.getValue().caminhoSaida()).isEqualTo("saida/v.parte-00000.zip");
+        assertThat(notif.getValue().progresso().framesEstimados()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Falha no upload em segundo plano aparece para a extração")
+    @SuppressWarnings("unchecked")
+    void givenUploadFailure_whenConcluir_thenIOException() throws IOException {
+        when(s3Client.putObject(any(Consumer.class), any(RequestBody.class)))
+                .thenThrow(new IllegalStateException("s3 fora"));
+
+        try (ChunkedArchiveSink sink = sink(2, Long.MAX_VALUE)) {
+            frames(sink, 0, 2, 10);
+            assertThatThrownBy(sink::concluir).isInstanceOf(IOException.class).hasMessageContaining("Upload de parte");
+        }
+    }
+}
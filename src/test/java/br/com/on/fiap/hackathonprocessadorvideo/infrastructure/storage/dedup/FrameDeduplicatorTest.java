@@ -0,0 +1,87 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.ByteBuffer;
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FrameDeduplicatorTest {
+
+    private static final int W = 64;
+    private static final int H = 48;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FrameDeduplicator deduplicator = new FrameDeduplicator(registry, true, 4);
+
+    private Frame frame;
+
+    @AfterEach
+    void cleanup() {
+        if (frame != null) frame.close();
+    }
+
+    /** Faixa clara que começa em {@code inicioFaixa}; {@code ruido} soma um valor pequeno a alguns pixels. */
+    private Frame desenhar(int inicioFaixa, int ruido) {
+        if (frame == null) frame = new Frame(W, H, Frame.DEPTH_UBYTE, 3);
+        ByteBuffer buf = (ByteBuffer) frame.image[0];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                int v = x >= inicioFaixa && x < inicioFaixa + 16 ? 220 : 30;
+                if (ruido > 0 && (x * 7 + y * 3) % 11 == 0) v += ruido;
+                int p = y * frame.imageStride + x * 3;
+                buf.put(p, (byte) v).put(p + 1, (byte) v).put(p + 2, (byte) v);
+            }
+        }
+        return frame;
+    }
+
+    @Test
+    @DisplayName("Deve descartar frames iguais ou com ruído leve e manter mudanças de cena")
+    void givenCenaEstatica_whenRepetido_thenDescartaSoRepetidos() {
+        FrameDeduplicator.Sessao sessao = deduplicator.iniciar();
+
+        assertThat(sessao.repetido(desenhar(10, 0))).isFalse();
+        sessao.emitido();
+        assertThat(sessao.repetido(desenhar(10, 0))).isTrue();
+        assertThat(sessao.repetido(desenhar(10, 3))).isTrue();
+        assertThat(sessao.repetido(desenhar(40, 0))).isFalse();
+        sessao.emitido();
+        assertThat(sessao.repetido(desenhar(40, 0))).isTrue();
+        sessao.concluir();
+
+        assertThat(sessao.descartados()).isEqualTo(3);
+        assertThat(registry.get(FrameDeduplicator.RATIO_METRIC).summary().mean())
+                .isEqualTo(3.0 / 5);
+        assertThat(registry.get(FrameDeduplicator.DUPLICADOS_METRIC).counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Dado frame recusado pela saída quando o próximo é igual então ele não é descartado como repetido")
+    void givenFrameNotEmitted_whenSameFrameAgain_thenNotDuplicate() {
+        FrameDeduplicator.Sessao sessao = deduplicator.iniciar();
+
+        assertThat(sessao.repetido(desenhar(10, 0))).isFalse();
+        sessao.emitido();
+        // mudança de cena que o orçamento não aceita: a referência continua sendo a faixa em 10
+        assertThat(sessao.repetido(desenhar(40, 0))).isFalse();
+        assertThat(sessao.repetido(desenhar(40, 0))).isFalse();
+        sessao.emitido();
+        assertThat(sessao.repetido(desenhar(40, 3))).isTrue();
+        assertThat(sessao.repetido(desenhar(10, 0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Desligado não descarta nada nem registra métricas")
+    void givenDesligado_whenRepetido_thenNuncaDescarta() {
+        FrameDeduplicator.Sessao sessao = FrameDeduplicator.desligado().iniciar();
+
+        assertThat(sessao.repetido(desenhar(10, 0))).isFalse();
+        assertThat(sessao.repetido(desenhar(10, 0))).isFalse();
+        sessao.concluir();
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.bytedeco.ffmpeg.global.avcodec.avcodec_find_encoder_by_name;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameEncodingException;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("FfmpegImageEncoder - codificação sem OpenCV")
+class FfmpegImageEncoderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Frame bgrFrame(int width, int height) {
+        Frame frame = new Frame(width, height, Frame.DEPTH_UBYTE, 3);
+        ByteBuffer buf = (ByteBuffer) frame.image[0];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * frame.imageStride + x * 3;
+                buf.put(i, (byte) 0); // B
+                buf.put(i + 1, (byte) (y * 255 / height)); // G
+                buf.put(i + 2, (byte) 255); // R
+            }
+        }
+        return frame;
+    }
+
+    @Test
+    @DisplayName("Dado frame BGR quando write PNG então gera PNG legível com mesmas dimensões e cores")
+    void givenBgrFrame_whenWritePng_thenReadablePng() throws Exception {
+        Path out = tempDir.resolve("frame-0.png");
+
+        try (FfmpegImageEncoder encoder = new FfmpegImageEncoder(ImageFormat.PNG)) {
+            assertThat(encoder.write(bgrFrame(64, 48), out)).isTrue();
+        }
+
+        BufferedImage img = ImageIO.read(out.toFile());
+        assertThat(img.getWidth()).isEqualTo(64);
+        assertThat(img.getHeight()).isEqualTo(48);
+        int rgb = img.getRGB(10, 0);
+        assertThat((rgb >> 16) & 0xff).isEqualTo(255);
+        assertThat(rgb & 0xff).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado vários frames quando write JPEG então reaproveita o encoder e reabre ao mudar a resolução")
+    void givenSeveralFrames_whenWriteJpeg_thenAllReadable() throws Exception {
+        try (FfmpegImageEncoder encoder = new FfmpegImageEncoder(ImageFormat.JPEG)) {
+            for (int i = 0; i < 3; i++) {
+                assertThat(encoder.write(bgrFrame(32, 32), tempDir.resolve("f" + i + ".jpg")))
+                        .isTrue();
+            }
+            assertThat(encoder.write(bgrFrame(40, 20), tempDir.resolve("f3.jpg")))
+                    .isTrue();
+        }
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(ImageIO.read(tempDir.resolve("f" + i + ".jpg").toFile()).getWidth())
+                    .isEqualTo(32);
+        }
+        assertThat(ImageIO.read(tempDir.resolve("f3.jpg").toFile()).getWidth()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Dado encoder WEBP disponível quando write então gera arquivo RIFF/WEBP")
+    void givenWebpAvailable_whenWrite_thenRiffWebp() throws Exception {
+        Assumptions.assumeTrue(avcodec_find_encoder_by_name("libwebp") != null, "Sem encoder WEBP");
+        Path out = tempDir.resolve("frame-0.webp");
+
+        try (FfmpegImageEncoder encoder = new FfmpegImageEncoder(ImageFormat.WEBP)) {
+            assertThat(encoder.write(bgrFrame(16, 16), out)).isTrue();
+        }
+
+        byte[] bytes = Files.readAllBytes(out);
+        assertThat(new String(bytes, 0, 4)).isEqualTo("RIFF");
+        assertThat(new String(bytes, 8, 4)).isEqualTo("WEBP");
+    }
+
+    @Test
+    @DisplayName("Dado libwebp ausente quando write WEBP então falha em vez de cair no libwebp_anim")
+    void givenLibwebpMissing_whenWriteWebp_thenFails() {
+        Assumptions.assumeTrue(avcodec_find_encoder_by_name("libwebp") == null, "libwebp disponível");
+
+        try (FfmpegImageEncoder encoder = new FfmpegImageEncoder(ImageFormat.WEBP)) {
+            assertThatThrownBy(() -> encoder.write(bgrFrame(16, 16), tempDir.resolve("frame-0.webp")))
+                    .isInstanceOf(FrameEncodingException.class)
+                    .hasMessageContaining("libwebp");
+        }
+    }
+
+    @Test
+    @DisplayName("Dado frame sem imagem quando write então retorna false")
+    void givenFrameWithoutImage_whenWrite_thenFalse() throws Exception {
+        try (FfmpegImageEncoder encoder = new FfmpegImageEncoder(ImageFormat.PNG)) {
+            assertThat(encoder.write(new Frame(), tempDir.resolve("x.png"))).isFalse();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.VideoProcessingServiceAdapter;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ContainerFormat - reconhecimento pelo cabeçalho e chaves de saída")
+class ContainerFormatTest {
+
+    @Test
+    @DisplayName("Os primeiros bytes separam MP4, MOV, MKV, WebM, HLS e DASH")
+    void givenHeaders_whenDetect_thenContainer() {
+        HexFormat hex = HexFormat.of();
+        assertThat(ContainerFormat.doCabecalho(hex.parseHex("0000001c6674797069736f6d00000200")))
+                .contains(ContainerFormat.MP4);
+        assertThat(ContainerFormat.doCabecalho(hex.parseHex("00000014667479707174202000000200")))
+                .contains(ContainerFormat.MOV);
+        byte[] ebml = hex.parseHex("1a45dfa39f4286810142f7810142f2810442f381084282");
+        assertThat(ContainerFormat.doCabecalho(concat(ebml, "\u0088matroska"))).contains(ContainerFormat.MKV);
+        assertThat(ContainerFormat.doCabecalho(concat(ebml, "\u0084webm"))).contains(ContainerFormat.WEBM);
+        assertThat(ContainerFormat.doCabecalho("﻿#EXTM3U\n".getBytes(StandardCharsets.UTF_8)))
+                .contains(ContainerFormat.HLS);
+        assertThat(ContainerFormat.doCabecalho("<?xml version=\"1.0\"?>\n<MPD>".getBytes(StandardCharsets.UTF_8)))
+                .contains(ContainerFormat.DASH);
+        assertThat(ContainerFormat.doCabecalho("RIFF....AVI ".getBytes(StandardCharsets.UTF_8)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("A chave de saída troca qualquer extensão de container por .zip")
+    void givenInputKeys_whenCaminhoSaida_thenZipForEveryContainer() {
+        assertThat(VideoProcessingServiceAdapter.caminhoSaida("entrada/u/a.mp4"))
+                .isEqualTo("saida/u/a.zip");
+        assertThat(VideoProcessingServiceAdapter.caminhoSaida("entrada/u/a.MKV"))
+                .isEqualTo("saida/u/a.zip");
+        assertThat(VideoProcessingServiceAdapter.caminhoSaida("entrada/u/show.m3u8"))
+                .isEqualTo("saida/u/show.zip");
+        assertThat(ContainerFormat.sufixoTemporario("entrada/u/a.webm")).isEqualTo(".webm");
+        assertThat(ContainerFormat.sufixoTemporario("entrada/u/a")).isEqualTo(".mp4");
+    }
+
+    private static byte[] concat(byte[] inicio, String fim) {
+        byte[] resto = fim.getBytes(StandardCharsets.ISO_8859_1);
+        byte[] todos = new byte[inicio.length + resto.length];
+        System.arraycopy(inicio, 0, todos, 0, inicio.length);
+        System.arraycopy(resto, 0, todos, inicio.length, resto.length);
+        return todos;
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FrameArchiveWriterTest {
+
+    private Path framesDir;
+    private Path zip;
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteRecursively(framesDir);
+        StorageFileUtil.deleteQuietly(zip);
+    }
+
+    @Test
+    @DisplayName("Manifesto é a primeira entrada e os offsets apontam para os bytes exatos de cada frame")
+    void givenFramesDir_whenEscrever_thenManifestFirstWithExactOffsets() throws Exception {
+        framesDir = Files.createTempDirectory("frames-manifest-");
+        Random random = new Random(42);
+        // 120 frames força offsets de vários dígitos e exercita o ajuste iterativo do layout
+        for (int i = 0; i < 120; i++) {
+            byte[] dados = new byte[100 + random.nextInt(5000)];
+            random.nextBytes(dados);
+            Files.write(framesDir.resolve("frame-" + i + ".png"), dados);
+        }
+        Files.writeString(framesDir.resolve(FrameManifest.PTS_FILE), "0 0\n1 33333\n119 3966666\n");
+
+        FrameArchiveWriter.Resultado resultado = FrameArchiveWriter.escrever(framesDir);
+        zip = resultado.zip();
+        byte[] bytes = Files.readAllBytes(zip);
+
+        try (ZipFile zf = new ZipFile(zip.toFile())) {
+            assertThat(zf.size()).isEqualTo(121);
+            assertThat(zf.entries().nextElement().getName()).isEqualTo(FrameManifest.ENTRADA);
+            FrameManifest doZip = new ObjectMapper()
+                    .readValue(zf.getInputStream(zf.getEntry(FrameManifest.ENTRADA)), FrameManifest.class);
+            assertThat(doZip).isEqualTo(resultado.manifest());
+        }
+
+        FrameManifest manifest = resultado.manifest();
+        assertThat(manifest.frames()).hasSize(120);
+        assertThat(manifest.frames().get(2).nome()).isEqualTo("frame-2.png");
+        assertThat(manifest.frames().get(1).ptsUs()).isEqualTo(33333);
+        assertThat(manifest.frames().get(119).ptsUs()).isEqualTo(3966666);
+        assertThat(manifest.frames().get(50).ptsUs()).isEqualTo(-1);
+
+        for (FrameManifestEntry e : manifest.frames()) {
+            byte[] fatia = Arrays.copyOfRange(bytes, (int) e.offset(), (int) e.fim());
+            assertThat(fatia).isEqualTo(Files.readAllBytes(framesDir.resolve(e.nome())));
+            assertThat(HexFormat.of()
+                            .formatHex(MessageDigest.getInstance("SHA-256").digest(fatia)))
+                    .isEqualTo(e.sha256());
+        }
+        assertThat(resultado.manifestJson()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Sidecar fica ao lado do zip")
+    void givenZipKey_whenCaminhoSidecar_thenSiblingJson() {
+        assertThat(FrameManifest.caminhoSidecar("saida/u/v.zip")).isEqualTo("saida/u/v.manifest.json");
+    }
+}
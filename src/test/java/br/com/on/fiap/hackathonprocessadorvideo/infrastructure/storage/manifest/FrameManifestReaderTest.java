@@ -0,0 +1,107 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+@ExtendWith(MockitoExtension.class)
+class FrameManifestReaderTest {
+
+    private static final String ZIP = "saida/v.zip";
+
+    @Mock
+    private S3Client s3Client;
+
+    private final List<String> ranges = new ArrayList<>();
+    private Path framesDir;
+    private FrameArchiveWriter.Resultado archive;
+    private FrameManifestReader reader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        framesDir = Files.createTempDirectory("frames-reader-");
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(framesDir.resolve("frame-" + i + ".jpg"), "imagem-" + i);
+        }
+        archive = FrameArchiveWriter.escrever(framesDir);
+        byte[] zip = Files.readAllBytes(archive.zip());
+        byte[] sidecar = archive.manifestJson();
+
+        when(s3Client.getObjectAsBytes(any(Consumer.class))).thenAnswer(inv -> {
+            GetObjectRequest.Builder b = GetObjectRequest.builder();
+            ((Consumer<GetObjectRequest.Builder>) inv.getArgument(0)).accept(b);
+            GetObjectRequest req = b.build();
+            byte[] corpo = req.key().equals(FrameManifest.caminhoSidecar(ZIP)) ? sidecar : zip;
+            if (req.range() != null) {
+                ranges.add(req.range());
+                String[] r = req.range().substring("bytes=".length()).split("-");
+                corpo = Arrays.copyOfRange(corpo, Integer.parseInt(r[0]), Integer.parseInt(r[1]) + 1);
+            }
+            return ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), corpo);
+        });
+        reader = new FrameManifestReader(s3Client, new ObjectMapper(), "videos");
+    }
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteRecursively(framesDir);
+        StorageFileUtil.deleteQuietly(archive.zip());
+    }
+
+    @Test
+    @DisplayName("Um frame: busca só os bytes dele")
+    void givenIndex_whenFrame_thenSingleRangedGet() throws IOException {
+        assertThat(new String(reader.frame(ZIP, 7))).isEqualTo("imagem-7");
+
+        FrameManifestEntry e = archive.manifest().frames().get(7);
+        assertThat(ranges).containsExactly("bytes=" + e.offset() + "-" + (e.fim() - 1));
+    }
+
+    @Test
+    @DisplayName("Sequência de frames: uma única requisição com Range")
+    void givenRun_whenFrames_thenOneRequest() throws IOException {
+        FrameManifest manifest = reader.manifesto(ZIP);
+
+        List<byte[]> frames = reader.frames(ZIP, manifest, 2, 6);
+
+        assertThat(frames).extracting(String::new).containsExactly("imagem-2", "imagem-3", "imagem-4", "imagem-5");
+        assertThat(ranges).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Hash divergente é rejeitado")
+    void givenTamperedManifest_whenFrames_thenIOException() throws IOException {
+        FrameManifest original = reader.manifesto(ZIP);
+        List<FrameManifestEntry> adulterado = new ArrayList<>(original.frames());
+        FrameManifestEntry e = adulterado.get(0);
+        adulterado.set(
+                0, new FrameManifestEntry(e.indice(), e.nome(), e.ptsUs(), e.offset(), e.tamanhoComprimido(), "00"));
+
+        assertThatThrownBy(() -> reader.frames(ZIP, new FrameManifest(1, adulterado), 0, 1))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Hash divergente");
+    }
+}
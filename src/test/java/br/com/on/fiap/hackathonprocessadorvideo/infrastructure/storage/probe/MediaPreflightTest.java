@@ -0,0 +1,69 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import java.io.IOException;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MediaPreflightTest {
+
+    private static final MediaInfo HD = new MediaInfo("isom", 60_000, "avc1", 1920, 1080, 30, 1800, 50L << 20);
+
+    @Mock
+    private MediaProbe probe;
+
+    private MediaPreflight preflight(long maxMb, long maxDuracaoMs, long maxPixels, Set<String> codecs) {
+        return new MediaPreflight(probe, true, maxMb, maxDuracaoMs, maxPixels, codecs);
+    }
+
+    @Test
+    @DisplayName("Deve aceitar vídeo dentro dos limites e devolver os metadados")
+    void givenVideoValido_whenVerificar_thenMediaInfo() throws IOException {
+        when(probe.probe("v.mp4")).thenReturn(HD);
+
+        assertThat(preflight(100, 120_000, 1920 * 1080, Set.of("avc1", "hvc1"))
+                        .verificar("v.mp4", OpcoesProcessamento.padrao()))
+                .contains(HD);
+    }
+
+    @Test
+    @DisplayName("Deve recusar sem trilha de vídeo, codec não permitido ou acima dos limites")
+    void givenForaDosLimites_whenVerificar_thenRejeita() throws IOException {
+        when(probe.probe("v.mp4")).thenReturn(HD);
+        OpcoesProcessamento opcoes = OpcoesProcessamento.padrao();
+
+        assertThatThrownBy(() -> preflight(10, 0, 0, Set.of()).verificar("v.mp4", opcoes))
+                .isInstanceOf(VideoRejeitadoException.class)
+                .hasMessageContaining("bytes");
+        assertThatThrownBy(() -> preflight(0, 30_000, 0, Set.of()).verificar("v.mp4", opcoes))
+                .hasMessageContaining("ms");
+        assertThatThrownBy(() -> preflight(0, 0, 1280 * 720, Set.of()).verificar("v.mp4", opcoes))
+                .hasMessageContaining("1920x1080");
+        assertThatThrownBy(() -> preflight(0, 0, 0, Set.of("hvc1")).verificar("v.mp4", opcoes))
+                .hasMessageContaining("avc1");
+
+        when(probe.probe("a.mp4")).thenReturn(new MediaInfo("isom", 60_000, null, 0, 0, 0, 0, 1024));
+        assertThatThrownBy(() -> preflight(0, 0, 0, Set.of()).verificar("a.mp4", opcoes))
+                .hasMessageContaining("sem trilha de vídeo");
+    }
+
+    @Test
+    @DisplayName("Deve estimar os frames de saída pelo recorte e pela amostragem")
+    void givenOpcoes_whenFramesEstimados_thenConsideraRecorteEAmostragem() {
+        assertThat(MediaPreflight.framesEstimados(HD, OpcoesProcessamento.padrao()))
+                .isEqualTo(1800);
+        assertThat(MediaPreflight.framesEstimados(HD, new OpcoesProcessamento(10_000L, 20_000L, 2.0, null, null)))
+                .isEqualTo(20);
+        assertThat(MediaPreflight.framesEstimados(HD, new OpcoesProcessamento(null, null, null, 3, 100)))
+                .isEqualTo(100);
+    }
+}
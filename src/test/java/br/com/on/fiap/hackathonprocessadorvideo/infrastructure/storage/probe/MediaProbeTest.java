@@ -0,0 +1,117 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.VideoProbe;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.SyntheticVideoUtil;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+
+@ExtendWith(MockitoExtension.class)
+class MediaProbeTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    @Mock
+    private S3Presigner presigner;
+
+    @Mock
+    private VideoProbe videoProbe;
+
+    private MediaProbe probe;
+    private Path video;
+    private byte[] conteudo;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() throws IOException {
+        probe = new MediaProbe(s3Client, presigner, videoProbe, "videos", 32);
+        video = SyntheticVideoUtil.write(Files.createTempFile("probe-", ".mp4"), 640, 360, 30, 10);
+        conteudo = Files.readAllBytes(video);
+
+        lenient().when(s3Client.getObjectAsBytes(any(Consumer.class))).thenAnswer(inv -> {
+            GetObjectRequest.Builder b = GetObjectRequest.builder();
+            ((Consumer<GetObjectRequest.Builder>) inv.getArgument(0)).accept(b);
+            String[] range = b.build().range().substring("bytes=".length()).split("-");
+            int de = Integer.parseInt(range[0]);
+            int ate = Math.min(Integer.parseInt(range[1]), conteudo.length - 1);
+            byte[] parte = Arrays.copyOfRange(conteudo, de, ate + 1);
+            return ResponseBytes.fromByteArray(
+                    GetObjectResponse.builder()
+                            .contentLength((long) parte.length)
+                            .contentRange("bytes " + de + "-" + ate + "/" + conteudo.length)
+                            .build(),
+                    parte);
+        });
+    }
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteQuietly(video);
+    }
+
+    @Test
+    @DisplayName("Deve ler duração, codec, resolução, fps e frames do moov com poucas leituras parciais")
+    @SuppressWarnings("unchecked")
+    void givenMp4ComMoovNoFim_whenProbe_thenMetadadosSemDownloadCompleto() throws IOException {
+        MediaInfo info = probe.probe("entrada/v.mp4");
+
+        assertThat(info.codec()).isEqualTo("mp4v");
+        assertThat(info.largura()).isEqualTo(640);
+        assertThat(info.altura()).isEqualTo(360);
+        assertThat(info.totalFrames()).isEqualTo(30);
+        assertThat(info.fps()).isCloseTo(10.0, within(0.01));
+        assertThat(info.duracaoMs()).isBetween(2900L, 3100L);
+        assertThat(info.tamanhoBytes()).isEqualTo(conteudo.length);
+        verify(s3Client, times(2)).getObjectAsBytes(any(Consumer.class));
+        verifyNoInteractions(videoProbe);
+    }
+
+    @Test
+    @DisplayName("Deve recusar MP4 truncado (upload incompleto, sem moov)")
+    void givenMp4Truncado_whenProbe_thenRejeita() {
+        conteudo = Arrays.copyOf(conteudo, conteudo.length - 200);
+
+        assertThatThrownBy(() -> probe.probe("entrada/v.mp4")).isInstanceOf(VideoRejeitadoException.class);
+    }
+
+    @Test
+    @DisplayName("Deve usar o FFmpeg para containers que não são MP4/MOV")
+    void givenOutroContainer_whenProbe_thenFallbackFfmpeg() throws Exception {
+        conteudo = new byte[] {0x1A, 0x45, (byte) 0xDF, (byte) 0xA3, 0, 0, 0, 0, 0, 0, 0, 0};
+        PresignedGetObjectRequest presigned = mock(PresignedGetObjectRequest.class);
+        when(presigned.url()).thenReturn(new URL("http://localhost/videos/v.mkv"));
+        when(presigner.presignGetObject(any(Consumer.class))).thenReturn(presigned);
+        when(videoProbe.info(any(URI.class)))
+                .thenReturn(new MediaInfo("matroska,webm", 5000, "vp9", 320, 240, 25, 125, -1));
+
+        MediaInfo info = probe.probe("entrada/v.mkv");
+
+        assertThat(info.codec()).isEqualTo("vp9");
+        assertThat(info.tamanhoBytes()).isEqualTo(conteudo.length);
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.rendition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.Rendicao;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoder;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.FrameExtractionException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RenditionLaneTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final FrameEncoder encoder = mock(FrameEncoder.class);
+    private final Frame frame = new Frame(8, 8, Frame.DEPTH_UBYTE, 3);
+
+    @TempDir
+    private Path dir;
+
+    @AfterEach
+    void cleanup() {
+        executor.shutdownNow();
+        frame.close();
+    }
+
+    private RenditionLane faixa() {
+        when(encoder.format()).thenReturn(ImageFormat.PNG);
+        Rendicao rendicao = new Rendicao("thumb", null, null, null, null, null, null);
+        RenditionLane lane = new RenditionLane(rendicao, encoder, dir, mock(ArchiveOutput.class), null, 1);
+        lane.iniciar(executor, null);
+        return lane;
+    }
+
+    @Test
+    @DisplayName("Dado encoder que falha quando o decode segue enfileirando então falha e não deixa cópias na fila")
+    void givenEncoderFails_whenAceitar_thenThrowsAndDrainsQueue() throws Exception {
+        when(encoder.write(any(), any())).thenReturn(false);
+        RenditionLane lane = faixa();
+
+        assertThatThrownBy(() -> {
+                    for (int i = 0; i < 100; i++) lane.aceitar(frame, i, i * 1000L);
+                })
+                .isInstanceOf(FrameExtractionException.class)
+                .hasMessageContaining("thumb");
+        assertThat(lane.pendentes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Dado faixa cancelada quando o decode enfileira então falha sem IllegalStateException")
+    void givenCancelledLane_whenAceitar_thenThrowsExtractionFailure() throws Exception {
+        RenditionLane lane = faixa();
+        lane.close();
+        assertThat(lane.concluir()).failsWithin(5, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> lane.aceitar(frame, 0, 0))
+                .isInstanceOf(FrameExtractionException.class)
+                .hasMessageContaining("descartada");
+        assertThat(lane.pendentes()).isZero();
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.rendition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.ModoSaida;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.Rendicao;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FfmpegFrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ArchiveOutput;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.TarArchiveFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.archive.ZipArchiveFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifestEntry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.SyntheticVideoUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RenditionOutput - várias rendições de um só decode (vídeo sintético 64x48, 3 s a 10 fps)")
+class RenditionOutputTest {
+
+    private final FfmpegFrameExtractor extractor = new FfmpegFrameExtractor();
+    private final ArchiveOutput archiveOutput = new ArchiveOutput(
+            List.<ArchiveFormat>of(new ZipArchiveFormat(), new TarArchiveFormat()), new SimpleMeterRegistry(), "zip");
+    private final RenditionOutput output = new RenditionOutput(FrameEncoderFactory.padrao(), archiveOutput, 2, 4);
+
+    private Path video;
+    private Path raiz;
+
+    @BeforeEach
+    void setup() throws IOException {
+        video = SyntheticVideoUtil.write(Files.createTempFile("synthetic-", ".mp4"), 64, 48, 30, 10);
+        raiz = Files.createTempDirectory("rendicoes-");
+    }
+
+    @AfterEach
+    void cleanup() {
+        output.encerrar();
+        StorageFileUtil.deleteQuietly(video);
+        StorageFileUtil.deleteRecursively(raiz);
+    }
+
+    @Test
+    @DisplayName("Cada rendição recebe a própria amostragem, resolução, formato e arquivo")
+    void givenTwoRenditions_whenDistribuir_thenEachArchiveHasItsOwnFrames() throws Exception {
+        OpcoesProcessamento opcoes = new OpcoesProcessamento(
+                null,
+                null,
+                null,
+                null,
+                null,
+                ModoSaida.FRAMES,
+                null,
+                List.of(
+                        new Rendicao("full", null, "PNG", null, null, null, null),
+                        new Rendicao("thumbs", 32, "JPEG", null, 3, 5, "tar")));
+        opcoes.validar();
+        output.validar(opcoes);
+
+        List<RendicaoArquivada> arquivos;
+        try (RenditionOutput.Sessao sessao = output.abrir(raiz, opcoes)) {
+            assertThat(extractor.distribuir(video, opcoes, sessao.faixas())).isEqualTo(35);
+            arquivos = sessao.concluir().join();
+        }
+
+        RendicaoArquivada full = arquivos.get(0);
+        assertThat(full.formato().nome()).isEqualTo("zip");
+        assertThat(full.arquivo().manifest().frames()).hasSize(30);
+        assertThat(RenditionOutput.caminho("saida/x.zip", "full", full.formato()))
+                .isEqualTo("saida/x.full.zip");
+
+        RendicaoArquivada thumbs = arquivos.get(1);
+        assertThat(thumbs.formato().nome()).isEqualTo("tar");
+        List<FrameManifestEntry> frames = thumbs.arquivo().manifest().frames();
+        assertThat(frames).extracting(FrameManifestEntry::nome).allMatch(n -> n.endsWith(".jpg"));
+        // um a cada 3 frames de origem: pts 0, 300, 600... ms
+        assertThat(frames)
+                .extracting(FrameManifestEntry::ptsUs)
+                .containsExactly(0L, 300_000L, 600_000L, 900_000L, 1_200_000L);
+
+        byte[] tar = Files.readAllBytes(thumbs.arquivo().arquivo());
+        FrameManifestEntry primeiro = frames.get(0);
+        BufferedImage img = ImageIO.read(
+                new ByteArrayInputStream(Arrays.copyOfRange(tar, (int) primeiro.offset(), (int) primeiro.fim())));
+        assertThat(img.getWidth()).isEqualTo(32);
+        assertThat(img.getHeight()).isEqualTo(24);
+    }
+
+    @Test
+    @DisplayName("Rendições demais ou formato desconhecido são recusados antes do download")
+    void givenInvalidRenditions_whenValidar_thenRejects() {
+        Rendicao valida = umFps("a");
+        OpcoesProcessamento demais = new OpcoesProcessamento(
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                List.of(valida, umFps("b"), umFps("c"), umFps("d"), umFps("e")));
+        assertThatThrownBy(() -> output.validar(demais)).hasMessageContaining("máximo é 4");
+
+        OpcoesProcessamento rar = new OpcoesProcessamento(
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                List.of(new Rendicao("a", null, "PNG", null, null, null, "rar")));
+        assertThatThrownBy(() -> output.validar(rar)).hasMessageContaining("rar");
+
+        OpcoesProcessamento repetida =
+                new OpcoesProcessamento(null, null, null, null, null, null, null, List.of(valida, valida));
+        assertThatThrownBy(repetida::validar).hasMessageContaining("repetida");
+    }
+
+    private static Rendicao umFps(String nome) {
+        return new Rendicao(nome, null, null, 1.0, null, null, null);
+    }
+}
@@ -0,0 +1,123 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.VideoRejeitadoException;
+import java.net.URI;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("HlsPlaylist e DashManifest - variantes, segmentos, tempos e recortes")
+class PlaylistParserTest {
+
+    private static final URI BASE_HLS = URI.create("s3://bucket/entrada/show/master.m3u8");
+    private static final URI BASE_DASH = URI.create("s3://bucket/entrada/show/manifest.mpd");
+
+    @Test
+    @DisplayName("HLS: a mestre escolhe a maior banda; a de mídia traz init, segmentos e tempos resolvidos")
+    void givenHlsPlaylists_whenParse_thenBestVariantAndTimedSegments() {
+        String mestre =
+                """
+                #EXTM3U
+                #EXT-X-STREAM-INF:BANDWIDTH=800000,RESOLUTION=640x360
+                baixa/index.m3u8
+                #EXT-X-STREAM-INF:BANDWIDTH=2400000,RESOLUTION=1280x720
+                alta/index.m3u8
+                """;
+        URI variante = HlsPlaylist.variante(mestre, BASE_HLS).orElseThrow();
+        assertThat(variante).isEqualTo(URI.create("s3://bucket/entrada/show/alta/index.m3u8"));
+
+        String midia =
+                """
+                #EXTM3U
+                #EXT-X-VERSION:7
+                #EXT-X-MAP:URI="init.mp4"
+                #EXT-X-KEY:METHOD=NONE
+                #EXTINF:4.000,
+                seg0.m4s
+                #EXTINF:4.000,
+                seg1.m4s
+                #EXTINF:2.5,
+                seg2.m4s
+                #EXT-X-ENDLIST
+                """;
+        Playlist playlist = HlsPlaylist.midia(midia, variante);
+
+        assertThat(playlist.init()).isEqualTo(URI.create("s3://bucket/entrada/show/alta/init.mp4"));
+        assertThat(playlist.segmentos())
+                .extracting(Playlist.Segmento::inicioUs)
+                .containsExactly(0L, 4_000_000L, 8_000_000L);
+        assertThat(playlist.duracaoUs()).isEqualTo(10_500_000L);
+        assertThat(playlist.recorte(5000L, 8000L))
+                .extracting(s -> s.uri().getPath())
+                .containsExactly("/entrada/show/alta/seg1.m4s");
+    }
+
+    @Test
+    @DisplayName("HLS criptografado é recusado")
+    void givenEncryptedHls_whenParse_thenRejected() {
+        String midia = "#EXTM3U\n#EXT-X-KEY:METHOD=AES-128,URI=\"k\"\n#EXTINF:4,\ns.ts\n";
+
+        assertThatThrownBy(() -> HlsPlaylist.midia(midia, BASE_HLS))
+                .isInstanceOf(VideoRejeitadoException.class)
+                .hasMessageContaining("criptografados");
+    }
+
+    @Test
+    @DisplayName("DASH: SegmentTemplate com SegmentTimeline, BaseURL e $Number%05d$ na representação de maior banda")
+    void givenDashTimeline_whenParse_thenSegmentsFromTemplate() {
+        String mpd =
+                """
+                <?xml version="1.0"?>
+                <MPD xmlns="urn:mpeg:dash:schema:mpd:2011" type="static" mediaPresentationDuration="PT10S">
+                  <Period>
+                    <AdaptationSet contentType="audio"><Representation id="a" bandwidth="9999999"/></AdaptationSet>
+                    <AdaptationSet contentType="video">
+                      <BaseURL>video/</BaseURL>
+                      <SegmentTemplate timescale="1000" startNumber="1"
+                          initialization="$RepresentationID$/init.mp4" media="$RepresentationID$/$Number%05d$.m4s">
+                        <SegmentTimeline><S t="0" d="4000" r="1"/><S d="2000"/></SegmentTimeline>
+                      </SegmentTemplate>
+                      <Representation id="360p" bandwidth="800000"/>
+                      <Representation id="720p" bandwidth="2400000"/>
+                    </AdaptationSet>
+                  </Period>
+                </MPD>
+                """;
+
+        Playlist playlist = DashManifest.ler(mpd, BASE_DASH);
+
+        assertThat(playlist.init()).isEqualTo(URI.create("s3://bucket/entrada/show/video/720p/init.mp4"));
+        assertThat(playlist.segmentos())
+                .extracting(s -> s.uri().getPath(), Playlist.Segmento::inicioUs)
+                .containsExactly(
+                        tuple("/entrada/show/video/720p/00001.m4s", 0L),
+                        tuple("/entrada/show/video/720p/00002.m4s", 4_000_000L),
+                        tuple("/entrada/show/video/720p/00003.m4s", 8_000_000L));
+    }
+
+    @Test
+    @DisplayName("DASH: template só com duration gera os segmentos até a duração da apresentação")
+    void givenDashFixedDuration_whenParse_thenSegmentsCoverPresentation() {
+        String mpd =
+                """
+                <MPD type="static" mediaPresentationDuration="PT9.5S">
+                  <Period>
+                    <AdaptationSet mimeType="video/mp4">
+                      <Representation id="v" bandwidth="1">
+                        <SegmentTemplate timescale="90000" duration="270000" media="seg-$Number$.m4s"/>
+                      </Representation>
+                    </AdaptationSet>
+                  </Period>
+                </MPD>
+                """;
+
+        Playlist playlist = DashManifest.ler(mpd, BASE_DASH);
+
+        assertThat(playlist.segmentos()).hasSize(4);
+        assertThat(playlist.segmentos().get(3).uri().getPath()).isEqualTo("/entrada/show/seg-4.m4s");
+        assertThat(playlist.duracaoUs()).isEqualTo(9_500_000L);
+    }
+}
@@ -0,0 +1,167 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.segmented;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FfmpegFrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.format.FrameExtractorRouter;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.manifest.FrameManifest;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.VideoRejeitadoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.ffmpeg.global.avutil;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+@DisplayName("SegmentedExtractor - playlists HLS locais (5 segmentos de 1 s a 10 fps) pelo roteador")
+class SegmentedExtractorTest {
+
+    private final FfmpegFrameExtractor ffmpeg = new FfmpegFrameExtractor();
+    private final FrameExtractorRouter router = new FrameExtractorRouter(ffmpeg, new SegmentedExtractor(ffmpeg, 2));
+    private Path dir;
+    private Path framesDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        dir = Files.createTempDirectory("hls-");
+    }
+
+    @AfterEach
+    void cleanup() {
+        StorageFileUtil.deleteRecursively(dir);
+        StorageFileUtil.deleteRecursively(framesDir);
+    }
+
+    /** HLS gerado pelo próprio FFmpeg: MPEG-TS com H.264 ou fMP4 (init + fragmentos) com MPEG-4. */
+    private Path hls(String tipo) throws IOException {
+        Path playlist = dir.resolve("index.m3u8");
+        boolean fmp4 = tipo.equals("fmp4");
+        try (FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(playlist.toString(), 64, 48);
+                Frame frame = new Frame(64, 48, Frame.DEPTH_UBYTE, 3)) {
+            recorder.setFormat("hls");
+            recorder.setVideoCodec(fmp4 ? avcodec.AV_CODEC_ID_MPEG4 : avcodec.AV_CODEC_ID_H264);
+            recorder.setPixelFormat(avutil.AV_PIX_FMT_YUV420P);
+            recorder.setFrameRate(10);
+            recorder.setGopSize(10);
+            recorder.setOption("hls_time", "1");
+            recorder.setOption("hls_list_size", "0");
+            recorder.setOption("hls_segment_type", tipo);
+            recorder.setOption(
+                    "hls_segment_filename",
+                    dir.resolve("seg%03d." + (fmp4 ? "m4s" : "ts")).toString());
+            recorder.start();
+            ByteBuffer buf = (ByteBuffer) frame.image[0];
+            for (int i = 0; i < 50; i++) {
+                for (int p = 0; p < buf.capacity(); p++) buf.put(p, (byte) (i * 5));
+                recorder.record(frame);
+            }
+            recorder.stop();
+        }
+        return playlist;
+    }
+
+    private List<Long> pts() throws IOException {
+        return Files.readAllLines(framesDir.resolve(FrameManifest.PTS_FILE)).stream()
+                .map(linha -> Long.parseLong(linha.split(" ")[1]))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("MPEG-TS: só os segmentos do recorte são lidos e os frames mantêm o tempo do vídeo inteiro")
+    void givenTsPlaylistAndRange_whenExtract_thenOnlyRangeWithOriginalPts() throws IOException {
+        Path playlist = hls("mpegts");
+
+        framesDir = router.extract(playlist, new OpcoesProcessamento(2500L, 3500L, null, null, null));
+
+        List<Long> pts = pts();
+        assertThat(pts).hasSize(10);
+        assertThat(pts.get(0)).isEqualTo(2_500_000L);
+        assertThat(pts.get(pts.size() - 1)).isEqualTo(3_400_000L);
+    }
+
+    @Test
+    @DisplayName("fMP4: o segmento de inicialização vai antes dos fragmentos e a amostragem vale como num arquivo")
+    void givenFmp4Playlist_whenExtractWithStride_thenSampledFrames() throws IOException {
+        Path playlist = hls("fmp4");
+
+        framesDir = router.extract(playlist, new OpcoesProcessamento(null, null, null, 5, null));
+
+        assertThat(pts())
+                .containsExactly(
+                        0L,
+                        500_000L,
+                        1_000_000L,
+                        1_500_000L,
+                        2_000_000L,
+                        2_500_000L,
+                        3_000_000L,
+                        3_500_000L,
+                        4_000_000L,
+                        4_500_000L);
+    }
+
+    @Test
+    @DisplayName("Segmento ausente falha a extração em vez de entregar o vídeo truncado")
+    void givenMissingSegment_whenExtract_thenFailsInsteadOfTruncating() throws IOException {
+        Path playlist = hls("mpegts");
+        Files.delete(dir.resolve("seg003.ts"));
+
+        assertThatThrownBy(() -> framesDir = router.extract(playlist, OpcoesProcessamento.padrao()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("segmento");
+    }
+
+    @Test
+    @DisplayName("Segmento fora do diretório da playlist é recusado antes de qualquer leitura")
+    void givenSegmentOutsidePlaylistDir_whenExtract_thenRejected() throws IOException {
+        Path playlist = dir.resolve("index.m3u8");
+        Files.writeString(
+                playlist, "#EXTM3U\n#EXT-X-TARGETDURATION:1\n#EXTINF:1.0,\n../../etc/passwd\n#EXT-X-ENDLIST\n");
+
+        assertThatThrownBy(() -> router.extract(playlist, OpcoesProcessamento.padrao()))
+                .isInstanceOf(VideoRejeitadoException.class);
+    }
+
+    @Test
+    @DisplayName("S3: segmento do mesmo bucket mas fora do prefixo da playlist é recusado antes de qualquer leitura")
+    @SuppressWarnings("unchecked")
+    void givenS3SegmentOutsidePlaylistPrefix_whenExtract_thenRejected() {
+        S3AsyncClient s3 = mock(S3AsyncClient.class);
+        byte[] playlist = ("#EXTM3U\n#EXT-X-TARGETDURATION:1\n#EXTINF:1.0,\n../outro-usuario/seg000.ts\n"
+                        + "#EXT-X-ENDLIST\n")
+                .getBytes(StandardCharsets.UTF_8);
+        when(s3.getObject(any(Consumer.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.completedFuture(
+                        ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), playlist)));
+        SegmentedExtractor extractor = new SegmentedExtractor(ffmpeg, s3, "videos", 2);
+
+        assertThatThrownBy(() -> extractor.extract(
+                        URI.create("s3://videos/entrada/usuario/index.m3u8"), OpcoesProcessamento.padrao()))
+                .isInstanceOf(VideoRejeitadoException.class)
+                .hasMessageContaining("outro-usuario");
+        verify(s3, times(1)).getObject(any(Consumer.class), any(AsyncResponseTransformer.class));
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.sprite;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.ImageFormat;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.bytedeco.javacv.Frame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SpriteSheetComposerTest {
+
+    private static final int[][] CORES = {{0, 0, 255}, {0, 255, 0}, {255, 0, 0}, {255, 255, 255}, {0, 128, 255}};
+
+    private final SpriteSheetOutput output =
+            new SpriteSheetOutput(FrameEncoderFactory.padrao(), 2, 2, 16, 9, ImageFormat.PNG);
+    private Path dir;
+    private Frame frame;
+
+    @BeforeEach
+    void setup() throws IOException {
+        dir = Files.createTempDirectory("sprites-test-");
+        frame = new Frame(64, 36, Frame.DEPTH_UBYTE, 3);
+    }
+
+    @AfterEach
+    void cleanup() {
+        frame.close();
+        StorageFileUtil.deleteRecursively(dir);
+    }
+
+    private Frame pintar(int[] bgr) {
+        ByteBuffer buf = (ByteBuffer) frame.image[0];
+        for (int y = 0; y < frame.imageHeight; y++) {
+            for (int x = 0; x < frame.imageWidth; x++) {
+                int p = y * frame.imageStride + x * 3;
+                buf.put(p, (byte) bgr[0]).put(p + 1, (byte) bgr[1]).put(p + 2, (byte) bgr[2]);
+            }
+        }
+        return frame;
+    }
+
+    private static int[] pixel(Frame canvas, int x, int y) {
+        ByteBuffer buf = (ByteBuffer) canvas.image[0];
+        int p = y * canvas.imageStride + x * 3;
+        return new int[] {buf.get(p) & 0xFF, buf.get(p + 1) & 0xFF, buf.get(p + 2) & 0xFF};
+    }
+
+    @Test
+    @DisplayName("Deve reduzir cada frame para a sua célula do canvas e gravar uma folha por grade cheia")
+    void givenFrames_whenAceitar_thenCompoeGradeEGravaFolhas() throws IOException {
+        SpriteIndex indice;
+        try (SpriteSheetComposer composer = output.abrir(dir)) {
+            for (int i = 0; i < 3; i++) {
+                assertThat(composer.aceitar(pintar(CORES[i]), i, i * 500_000L)).isTrue();
+            }
+            assertThat(pixel(composer.canvas(), 8, 4)).containsExactly(CORES[0]);
+            assertThat(pixel(composer.canvas(), 24, 4)).containsExactly(CORES[1]);
+            assertThat(pixel(composer.canvas(), 8, 13)).containsExactly(CORES[2]);
+            assertThat(pixel(composer.canvas(), 24, 13)).containsExactly(0, 0, 0);
+
+            composer.aceitar(pintar(CORES[3]), 3, 1_500_000L);
+            // grade cheia: a folha foi gravada e o canvas zerado para a próxima
+            assertThat(pixel(composer.canvas(), 8, 4)).containsExactly(0, 0, 0);
+            composer.aceitar(pintar(CORES[4]), 4, 2_000_000L);
+            indice = composer.concluir(-1);
+        }
+
+        assertThat(indice.folhas()).containsExactly("sprite-000.png", "sprite-001.png");
+        assertThat(dir.resolve("sprite-000.png")).isNotEmptyFile();
+        assertThat(dir.resolve("sprite-001.png")).isNotEmptyFile();
+        assertThat(indice.tiles())
+                .extracting(SpriteIndex.Tile::inicioMs, SpriteIndex.Tile::fimMs, SpriteIndex.Tile::folha)
+                .containsExactly(
+                        tuple(0L, 500L, "sprite-000.png"),
+                        tuple(500L, 1000L, "sprite-000.png"),
+                        tuple(1000L, 1500L, "sprite-000.png"),
+                        tuple(1500L, 2000L, "sprite-000.png"),
+                        tuple(2000L, 2500L, "sprite-001.png"));
+        assertThat(indice.tiles().get(3).x()).isEqualTo(16);
+        assertThat(indice.tiles().get(3).y()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Deve gerar WebVTT com a região de cada miniatura na folha")
+    void givenIndice_whenWebVtt_thenCuesComXywh() {
+        SpriteIndex indice = new SpriteIndex(
+                2,
+                2,
+                16,
+                9,
+                List.of("sprite-000.jpg"),
+                List.of(
+                        new SpriteIndex.Tile(0, 1000, "sprite-000.jpg", 0, 0),
+                        new SpriteIndex.Tile(3_661_000, 3_662_500, "sprite-000.jpg", 16, 0)));
+
+        assertThat(new String(indice.webVtt(), StandardCharsets.UTF_8))
+                .isEqualTo("WEBVTT\n\n"
+                        + "00:00:00.000 --> 00:00:01.000\nsprite-000.jpg#xywh=0,0,16,9\n\n"
+                        + "01:01:01.000 --> 01:01:02.500\nsprite-000.jpg#xywh=16,0,16,9\n");
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TracingTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_REMOTO = "00f067aa0ba902b7";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tmp;
+
+    private Path arquivo;
+    private SdkTracerProvider provider;
+
+    @BeforeEach
+    void instalar() throws IOException {
+        arquivo = tmp.resolve("traces/spans.jsonl");
+        provider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(new ArquivoSpanExporter(arquivo, objectMapper)))
+                .build();
+        Tracing.instalar(OpenTelemetrySdk.builder()
+                .setTracerProvider(provider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build());
+    }
+
+    @AfterEach
+    void desinstalar() {
+        Tracing.instalar(OpenTelemetry.noop());
+        provider.close();
+    }
+
+    private List<JsonNode> spans() throws IOException {
+        provider.forceFlush().join(5, TimeUnit.SECONDS);
+        List<JsonNode> spans = new ArrayList<>();
+        for (String linha : Files.readAllLines(arquivo)) spans.add(objectMapper.readTree(linha));
+        return spans;
+    }
+
+    private static JsonNode span(List<JsonNode> spans, String nome) {
+        return spans.stream()
+                .filter(s -> s.get("nome").asText().equals(nome))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Trace da mensagem: spans do job e das etapas ficam no mesmo trace, gravados no arquivo")
+    void givenTraceparent_whenEtapas_thenChildSpansWrittenToFile() throws Exception {
+        Map<String, Object> headers = Map.of("traceparent", "00-" + TRACE_ID + "-" + SPAN_REMOTO + "-01", "id", "m1");
+
+        Span job = Tracing.consumir(Tracing.extrair(headers), "processar-mensagem");
+        Context contexto = Context.root().with(job);
+        Tracing.etapa(contexto, "download", trace -> CompletableFuture.supplyAsync(() -> "video"))
+                .join();
+        try (Scope scope = job.makeCurrent()) {
+            assertThat(Tracing.etapa("extracao", () -> 42)).isEqualTo(42);
+        }
+        Tracing.encerrar(job, null);
+
+        List<JsonNode> spans = spans();
+        assertThat(spans).hasSize(3).allSatisfy(s -> assertThat(s.get("traceId").asText())
+                .isEqualTo(TRACE_ID));
+        JsonNode raiz = span(spans, "processar-mensagem");
+        assertThat(raiz.get("parentSpanId").asText()).isEqualTo(SPAN_REMOTO);
+        assertThat(raiz.get("tipo").asText()).isEqualTo("CONSUMER");
+        assertThat(span(spans, "download").get("parentSpanId").asText())
+                .isEqualTo(raiz.get("spanId").asText());
+        assertThat(span(spans, "extracao").get("parentSpanId").asText())
+                .isEqualTo(raiz.get("spanId").asText());
+    }
+
+    @Test
+    @DisplayName("Etapa que falha fica com status de erro; o contexto corrente é propagado como traceparent")
+    void givenFailingStage_whenEtapa_thenErrorStatusAndPropagatedContext() throws Exception {
+        Span job = Tracing.consumir(Context.root(), "processar-mensagem");
+        Map<String, String> atributos = new HashMap<>();
+        try (Scope scope = job.makeCurrent()) {
+            assertThatThrownBy(() -> Tracing.etapa("extracao", () -> {
+                        throw new IOException("disco cheio");
+                    }))
+                    .isInstanceOf(IOException.class);
+            Tracing.injetar(Context.current(), atributos::put);
+        }
+        Tracing.encerrar(job, null);
+
+        String traceId = job.getSpanContext().getTraceId();
+        assertThat(atributos.get("traceparent"))
+                .startsWith("00-" + traceId + "-" + job.getSpanContext().getSpanId());
+        JsonNode extracao = span(spans(), "extracao");
+        assertThat(extracao.get("status").asText()).isEqualTo("ERROR");
+        assertThat(extracao.get("descricao").asText()).isEqualTo("disco cheio");
+        assertThat(extracao.get("eventos").get(0).asText()).isEqualTo("exception");
+    }
+
+    @Test
+    @DisplayName("Arquivo que passa do limite é rotacionado: só a última rotação fica em disco")
+    void givenSizeLimit_whenExport_thenRotatesKeepingOneBackup() throws Exception {
+        Path limitado = tmp.resolve("limitado.jsonl");
+        try (SdkTracerProvider rotativo = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(new ArquivoSpanExporter(limitado, objectMapper, 1)))
+                .build()) {
+            rotativo.get("teste").spanBuilder("primeiro").startSpan().end();
+            rotativo.get("teste").spanBuilder("segundo").startSpan().end();
+            rotativo.forceFlush().join(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(Files.size(limitado)).isZero();
+        List<String> backup = Files.readAllLines(tmp.resolve("limitado.jsonl.1"));
+        assertThat(backup).hasSize(1);
+        assertThat(objectMapper.readTree(backup.get(0)).get("nome").asText()).isEqualTo("segundo");
+    }
+}
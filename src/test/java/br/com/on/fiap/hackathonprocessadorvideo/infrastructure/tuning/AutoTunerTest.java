@@ -0,0 +1,82 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.tuning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AutoTunerTest {
+
+    private static final long PERIODO = TimeUnit.SECONDS.toNanos(30);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // 8 núcleos, vagas de 2 (inicial) até 8; sem HTTP
+    private final AdmissionControl admission = new AdmissionControl(registry, 2, 0, 0, 8);
+    private final AutoTuner tuner = new AutoTuner(admission, registry, true, 8, 30, 5000, 0.05, 20);
+    private final List<AdmissionControl.Permissao> ocupadas = new ArrayList<>();
+    private long agora = System.nanoTime();
+
+    @AfterEach
+    void liberar() {
+        ocupadas.forEach(AdmissionControl.Permissao::close);
+    }
+
+    private AutoTuner.Decisao periodo(int frames) throws InterruptedException {
+        // mantém todas as vagas em uso, como numa fila com backlog
+        while (admission.vagasLivres() > 0) ocupadas.add(admission.entrarFila());
+        for (int i = 0; i < frames; i++) tuner.frameEscrito();
+        agora += PERIODO;
+        return tuner.avaliar(agora);
+    }
+
+    @Test
+    @DisplayName("Jobs curtos: uma vaga por núcleo, decoder e encoder de uma thread")
+    void givenShortJobs_whenAvaliar_thenManySingleThreadedJobs() throws Exception {
+        for (int i = 0; i < 5; i++) tuner.registrarJob(300);
+
+        AutoTuner.Decisao decisao = periodo(3000);
+
+        assertThat(decisao.perfil()).isEqualTo(AutoTuner.Perfil.LEVE);
+        assertThat(decisao.motivo()).isEqualTo("perfil");
+        assertThat(admission.maxJobs()).isEqualTo(8);
+        assertThat(tuner.threadsDecoder()).isEqualTo(1);
+        assertThat(tuner.larguraEncoder(300)).isEqualTo(1);
+        assertThat(registry.get(AutoTuner.JOBS_METRIC).gauge().value()).isEqualTo(8.0);
+        assertThat(registry.get(AutoTuner.FPS_METRIC).gauge().value()).isCloseTo(100.0, within(0.1));
+    }
+
+    @Test
+    @DisplayName("Jobs longos: poucos jobs largos; explora menos jobs e reverte quando a vazão cai")
+    void givenLongJobs_whenThroughputDrops_thenRevertsStep() throws Exception {
+        for (int i = 0; i < 5; i++) tuner.registrarJob(200_000);
+
+        AutoTuner.Decisao inicial = periodo(3000);
+        assertThat(inicial.jobs()).isEqualTo(2);
+        assertThat(inicial.threadsDecoder()).isEqualTo(2);
+        assertThat(inicial.larguraEncoder()).isEqualTo(2);
+        assertThat(tuner.larguraEncoder(200_000)).isEqualTo(2);
+
+        AutoTuner.Decisao explora = periodo(3000);
+        assertThat(explora.motivo()).isEqualTo("explora");
+        assertThat(explora.jobs()).isEqualTo(1);
+        assertThat(explora.larguraEncoder()).isEqualTo(5);
+
+        AutoTuner.Decisao reverte = periodo(2000);
+        assertThat(reverte.motivo()).isEqualTo("reverte");
+        assertThat(admission.maxJobs()).isEqualTo(2);
+
+        assertThat(periodo(3000).motivo()).isEqualTo("estavel");
+        assertThat(registry.get(AutoTuner.DECISOES_METRIC)
+                        .tag("motivo", "reverte")
+                        .counter()
+                        .count())
+                .isEqualTo(1.0);
+    }
+}
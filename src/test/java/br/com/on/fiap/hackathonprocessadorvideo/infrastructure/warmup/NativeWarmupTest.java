@@ -0,0 +1,93 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FfmpegFrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.FrameExtractor;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.encoder.FrameEncoderFactory;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.exception.VideoOpenException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("NativeWarmup - pré-carga de nativos e ciclo sintético")
+class NativeWarmupTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private NativeWarmup warmup(FrameExtractor extractor, boolean enabled, boolean failOnError) {
+        return new NativeWarmup(extractor, FrameEncoderFactory.padrao(), registry, enabled, 2, 5, failOnError, "");
+    }
+
+    @Test
+    @DisplayName(
+            "Dado extractor real quando afterSingletonsInstantiated então extrai o vídeo sintético e registra sucesso")
+    void givenRealExtractor_whenWarmup_thenRecordsSuccess() throws Exception {
+        FrameExtractor extractor = spy(new FfmpegFrameExtractor());
+
+        warmup(extractor, true, false).afterSingletonsInstantiated();
+
+        verify(extractor, times(2)).extract(any(Path.class));
+        Timer timer =
+                registry.find(NativeWarmup.METRIC).tag("result", "success").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Dado falha no ciclo e fail-fast desligado quando warmup então registra falha sem lançar")
+    void givenFailure_whenWarmup_thenRecordsFailure() throws Exception {
+        FrameExtractor extractor = mock(FrameExtractor.class);
+        when(extractor.extract(any(Path.class))).thenThrow(new VideoOpenException("boom"));
+
+        assertDoesNotThrow(() -> warmup(extractor, true, false).afterSingletonsInstantiated());
+
+        assertThat(registry.find(NativeWarmup.METRIC).tag("result", "failure").timer())
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("Dado falha no ciclo e fail-fast ligado quando warmup então impede a inicialização")
+    void givenFailureAndFailFast_whenWarmup_thenThrows() throws Exception {
+        FrameExtractor extractor = mock(FrameExtractor.class);
+        when(extractor.extract(any(Path.class))).thenThrow(new VideoOpenException("boom"));
+
+        NativeWarmup warmup = warmup(extractor, true, true);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, warmup::afterSingletonsInstantiated);
+        assertThat(ex).hasCauseInstanceOf(VideoOpenException.class);
+    }
+
+    @Test
+    @DisplayName("Dado warm-up desabilitado quando afterSingletonsInstantiated então não faz nada")
+    void givenDisabled_whenWarmup_thenNoop() {
+        FrameExtractor extractor = mock(FrameExtractor.class);
+
+        warmup(extractor, false, false).afterSingletonsInstantiated();
+
+        verifyNoInteractions(extractor);
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Dado vídeo sintético quando warmup termina então não deixa temporários para trás")
+    void givenWarmup_whenDone_thenNoLeftoverVideo() throws Exception {
+        FrameExtractor extractor = mock(FrameExtractor.class);
+        Path[] seen = new Path[1];
+        when(extractor.extract(any(Path.class))).thenAnswer(inv -> {
+            seen[0] = inv.getArgument(0);
+            return Files.createTempDirectory("frames-");
+        });
+
+        warmup(extractor, true, false).afterSingletonsInstantiated();
+
+        assertThat(seen[0]).isNotNull();
+        assertThat(Files.exists(seen[0])).isFalse();
+    }
+}
@@ -0,0 +1,219 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import br.com.on.fiap.hackathonprocessadorvideo.domain.model.OpcoesProcessamento;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.admission.AdmissionControl;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.cancellation.CancellationRegistry;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.probe.VideoRejeitadoException;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.stream.StreamingExtraction;
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace.WorkspaceManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+@ExtendWith(MockitoExtension.class)
+class ExtracaoControllerTest {
+
+    private static final MockMultipartFile VIDEO =
+            new MockMultipartFile("video", "clipe.mp4", "video/mp4", new byte[] {0, 0, 0, 24});
+    private static final String PEDIDO = "{\"caminhoVideo\":\"entrada/22/video.mp4\",\"opcoes\":{\"fpsSaida\":1.0}}";
+
+    @Mock
+    private StreamingExtraction extraction;
+
+    @TempDir
+    private Path raiz;
+
+    private AdmissionControl admissionControl;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        admissionControl = new AdmissionControl(new SimpleMeterRegistry(), 2, 1, 0);
+        WorkspaceManager workspaces = new WorkspaceManager(new SimpleMeterRegistry(), raiz.toString(), 0);
+        CancellationRegistry cancelamentos = new CancellationRegistry(new SimpleMeterRegistry(), 0, 60);
+        mvc = MockMvcBuilders.standaloneSetup(
+                        new ExtracaoController(extraction, admissionControl, workspaces, cancelamentos, 30, "entrada/"))
+                .addFilters(new AdmissaoUploadFilter(admissionControl, 30))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Sucesso: devolve o zip em streaming e libera a vaga ao terminar")
+    void givenS3Key_whenExtract_thenStreamsZipAndReleasesSlot() throws Exception {
+        OpcoesProcessamento opcoes = new OpcoesProcessamento(null, null, 1.0, null, null);
+        doAnswer(inv -> {
+                    OutputStream out = inv.getArgument(2);
+                    out.write("PK".getBytes(StandardCharsets.US_ASCII));
+                    return 1;
+                })
+                .when(extraction)
+                .extrairDoS3(eq("entrada/22/video.mp4"), eq(opcoes), any());
+
+        MvcResult inicio = mvc.perform(post("/extracoes/s3")
+                        .header(ExtracaoController.USUARIO, "22")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(PEDIDO))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult fim = mvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/zip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"video.zip\""))
+                .andReturn();
+
+        assertThat(fim.getResponse().getContentAsString()).isEqualTo("PK");
+        assertThat(fim.getResponse().getHeader("Content-Length")).isNull();
+        verify(extraction).validar("entrada/22/video.mp4", opcoes);
+        assertThat(admissionControl.vagasLivres()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Sem vaga para HTTP: 503 com Retry-After, sem extrair")
+    void givenNoHttpSlot_whenExtract_thenServiceUnavailable() throws Exception {
+        AdmissionControl.Permissao ocupada = admissionControl.entrarHttp().orElseThrow();
+
+        mvc.perform(post("/extracoes/s3")
+                        .header(ExtracaoController.USUARIO, "22")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(PEDIDO))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"));
+
+        verifyNoMoreInteractions(extraction);
+        ocupada.close();
+    }
+
+    @Test
+    @DisplayName("Sem identificação do chamador: 401, sem ocupar vaga nem ler o bucket")
+    void givenNoCaller_whenExtract_thenUnauthorized() throws Exception {
+        mvc.perform(post("/extracoes/s3").contentType(MediaType.APPLICATION_JSON).content(PEDIDO))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoMoreInteractions(extraction);
+        assertThat(admissionControl.vagasLivres()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Chave fora da entrada do chamador: 403, sem ler o bucket")
+    void givenForeignKey_whenExtract_thenForbidden() throws Exception {
+        for (String chave :
+                List.of("entrada/33/video.mp4", "saida/22/video.zip", "entrada/22/../33/video.mp4", "entrada/22/")) {
+            mvc.perform(post("/extracoes/s3")
+                            .header(ExtracaoController.USUARIO, "22")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"caminhoVideo\":\"" + chave + "\"}"))
+                    .andExpect(status().isForbidden());
+        }
+
+        verifyNoMoreInteractions(extraction);
+    }
+
+    @Test
+    @DisplayName("Upload: usa a vaga reservada pelo filtro e a devolve ao terminar")
+    void givenUpload_whenExtract_thenUsesFilterSlotAndReleasesIt() throws Exception {
+        MvcResult inicio = mvc.perform(multipart("/extracoes").file(VIDEO))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(admissionControl.vagasLivres()).isEqualTo(1);
+
+        mvc.perform(asyncDispatch(inicio)).andExpect(status().isOk());
+
+        verify(extraction).extrair(any(), eq(OpcoesProcessamento.padrao()), any());
+        assertThat(admissionControl.vagasLivres()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Upload sem vaga: 503 no filtro, antes de o multipart chegar ao controller")
+    void givenNoHttpSlot_whenUpload_thenRejectedBeforeMultipart() throws Exception {
+        AdmissionControl.Permissao ocupada = admissionControl.entrarHttp().orElseThrow();
+
+        mvc.perform(multipart("/extracoes").file(VIDEO))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"));
+
+        verifyNoMoreInteractions(extraction);
+        ocupada.close();
+    }
+
+    @Test
+    @DisplayName("Upload com opções recusadas: 400 e a vaga do filtro volta")
+    void givenInvalidOptions_whenUpload_thenFilterReleasesSlot() throws Exception {
+        doThrow(new IllegalArgumentException("fpsSaida inválido")).when(extraction).validar(eq(null), any());
+
+        mvc.perform(multipart("/extracoes").file(VIDEO)).andExpect(status().isBadRequest());
+
+        assertThat(admissionControl.vagasLivres()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Vídeo recusado no pre-flight: 422 e a vaga volta")
+    void givenRejectedVideo_whenExtract_thenUnprocessableAndSlotReleased() throws Exception {
+        doThrow(new VideoRejeitadoException("Codec hevc não permitido"))
+                .when(extraction)
+                .validar(eq("entrada/22/video.mp4"), any());
+
+        mvc.perform(post("/extracoes/s3")
+                        .header(ExtracaoController.USUARIO, "22")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(PEDIDO))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(admissionControl.vagasLivres()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Async termina antes do corpo rodar (timeout, desconexão): a vaga volta e o corpo não roda mais")
+    void givenBodyNeverRan_whenAsyncTimesOut_thenReleasesSlot() throws Exception {
+        ExtracaoController.Reserva reserva =
+                new ExtracaoController.Reserva(admissionControl.entrarHttp().orElseThrow());
+
+        reserva.handleTimeout(null, null);
+        reserva.afterCompletion(null, null);
+
+        assertThat(reserva.assumir()).isFalse();
+        assertThat(admissionControl.vagasLivres()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Corpo já rodando quando o async termina: a vaga fica com o corpo até ele acabar")
+    void givenBodyRunning_whenAsyncCompletes_thenKeepsSlot() throws Exception {
+        AdmissionControl.Permissao permissao = admissionControl.entrarHttp().orElseThrow();
+        ExtracaoController.Reserva reserva = new ExtracaoController.Reserva(permissao);
+
+        assertThat(reserva.assumir()).isTrue();
+        reserva.handleError(null, null, new IOException("cliente desconectou"));
+        reserva.afterCompletion(null, null);
+
+        assertThat(admissionControl.vagasLivres()).isEqualTo(1);
+        permissao.close();
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.on.fiap.hackathonprocessadorvideo.infrastructure.workspace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import br.com.on.fiap.hackathonprocessadorvideo.infrastructure.storage.util.StorageFileUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WorkspaceManagerTest {
+
+    @TempDir
+    private Path raiz;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName(
+            "Temporários vão para o workspace vinculado, a quota é contada na escrita e fechar apaga em segundo plano")
+    void givenBoundWorkspace_whenWritingPastQuota_thenFailsAndCloseDeletesAsync() throws Exception {
+        WorkspaceManager manager = new WorkspaceManager(registry, raiz.toString(), 1);
+
+        Path dir;
+        try (Workspace ws = manager.abrir("entrada/22/video.mp4");
+                Workspace.Vinculo vinculo = ws.vincular()) {
+            dir = ws.dir();
+            assertThat(dir.getParent()).isEqualTo(manager.instancia());
+
+            Path video = StorageFileUtil.createTempFile("video-", ".mp4");
+            assertThat(video.getParent()).isEqualTo(dir);
+            StorageFileUtil.copy(new ByteArrayInputStream(new byte[700 * 1024]), video);
+            assertThat(registry.get(WorkspaceManager.USADO_METRIC).gauge().value())
+                    .isEqualTo(700 * 1024.0);
+
+            Path zip = StorageFileUtil.createTempFile(video, "frames-", ".zip");
+            assertThatThrownBy(() -> StorageFileUtil.copy(new ByteArrayInputStream(new byte[700 * 1024]), zip))
+                    .isInstanceOf(QuotaExcedidaException.class);
+
+            StorageFileUtil.deleteQuietly(video);
+            assertThat(ws.usado()).isZero();
+        }
+        assertThat(Workspace.atual()).isEmpty();
+        assertThat(dir).doesNotExist();
+
+        manager.encerrar();
+        try (var restantes = Files.list(raiz.resolve("lixo"))) {
+            assertThat(restantes).isEmpty();
+        }
+        assertThat(registry.get(WorkspaceManager.QUOTA_METRIC).counter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get(WorkspaceManager.ATIVOS_METRIC).gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Na inicialização, workspaces de processos mortos são varridos e os do processo atual ficam")
+    void givenOrphanInstance_whenStart_thenSwept() throws Exception {
+        Path orfao = Files.createDirectories(raiz.resolve("inst-999999999-1/job-1-x"));
+        Files.write(orfao.resolve("frame-0.png"), new byte[10]);
+
+        WorkspaceManager manager = new WorkspaceManager(registry, raiz.toString(), 0);
+        manager.encerrar();
+
+        assertThat(raiz.resolve("inst-999999999-1")).doesNotExist();
+        assertThat(manager.instancia()).exists();
+        assertThat(registry.get(WorkspaceManager.ORFAOS_METRIC).counter().count())
+                .isEqualTo(1.0);
+    }
+}